@@ -236,6 +236,8 @@ public class CoreMessages extends NLS {
 
 	public static String controls_querylog_action_clear_log;
 
+	public static String controls_querylog_action_load_history;
+
 	public static String controls_querylog_action_copy;
 
 	public static String controls_querylog_action_copy_all_fields;
@@ -362,6 +364,8 @@ public class CoreMessages extends NLS {
 
 	public static String controls_resultset_viewer_status_rows_size;
 
+	public static String controls_resultset_viewer_value_unreadable;
+
 	public static String controls_resultset_viewer_value;
 
 	public static String controls_rs_pump_job_context_name;
@@ -615,13 +619,20 @@ public class CoreMessages extends NLS {
 	public static String data_transfer_wizard_job_task_retrieve;
 
 	public static String data_transfer_wizard_output_checkbox_compress;
+	public static String data_transfer_wizard_output_checkbox_split_files;
+	public static String data_transfer_wizard_output_label_max_file_size;
+	public static String data_transfer_wizard_output_label_max_file_rows;
 
 	public static String data_transfer_wizard_output_checkbox_new_connection;
 
 	public static String data_transfer_wizard_output_checkbox_open_folder;
 
+	public static String data_transfer_wizard_output_checkbox_pipelined;
+
 	public static String data_transfer_wizard_output_checkbox_select_row_count;
 
+	public static String data_transfer_wizard_output_combo_extract_type_item_by_key_ranges;
+
 	public static String data_transfer_wizard_output_combo_extract_type_item_by_segments;
 
 	public static String data_transfer_wizard_output_combo_extract_type_item_single_query;
@@ -650,6 +661,8 @@ public class CoreMessages extends NLS {
 
 	public static String data_transfer_wizard_output_label_max_threads;
 
+	public static String data_transfer_wizard_output_label_partition_count;
+
 	public static String data_transfer_wizard_output_label_segment_size;
 
 	public static String data_transfer_wizard_output_name;
@@ -682,6 +695,14 @@ public class CoreMessages extends NLS {
 
 	public static String data_transfer_wizard_settings_title;
 
+	public static String data_transfer_import_source_title;
+
+	public static String data_transfer_import_source_message;
+
+	public static String data_transfer_import_source_table;
+
+	public static String data_transfer_import_source_file;
+
 	public static String dialog_filter_button_add;
 
 	public static String dialog_filter_button_enable;
@@ -1150,6 +1171,7 @@ public class CoreMessages extends NLS {
     public static String pref_page_content_editor_hex_encoding;
 	public static String pref_page_content_cache_clob;
 	public static String pref_page_content_cache_blob;
+	public static String pref_page_content_lob_lazy_read;
 	public static String pref_page_database_general_label_cache_max_size;
 
 	public static String pref_page_data_format_button_manage_profiles;
@@ -1167,6 +1189,8 @@ public class CoreMessages extends NLS {
     public static String pref_page_database_general_separate_meta_connection;
 
 	public static String pref_page_database_general_checkbox_case_sensitive_names;
+	public static String pref_page_database_general_checkbox_meta_snapshot;
+	public static String pref_page_database_general_label_meta_snapshot_max_age;
 
 	public static String pref_page_database_general_checkbox_keep_cursor;
 
@@ -1189,6 +1213,8 @@ public class CoreMessages extends NLS {
 	public static String pref_page_database_general_label_result_set_max_size;
 	public static String pref_page_database_general_label_result_set_cancel_timeout;
 	public static String pref_page_database_general_label_result_set_cancel_timeout_tip;
+	public static String pref_page_database_general_label_result_set_memory_rows;
+	public static String pref_page_database_general_label_result_set_memory_rows_tip;
     public static String pref_page_database_resultsets_group_binary;
     public static String pref_page_database_resultsets_label_binary_use_strings;
     public static String pref_page_database_resultsets_label_binary_presentation;
@@ -1267,12 +1293,14 @@ public class CoreMessages extends NLS {
 	public static String pref_page_sql_editor_group_delimiters;
 
 	public static String pref_page_sql_editor_label_commit_after_line;
+	public static String pref_page_sql_editor_label_batch_size;
 
 	public static String pref_page_sql_editor_label_commit_type;
 
 	public static String pref_page_sql_editor_label_error_handling;
     public static String pref_page_sql_editor_label_invalidate_before_execute;
 	public static String pref_page_sql_editor_label_sql_timeout;
+	public static String pref_page_sql_editor_label_statement_cache_size;
 	public static String pref_page_sql_editor_label_sound_on_query_end;
 
 	public static String pref_page_target_button_use_datasource_settings;
@@ -328,6 +328,11 @@ public class DBeaverCore implements DBPApplication {
         return queryManager;
     }
 
+    public QMLogFileWriter getQueryLogWriter()
+    {
+        return qmLogWriter;
+    }
+
     @NotNull
     @Override
     public DBDRegistry getValueHandlerRegistry() {
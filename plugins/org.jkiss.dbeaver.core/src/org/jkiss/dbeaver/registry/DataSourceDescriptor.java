@@ -147,6 +147,7 @@ public class DataSourceDescriptor
     private String folderPath;
     @NotNull
     private final DBVModel virtualModel;
+    private final DataSourceHealthHistory healthHistory = new DataSourceHealthHistory();
 
     public DataSourceDescriptor(
         @NotNull DBPDataSourceRegistry registry,
@@ -1055,6 +1056,27 @@ public class DataSourceDescriptor
         return connectionInfo.getConnectionType().getName();
     }
 
+    @Nullable
+    @Property(order = 10)
+    public String getPropertyHealth()
+    {
+        DataSourceHealthHistory.HealthCheck lastCheck = healthHistory.getLastCheck();
+        if (lastCheck == null) {
+            return null;
+        }
+        long avgLatency = healthHistory.getAverageLatency();
+        return lastCheck + (avgLatency < 0 ? "" : ", average " + avgLatency + " ms");
+    }
+
+    /**
+     * Recent keep-alive checks of this connection
+     */
+    @NotNull
+    public DataSourceHealthHistory getHealthHistory()
+    {
+        return healthHistory;
+    }
+
     public void addChildProcess(DBRProcessDescriptor process)
     {
         synchronized (childProcesses) {
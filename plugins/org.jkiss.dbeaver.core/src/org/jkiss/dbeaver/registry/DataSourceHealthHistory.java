@@ -0,0 +1,148 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.registry;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * History of connection health checks (keep-alive pings).
+ * Keeps a limited number of recent checks.
+ */
+public class DataSourceHealthHistory {
+
+    public static final int MAX_HISTORY_SIZE = 50;
+
+    public enum CheckStatus {
+        OK,
+        FAILED,
+        TIMEOUT
+    }
+
+    public static class HealthCheck {
+        private final long time;
+        private final long latency;
+        private final CheckStatus status;
+        private final String message;
+
+        public HealthCheck(long time, long latency, @NotNull CheckStatus status, @Nullable String message)
+        {
+            this.time = time;
+            this.latency = latency;
+            this.status = status;
+            this.message = message;
+        }
+
+        /**
+         * Check start time
+         */
+        public long getTime()
+        {
+            return time;
+        }
+
+        /**
+         * Check duration (ms)
+         */
+        public long getLatency()
+        {
+            return latency;
+        }
+
+        @NotNull
+        public CheckStatus getStatus()
+        {
+            return status;
+        }
+
+        @Nullable
+        public String getMessage()
+        {
+            return message;
+        }
+
+        @Override
+        public String toString()
+        {
+            return status + " (" + latency + " ms)" + (message == null ? "" : ": " + message);
+        }
+    }
+
+    private final Deque<HealthCheck> checks = new ArrayDeque<>();
+
+    public synchronized void addCheck(@NotNull HealthCheck check)
+    {
+        checks.addLast(check);
+        while (checks.size() > MAX_HISTORY_SIZE) {
+            checks.removeFirst();
+        }
+    }
+
+    /**
+     * Returns checks from oldest to newest
+     */
+    @NotNull
+    public synchronized List<HealthCheck> getChecks()
+    {
+        return new ArrayList<>(checks);
+    }
+
+    @Nullable
+    public synchronized HealthCheck getLastCheck()
+    {
+        return checks.peekLast();
+    }
+
+    /**
+     * Average latency of successful checks. Returns -1 if there are no successful checks.
+     */
+    public synchronized long getAverageLatency()
+    {
+        long total = 0;
+        int count = 0;
+        for (HealthCheck check : checks) {
+            if (check.status == CheckStatus.OK) {
+                total += check.latency;
+                count++;
+            }
+        }
+        return count == 0 ? -1 : total / count;
+    }
+
+    public synchronized int getFailureCount()
+    {
+        int count = 0;
+        for (HealthCheck check : checks) {
+            if (check.status != CheckStatus.OK) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized void clear()
+    {
+        checks.clear();
+    }
+
+}
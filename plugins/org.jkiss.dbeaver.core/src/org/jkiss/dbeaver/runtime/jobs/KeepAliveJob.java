@@ -20,20 +20,23 @@ package org.jkiss.dbeaver.runtime.jobs;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.IJobChangeEvent;
-import org.eclipse.core.runtime.jobs.JobChangeAdapter;
-import org.jkiss.dbeaver.DBException;
+import org.eclipse.core.runtime.jobs.Job;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.core.DBeaverCore;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.registry.DataSourceDescriptor;
+import org.jkiss.dbeaver.registry.DataSourceHealthHistory;
 import org.jkiss.dbeaver.registry.DataSourceRegistry;
 import org.jkiss.dbeaver.registry.ProjectRegistry;
+import org.jkiss.utils.ArrayUtils;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * KeepAliveJob
@@ -41,23 +44,47 @@ import java.util.*;
 public class KeepAliveJob extends AbstractJob
 {
     public static final int MONITOR_INTERVAL = 5000; // once per 5 seconds
+    // Pings which take longer are canceled and connection is invalidated
+    public static final long PING_TIMEOUT = 30000;
 
     private static final Log log = Log.getLog(KeepAliveJob.class);
 
     private Map<String, Long> checkCache = new HashMap<>();
-    private final Set<String> pingCache = new HashSet<>();
+    // Pings in progress (data source id -> ping start time)
+    private final Map<String, Long> pingCache = new HashMap<>();
+    private final Map<String, Future<?>> pingFutures = new HashMap<>();
+    private final Set<String> timedOutPings = new HashSet<>();
+    private final ThreadPoolExecutor pingExecutor;
 
     public KeepAliveJob()
     {
         super("Keep-Alive monitor");
         setUser(false);
         setSystem(true);
+
+        // Each ping runs in its own thread so hanged server doesn't block checks of other connections.
+        // There is at most one ping per data source so threads number is limited by connections number.
+        pingExecutor = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE,
+            60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger threadNumber = new AtomicInteger();
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "Keep-Alive ping " + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
     }
 
     @Override
     protected IStatus run(DBRProgressMonitor monitor)
     {
         if (DBeaverCore.isClosing()) {
+            pingExecutor.shutdownNow();
             return Status.OK_STATUS;
         }
         final DBeaverCore core = DBeaverCore.getInstance();
@@ -91,10 +118,23 @@ public class KeepAliveJob extends AbstractJob
             return;
         }
         final String dsId = dataSourceDescriptor.getId();
+        final DataSourceHealthHistory healthHistory = dataSourceDescriptor.getHealthHistory();
         synchronized (this) {
-            if (pingCache.contains(dsId)) {
-                // Ping is still in progress. Hanged?
-                // Anyway - just skip it
+            Long pingStartTime = pingCache.get(dsId);
+            if (pingStartTime != null) {
+                // Ping is still in progress - do not start another one.
+                // If it hanged then cancel it and invalidate connection (once)
+                long pingTime = System.currentTimeMillis() - pingStartTime;
+                if (pingTime > PING_TIMEOUT && timedOutPings.add(dsId)) {
+                    log.debug("Ping of " + dsId + " timed out");
+                    healthHistory.addCheck(new DataSourceHealthHistory.HealthCheck(
+                        pingStartTime, pingTime, DataSourceHealthHistory.CheckStatus.TIMEOUT, "No response in " + (pingTime / 1000) + " seconds"));
+                    Future<?> pingFuture = pingFutures.get(dsId);
+                    if (pingFuture != null) {
+                        pingFuture.cancel(true);
+                    }
+                    invalidateDataSource(dataSourceDescriptor);
+                }
                 return;
             }
         }
@@ -118,20 +158,68 @@ public class KeepAliveJob extends AbstractJob
         }
         long curTime = System.currentTimeMillis();
         if ((curTime - lastCheckTime) / 1000 > keepAliveInterval) {
-            final PingJob pingJob = new PingJob(dataSource);
-            pingJob.addJobChangeListener(new JobChangeAdapter() {
-                @Override
-                public void done(IJobChangeEvent event) {
-                    synchronized (KeepAliveJob.this) {
-                        checkCache.put(dsId, System.currentTimeMillis());
-                        pingCache.remove(dsId);
+            synchronized (this) {
+                pingCache.put(dsId, curTime);
+            }
+            try {
+                Future<?> pingFuture = pingExecutor.submit(new Runnable() {
+                    @Override
+                    public void run()
+                    {
+                        pingDataSource(dsId, dataSource, healthHistory);
+                    }
+                });
+                synchronized (this) {
+                    if (pingCache.containsKey(dsId)) {
+                        pingFutures.put(dsId, pingFuture);
                     }
                 }
-            });
-            synchronized (this) {
-                pingCache.add(dsId);
+            } catch (RejectedExecutionException e) {
+                // Executor was shut down
+                synchronized (this) {
+                    pingCache.remove(dsId);
+                }
             }
-            pingJob.schedule();
+        }
+    }
+
+    private void pingDataSource(String dsId, DBPDataSource dataSource, DataSourceHealthHistory healthHistory)
+    {
+        long startTime = System.currentTimeMillis();
+        String error = null;
+        try {
+            PingJob.ping(VoidProgressMonitor.INSTANCE, dataSource);
+        } catch (Throwable e) {
+            error = e.getMessage();
+        }
+        long endTime = System.currentTimeMillis();
+        synchronized (this) {
+            checkCache.put(dsId, endTime);
+            pingCache.remove(dsId);
+            pingFutures.remove(dsId);
+            timedOutPings.remove(dsId);
+        }
+        // Late result of timed out ping is recorded too - it has real latency
+        healthHistory.addCheck(new DataSourceHealthHistory.HealthCheck(
+            startTime,
+            endTime - startTime,
+            error == null ? DataSourceHealthHistory.CheckStatus.OK : DataSourceHealthHistory.CheckStatus.FAILED,
+            error));
+    }
+
+    /**
+     * Reopens dead connections of data source. Runs in background so hanged reconnect doesn't block monitor.
+     */
+    private static void invalidateDataSource(DataSourceDescriptor dataSourceDescriptor)
+    {
+        DBPDataSource dataSource = dataSourceDescriptor.getDataSource();
+        if (dataSource == null || !ArrayUtils.isEmpty(Job.getJobManager().find(dataSourceDescriptor))) {
+            // Disconnected or already connecting/disconnecting
+            return;
+        }
+        DBCExecutionContext context = dataSource.getDefaultContext(false);
+        if (context != null && context.isConnected()) {
+            new InvalidateJob(context).schedule();
         }
     }
 
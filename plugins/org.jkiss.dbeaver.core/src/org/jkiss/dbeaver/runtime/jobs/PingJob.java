@@ -19,6 +19,7 @@ package org.jkiss.dbeaver.runtime.jobs;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
@@ -44,16 +45,36 @@ public class PingJob extends AbstractJob
 
     @Override
     protected IStatus run(DBRProgressMonitor monitor)
+    {
+        try {
+            ping(monitor, dataSource);
+        } catch (DBException e) {
+            // Already logged
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Checks all contexts of data source.
+     * @throws DBException if some context check failed
+     */
+    public static void ping(DBRProgressMonitor monitor, DBPDataSource dataSource) throws DBException
     {
         log.debug("Ping connection " + dataSource.getContainer().getId());
+        DBException error = null;
         for (final DBCExecutionContext context : dataSource.getAllContexts()) {
             try {
                 context.isContextAlive(monitor);
             } catch (Exception e) {
                 log.debug("Context [" + dataSource.getName() + "::" + context.getContextName() + "] check failed: " + e.getMessage());
+                if (error == null) {
+                    error = new DBException("Context [" + context.getContextName() + "] check failed: " + e.getMessage(), e);
+                }
             }
         }
-        return Status.OK_STATUS;
+        if (error != null) {
+            throw error;
+        }
     }
 
 }
\ No newline at end of file
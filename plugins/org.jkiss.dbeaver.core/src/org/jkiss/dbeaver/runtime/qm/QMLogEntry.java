@@ -0,0 +1,281 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.meta.*;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Persisted query log entry.
+ * Detached copy of QM meta object state (doesn't reference live sessions).
+ */
+public class QMLogEntry {
+
+    public enum Type {
+        QUERY,
+        COMMIT,
+        ROLLBACK,
+        CONNECT,
+        DISCONNECT
+    }
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final long objectId;
+    private final long time;
+    private final Type type;
+    private final String containerId;
+    private final String containerName;
+    private final String contextName;
+    private final String text;
+    private final long duration;
+    private final long rowCount;
+    private final int errorCode;
+    private final String errorMessage;
+
+    public QMLogEntry(long objectId, long time, @NotNull Type type, String containerId, String containerName, String contextName, String text, long duration, long rowCount, int errorCode, String errorMessage)
+    {
+        this.objectId = objectId;
+        this.time = time;
+        this.type = type;
+        this.containerId = containerId;
+        this.containerName = containerName;
+        this.contextName = contextName;
+        this.text = text;
+        this.duration = duration;
+        this.rowCount = rowCount;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Makes log entry from meta event.
+     * @return log entry or null if event shouldn't be logged
+     */
+    @Nullable
+    public static QMLogEntry fromEvent(@NotNull QMMetaEvent event)
+    {
+        QMMObject object = event.getObject();
+        QMMetaEvent.Action action = event.getAction();
+        if (object instanceof QMMStatementExecuteInfo) {
+            if (action != QMMetaEvent.Action.END) {
+                return null;
+            }
+            QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) object;
+            QMMSessionInfo session = exec.getStatement().getSession();
+            return new QMLogEntry(
+                exec.getObjectId(),
+                exec.getOpenTime(),
+                Type.QUERY,
+                session.getContainerId(),
+                session.getContainerName(),
+                session.getContextName(),
+                exec.getQueryString(),
+                exec.getCloseTime() - exec.getOpenTime(),
+                exec.getRowCount(),
+                exec.getErrorCode(),
+                exec.hasError() ? exec.getErrorMessage() : null);
+        } else if (object instanceof QMMTransactionInfo) {
+            QMMTransactionInfo txn = (QMMTransactionInfo) object;
+            QMMSessionInfo session = txn.getSession();
+            return new QMLogEntry(
+                txn.getObjectId(),
+                txn.getCloseTime(),
+                txn.isCommitted() ? Type.COMMIT : Type.ROLLBACK,
+                session.getContainerId(),
+                session.getContainerName(),
+                session.getContextName(),
+                null,
+                txn.getCloseTime() - txn.getOpenTime(),
+                -1,
+                0,
+                null);
+        } else if (object instanceof QMMSessionInfo) {
+            if (action != QMMetaEvent.Action.BEGIN && action != QMMetaEvent.Action.END) {
+                return null;
+            }
+            QMMSessionInfo session = (QMMSessionInfo) object;
+            boolean connect = action == QMMetaEvent.Action.BEGIN;
+            return new QMLogEntry(
+                session.getObjectId(),
+                connect ? session.getOpenTime() : session.getCloseTime(),
+                connect ? Type.CONNECT : Type.DISCONNECT,
+                session.getContainerId(),
+                session.getContainerName(),
+                session.getContextName(),
+                null,
+                connect ? 0 : session.getCloseTime() - session.getOpenTime(),
+                -1,
+                0,
+                null);
+        }
+        return null;
+    }
+
+    /**
+     * ID of source QM meta object. Correlates text log entries.
+     */
+    public long getObjectId()
+    {
+        return objectId;
+    }
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public String getContainerId()
+    {
+        return containerId;
+    }
+
+    public String getContainerName()
+    {
+        return containerName;
+    }
+
+    public String getContextName()
+    {
+        return contextName;
+    }
+
+    public String getText()
+    {
+        return text;
+    }
+
+    public long getDuration()
+    {
+        return duration;
+    }
+
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    public int getErrorCode()
+    {
+        return errorCode;
+    }
+
+    public String getErrorMessage()
+    {
+        return errorMessage;
+    }
+
+    public boolean hasError()
+    {
+        return errorCode != 0 || errorMessage != null;
+    }
+
+    void write(DataOutput out) throws IOException
+    {
+        out.writeLong(time);
+        out.writeByte(type.ordinal());
+        writeString(out, containerId);
+        writeString(out, containerName);
+        writeString(out, contextName);
+        writeString(out, text);
+        out.writeLong(duration);
+        out.writeLong(rowCount);
+        out.writeInt(errorCode);
+        writeString(out, errorMessage);
+        out.writeLong(objectId);
+    }
+
+    /**
+     * Reads single entry record. Input must contain exactly one record.
+     */
+    static QMLogEntry read(DataInputStream in) throws IOException
+    {
+        long time = in.readLong();
+        int typeIndex = in.readByte();
+        Type[] types = Type.values();
+        if (typeIndex < 0 || typeIndex >= types.length) {
+            throw new IOException("Bad log entry type: " + typeIndex);
+        }
+        Type type = types[typeIndex];
+        String containerId = readString(in);
+        String containerName = readString(in);
+        String contextName = readString(in);
+        String text = readString(in);
+        long duration = in.readLong();
+        long rowCount = in.readLong();
+        int errorCode = in.readInt();
+        String errorMessage = readString(in);
+        // Object ID is appended to the end of record. Records written before it was added don't have it.
+        long objectId = in.available() >= 8 ? in.readLong() : 0;
+        return new QMLogEntry(
+            objectId,
+            time,
+            type,
+            containerId,
+            containerName,
+            contextName,
+            text,
+            duration,
+            rowCount,
+            errorCode,
+            errorMessage);
+    }
+
+    private static void writeString(DataOutput out, String str) throws IOException
+    {
+        // DataOutput.writeUTF is limited to 64k so use explicit length
+        if (str == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = str.getBytes(UTF8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    @Override
+    public String toString()
+    {
+        return type + " " + (text == null ? containerName : text);
+    }
+
+}
@@ -17,43 +17,35 @@
  */
 package org.jkiss.dbeaver.runtime.qm;
 
-import org.eclipse.core.runtime.IStatus;
-import org.jkiss.dbeaver.Log;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.core.DBeaverCore;
 import org.jkiss.dbeaver.model.DBPPreferenceListener;
+import org.jkiss.dbeaver.model.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.qm.QMConstants;
 import org.jkiss.dbeaver.model.qm.QMEventFilter;
 import org.jkiss.dbeaver.model.qm.QMMetaEvent;
 import org.jkiss.dbeaver.model.qm.QMMetaListener;
-import org.jkiss.dbeaver.model.qm.meta.*;
-import org.jkiss.dbeaver.utils.ContentUtils;
-import org.jkiss.dbeaver.utils.GeneralUtils;
-import org.jkiss.dbeaver.utils.RuntimeUtils;
+import org.jkiss.utils.CommonUtils;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.Writer;
-import java.util.Calendar;
 import java.util.List;
 
 /**
- * Query manager log writer
+ * Query manager log writer.
+ * Converts meta events into log entries and passes them to the log store.
+ * Actual IO is performed asynchronously by the store writer.
  */
 public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
 
-    private static final Log log = Log.getLog(QMLogFileWriter.class);
-
-    private File logFile;
     private boolean enabled;
+    private String logFolder;
+    private int historyDays;
 
-    private Writer logWriter;
-    private QMEventFilter eventFilter;
-    private final String lineSeparator;
+    private volatile QMLogStore logStore;
+    private volatile QMEventFilter eventFilter;
 
     public QMLogFileWriter()
     {
-        lineSeparator = GeneralUtils.getDefaultLineSeparator();
         DBeaverCore.getGlobalPreferenceStore().addPropertyChangeListener(this);
         initLogFile();
     }
@@ -61,51 +53,60 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
     public void dispose()
     {
         DBeaverCore.getGlobalPreferenceStore().removePropertyChangeListener(this);
+        closeLogStore();
+    }
+
+    /**
+     * Query log store or null if log is disabled
+     */
+    @Nullable
+    public QMLogStore getLogStore()
+    {
+        return logStore;
     }
 
     private synchronized void initLogFile()
     {
-        enabled = DBeaverCore.getGlobalPreferenceStore().getBoolean(QMConstants.PROP_STORE_LOG_FILE);
-        if (enabled) {
-            String logFolder = DBeaverCore.getGlobalPreferenceStore().getString(QMConstants.PROP_LOG_DIRECTORY);
-            String logFileName = "dbeaver_sql_" + RuntimeUtils.getCurrentDate() + ".log";
-            logFile = new File(logFolder, logFileName);
-            try {
-                logWriter = new FileWriter(logFile, true);
-            } catch (IOException e) {
-                log.error("Can't open log writer", e);
-            }
-        } else {
-            if (logWriter != null) {
-                ContentUtils.close(logWriter);
-                logWriter = null;
+        DBPPreferenceStore store = DBeaverCore.getGlobalPreferenceStore();
+        boolean newEnabled = store.getBoolean(QMConstants.PROP_STORE_LOG_FILE);
+        String newLogFolder = store.getString(QMConstants.PROP_LOG_DIRECTORY);
+        int newHistoryDays = store.getInt(QMConstants.PROP_HISTORY_DAYS);
+        if (logStore == null || newEnabled != enabled || newHistoryDays != historyDays || !CommonUtils.equalObjects(newLogFolder, logFolder)) {
+            closeLogStore();
+            enabled = newEnabled;
+            logFolder = newLogFolder;
+            historyDays = newHistoryDays;
+            if (enabled && !CommonUtils.isEmpty(logFolder)) {
+                logStore = new QMLogStore(new File(logFolder), historyDays);
             }
         }
         eventFilter = new DefaultEventFilter();
     }
 
+    private synchronized void closeLogStore()
+    {
+        if (logStore != null) {
+            logStore.close();
+            logStore = null;
+        }
+    }
+
     @Override
-    public synchronized void metaInfoChanged(List<QMMetaEvent> events)
+    public void metaInfoChanged(List<QMMetaEvent> events)
     {
-        if (!enabled || logWriter == null) {
+        final QMLogStore store = logStore;
+        if (store == null) {
             return;
         }
-
-        StringBuilder logBuffer = new StringBuilder(4000);
+        final QMEventFilter filter = eventFilter;
         for (QMMetaEvent event : events) {
-            if (eventFilter.accept(event)) {
-                writeEvent(logBuffer, event);
+            if (filter.accept(event)) {
+                QMLogEntry entry = QMLogEntry.fromEvent(event);
+                if (entry != null) {
+                    store.append(entry);
+                }
             }
         }
-
-        try {
-            logWriter.write(logBuffer.toString());
-            logWriter.flush();
-        } catch (IOException e) {
-            log.warn("IO error writing QM log. Disable log file writer", e);
-            ContentUtils.close(logWriter);
-            logWriter = null;
-        }
     }
 
     @Override
@@ -116,85 +117,4 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         }
     }
 
-    private void writeEvent(StringBuilder buffer, QMMetaEvent event)
-    {
-        QMMObject object = event.getObject();
-        QMMetaEvent.Action action = event.getAction();
-        // Filter
-        if (object instanceof QMMStatementInfo || object instanceof QMMTransactionSavepointInfo ||
-            (object instanceof QMMStatementExecuteInfo && action != QMMetaEvent.Action.END)) {
-            return;
-        }
-
-        // Entry
-        int severity = object instanceof QMMStatementExecuteInfo ? IStatus.INFO : IStatus.OK;
-        buffer.append("!ENTRY ");
-        appendEntryInfo(buffer, severity, object.getObjectId(), object.getOpenTime());
-
-        // Message
-        buffer.append("!MESSAGE ");
-        if (object instanceof QMMStatementExecuteInfo) {
-            QMMStatementExecuteInfo executeInfo = (QMMStatementExecuteInfo)object;
-            buffer.append(executeInfo.getQueryString());
-            buffer.append(lineSeparator);
-            buffer.append("!SUBENTRY 1 ");
-            int subSeverity = executeInfo.hasError() ? IStatus.ERROR : severity;
-            appendEntryInfo(buffer, subSeverity, executeInfo.getErrorCode(), object.getCloseTime());
-            buffer.append("!MESSAGE ");
-            if (executeInfo.hasError()) {
-                buffer.append(executeInfo.getErrorMessage());
-            } else {
-                buffer.append("SUCCESS [").append(executeInfo.getRowCount()).append("]");
-            }
-
-        } else if (object instanceof QMMTransactionInfo) {
-            QMMTransactionInfo transactionInfo = (QMMTransactionInfo)object;
-            if (transactionInfo.isCommitted()) {
-                buffer.append("COMMIT");
-            } else {
-                buffer.append("ROLLBACK");
-            }
-        } else if (object instanceof QMMSessionInfo) {
-            QMMSessionInfo sessionInfo = (QMMSessionInfo)object;
-            buffer.append(action).append(" SESSION [").append(sessionInfo.getContainerName()).append("]");
-        }
-        buffer.append(lineSeparator);
-
-        buffer.append(lineSeparator);
-    }
-
-    private void appendEntryInfo(StringBuilder buffer, int severity, long code, long time)
-    {
-        buffer.append(DBeaverCore.PLUGIN_ID).append(" ").append(severity).append(" ").append(code).append(" ");
-        appendDate(buffer, time);
-        buffer.append(lineSeparator);
-    }
-
-    private void appendDate(StringBuilder sb, long timestamp) {
-        Calendar c = Calendar.getInstance();
-        c.setTimeInMillis(timestamp);
-        appendPaddedInt(c.get(Calendar.YEAR), 4, sb).append('-');
-        appendPaddedInt(c.get(Calendar.MONTH) + 1, 2, sb).append('-');
-        appendPaddedInt(c.get(Calendar.DAY_OF_MONTH), 2, sb).append(' ');
-        appendPaddedInt(c.get(Calendar.HOUR_OF_DAY), 2, sb).append(':');
-        appendPaddedInt(c.get(Calendar.MINUTE), 2, sb).append(':');
-        appendPaddedInt(c.get(Calendar.SECOND), 2, sb).append('.');
-        appendPaddedInt(c.get(Calendar.MILLISECOND), 3, sb);
-    }
-
-    private StringBuilder appendPaddedInt(int value, int pad, StringBuilder buffer) {
-        pad = pad - 1;
-        if (pad == 0)
-            return buffer.append(Integer.toString(value));
-        int padding = (int) Math.pow(10, pad);
-        if (value >= padding)
-            return buffer.append(Integer.toString(value));
-        while (padding > value && padding > 1) {
-            buffer.append('0');
-            padding = padding / 10;
-        }
-        buffer.append(value);
-        return buffer;
-    }
-
 }
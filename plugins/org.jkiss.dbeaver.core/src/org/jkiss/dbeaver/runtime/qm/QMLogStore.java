@@ -0,0 +1,585 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.core.DBeaverCore;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.dbeaver.utils.RuntimeUtils;
+
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Query log store.
+ * Entries are appended to binary segment files (rotated by size) by background writer job.
+ * Each segment has small index file with time range and list of data sources which is used to skip
+ * segments while reading. Segments older than history period are deleted.
+ * Entries are also appended to human readable daily text log (dbeaver_sql_DATE.log).
+ */
+public class QMLogStore {
+
+    private static final Log log = Log.getLog(QMLogStore.class);
+
+    private static final String SEGMENT_PREFIX = "dbeaver_qm_";
+    private static final String SEGMENT_EXT = ".qmlog";
+    private static final String INDEX_EXT = ".qmidx";
+    private static final String TEXT_LOG_PREFIX = "dbeaver_sql_";
+    private static final String TEXT_LOG_EXT = ".log";
+
+    private static final int SEGMENT_MAGIC = 0x514D4C47; // QMLG
+    private static final int INDEX_MAGIC = 0x514D4958; // QMIX
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int MAX_ENTRY_SIZE = 64 * 1024 * 1024;
+
+    private static final long MAX_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_ENTRIES = 10000;
+    private static final long WRITE_PERIOD = 1000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Position of entry in the store. Used to read entries page by page:
+     * next page starts right before the oldest entry of the previous one, so entries with the same time are not lost.
+     */
+    public static final class Position {
+        private final String segmentName;
+        private final long offset;
+
+        Position(String segmentName, long offset)
+        {
+            this.segmentName = segmentName;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Entries read from the store
+     */
+    public static class Page {
+        private final List<QMLogEntry> entries;
+        @Nullable
+        private final Position lastPosition;
+
+        Page(List<QMLogEntry> entries, @Nullable Position lastPosition)
+        {
+            this.entries = entries;
+            this.lastPosition = lastPosition;
+        }
+
+        /**
+         * Entries, newest first
+         */
+        @NotNull
+        public List<QMLogEntry> getEntries()
+        {
+            return entries;
+        }
+
+        /**
+         * Position of the oldest entry of this page
+         */
+        @Nullable
+        public Position getLastPosition()
+        {
+            return lastPosition;
+        }
+    }
+
+    /**
+     * Segment descriptor. Time range and containers are used as segment index.
+     */
+    private static class Segment {
+        final File file;
+        final long startTime;
+        long endTime;
+        final Set<String> containers = new HashSet<>();
+
+        Segment(File file, long startTime)
+        {
+            this.file = file;
+            this.startTime = startTime;
+            this.endTime = startTime;
+        }
+
+        File getIndexFile()
+        {
+            String name = file.getName();
+            return new File(file.getParentFile(), name.substring(0, name.length() - SEGMENT_EXT.length()) + INDEX_EXT);
+        }
+    }
+
+    private final File folder;
+    private final long historyPeriod;
+    private final BlockingQueue<QMLogEntry> pendingEntries = new ArrayBlockingQueue<>(MAX_PENDING_ENTRIES);
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment activeSegment;
+    private DataOutputStream activeOutput;
+    private long activeSize;
+    private Writer textWriter;
+    private String textLogDate;
+    private final String lineSeparator = GeneralUtils.getDefaultLineSeparator();
+    // Text log timestamps. Accessed under store lock only.
+    private final SimpleDateFormat textDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private long textDateSecond = Long.MIN_VALUE;
+    private String textDateText;
+    private volatile boolean open = true;
+    private volatile boolean overflowReported;
+    private final LogWriterJob writerJob;
+
+    public QMLogStore(@NotNull File folder, int historyDays)
+    {
+        this.folder = folder;
+        this.historyPeriod = historyDays <= 0 ? 0 : historyDays * DAY_MILLIS;
+        if (!folder.exists() && !folder.mkdirs()) {
+            log.warn("Can't create query log folder '" + folder.getAbsolutePath() + "'");
+        }
+        loadSegments();
+        deleteExpiredSegments();
+        writerJob = new LogWriterJob();
+        writerJob.schedule(WRITE_PERIOD);
+    }
+
+    public File getFolder()
+    {
+        return folder;
+    }
+
+    /**
+     * Adds entry to the write queue. Never blocks: if writer can't keep up then entry is dropped.
+     */
+    public void append(@NotNull QMLogEntry entry)
+    {
+        if (!open) {
+            return;
+        }
+        if (!pendingEntries.offer(entry) && !overflowReported) {
+            overflowReported = true;
+            log.warn("Query log write queue is full. Some entries were dropped");
+        }
+    }
+
+    /**
+     * Reads log entries which are older than specified time and stored before specified position.
+     * Entries which are still in write queue are not returned.
+     * @param beforeTime    upper time bound (exclusive)
+     * @param olderThan     last position of the previous page or null for the first page
+     * @param containerId   data source container ID or null for all data sources
+     * @param maxEntries    maximum number of entries to read
+     * @return entries, newest first
+     */
+    @NotNull
+    public Page readEntries(final long beforeTime, @Nullable Position olderThan, @Nullable final String containerId, int maxEntries) throws IOException
+    {
+        List<Segment> readSegments = new ArrayList<>();
+        List<Long> readLimits = new ArrayList<>();
+        synchronized (this) {
+            if (activeOutput != null) {
+                activeOutput.flush();
+            }
+            // If segment of the position was deleted then all older segments are deleted too
+            boolean positionFound = olderThan == null;
+            for (int i = segments.size(); i > 0; i--) {
+                Segment segment = segments.get(i - 1);
+                // Active segment may grow while we read it
+                long limit = segment == activeSegment ? activeSize : segment.file.length();
+                if (!positionFound) {
+                    if (!segment.file.getName().equals(olderThan.segmentName)) {
+                        continue;
+                    }
+                    positionFound = true;
+                    limit = Math.min(limit, olderThan.offset);
+                }
+                if (segment.startTime >= beforeTime) {
+                    continue;
+                }
+                if (containerId != null && !segment.containers.contains(containerId)) {
+                    continue;
+                }
+                readSegments.add(segment);
+                readLimits.add(limit);
+            }
+        }
+        List<QMLogEntry> result = new ArrayList<>();
+        Position lastPosition = olderThan;
+        for (int i = 0; i < readSegments.size() && result.size() < maxEntries; i++) {
+            final ArrayDeque<QMLogEntry> segmentEntries = new ArrayDeque<>();
+            final ArrayDeque<Long> segmentOffsets = new ArrayDeque<>();
+            final int maxSegmentEntries = maxEntries - result.size();
+            File segmentFile = readSegments.get(i).file;
+            readSegment(segmentFile, readLimits.get(i), new EntryVisitor() {
+                @Override
+                public void visit(QMLogEntry entry, long offset)
+                {
+                    if (entry.getTime() >= beforeTime) {
+                        return;
+                    }
+                    if (containerId != null && !containerId.equals(entry.getContainerId())) {
+                        return;
+                    }
+                    segmentEntries.addLast(entry);
+                    segmentOffsets.addLast(offset);
+                    if (segmentEntries.size() > maxSegmentEntries) {
+                        segmentEntries.removeFirst();
+                        segmentOffsets.removeFirst();
+                    }
+                }
+            });
+            Iterator<Long> offsetIter = segmentOffsets.descendingIterator();
+            for (Iterator<QMLogEntry> iter = segmentEntries.descendingIterator(); iter.hasNext(); ) {
+                result.add(iter.next());
+                lastPosition = new Position(segmentFile.getName(), offsetIter.next());
+            }
+        }
+        return new Page(result, lastPosition);
+    }
+
+    public void close()
+    {
+        open = false;
+        writerJob.cancel();
+        synchronized (this) {
+            writePendingEntries();
+            closeActiveSegment();
+            closeTextLog();
+        }
+    }
+
+    private interface EntryVisitor {
+        void visit(QMLogEntry entry, long offset);
+    }
+
+    private static void readSegment(File file, long limit, EntryVisitor visitor) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), WRITE_BUFFER_SIZE))) {
+            if (in.readInt() != SEGMENT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.debug("Bad query log segment '" + file.getName() + "'");
+                return;
+            }
+            long position = SEGMENT_HEADER_SIZE;
+            while (position + 4 <= limit) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_ENTRY_SIZE || position + 4 + length > limit) {
+                    // Truncated segment (e.g. after crash)
+                    break;
+                }
+                byte[] data = new byte[length];
+                in.readFully(data);
+                visitor.visit(QMLogEntry.read(new DataInputStream(new ByteArrayInputStream(data))), position);
+                position += 4 + length;
+            }
+        } catch (EOFException e) {
+            // Truncated segment
+        }
+    }
+
+    private synchronized void loadSegments()
+    {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_EXT)) {
+                continue;
+            }
+            long startTime;
+            try {
+                startTime = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXT.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            final Segment segment = new Segment(file, startTime);
+            if (!readIndex(segment)) {
+                // No index - segment wasn't closed properly. Rebuild index by scanning.
+                try {
+                    readSegment(file, file.length(), new EntryVisitor() {
+                        @Override
+                        public void visit(QMLogEntry entry, long offset)
+                        {
+                            updateIndex(segment, entry);
+                        }
+                    });
+                    writeIndex(segment);
+                } catch (IOException e) {
+                    log.debug("Can't rebuild query log segment index: " + e.getMessage());
+                }
+            }
+            segments.add(segment);
+        }
+        Collections.sort(segments, new Comparator<Segment>() {
+            @Override
+            public int compare(Segment o1, Segment o2)
+            {
+                int result = Long.compare(o1.startTime, o2.startTime);
+                return result != 0 ? result : o1.file.getName().compareTo(o2.file.getName());
+            }
+        });
+    }
+
+    private synchronized void deleteExpiredSegments()
+    {
+        if (historyPeriod <= 0) {
+            return;
+        }
+        long minTime = System.currentTimeMillis() - historyPeriod;
+        for (Iterator<Segment> iter = segments.iterator(); iter.hasNext(); ) {
+            Segment segment = iter.next();
+            if (segment == activeSegment || segment.endTime >= minTime) {
+                continue;
+            }
+            iter.remove();
+            if (!segment.file.delete()) {
+                log.debug("Can't delete query log segment '" + segment.file.getName() + "'");
+            }
+            segment.getIndexFile().delete();
+        }
+    }
+
+    private static void updateIndex(Segment segment, QMLogEntry entry)
+    {
+        if (entry.getTime() > segment.endTime) {
+            segment.endTime = entry.getTime();
+        }
+        if (entry.getContainerId() != null) {
+            segment.containers.add(entry.getContainerId());
+        }
+    }
+
+    private static boolean readIndex(Segment segment)
+    {
+        File indexFile = segment.getIndexFile();
+        if (!indexFile.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            segment.endTime = in.readLong();
+            int containerCount = in.readInt();
+            for (int i = 0; i < containerCount; i++) {
+                segment.containers.add(in.readUTF());
+            }
+            return true;
+        } catch (IOException e) {
+            log.debug("Can't read query log index '" + indexFile.getName() + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeIndex(Segment segment)
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segment.getIndexFile())))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(segment.endTime);
+            out.writeInt(segment.containers.size());
+            for (String containerId : segment.containers) {
+                out.writeUTF(containerId);
+            }
+        } catch (IOException e) {
+            log.debug("Can't write query log index: " + e.getMessage());
+        }
+    }
+
+    private void writePendingEntries()
+    {
+        List<QMLogEntry> entries = new ArrayList<>();
+        pendingEntries.drainTo(entries);
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream entryBuffer = new ByteArrayOutputStream(1000);
+            DataOutputStream entryOutput = new DataOutputStream(entryBuffer);
+            for (QMLogEntry entry : entries) {
+                if (activeOutput == null || activeSize >= MAX_SEGMENT_SIZE) {
+                    openNewSegment(entry.getTime());
+                }
+                entryBuffer.reset();
+                entry.write(entryOutput);
+                entryOutput.flush();
+                activeOutput.writeInt(entryBuffer.size());
+                entryBuffer.writeTo(activeOutput);
+                activeSize += 4 + entryBuffer.size();
+                updateIndex(activeSegment, entry);
+            }
+            // Single flush per batch
+            activeOutput.flush();
+        } catch (IOException e) {
+            log.warn("IO error writing query log", e);
+            closeActiveSegment();
+        }
+        writeTextLog(entries);
+    }
+
+    private void writeTextLog(List<QMLogEntry> entries)
+    {
+        String currentDate = RuntimeUtils.getCurrentDate();
+        try {
+            if (textWriter == null || !currentDate.equals(textLogDate)) {
+                closeTextLog();
+                textLogDate = currentDate;
+                textWriter = new BufferedWriter(
+                    new FileWriter(new File(folder, TEXT_LOG_PREFIX + currentDate + TEXT_LOG_EXT), true),
+                    WRITE_BUFFER_SIZE);
+            }
+            StringBuilder buffer = new StringBuilder(4000);
+            for (QMLogEntry entry : entries) {
+                appendTextEntry(buffer, entry);
+            }
+            textWriter.write(buffer.toString());
+            textWriter.flush();
+        } catch (IOException e) {
+            log.warn("IO error writing text query log", e);
+            closeTextLog();
+        }
+    }
+
+    private void closeTextLog()
+    {
+        if (textWriter != null) {
+            ContentUtils.close(textWriter);
+            textWriter = null;
+        }
+    }
+
+    private void appendTextEntry(StringBuilder buffer, QMLogEntry entry)
+    {
+        int severity = entry.getType() == QMLogEntry.Type.QUERY ? IStatus.INFO : IStatus.OK;
+        buffer.append("!ENTRY ");
+        appendEntryInfo(buffer, severity, entry.getObjectId(), entry.getTime());
+        buffer.append("!MESSAGE ");
+        switch (entry.getType()) {
+            case QUERY:
+                buffer.append(entry.getText());
+                buffer.append(lineSeparator);
+                buffer.append("!SUBENTRY 1 ");
+                appendEntryInfo(buffer, entry.hasError() ? IStatus.ERROR : severity, entry.getErrorCode(), entry.getTime() + entry.getDuration());
+                buffer.append("!MESSAGE ");
+                if (entry.hasError()) {
+                    buffer.append(entry.getErrorMessage());
+                } else {
+                    buffer.append("SUCCESS [").append(entry.getRowCount()).append("]");
+                }
+                break;
+            case COMMIT:
+            case ROLLBACK:
+                buffer.append(entry.getType());
+                break;
+            case CONNECT:
+                buffer.append("BEGIN SESSION [").append(entry.getContainerName()).append("]");
+                break;
+            case DISCONNECT:
+                buffer.append("END SESSION [").append(entry.getContainerName()).append("]");
+                break;
+        }
+        buffer.append(lineSeparator);
+        buffer.append(lineSeparator);
+    }
+
+    private void appendEntryInfo(StringBuilder buffer, int severity, long code, long time)
+    {
+        buffer.append(DBeaverCore.PLUGIN_ID).append(" ").append(severity).append(" ").append(code).append(" ");
+        appendDate(buffer, time);
+        buffer.append(lineSeparator);
+    }
+
+    private void appendDate(StringBuilder buffer, long time)
+    {
+        // Entries come in bursts so seconds part is formatted only when it changes
+        long second = time / 1000;
+        if (second != textDateSecond) {
+            textDateText = textDateFormat.format(new Date(second * 1000));
+            textDateSecond = second;
+        }
+        int millis = (int) (time % 1000);
+        buffer.append(textDateText).append('.');
+        if (millis < 100) {
+            buffer.append('0');
+        }
+        if (millis < 10) {
+            buffer.append('0');
+        }
+        buffer.append(millis);
+    }
+
+    private void openNewSegment(long startTime) throws IOException
+    {
+        closeActiveSegment();
+        File file = new File(folder, SEGMENT_PREFIX + startTime + SEGMENT_EXT);
+        for (int i = 1; file.exists(); i++) {
+            // Very unlikely but possible when many segments are created at once
+            file = new File(folder, SEGMENT_PREFIX + (startTime + i) + SEGMENT_EXT);
+        }
+        activeSegment = new Segment(file, startTime);
+        activeOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), WRITE_BUFFER_SIZE));
+        activeOutput.writeInt(SEGMENT_MAGIC);
+        activeOutput.writeInt(FORMAT_VERSION);
+        activeSize = SEGMENT_HEADER_SIZE;
+        segments.add(activeSegment);
+        deleteExpiredSegments();
+    }
+
+    private void closeActiveSegment()
+    {
+        if (activeOutput != null) {
+            ContentUtils.close(activeOutput);
+            activeOutput = null;
+            writeIndex(activeSegment);
+            activeSegment = null;
+            activeSize = 0;
+        }
+    }
+
+    private class LogWriterJob extends AbstractJob {
+
+        protected LogWriterJob()
+        {
+            super("Query log writer");
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            synchronized (QMLogStore.this) {
+                writePendingEntries();
+            }
+            if (open && !monitor.isCanceled()) {
+                schedule(WRITE_PERIOD);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
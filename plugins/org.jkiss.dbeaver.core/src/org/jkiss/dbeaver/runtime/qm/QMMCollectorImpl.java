@@ -33,9 +33,15 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Query manager execution handler implementation
+ * Query manager execution handler implementation.
+ * Handlers are called from all execution threads so they do not lock collector itself.
+ * Session meta info is guarded by its own monitor, events are collected in a lock-free queue
+ * and drained by dispatcher job.
  */
 public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMCollector {
 
@@ -44,19 +50,19 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     private static final long EVENT_DISPATCH_PERIOD = 250;
     private static final int MAX_HISTORY_EVENTS = 1000;
 
-    private Map<String, QMMSessionInfo> sessionMap = new HashMap<>();
-    private List<QMMetaListener> listeners = new ArrayList<>();
-    private List<QMMetaEvent> eventPool = new ArrayList<>();
+    private final Map<String, QMMSessionInfo> sessionMap = new ConcurrentHashMap<>();
+    private final List<QMMetaListener> listeners = new CopyOnWriteArrayList<>();
+    private final Queue<QMMetaEvent> eventPool = new ConcurrentLinkedQueue<>();
     private final Object historySync = new Object();
-    private List<QMMetaEvent> pastEvents = new ArrayList<>();
-    private boolean running = true;
+    private final ArrayDeque<QMMetaEvent> pastEvents = new ArrayDeque<>(MAX_HISTORY_EVENTS);
+    private volatile boolean running = true;
 
     public QMMCollectorImpl()
     {
         new EventDispatcher().schedule(EVENT_DISPATCH_PERIOD);
     }
 
-    public synchronized void dispose()
+    public void dispose()
     {
         if (!sessionMap.isEmpty()) {
             List<QMMSessionInfo> openSessions = new ArrayList<>();
@@ -88,42 +94,39 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         return "Meta info collector";
     }
 
-    public synchronized void addListener(QMMetaListener listener)
+    public void addListener(QMMetaListener listener)
     {
         listeners.add(listener);
     }
 
-    public synchronized void removeListener(QMMetaListener listener)
+    public void removeListener(QMMetaListener listener)
     {
         if (!listeners.remove(listener)) {
             log.warn("Listener '" + listener + "' is not registered in QM meta collector");
         }
     }
 
-    private synchronized List<QMMetaListener> getListeners()
+    private List<QMMetaListener> getListeners()
     {
-        if (listeners.isEmpty()) {
-            return Collections.emptyList();
-        }
-        if (listeners.size() == 1) {
-            return Collections.singletonList(listeners.get(0));
-        }
-        return new ArrayList<>(listeners);
+        // Copy-on-write list - iteration is safe without copying
+        return listeners;
     }
 
-    private synchronized void fireMetaEvent(final QMMObject object, final QMMetaEvent.Action action)
+    private void fireMetaEvent(final QMMObject object, final QMMetaEvent.Action action)
     {
         eventPool.add(new QMMetaEvent(object, action));
     }
 
-    private synchronized List<QMMetaEvent> obtainEvents()
+    private List<QMMetaEvent> obtainEvents()
     {
-        if (eventPool.isEmpty()) {
-            return Collections.emptyList();
+        List<QMMetaEvent> events = null;
+        for (QMMetaEvent event = eventPool.poll(); event != null; event = eventPool.poll()) {
+            if (events == null) {
+                events = new ArrayList<>();
+            }
+            events.add(event);
         }
-        List<QMMetaEvent> events = eventPool;
-        eventPool = new ArrayList<>();
-        return events;
+        return events == null ? Collections.<QMMetaEvent>emptyList() : events;
     }
 
     public QMMSessionInfo getSessionInfo(DBCExecutionContext context)
@@ -144,14 +147,18 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional)
+    public void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional)
     {
         String contextId = context.getDataSource().getContainer().getId() + ":" + context.getContextName();
-        QMMSessionInfo session = new QMMSessionInfo(
-            context,
-            transactional,
-            sessionMap.get(contextId));
-        sessionMap.put(contextId, session);
+        QMMSessionInfo session;
+        synchronized (sessionMap) {
+            // Contexts are opened rarely, just make sure previous session link is consistent
+            session = new QMMSessionInfo(
+                context,
+                transactional,
+                sessionMap.get(contextId));
+            sessionMap.put(contextId, session);
+        }
 
         if (session.getPrevious() != null && !session.getPrevious().isClosed()) {
             // Is it really a problem? Maybe better to remove warning at all
@@ -162,120 +169,140 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     }
 
     @Override
-    public synchronized void handleContextClose(@NotNull DBCExecutionContext context)
+    public void handleContextClose(@NotNull DBCExecutionContext context)
     {
         QMMSessionInfo session = getSessionInfo(context);
         if (session != null) {
-            session.close();
-            fireMetaEvent(session, QMMetaEvent.Action.END);
+            synchronized (session) {
+                session.close();
+                fireMetaEvent(session, QMMetaEvent.Action.END);
+            }
         }
     }
 
     @Override
-    public synchronized void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit)
+    public void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit)
     {
         QMMSessionInfo sessionInfo = getSessionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
-            if (oldTxn != null) {
-                fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+            synchronized (sessionInfo) {
+                QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
+                if (oldTxn != null) {
+                    fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+                }
+                fireMetaEvent(sessionInfo, QMMetaEvent.Action.UPDATE);
             }
-            fireMetaEvent(sessionInfo, QMMetaEvent.Action.UPDATE);
         }
     }
 
     @Override
-    public synchronized void handleTransactionCommit(@NotNull DBCExecutionContext context)
+    public void handleTransactionCommit(@NotNull DBCExecutionContext context)
     {
         QMMSessionInfo sessionInfo = getSessionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.commit();
-            if (oldTxn != null) {
-                fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+            synchronized (sessionInfo) {
+                QMMTransactionInfo oldTxn = sessionInfo.commit();
+                if (oldTxn != null) {
+                    fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint)
+    public void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint)
     {
         QMMSessionInfo sessionInfo = getSessionInfo(context);
         if (sessionInfo != null) {
-            QMMObject oldTxn = sessionInfo.rollback(savepoint);
-            if (oldTxn != null) {
-                fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+            synchronized (sessionInfo) {
+                QMMObject oldTxn = sessionInfo.rollback(savepoint);
+                if (oldTxn != null) {
+                    fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementOpen(@NotNull DBCStatement statement)
+    public void handleStatementOpen(@NotNull DBCStatement statement)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.openStatement(statement);
-            fireMetaEvent(stat, QMMetaEvent.Action.BEGIN);
+            synchronized (session) {
+                QMMStatementInfo stat = session.openStatement(statement);
+                fireMetaEvent(stat, QMMetaEvent.Action.BEGIN);
+            }
         }
     }
 
     @Override
-    public synchronized void handleStatementClose(@NotNull DBCStatement statement, long rows)
+    public void handleStatementClose(@NotNull DBCStatement statement, long rows)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.closeStatement(statement, rows);
-            if (stat == null) {
-                log.warn("Can't properly handle statement close");
-            } else {
-                fireMetaEvent(stat, QMMetaEvent.Action.END);
+            synchronized (session) {
+                QMMStatementInfo stat = session.closeStatement(statement, rows);
+                if (stat == null) {
+                    log.warn("Can't properly handle statement close");
+                } else {
+                    fireMetaEvent(stat, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementExecuteBegin(@NotNull DBCStatement statement)
+    public void handleStatementExecuteBegin(@NotNull DBCStatement statement)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginExecution(statement);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.BEGIN);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.beginExecution(statement);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.BEGIN);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error)
+    public void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.END);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleResultSetOpen(@NotNull DBCResultSet resultSet)
+    public void handleResultSetOpen(@NotNull DBCResultSet resultSet)
     {
         QMMSessionInfo session = getSessionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount)
+    public void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount)
     {
         QMMSessionInfo session = getSessionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+                }
             }
         }
     }
@@ -304,13 +331,15 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
                     }
                 }
             }
-            synchronized (historySync) {
-                pastEvents.addAll(events);
-                int size = pastEvents.size();
-                if (size > MAX_HISTORY_EVENTS) {
-                    pastEvents = new ArrayList<>(pastEvents.subList(
-                        size - MAX_HISTORY_EVENTS,
-                        size));
+            if (!events.isEmpty()) {
+                synchronized (historySync) {
+                    // Bounded history: drop oldest events
+                    for (QMMetaEvent event : events) {
+                        if (pastEvents.size() >= MAX_HISTORY_EVENTS) {
+                            pastEvents.removeFirst();
+                        }
+                        pastEvents.addLast(event);
+                    }
                 }
             }
             if (isRunning()) {
@@ -34,7 +34,9 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
 import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
 import org.jkiss.dbeaver.model.impl.local.StatResultSet;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -42,6 +44,7 @@ import org.jkiss.dbeaver.model.sql.SQLDataSource;
 import org.jkiss.dbeaver.model.sql.SQLQuery;
 import org.jkiss.dbeaver.model.sql.SQLQueryParameter;
 import org.jkiss.dbeaver.model.sql.SQLQueryResult;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.runtime.jobs.DataSourceJob;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -53,6 +56,8 @@ import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.io.Closeable;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -80,6 +85,7 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
     private SQLScriptCommitType commitType;
     private SQLScriptErrorHandling errorHandling;
     private boolean fetchResultSets;
+    private int batchSize;
     private long rsOffset;
     private long rsMaxRows;
 
@@ -91,6 +97,8 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
     private int fetchResultSetNumber;
     private int resultSetNumber;
     private SQLQuery lastGoodQuery;
+    // Index of first failed statement in last executed batch
+    private int batchFailedIndex;
 
     public SQLQueryJob(
         @NotNull IWorkbenchPartSite partSite,
@@ -115,6 +123,7 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
             this.errorHandling = SQLScriptErrorHandling.valueOf(preferenceStore.getString(DBeaverPreferences.SCRIPT_ERROR_HANDLING));
             this.fetchResultSets = queries.size() == 1 || preferenceStore.getBoolean(DBeaverPreferences.SCRIPT_FETCH_RESULT_SETS);
             this.rsMaxRows = preferenceStore.getInt(DBeaverPreferences.RESULT_SET_MAX_ROWS);
+            this.batchSize = preferenceStore.getInt(DBeaverPreferences.SCRIPT_BATCH_SIZE);
         }
     }
 
@@ -174,12 +183,35 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
                 }
 
                 resultSetNumber = 0;
+                // Number of statements after current one which were already executed in failed batch
+                int executedAhead = 0;
+                boolean retrySingle = false;
                 for (int queryNum = 0; queryNum < queries.size(); ) {
                     // Execute query
                     SQLQuery query = queries.get(queryNum);
 
                     fetchResultSetNumber = resultSetNumber;
-                    boolean runNext = executeSingleQuery(session, query, true);
+                    boolean runNext;
+                    int batchLength = retrySingle ? 1 : getBatchLength(queryNum);
+                    retrySingle = false;
+                    if (batchLength > 1) {
+                        int processed = executeQueryBatch(session, queries.subList(queryNum, queryNum + batchLength));
+                        if (batchFailedIndex < 0) {
+                            monitor.worked(processed);
+                            queryNum += processed;
+                            if (monitor.isCanceled()) {
+                                break;
+                            }
+                            continue;
+                        }
+                        // Stop on failed statement
+                        monitor.worked(batchFailedIndex);
+                        queryNum += batchFailedIndex;
+                        executedAhead = processed - batchFailedIndex - 1;
+                        runNext = false;
+                    } else {
+                        runNext = executeSingleQuery(session, query, true);
+                    }
                     if (!runNext) {
                         // Ask to continue
                         if (lastError != null) {
@@ -198,7 +230,8 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
                                 stopScript = true;
                                 break;
                             case RETRY:
-                                // just make it again
+                                // just make it again. Do not batch it - following statements could be executed already
+                                retrySingle = true;
                                 continue;
                             case IGNORE:
                                 // Just do nothing
@@ -217,8 +250,9 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
                     if (monitor.isCanceled()) {
                         break;
                     }
-                    monitor.worked(1);
-                    queryNum++;
+                    monitor.worked(1 + executedAhead);
+                    queryNum += 1 + executedAhead;
+                    executedAhead = 0;
                 }
                 showExecutionResult(session);
                 monitor.done();
@@ -429,6 +463,181 @@ public class SQLQueryJob extends DataSourceJob implements Closeable
         return true;
     }
 
+    /**
+     * Returns number of consecutive statements (starting from queryNum) which may be executed in one batch.
+     * Only DML statements without parameters are batched.
+     */
+    private int getBatchLength(int queryNum)
+    {
+        if (batchSize <= 1 || queries.size() <= 1 || (dataFilter != null && dataFilter.hasFilters())) {
+            return 1;
+        }
+        DBCExecutionContext executionContext = getExecutionContext();
+        if (!(executionContext instanceof JDBCExecutionContext) || !executionContext.getDataSource().getInfo().supportsBatchUpdates()) {
+            return 1;
+        }
+        int length = 0;
+        while (length < batchSize && queryNum + length < queries.size() && isBatchQuery(queries.get(queryNum + length))) {
+            length++;
+        }
+        return length;
+    }
+
+    private static boolean isBatchQuery(SQLQuery query)
+    {
+        // Statements returning result sets (INSERT ... RETURNING, OUTPUT) can't be executed in batch
+        return CommonUtils.isEmpty(query.getParameters()) && query.isPlainUpdate();
+    }
+
+    /**
+     * Executes statements in one JDBC batch. Each statement is reported to listener separately.
+     * Sets batchFailedIndex to the index of the first failed statement (-1 if there were no errors or errors are ignored).
+     * @return number of processed statements. It may be less than batch size if driver stopped on error.
+     */
+    private int executeQueryBatch(@NotNull DBCSession session, @NotNull List<SQLQuery> batch)
+    {
+        lastError = null;
+        batchFailedIndex = -1;
+
+        DBCExecutionContext executionContext = getExecutionContext();
+        SQLQuery firstQuery = batch.get(0);
+        boolean batchExecuted = false;
+        int[] updateCounts = null;
+        Throwable batchError = null;
+        long startTime = System.currentTimeMillis();
+        try {
+            closeStatement();
+
+            DBPDataSource dataSource = executionContext.getDataSource();
+            if (!connectionInvalidated && dataSource.getContainer().getPreferenceStore().getBoolean(DBeaverPreferences.STATEMENT_INVALIDATE_BEFORE_EXECUTE)) {
+                executionContext.invalidateContext(session.getProgressMonitor());
+                connectionInvalidated = true;
+            }
+
+            curStatement = session.prepareStatement(
+                DBCStatementType.SCRIPT,
+                SQLUtils.makeUnifiedLineFeeds(firstQuery.getQuery()),
+                false, false, false);
+            curStatement.setStatementSource(new AbstractExecutionSource(dataContainer, executionContext, partSite.getPart(), firstQuery));
+            if (!(curStatement instanceof JDBCStatement)) {
+                throw new DBCException("Batch execution is not supported");
+            }
+            JDBCStatement jdbcStatement = (JDBCStatement) curStatement;
+            for (SQLQuery query : batch) {
+                jdbcStatement.addBatch(SQLUtils.makeUnifiedLineFeeds(query.getQuery()));
+            }
+            batchExecuted = true;
+            statistics.setQueryText(batch.get(batch.size() - 1).getQuery());
+            updateCounts = curStatement.executeStatementBatch();
+        } catch (Throwable e) {
+            batchError = e;
+            BatchUpdateException batchException = getBatchException(e);
+            if (batchException != null) {
+                updateCounts = batchException.getUpdateCounts();
+            }
+        } finally {
+            closeStatement();
+        }
+        long queryTime = System.currentTimeMillis() - startTime;
+
+        if (!batchExecuted) {
+            // Batch wasn't sent to server. Disable batches and execute statements one by one
+            log.debug("Can't execute statements batch: " + batchError.getMessage());
+            batchSize = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                fetchResultSetNumber = resultSetNumber;
+                if (!executeSingleQuery(session, batch.get(i), true)) {
+                    batchFailedIndex = i;
+                    return i + 1;
+                }
+            }
+            return batch.size();
+        }
+        statistics.addExecuteTime(queryTime);
+
+        int processed;
+        if (batchError == null) {
+            processed = batch.size();
+        } else if (updateCounts == null) {
+            // Unknown state - attribute error to the first statement
+            processed = 1;
+        } else {
+            // Driver either stopped on failed statement or continued and marked failed ones
+            processed = Math.min(batch.size(), updateCounts.length + 1);
+        }
+
+        int firstFailed = -1;
+        if (batchError != null) {
+            for (int i = 0; i < processed; i++) {
+                if (updateCounts == null || i >= updateCounts.length || updateCounts[i] == Statement.EXECUTE_FAILED) {
+                    firstFailed = i;
+                    break;
+                }
+            }
+            if (firstFailed < 0) {
+                // Driver reported error but didn't mark any statement - attribute it to the last processed one
+                firstFailed = processed - 1;
+            }
+        }
+        for (int i = 0; i < processed; i++) {
+            SQLQuery query = batch.get(i);
+            SQLQueryResult curResult = new SQLQueryResult(query);
+            if (listener != null) {
+                try {
+                    listener.onStartQuery(query);
+                } catch (Exception e) {
+                    log.error(e);
+                }
+            }
+            statistics.addStatementsCount();
+            boolean failed = batchError != null &&
+                (i == firstFailed || updateCounts == null || i >= updateCounts.length || updateCounts[i] == Statement.EXECUTE_FAILED);
+            if (failed) {
+                curResult.setError(batchError);
+            } else {
+                int updateCount = updateCounts == null || i >= updateCounts.length ? Statement.SUCCESS_NO_INFO : updateCounts[i];
+                if (updateCount >= 0) {
+                    curResult.setUpdateCount(updateCount);
+                    statistics.addRowsUpdated(updateCount);
+                }
+                lastGoodQuery = query;
+            }
+            curResult.setQueryTime(queryTime / processed);
+            if (listener != null) {
+                try {
+                    listener.onEndQuery(curResult);
+                } catch (Exception e) {
+                    log.error(e);
+                }
+            }
+        }
+
+        if (batchError != null) {
+            if (!(batchError instanceof DBException)) {
+                log.error("Unexpected error while executing SQL batch", batchError);
+            }
+            lastError = batchError;
+            if (errorHandling != SQLScriptErrorHandling.IGNORE) {
+                batchFailedIndex = firstFailed;
+            }
+        }
+        return processed;
+    }
+
+    @Nullable
+    private static BatchUpdateException getBatchException(Throwable error)
+    {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof BatchUpdateException) {
+                return (BatchUpdateException) e;
+            }
+            if (e.getCause() == e) {
+                break;
+            }
+        }
+        return null;
+    }
+
     private void showExecutionResult(DBCSession session) {
         if (statistics.getStatementsCount() > 1 || resultSetNumber == 0) {
             SQLQuery query = new SQLQuery("", -1, -1);
@@ -25,59 +25,117 @@ import org.jkiss.dbeaver.model.DBPPropertyDescriptor;
 import org.jkiss.dbeaver.model.DBPSystemObject;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseFolder;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
-import org.jkiss.dbeaver.model.navigator.meta.DBXTreeNode;
 import org.jkiss.dbeaver.model.runtime.DBRProgressListener;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
 import org.jkiss.dbeaver.runtime.properties.*;
 
 import java.util.*;
-
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares object trees.
+ * Metadata of all compared trees is read first (each object type in a separate thread),
+ * then trees are compared in memory. Report lines are added to report as soon as
+ * object type is compared.
+ */
 public class CompareObjectsExecutor {
 
     private static final Log log = Log.getLog(CompareObjectsExecutor.class);
 
-    private final Object PROPS_LOCK = new Object();
+    private static final int MAX_PREFETCH_THREADS = 4;
+
+    /**
+     * Objects with the same name in all compared trees.
+     * Nodes are ordered as root nodes, missing node is null.
+     */
+    private static class CompareGroup {
+        final DBNDatabaseNode[] nodes;
+        List<ObjectPropertyDescriptor> properties;
+        final List<CompareGroup> children = new ArrayList<>();
+
+        CompareGroup(DBNDatabaseNode[] nodes)
+        {
+            this.nodes = nodes;
+        }
+
+        DBNDatabaseNode getFirstNode()
+        {
+            for (DBNDatabaseNode node : nodes) {
+                if (node != null) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        int getNodeCount()
+        {
+            int count = 0;
+            for (DBNDatabaseNode node : nodes) {
+                if (node != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Monitor for prefetch threads. Serializes progress reporting to the original monitor.
+     */
+    private static class PrefetchMonitor extends ProxyProgressMonitor {
+        PrefetchMonitor(DBRProgressMonitor original)
+        {
+            super(original);
+        }
+
+        @Override
+        public synchronized void subTask(String name)
+        {
+            super.subTask(name);
+        }
+
+        @Override
+        public synchronized void worked(int work)
+        {
+            super.worked(work);
+        }
+    }
 
     private CompareObjectsSettings settings;
 
     private final List<DBNDatabaseNode> rootNodes;
     private final Map<DBPDataSource, DataSourcePropertyFilter> dataSourceFilters = new IdentityHashMap<>();
+    private final Map<List<Object>, List<ObjectPropertyDescriptor>> objectProperties = new HashMap<>();
 
     private final DBRProgressListener initializeFinisher;
     private final ILazyPropertyLoadListener lazyPropertyLoadListener;
 
-    private volatile int initializedCount = 0;
+    private final AtomicInteger initializedCount = new AtomicInteger();
     private volatile IStatus initializeError;
     private final Map<Object, Map<DBPPropertyDescriptor, Object>> propertyValues = new IdentityHashMap<>();
 
-    private final List<CompareReportLine> reportLines = new ArrayList<>();
+    private volatile CompareReport report;
     private int reportDepth = 0;
     private CompareReportLine lastLine;
 
-    private void reportObjectsCompareBegin(List<DBNDatabaseNode> objects)
+    private void reportObjectsCompareBegin(CompareGroup group)
     {
         reportDepth++;
         lastLine = new CompareReportLine();
         lastLine.depth = reportDepth;
-        lastLine.structure = objects.get(0);
-        lastLine.nodes = new DBNDatabaseNode[rootNodes.size()];
-        for (int i = 0; i < rootNodes.size(); i++) {
-            for (DBNDatabaseNode node : objects) {
-                if (node == rootNodes.get(i) || node.isChildOf(rootNodes.get(i))) {
-                    lastLine.nodes[i] = node;
-                    break;
-                }
-            }
-        }
+        lastLine.structure = group.getFirstNode();
+        lastLine.nodes = group.nodes;
         for (DBNDatabaseNode node : lastLine.nodes) {
             if (node == null) {
                 lastLine.hasDifference = true;
                 break;
             }
         }
-        reportLines.add(lastLine);
     }
 
     private void reportPropertyCompare(ObjectPropertyDescriptor property)
@@ -89,9 +147,11 @@ public class CompareObjectsExecutor {
             if (node == null) {
                 continue;
             }
-            Map<DBPPropertyDescriptor, Object> valueMap = propertyValues.get(node.getObject());
-            if (valueMap != null) {
-                reportProperty.values[i] = valueMap.get(property);
+            synchronized (propertyValues) {
+                Map<DBPPropertyDescriptor, Object> valueMap = propertyValues.get(node.getObject());
+                if (valueMap != null) {
+                    reportProperty.values[i] = valueMap.get(property);
+                }
             }
         }
         if (lastLine.properties == null) {
@@ -125,7 +185,7 @@ public class CompareObjectsExecutor {
                 if (!status.isOK()) {
                     initializeError = status;
                 } else {
-                    initializedCount++;
+                    initializedCount.incrementAndGet();
                 }
             }
         };
@@ -149,6 +209,14 @@ public class CompareObjectsExecutor {
         return initializeError;
     }
 
+    /**
+     * Report of the last compare. It is partial if compare was interrupted.
+     */
+    CompareReport getReport()
+    {
+        return report;
+    }
+
     void dispose()
     {
         PropertiesContributor.getInstance().removeLazyListener(lazyPropertyLoadListener);
@@ -157,129 +225,231 @@ public class CompareObjectsExecutor {
     public CompareReport compareObjects(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes)
         throws DBException, InterruptedException
     {
-        reportLines.clear();
-        lastLine = null;
-
-        compareNodes(monitor, nodes);
-        return new CompareReport(rootNodes, reportLines);
+        return compareObjects(monitor, nodes, null);
     }
 
-    private void compareNodes(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes)
+    CompareReport compareObjects(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes, CompareReport.ReportListener listener)
         throws DBException, InterruptedException
     {
-        reportObjectsCompareBegin(nodes);
+        synchronized (propertyValues) {
+            propertyValues.clear();
+        }
+        report = new CompareReport(rootNodes);
+        if (listener != null) {
+            report.addListener(listener);
+        }
+        lastLine = null;
+        reportDepth = 0;
+
+        CompareGroup rootGroup = new CompareGroup(nodes.toArray(new DBNDatabaseNode[nodes.size()]));
+        if (rootGroup.getNodeCount() <= 1) {
+            // Nothing to compare
+            compareGroup(rootGroup);
+            report.setCompleted();
+            return report;
+        }
 
+        initializeNodes(monitor, nodes);
+
+        ExecutorService prefetchExecutor = Executors.newFixedThreadPool(MAX_PREFETCH_THREADS, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "Compare prefetch " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
         try {
-            if (nodes.size() > 1) {
-                // Go deeper only if we have more than one node
-                if (!settings.isCompareOnlyStructure() && !(nodes.get(0) instanceof DBNDatabaseFolder)) {
-                    compareProperties(monitor, nodes);
-                }
+            final DBRProgressMonitor prefetchMonitor = new PrefetchMonitor(monitor);
+
+            // Read root objects. Different connections are read in parallel
+            monitor.subTask("Read metadata");
+            prefetchRootGroup(prefetchMonitor, prefetchExecutor, rootGroup);
+
+            // Read each object type (tables, views, etc) in its own thread
+            List<Future<?>> childFutures = new ArrayList<>();
+            for (final CompareGroup childGroup : rootGroup.children) {
+                childFutures.add(prefetchExecutor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception
+                    {
+                        prefetchGroup(prefetchMonitor, childGroup);
+                        return null;
+                    }
+                }));
+            }
 
-                compareChildren(monitor, nodes);
+            // Compare in memory. Each object type is reported as soon as it is read
+            reportObjectsCompareBegin(rootGroup);
+            try {
+                compareGroupProperties(rootGroup);
+                report.addLine(lastLine);
+                for (int i = 0; i < rootGroup.children.size(); i++) {
+                    waitForFuture(monitor, childFutures.get(i));
+                    compareGroup(rootGroup.children.get(i));
+                }
+            } finally {
+                reportObjectsCompareEnd();
             }
         } finally {
-            reportObjectsCompareEnd();
+            prefetchExecutor.shutdownNow();
         }
+        report.setCompleted();
+        return report;
     }
 
-    private void compareProperties(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws DBException, InterruptedException
+    private void initializeNodes(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws DBException, InterruptedException
     {
         // Clear compare singletons
-        this.initializedCount = 0;
+        this.initializedCount.set(0);
         this.initializeError = null;
-        this.propertyValues.clear();
 
-        StringBuilder title = new StringBuilder();
-        // Initialize nodes
-        {
-            monitor.subTask("Initialize nodes");
-            for (DBNDatabaseNode node : nodes) {
-                if (title.length() > 0) title.append(", ");
-                title.append(node.getNodeFullName());
-                node.initializeNode(null, initializeFinisher);
-                monitor.worked(1);
+        monitor.subTask("Initialize nodes");
+        for (DBNDatabaseNode node : nodes) {
+            node.initializeNode(null, initializeFinisher);
+            monitor.worked(1);
+        }
+        while (initializedCount.get() != nodes.size()) {
+            if (initializeError != null) {
+                throw new DBException(initializeError.getMessage());
             }
-            while (initializedCount != nodes.size()) {
-                if (initializeError != null) {
-                    throw new DBException(initializeError.getMessage());
-                }
-                Thread.sleep(100);
-                if (monitor.isCanceled()) {
-                    throw new InterruptedException();
-                }
+            Thread.sleep(100);
+            if (monitor.isCanceled()) {
+                throw new InterruptedException();
             }
         }
+    }
 
-        monitor.subTask("Compare " + title.toString());
-        boolean compareLazyProperties = false;
+    private void prefetchRootGroup(final DBRProgressMonitor monitor, ExecutorService executor, final CompareGroup group)
+        throws DBException, InterruptedException
+    {
+        group.properties = getGroupProperties(group);
+        final DBNDatabaseNode[][] allChildren = new DBNDatabaseNode[group.nodes.length][];
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < group.nodes.length; i++) {
+            final int index = i;
+            futures.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception
+                {
+                    DBNDatabaseNode node = group.nodes[index];
+                    loadProperties(monitor, node, group.properties);
+                    allChildren[index] = loadChildren(monitor, node);
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            waitForFuture(monitor, future);
+        }
+        matchChildren(group, allChildren);
+    }
 
-        DBNDatabaseNode firstNode = nodes.get(0);
-        List<ObjectPropertyDescriptor> properties = ObjectPropertyDescriptor.extractAnnotations(
-            null,
-            firstNode.getObject().getClass(),
-            getDataSourceFilter(firstNode));
-        for (ObjectPropertyDescriptor prop : properties) {
-            if (prop.isLazy()) {
-                compareLazyProperties = true;
-                break;
+    /**
+     * Reads properties and children of all group objects and their children.
+     */
+    private void prefetchGroup(DBRProgressMonitor monitor, CompareGroup group)
+        throws DBException, InterruptedException
+    {
+        if (group.getNodeCount() <= 1) {
+            // Go deeper only if we have more than one node
+            return;
+        }
+        if (monitor.isCanceled()) {
+            throw new InterruptedException();
+        }
+        group.properties = getGroupProperties(group);
+        DBNDatabaseNode[][] allChildren = new DBNDatabaseNode[group.nodes.length][];
+        for (int i = 0; i < group.nodes.length; i++) {
+            DBNDatabaseNode node = group.nodes[i];
+            if (node != null) {
+                loadProperties(monitor, node, group.properties);
+                allChildren[i] = loadChildren(monitor, node);
             }
         }
-        compareLazyProperties = compareLazyProperties && settings.isCompareLazyProperties();
+        matchChildren(group, allChildren);
+        for (CompareGroup childGroup : group.children) {
+            prefetchGroup(monitor, childGroup);
+        }
+    }
 
-        // Load all properties
-        for (DBNDatabaseNode node : nodes) {
-            if (monitor.isCanceled()) {
-                throw new InterruptedException();
-            }
-            DBSObject databaseObject = node.getObject();
-            Map<DBPPropertyDescriptor, Object> nodeProperties = propertyValues.get(databaseObject);
-            if (nodeProperties == null) {
-                nodeProperties = new IdentityHashMap<>();
-                propertyValues.put(databaseObject, nodeProperties);
+    private List<ObjectPropertyDescriptor> getGroupProperties(CompareGroup group)
+    {
+        DBNDatabaseNode firstNode = group.getFirstNode();
+        if (settings.isCompareOnlyStructure() || firstNode instanceof DBNDatabaseFolder) {
+            return Collections.emptyList();
+        }
+        DataSourcePropertyFilter filter = getDataSourceFilter(firstNode);
+        Class<? extends DBSObject> objectClass = firstNode.getObject().getClass();
+        List<Object> propsKey = Arrays.<Object>asList(filter, objectClass);
+        synchronized (objectProperties) {
+            List<ObjectPropertyDescriptor> properties = objectProperties.get(propsKey);
+            if (properties == null) {
+                properties = ObjectPropertyDescriptor.extractAnnotations(null, objectClass, filter);
+                objectProperties.put(propsKey, properties);
             }
-            PropertyCollector propertySource = new PropertyCollector(databaseObject, compareLazyProperties);
+            return properties;
+        }
+    }
+
+    private void loadProperties(DBRProgressMonitor monitor, DBNDatabaseNode node, List<ObjectPropertyDescriptor> properties)
+        throws InterruptedException
+    {
+        if (properties.isEmpty()) {
+            return;
+        }
+        if (monitor.isCanceled()) {
+            throw new InterruptedException();
+        }
+        boolean compareLazyProperties = false;
+        if (settings.isCompareLazyProperties()) {
             for (ObjectPropertyDescriptor prop : properties) {
-                Object propertyValue = propertySource.getPropertyValue(monitor, databaseObject, prop);
-                synchronized (PROPS_LOCK) {
-                    nodeProperties.put(prop, propertyValue);
+                if (prop.isLazy()) {
+                    compareLazyProperties = true;
+                    break;
                 }
             }
-            monitor.worked(1);
         }
 
-        // Compare properties
+        DBSObject databaseObject = node.getObject();
+        Map<DBPPropertyDescriptor, Object> nodeProperties = new IdentityHashMap<>();
+        synchronized (propertyValues) {
+            propertyValues.put(databaseObject, nodeProperties);
+        }
+        PropertyCollector propertySource = new PropertyCollector(databaseObject, compareLazyProperties);
         for (ObjectPropertyDescriptor prop : properties) {
-            reportPropertyCompare(prop);
+            Object propertyValue = propertySource.getPropertyValue(monitor, databaseObject, prop);
+            synchronized (propertyValues) {
+                nodeProperties.put(prop, propertyValue);
+            }
         }
+        monitor.worked(1);
     }
 
-    private void compareChildren(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws DBException, InterruptedException
+    /**
+     * Reads node children which must be compared. Returns null on read error.
+     */
+    private DBNDatabaseNode[] loadChildren(DBRProgressMonitor monitor, DBNDatabaseNode node)
+        throws InterruptedException
     {
-        // Compare children
-        int nodeCount = nodes.size();
-        List<DBNDatabaseNode[]> allChildren = new ArrayList<>(nodeCount);
-        for (int i = 0; i < nodeCount; i++) {
-            DBNDatabaseNode node = nodes.get(i);
-            // Cache structure if possible
+        if (monitor.isCanceled()) {
+            throw new InterruptedException();
+        }
+        try {
+            // Cache structure if possible. It reads all child objects with a few queries
             if (node.getObject() instanceof DBSObjectContainer) {
+                monitor.subTask("Read " + node.getNodeFullName());
                 ((DBSObjectContainer) node.getObject()).cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
             }
-            try {
-                DBNDatabaseNode[] children = node.getChildren(monitor);
-                allChildren.add(children);
-            } catch (Exception e) {
-                log.warn("Error reading child nodes for compare", e);
-                allChildren.add(null);
+            DBNDatabaseNode[] children = node.getChildren(monitor);
+            if (children == null) {
+                return new DBNDatabaseNode[0];
             }
-        }
-
-        Set<String> allChildNames = new LinkedHashSet<>();
-        for (DBNDatabaseNode[] childList : allChildren) {
-            if (childList == null) continue;
-            for (DBNDatabaseNode child : childList) {
-                DBXTreeNode meta = child.getMeta();
-                if (meta.isVirtual()) {
+            List<DBNDatabaseNode> result = new ArrayList<>(children.length);
+            for (DBNDatabaseNode child : children) {
+                if (child.getMeta().isVirtual()) {
                     // Skip virtual nodes
                     continue;
                 }
@@ -287,47 +457,89 @@ public class CompareObjectsExecutor {
                     // Skip system objects
                     continue;
                 }
-                allChildNames.add(child.getNodeName());
+                result.add(child);
             }
+            return result.toArray(new DBNDatabaseNode[result.size()]);
+        } catch (Exception e) {
+            log.warn("Error reading child nodes for compare", e);
+            return null;
         }
+    }
 
-        for (String childName : allChildNames) {
-            int[] childIndexes = new int[nodeCount];
-            for (int i = 0; i < nodeCount; i++) {
-                childIndexes[i] = -1;
-                DBNDatabaseNode[] childList = allChildren.get(i);
-                if (childList == null) continue;
-                for (int k = 0; k < childList.length; k++) {
-                    DBNDatabaseNode child = childList[k];
-                    if (child.getNodeName().equals(childName)) {
-                        childIndexes[i] = k;
-                        break;
-                    }
+    /**
+     * Groups children of all nodes by name. Groups are ordered by first occurrence of the name.
+     */
+    private static void matchChildren(CompareGroup group, DBNDatabaseNode[][] allChildren)
+    {
+        int nodeCount = group.nodes.length;
+        Map<String, CompareGroup> childGroups = new LinkedHashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            DBNDatabaseNode[] childList = allChildren[i];
+            if (childList == null) continue;
+            for (DBNDatabaseNode child : childList) {
+                String childName = child.getNodeName();
+                CompareGroup childGroup = childGroups.get(childName);
+                if (childGroup == null) {
+                    childGroup = new CompareGroup(new DBNDatabaseNode[nodeCount]);
+                    childGroups.put(childName, childGroup);
+                }
+                if (childGroup.nodes[i] == null) {
+                    childGroup.nodes[i] = child;
                 }
             }
+        }
+        group.children.addAll(childGroups.values());
+    }
 
-            List<DBNDatabaseNode> nodesToCompare = new ArrayList<>(nodeCount);
-            for (int i = 0; i < nodeCount; i++) {
-                if (childIndexes[i] == -1) {
-                    // Missing
-                } else {
-                    for (int k = 0; k < nodeCount; k++) {
-                        if (k != i && childIndexes[k] != childIndexes[i]) {
-                            // Wrong index - add to report
-                            break;
-                        }
-                    }
-                    final DBNDatabaseNode[] childList = allChildren.get(i);
-                    if (childList != null) {
-                        nodesToCompare.add(childList[childIndexes[i]]);
-                    }
-                }
+    /**
+     * Compares prefetched group and reports its lines
+     */
+    private void compareGroup(CompareGroup group)
+    {
+        reportObjectsCompareBegin(group);
+        try {
+            compareGroupProperties(group);
+            report.addLine(lastLine);
+            for (CompareGroup childGroup : group.children) {
+                compareGroup(childGroup);
+            }
+        } finally {
+            reportObjectsCompareEnd();
+        }
+    }
+
+    private void compareGroupProperties(CompareGroup group)
+    {
+        if (group.properties != null && group.getNodeCount() > 1) {
+            for (ObjectPropertyDescriptor prop : group.properties) {
+                reportPropertyCompare(prop);
             }
-            // Compare children recursively
-            compareNodes(monitor, nodesToCompare);
         }
     }
 
+    private static void waitForFuture(DBRProgressMonitor monitor, Future<?> future)
+        throws DBException, InterruptedException
+    {
+        for (;;) {
+            if (monitor.isCanceled()) {
+                throw new InterruptedException();
+            }
+            try {
+                future.get(100, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // Check for cancel and wait again
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof DBException) {
+                    throw (DBException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                }
+                throw new DBException("Error reading metadata for compare", cause);
+            }
+        }
+    }
 
     private DataSourcePropertyFilter getDataSourceFilter(DBNDatabaseNode node)
     {
@@ -335,12 +547,14 @@ public class CompareObjectsExecutor {
         if (dataSource == null) {
             return null;
         }
-        DataSourcePropertyFilter filter = dataSourceFilters.get(dataSource);
-        if (filter == null) {
-            filter = new DataSourcePropertyFilter(dataSource);
-            dataSourceFilters.put(dataSource, filter);
+        synchronized (dataSourceFilters) {
+            DataSourcePropertyFilter filter = dataSourceFilters.get(dataSource);
+            if (filter == null) {
+                filter = new DataSourcePropertyFilter(dataSource);
+                dataSourceFilters.put(dataSource, filter);
+            }
+            return filter;
         }
-        return filter;
     }
 
-}
\ No newline at end of file
+}
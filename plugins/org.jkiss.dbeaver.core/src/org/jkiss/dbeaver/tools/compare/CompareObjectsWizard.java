@@ -30,6 +30,7 @@ import org.jkiss.dbeaver.core.DBeaverUI;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableWithProgress;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.utils.CommonUtils;
@@ -106,6 +107,13 @@ public class CompareObjectsWizard extends Wizard implements IExportWizard {
                         CompareReport report = generateReport(monitor, executor);
 
                         renderReport(monitor, report);
+                    } catch (InterruptedException e) {
+                        // Show what was compared so far
+                        CompareReport partialReport = executor.getReport();
+                        if (partialReport != null && partialReport.getLineCount() > 0) {
+                            renderReport(VoidProgressMonitor.INSTANCE, partialReport);
+                        }
+                        throw e;
                     } catch (DBException e) {
                         throw new InvocationTargetException(e);
                     }
@@ -131,10 +139,18 @@ public class CompareObjectsWizard extends Wizard implements IExportWizard {
         return true;
     }
 
-    private CompareReport generateReport(DBRProgressMonitor monitor, CompareObjectsExecutor executor) throws DBException, InterruptedException
+    private CompareReport generateReport(final DBRProgressMonitor monitor, CompareObjectsExecutor executor) throws DBException, InterruptedException
     {
         monitor.beginTask("Compare objects", 1000);
-        CompareReport report = executor.compareObjects(monitor, getSettings().getNodes());
+        CompareReport report = executor.compareObjects(monitor, getSettings().getNodes(), new CompareReport.ReportListener() {
+            @Override
+            public void onLineAdded(CompareReport report, CompareReportLine line)
+            {
+                if (line.depth <= 2) {
+                    monitor.subTask("Compared " + report.getLineCount() + " objects (" + report.getDifferenceCount() + " differences)");
+                }
+            }
+        });
         monitor.done();
         return report;
     }
@@ -19,19 +19,29 @@ package org.jkiss.dbeaver.tools.compare;
 
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
-* Report
+* Report.
+* Lines are added while compare is in progress, so report may be partial.
 */
 class CompareReport {
-    private List<DBNDatabaseNode> nodes;
-    private List<CompareReportLine> reportLines;
 
-    CompareReport(List<DBNDatabaseNode> nodes, List<CompareReportLine> reportLines)
+    interface ReportListener {
+        void onLineAdded(CompareReport report, CompareReportLine line);
+    }
+
+    private final List<DBNDatabaseNode> nodes;
+    private final List<CompareReportLine> reportLines = new ArrayList<>();
+    private final List<ReportListener> listeners = new CopyOnWriteArrayList<>();
+    private int differenceCount;
+    private volatile boolean completed;
+
+    CompareReport(List<DBNDatabaseNode> nodes)
     {
         this.nodes = nodes;
-        this.reportLines = reportLines;
     }
 
     public List<DBNDatabaseNode> getNodes()
@@ -39,8 +49,54 @@ class CompareReport {
         return nodes;
     }
 
-    public List<CompareReportLine> getReportLines()
+    /**
+     * Returns snapshot of report lines
+     */
+    public synchronized List<CompareReportLine> getReportLines()
+    {
+        return new ArrayList<>(reportLines);
+    }
+
+    public synchronized int getLineCount()
+    {
+        return reportLines.size();
+    }
+
+    public synchronized int getDifferenceCount()
+    {
+        return differenceCount;
+    }
+
+    public boolean isCompleted()
+    {
+        return completed;
+    }
+
+    void addListener(ReportListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    void removeListener(ReportListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    void addLine(CompareReportLine line)
+    {
+        synchronized (this) {
+            reportLines.add(line);
+            if (line.hasDifference) {
+                differenceCount++;
+            }
+        }
+        for (ReportListener listener : listeners) {
+            listener.onLineAdded(this, line);
+        }
+    }
+
+    void setCompleted()
     {
-        return reportLines;
+        this.completed = true;
     }
 }
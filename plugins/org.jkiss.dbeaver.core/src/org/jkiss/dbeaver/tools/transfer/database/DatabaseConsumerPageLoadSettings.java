@@ -87,6 +87,17 @@ public class DatabaseConsumerPageLoadSettings extends ActiveWizardPage<DataTrans
                 }
             });
             commitAfterEdit.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
+
+            final Button useBulkLoadCheck = UIUtils.createLabelCheckbox(performanceSettings, "Use bulk load (if supported)", settings.isUseBulkLoad());
+            useBulkLoadCheck.setToolTipText("Use native bulk load (e.g. COPY or LOAD DATA) for tables with simple column types.\nFalls back to regular inserts if bulk load isn't supported by target.");
+            useBulkLoadCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e)
+                {
+                    settings.setUseBulkLoad(useBulkLoadCheck.getSelection());
+                }
+            });
+            useBulkLoadCheck.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
         }
 
         {
@@ -59,6 +59,7 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
     private boolean openNewConnections = true;
     private boolean useTransactions = true;
     private int commitAfterRows = 10000;
+    private boolean useBulkLoad = false;
     private boolean openTableOnFinish = true;
 
     public DatabaseConsumerSettings()
@@ -151,6 +152,16 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         this.commitAfterRows = commitAfterRows;
     }
 
+    public boolean isUseBulkLoad()
+    {
+        return useBulkLoad;
+    }
+
+    public void setUseBulkLoad(boolean useBulkLoad)
+    {
+        this.useBulkLoad = useBulkLoad;
+    }
+
     @Nullable
     DBPDataSource getTargetDataSource(DatabaseMappingObject attrMapping)
     {
@@ -177,6 +188,9 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         if (dialogSettings.get("commitAfterRows") != null) {
             commitAfterRows = dialogSettings.getInt("commitAfterRows");
         }
+        if (dialogSettings.get("useBulkLoad") != null) {
+            useBulkLoad = dialogSettings.getBoolean("useBulkLoad");
+        }
         if (dialogSettings.get("openTableOnFinish") != null) {
             openTableOnFinish = dialogSettings.getBoolean("openTableOnFinish");
         }
@@ -205,6 +219,7 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         dialogSettings.put("openNewConnections", openNewConnections);
         dialogSettings.put("useTransactions", useTransactions);
         dialogSettings.put("commitAfterRows", commitAfterRows);
+        dialogSettings.put("useBulkLoad", useBulkLoad);
         dialogSettings.put("openTableOnFinish", openTableOnFinish);
     }
 
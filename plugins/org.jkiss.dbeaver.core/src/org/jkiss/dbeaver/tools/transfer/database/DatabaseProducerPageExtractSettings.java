@@ -34,13 +34,17 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
 
     private static final int EXTRACT_TYPE_SINGLE_QUERY = 0;
     private static final int EXTRACT_TYPE_SEGMENTS = 1;
+    private static final int EXTRACT_TYPE_KEY_RANGES = 2;
 
     private Spinner threadsNumText;
     private Combo rowsExtractType;
     private Label segmentSizeLabel;
     private Text segmentSizeText;
+    private Label partitionCountLabel;
+    private Spinner partitionCountText;
     private Button newConnectionCheckbox;
     private Button rowCountCheckbox;
+    private Button pipelinedCheckbox;
 
     public DatabaseProducerPageExtractSettings() {
         super("Extraction settings");
@@ -90,13 +94,15 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                 rowsExtractType = new Combo(generalSettings, SWT.DROP_DOWN | SWT.READ_ONLY);
                 rowsExtractType.setItems(new String[] {
                     CoreMessages.data_transfer_wizard_output_combo_extract_type_item_single_query,
-                    CoreMessages.data_transfer_wizard_output_combo_extract_type_item_by_segments });
+                    CoreMessages.data_transfer_wizard_output_combo_extract_type_item_by_segments,
+                    CoreMessages.data_transfer_wizard_output_combo_extract_type_item_by_key_ranges });
                 rowsExtractType.addSelectionListener(new SelectionAdapter() {
                     @Override
                     public void widgetSelected(SelectionEvent e) {
                         switch (rowsExtractType.getSelectionIndex()) {
                             case EXTRACT_TYPE_SEGMENTS: settings.setExtractType(DatabaseProducerSettings.ExtractType.SEGMENTS); break;
                             case EXTRACT_TYPE_SINGLE_QUERY: settings.setExtractType(DatabaseProducerSettings.ExtractType.SINGLE_QUERY); break;
+                            case EXTRACT_TYPE_KEY_RANGES: settings.setExtractType(DatabaseProducerSettings.ExtractType.KEY_RANGES); break;
                         }
                         updatePageCompletion();
                     }
@@ -117,6 +123,24 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                     }
                 });
                 segmentSizeText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_END, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
+
+                partitionCountLabel = UIUtils.createControlLabel(generalSettings, CoreMessages.data_transfer_wizard_output_label_partition_count);
+                partitionCountLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_END, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
+                partitionCountText = new Spinner(generalSettings, SWT.BORDER);
+                partitionCountText.setMinimum(2);
+                partitionCountText.setMaximum(32);
+                partitionCountText.addModifyListener(new ModifyListener() {
+                    @Override
+                    public void modifyText(ModifyEvent e)
+                    {
+                        try {
+                            settings.setPartitionCount(Integer.parseInt(partitionCountText.getText()));
+                        } catch (NumberFormatException e1) {
+                            // just skip it
+                        }
+                    }
+                });
+                partitionCountText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_END, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
             }
 
             newConnectionCheckbox = UIUtils.createLabelCheckbox(generalSettings, CoreMessages.data_transfer_wizard_output_checkbox_new_connection, true);
@@ -136,6 +160,15 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                 }
             });
             rowCountCheckbox.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
+
+            pipelinedCheckbox = UIUtils.createLabelCheckbox(generalSettings, CoreMessages.data_transfer_wizard_output_checkbox_pipelined, false);
+            pipelinedCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setPipelined(pipelinedCheckbox.getSelection());
+                }
+            });
+            pipelinedCheckbox.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
         }
 
         setControl(composite);
@@ -149,12 +182,15 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
 
         newConnectionCheckbox.setSelection(settings.isOpenNewConnections());
         rowCountCheckbox.setSelection(settings.isQueryRowCount());
+        pipelinedCheckbox.setSelection(settings.isPipelined());
 
         if (segmentSizeText != null) {
             segmentSizeText.setText(String.valueOf(settings.getSegmentSize()));
+            partitionCountText.setSelection(settings.getPartitionCount());
             switch (settings.getExtractType()) {
                 case SINGLE_QUERY: rowsExtractType.select(EXTRACT_TYPE_SINGLE_QUERY); break;
                 case SEGMENTS: rowsExtractType.select(EXTRACT_TYPE_SEGMENTS); break;
+                case KEY_RANGES: rowsExtractType.select(EXTRACT_TYPE_KEY_RANGES); break;
             }
         }
 
@@ -166,13 +202,10 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
     {
         if (rowsExtractType != null) {
             int selectionIndex = rowsExtractType.getSelectionIndex();
-            if (selectionIndex == EXTRACT_TYPE_SEGMENTS) {
-                segmentSizeLabel.setVisible(true);
-                segmentSizeText.setVisible(true);
-            } else {
-                segmentSizeLabel.setVisible(false);
-                segmentSizeText.setVisible(false);
-            }
+            segmentSizeLabel.setVisible(selectionIndex == EXTRACT_TYPE_SEGMENTS);
+            segmentSizeText.setVisible(selectionIndex == EXTRACT_TYPE_SEGMENTS);
+            partitionCountLabel.setVisible(selectionIndex == EXTRACT_TYPE_KEY_RANGES);
+            partitionCountText.setVisible(selectionIndex == EXTRACT_TYPE_KEY_RANGES);
         }
         return true;
     }
@@ -30,15 +30,19 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
     enum ExtractType {
         SINGLE_QUERY,
-        SEGMENTS
+        SEGMENTS,
+        KEY_RANGES
     }
 
     private static final int DEFAULT_SEGMENT_SIZE = 100000;
+    private static final int DEFAULT_PARTITION_COUNT = 4;
 
     private int segmentSize = DEFAULT_SEGMENT_SIZE;
+    private int partitionCount = DEFAULT_PARTITION_COUNT;
 
     private boolean openNewConnections = true;
     private boolean queryRowCount = true;
+    private boolean pipelined = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
 
     public DatabaseProducerSettings()
@@ -57,6 +61,21 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         }
     }
 
+    /**
+     * Number of key ranges (and parallel reader connections) in KEY_RANGES extract mode
+     */
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount)
+    {
+        if (partitionCount > 0) {
+            this.partitionCount = partitionCount;
+        }
+    }
+
     public boolean isQueryRowCount()
     {
         return queryRowCount;
@@ -77,6 +96,19 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.openNewConnections = openNewConnections;
     }
 
+    /**
+     * Pipelined mode. Rows are read and written in separate threads.
+     */
+    public boolean isPipelined()
+    {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined)
+    {
+        this.pipelined = pipelined;
+    }
+
     public ExtractType getExtractType()
     {
         return extractType;
@@ -102,12 +134,20 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         } catch (NumberFormatException e) {
             segmentSize = DEFAULT_SEGMENT_SIZE;
         }
+        try {
+            partitionCount = dialogSettings.getInt("partitionCount");
+        } catch (NumberFormatException e) {
+            partitionCount = DEFAULT_PARTITION_COUNT;
+        }
         if (!CommonUtils.isEmpty(dialogSettings.get("openNewConnections"))) {
             openNewConnections = dialogSettings.getBoolean("openNewConnections");
         }
         if (!CommonUtils.isEmpty(dialogSettings.get("queryRowCount"))) {
             queryRowCount = dialogSettings.getBoolean("queryRowCount");
         }
+        if (!CommonUtils.isEmpty(dialogSettings.get("pipelined"))) {
+            pipelined = dialogSettings.getBoolean("pipelined");
+        }
     }
 
     @Override
@@ -115,7 +155,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     {
         dialogSettings.put("extractType", extractType.name());
         dialogSettings.put("segmentSize", segmentSize);
+        dialogSettings.put("partitionCount", partitionCount);
         dialogSettings.put("openNewConnections", openNewConnections);
         dialogSettings.put("queryRowCount", queryRowCount);
+        dialogSettings.put("pipelined", pipelined);
     }
 }
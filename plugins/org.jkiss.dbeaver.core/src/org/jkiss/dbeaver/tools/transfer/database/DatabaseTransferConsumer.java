@@ -107,11 +107,19 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             columnMapping.targetIndex = targetAttributes.size();
             targetAttributes.add(columnMappings[i].targetAttr.getTarget());
         }
-        executeBatch = containerMapping.getTarget().insertData(
-            targetSession,
-            targetAttributes.toArray(new DBSAttributeBase[targetAttributes.size()]),
-            null,
-            new AbstractExecutionSource(sourceObject, targetContext, this));
+        final DBSDataManipulator target = containerMapping.getTarget();
+        final DBSAttributeBase[] attributes = targetAttributes.toArray(new DBSAttributeBase[targetAttributes.size()]);
+        final AbstractExecutionSource source = new AbstractExecutionSource(sourceObject, targetContext, this);
+        executeBatch = null;
+        if (settings.isUseBulkLoad() && target instanceof DBSDataBulkLoader) {
+            executeBatch = ((DBSDataBulkLoader) target).bulkLoadData(targetSession, attributes, source);
+            if (executeBatch == null) {
+                log.debug("Bulk load is not available for " + DBUtils.getObjectFullName(target) + ", use regular inserts");
+            }
+        }
+        if (executeBatch == null) {
+            executeBatch = target.insertData(targetSession, attributes, null, source);
+        }
     }
 
     @Override
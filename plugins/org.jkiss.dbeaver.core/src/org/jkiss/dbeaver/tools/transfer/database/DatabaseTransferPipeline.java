@@ -0,0 +1,411 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.jdbc.data.JDBCLazyContentStorage;
+import org.jkiss.dbeaver.model.impl.local.LocalResultSet;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer pipeline.
+ * Readers fetch row values in producer's thread(s) and pass them in blocks (through the bounded queue)
+ * to the consumer which is driven by a separate writer job.
+ * Readers block when queue is full so they never run too far ahead of writer.
+ * In merge mode rows of all readers are passed to consumer as a single result set of the merge session.
+ * Readers' sessions may be closed before writer consumes their rows, so they are not passed to consumer.
+ */
+class DatabaseTransferPipeline {
+
+    private static final Log log = Log.getLog(DatabaseTransferPipeline.class);
+
+    static final int DEFAULT_BLOCK_SIZE = 1000;
+    static final int DEFAULT_QUEUE_SIZE = 16;
+
+    private static final long QUEUE_POLL_TIMEOUT = 200;
+
+    private enum BlockType {
+        START,
+        ROWS,
+        END,
+        CLOSE,
+        FINISH
+    }
+
+    private static class RowBlock {
+        final BlockType type;
+        final List<Object[]> rows;
+        final DBCSession session;
+        final List<DBCAttributeMetaData> attributes;
+        final long offset;
+        final long maxRows;
+
+        RowBlock(BlockType type, List<Object[]> rows, DBCSession session, List<DBCAttributeMetaData> attributes, long offset, long maxRows)
+        {
+            this.type = type;
+            this.rows = rows;
+            this.session = session;
+            this.attributes = attributes;
+            this.offset = offset;
+            this.maxRows = maxRows;
+        }
+
+        RowBlock(BlockType type)
+        {
+            this(type, null, null, null, 0, 0);
+        }
+    }
+
+    private final IDataTransferConsumer consumer;
+    private final DBRProgressMonitor monitor;
+    private final int blockSize;
+    private final BlockingQueue<RowBlock> queue;
+    @Nullable
+    private final DBCSession mergeSession;
+    private final CountDownLatch writerLatch = new CountDownLatch(1);
+
+    private volatile Throwable writerError;
+    private volatile boolean aborted;
+
+    DatabaseTransferPipeline(@NotNull IDataTransferConsumer consumer, @NotNull DBRProgressMonitor monitor, int blockSize, int queueSize, @Nullable DBCSession mergeSession)
+    {
+        this.consumer = consumer;
+        this.monitor = monitor;
+        this.blockSize = blockSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.mergeSession = mergeSession;
+    }
+
+    /**
+     * Creates new data receiver which feeds this pipeline.
+     * Each reader must be used by a single thread.
+     */
+    DBDDataReceiver createReader()
+    {
+        return new PipelineReader();
+    }
+
+    /**
+     * Starts writer job
+     */
+    void start()
+    {
+        new WriterJob().schedule();
+    }
+
+    /**
+     * Signals writer about the end of data and waits until all queued rows are consumed.
+     * @throws DBCException if writer failed
+     */
+    void finish() throws DBCException
+    {
+        try {
+            putBlock(new RowBlock(BlockType.FINISH));
+        } finally {
+            waitForWriter();
+        }
+        checkWriterError();
+    }
+
+    /**
+     * Stops writer job if producer failed. Rows which are still in queue are discarded.
+     * Waits until writer stops, so producer's session may be closed after this call.
+     */
+    void abort()
+    {
+        aborted = true;
+        queue.clear();
+        waitForWriter();
+    }
+
+    private void putBlock(RowBlock block) throws DBCException
+    {
+        checkWriterError();
+        try {
+            while (!queue.offer(block, QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                checkWriterError();
+                if (aborted) {
+                    throw new DBCException("Data transfer aborted");
+                }
+                if (writerLatch.getCount() == 0) {
+                    throw new DBCException("Data writer has been terminated");
+                }
+                if (monitor.isCanceled()) {
+                    throw new DBCException("Data transfer canceled");
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new DBCException("Data transfer interrupted", e);
+        }
+    }
+
+    /**
+     * Waits for writer termination. Writer checks cancel before each block, so it stops soon after cancel.
+     * Consumer must not be used by anybody else (e.g. finished or closed) while writer runs.
+     */
+    private void waitForWriter()
+    {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                writerLatch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkWriterError() throws DBCException
+    {
+        Throwable error = writerError;
+        if (error != null) {
+            if (error instanceof DBCException) {
+                throw (DBCException) error;
+            }
+            throw new DBCException("Error writing data", error);
+        }
+    }
+
+    /**
+     * Reads row values in producer's thread
+     */
+    private class PipelineReader implements DBDDataReceiver {
+
+        private List<DBCAttributeMetaData> attributes;
+        private DBDValueHandler[] valueHandlers;
+        private List<Object[]> curBlock;
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException
+        {
+            attributes = new ArrayList<>(resultSet.getMeta().getAttributes());
+            valueHandlers = new DBDValueHandler[attributes.size()];
+            for (int i = 0; i < attributes.size(); i++) {
+                valueHandlers[i] = DBUtils.findValueHandler(session, attributes.get(i));
+            }
+            curBlock = new ArrayList<>(blockSize);
+            putBlock(new RowBlock(BlockType.START, null, session, attributes, offset, maxRows));
+        }
+
+        @Override
+        public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException
+        {
+            Object[] row = new Object[valueHandlers.length];
+            for (int i = 0; i < valueHandlers.length; i++) {
+                Object value = valueHandlers[i].fetchValueObject(session, resultSet, attributes.get(i), i);
+                if (value instanceof DBDContent) {
+                    // LOB locators may become invalid once cursor moves forward - read content here
+                    readContents(session, (DBDContent) value);
+                }
+                row[i] = value;
+            }
+            curBlock.add(row);
+            if (curBlock.size() >= blockSize) {
+                flushRows(session);
+            }
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException
+        {
+            flushRows(session);
+            putBlock(new RowBlock(BlockType.END, null, session, attributes, 0, 0));
+        }
+
+        @Override
+        public void close()
+        {
+            try {
+                putBlock(new RowBlock(BlockType.CLOSE));
+            } catch (DBCException e) {
+                log.debug(e);
+            }
+        }
+
+        private void readContents(DBCSession session, DBDContent content) throws DBCException
+        {
+            DBDContentStorage storage = content.getContents(session.getProgressMonitor());
+            if (storage instanceof JDBCLazyContentStorage) {
+                // Lazy storage reads from live LOB locator. Detach it before value leaves reader thread.
+                DBDContentStorage copy;
+                try {
+                    copy = storage.cloneStorage(session.getProgressMonitor());
+                } catch (IOException e) {
+                    throw new DBCException("IO error while reading LOB content", e);
+                }
+                content.release();
+                content.updateContents(session.getProgressMonitor(), copy);
+            }
+        }
+
+        private void flushRows(DBCSession session) throws DBCException
+        {
+            if (curBlock != null && !curBlock.isEmpty()) {
+                putBlock(new RowBlock(BlockType.ROWS, curBlock, session, attributes, 0, 0));
+                curBlock = new ArrayList<>(blockSize);
+            }
+        }
+    }
+
+    /**
+     * Result set over the rows of a single block
+     */
+    private static class BlockResultSet extends LocalResultSet<DBCStatement> {
+
+        private final List<DBCAttributeMetaData> attributes;
+
+        BlockResultSet(DBCSession session, List<DBCAttributeMetaData> attributes)
+        {
+            super(session, null);
+            this.attributes = attributes;
+        }
+
+        void setRows(List<Object[]> blockRows)
+        {
+            rows.clear();
+            rows.addAll(blockRows);
+            curPosition = -1;
+        }
+
+        @NotNull
+        @Override
+        public DBCResultSetMetaData getMeta() throws DBCException
+        {
+            return new DBCResultSetMetaData() {
+                @Override
+                public List<DBCAttributeMetaData> getAttributes()
+                {
+                    return attributes;
+                }
+            };
+        }
+
+        @Nullable
+        @Override
+        public Object getAttributeValue(String name) throws DBCException
+        {
+            for (int i = 0; i < attributes.size(); i++) {
+                if (attributes.get(i).getName().equals(name)) {
+                    return getAttributeValue(i);
+                }
+            }
+            throw new DBCException("Bad attribute name: " + name);
+        }
+    }
+
+    /**
+     * Drives consumer with rows taken from the queue
+     */
+    private class WriterJob extends AbstractJob {
+
+        WriterJob()
+        {
+            super("Data transfer writer");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor writerMonitor)
+        {
+            try {
+                BlockResultSet resultSet = null;
+                for (;;) {
+                    if (aborted || monitor.isCanceled()) {
+                        // Remaining blocks refer to sessions which may be closed by producer
+                        break;
+                    }
+                    RowBlock block = queue.poll(QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (block == null) {
+                        continue;
+                    }
+                    switch (block.type) {
+                        case START:
+                            if (mergeSession == null) {
+                                resultSet = new BlockResultSet(block.session, block.attributes);
+                                consumer.fetchStart(block.session, resultSet, block.offset, block.maxRows);
+                            } else if (resultSet == null) {
+                                resultSet = new BlockResultSet(mergeSession, block.attributes);
+                                consumer.fetchStart(mergeSession, resultSet, block.offset, block.maxRows);
+                            }
+                            break;
+                        case ROWS:
+                            if (resultSet == null) {
+                                throw new DBCException("Rows received before fetch start");
+                            }
+                            resultSet.setRows(block.rows);
+                            while (resultSet.nextRow()) {
+                                consumer.fetchRow(mergeSession == null ? block.session : mergeSession, resultSet);
+                            }
+                            break;
+                        case END:
+                            if (mergeSession == null) {
+                                consumer.fetchEnd(block.session, resultSet);
+                            }
+                            break;
+                        case CLOSE:
+                            if (mergeSession == null) {
+                                consumer.close();
+                                resultSet = null;
+                            }
+                            break;
+                        case FINISH:
+                            if (mergeSession != null) {
+                                // All readers are done - finish the merged result set
+                                if (resultSet != null) {
+                                    consumer.fetchEnd(mergeSession, resultSet);
+                                }
+                                consumer.close();
+                            }
+                            return Status.OK_STATUS;
+                    }
+                }
+            } catch (Throwable e) {
+                writerError = e;
+            } finally {
+                writerLatch.countDown();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import org.jkiss.dbeaver.core.CoreMessages;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -106,18 +107,35 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
 
                 monitor.beginTask(CoreMessages.data_transfer_wizard_job_task_export_table_data, (int) totalRows);
 
+                DatabaseTransferRangeReader rangeReader = null;
+                if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.KEY_RANGES) {
+                    rangeReader = DatabaseTransferRangeReader.create(session, transferSource, dataContainer, dataFilter, settings.getPartitionCount());
+                }
+                DatabaseTransferPipeline pipeline = null;
+                DBDDataReceiver dataReceiver = consumer;
+                if (rangeReader != null || settings.isPipelined()) {
+                    // Consumer will be driven by separate writer job
+                    pipeline = new DatabaseTransferPipeline(
+                        consumer, monitor, DatabaseTransferPipeline.DEFAULT_BLOCK_SIZE, DatabaseTransferPipeline.DEFAULT_QUEUE_SIZE, rangeReader != null ? session : null);
+                    pipeline.start();
+                    dataReceiver = pipeline.createReader();
+                }
                 try {
                     // Perform export
-                    if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                    if (rangeReader != null) {
+                        // Read key ranges in parallel
+                        monitor.subTask("Read " + rangeReader.getRangeCount() + " key ranges");
+                        rangeReader.readData(monitor, pipeline);
+                    } else if (settings.getExtractType() != DatabaseProducerSettings.ExtractType.SEGMENTS) {
                         // Just do it in single query
-                        dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, DBSDataContainer.FLAG_NONE);
+                        dataContainer.readData(transferSource, session, dataReceiver, dataFilter, -1, -1, DBSDataContainer.FLAG_NONE);
                     } else {
                         // Read all data by segments
                         long offset = 0;
                         int segmentSize = settings.getSegmentSize();
                         for (; ; ) {
                             DBCStatistics statistics = dataContainer.readData(
-                                transferSource, session, consumer, dataFilter, offset, segmentSize, DBSDataContainer.FLAG_NONE);
+                                transferSource, session, dataReceiver, dataFilter, offset, segmentSize, DBSDataContainer.FLAG_NONE);
                             if (statistics == null || statistics.getRowsFetched() < segmentSize) {
                                 // Done
                                 break;
@@ -125,7 +143,14 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                             offset += statistics.getRowsFetched();
                         }
                     }
+                    if (pipeline != null && rangeReader == null) {
+                        // Wait for writer to consume all rows
+                        pipeline.finish();
+                    }
                 } finally {
+                    if (pipeline != null) {
+                        pipeline.abort();
+                    }
                     monitor.done();
                 }
 
@@ -0,0 +1,335 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeConstraint;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLDataSource;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads table data split by key ranges.
+ * Table is split by single-column (numeric or date) unique key into ranges. Each range is read by a separate job
+ * over its own isolated connection. All readers feed the same (merging) pipeline, so consumer receives
+ * rows of all ranges as a single result set. Rows order is not preserved.
+ */
+class DatabaseTransferRangeReader {
+
+    private static final Log log = Log.getLog(DatabaseTransferRangeReader.class);
+
+    private static final long READER_POLL_TIMEOUT = 200;
+
+    private final DBSDataContainer dataContainer;
+    @Nullable
+    private final String filterCondition;
+    private final List<String> keyRanges;
+
+    private DatabaseTransferRangeReader(DBSDataContainer dataContainer, @Nullable String filterCondition, List<String> keyRanges)
+    {
+        this.dataContainer = dataContainer;
+        this.filterCondition = filterCondition;
+        this.keyRanges = keyRanges;
+    }
+
+    /**
+     * Splits data container by key ranges.
+     * @return range reader or null if container can't be split
+     */
+    @Nullable
+    static DatabaseTransferRangeReader create(
+        @NotNull DBCSession session,
+        @NotNull DBCExecutionSource source,
+        @NotNull DBSDataContainer dataContainer,
+        @Nullable DBDDataFilter dataFilter,
+        int rangeCount)
+        throws DBException
+    {
+        DBPDataSource dataSource = session.getDataSource();
+        if (rangeCount < 2 || !(dataContainer instanceof DBSEntity) || !(dataSource instanceof SQLDataSource)) {
+            return null;
+        }
+        Collection<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(session.getProgressMonitor(), (DBSEntity) dataContainer);
+        if (identifier == null || identifier.size() != 1) {
+            log.debug("Table '" + dataContainer.getName() + "' has no single-column unique key. Read in single query.");
+            return null;
+        }
+        DBSEntityAttribute keyAttribute = identifier.iterator().next();
+        if (keyAttribute.getDataKind() != DBPDataKind.NUMERIC && keyAttribute.getDataKind() != DBPDataKind.DATETIME) {
+            log.debug("Key '" + keyAttribute.getName() + "' is not numeric or date. Read in single query.");
+            return null;
+        }
+        String keyName = DBUtils.getQuotedIdentifier(keyAttribute);
+        String filterCondition = getFilterCondition(dataSource, dataFilter);
+
+        // Get key bounds
+        StringBuilder query = new StringBuilder(100);
+        query.append("SELECT MIN(").append(keyName).append("),MAX(").append(keyName).append(") FROM ")
+            .append(DBUtils.getObjectFullName(dataContainer));
+        if (filterCondition != null) {
+            query.append("\nWHERE ").append(filterCondition);
+        }
+        Object minValue = null, maxValue = null;
+        try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query.toString(), false, false, false)) {
+            dbStat.setStatementSource(source);
+            if (dbStat.executeStatement()) {
+                DBCResultSet dbResult = dbStat.openResultSet();
+                if (dbResult != null) {
+                    try {
+                        if (dbResult.nextRow()) {
+                            minValue = dbResult.getAttributeValue(0);
+                            maxValue = dbResult.getAttributeValue(1);
+                        }
+                    } finally {
+                        dbResult.close();
+                    }
+                }
+            }
+        }
+
+        // Make range bounds
+        List<String> bounds = new ArrayList<>(rangeCount - 1);
+        if (minValue instanceof Number && maxValue instanceof Number) {
+            BigDecimal min = new BigDecimal(minValue.toString());
+            BigDecimal max = new BigDecimal(maxValue.toString());
+            boolean integral = min.stripTrailingZeros().scale() <= 0 && max.stripTrailingZeros().scale() <= 0;
+            BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(rangeCount), 10, RoundingMode.DOWN);
+            BigDecimal prevBound = min;
+            for (int i = 1; i < rangeCount; i++) {
+                BigDecimal bound = min.add(step.multiply(BigDecimal.valueOf(i)));
+                if (integral) {
+                    bound = bound.setScale(0, RoundingMode.FLOOR);
+                }
+                if (bound.compareTo(prevBound) > 0) {
+                    bounds.add(bound.toPlainString());
+                    prevBound = bound;
+                }
+            }
+        } else if (minValue instanceof Date && maxValue instanceof Date) {
+            long min = ((Date) minValue).getTime();
+            long step = (((Date) maxValue).getTime() - min) / rangeCount;
+            if (step > 0) {
+                for (int i = 1; i < rangeCount; i++) {
+                    bounds.add(SQLUtils.convertValueToSQL(dataSource, keyAttribute, new Timestamp(min + step * i)));
+                }
+            }
+        }
+        if (bounds.isEmpty()) {
+            // Empty table or unsupported key values
+            return null;
+        }
+
+        List<String> keyRanges = new ArrayList<>(bounds.size() + 1);
+        String prevBound = null;
+        for (String bound : bounds) {
+            if (prevBound == null) {
+                keyRanges.add(keyName + " < " + bound + " OR " + keyName + " IS NULL");
+            } else {
+                keyRanges.add(keyName + " >= " + prevBound + " AND " + keyName + " < " + bound);
+            }
+            prevBound = bound;
+        }
+        keyRanges.add(keyName + " >= " + prevBound);
+
+        return new DatabaseTransferRangeReader(dataContainer, filterCondition, keyRanges);
+    }
+
+    @Nullable
+    private static String getFilterCondition(DBPDataSource dataSource, @Nullable DBDDataFilter dataFilter)
+    {
+        if (dataFilter == null || !dataFilter.hasConditions()) {
+            return null;
+        }
+        StringBuilder condition = new StringBuilder();
+        SQLUtils.appendConditionString(dataFilter, dataSource, null, condition, true);
+        return condition.toString();
+    }
+
+    int getRangeCount()
+    {
+        return keyRanges.size();
+    }
+
+    /**
+     * Reads all ranges in parallel. Waits until pipeline consumes all rows.
+     * If some reader fails then all other readers are canceled.
+     */
+    void readData(@NotNull DBRProgressMonitor monitor, @NotNull DatabaseTransferPipeline pipeline)
+        throws DBException
+    {
+        DBPDataSource dataSource = dataContainer.getDataSource();
+        assert (dataSource != null);
+        List<DBCExecutionContext> contexts = new ArrayList<>(keyRanges.size());
+        try {
+            for (int i = 0; i < keyRanges.size(); i++) {
+                contexts.add(dataSource.openIsolatedContext(monitor, "Data transfer range reader"));
+            }
+            CountDownLatch readersLatch = new CountDownLatch(keyRanges.size());
+            AtomicReference<RangeReaderJob> failedReader = new AtomicReference<>();
+            List<RangeReaderJob> readers = new ArrayList<>(keyRanges.size());
+            for (int i = 0; i < keyRanges.size(); i++) {
+                RangeReaderJob reader = new RangeReaderJob(contexts.get(i), keyRanges.get(i), pipeline, monitor, readersLatch, failedReader);
+                readers.add(reader);
+                reader.schedule();
+            }
+            boolean canceled = false;
+            for (;;) {
+                boolean interrupted = false;
+                try {
+                    if (readersLatch.await(READER_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                if (!canceled && (interrupted || monitor.isCanceled() || failedReader.get() != null)) {
+                    canceled = true;
+                    for (RangeReaderJob reader : readers) {
+                        reader.cancel();
+                    }
+                }
+            }
+            // Report the first failure, errors of canceled readers are just its consequences
+            RangeReaderJob failed = failedReader.get();
+            if (failed != null) {
+                if (failed.error instanceof DBException) {
+                    throw (DBException) failed.error;
+                }
+                throw new DBException("Error reading key range [" + failed.keyRange + "]", failed.error);
+            }
+            // Readers contexts are still open, so consumer may read their values until the end
+            pipeline.finish();
+        } finally {
+            // Writer may still use readers' sessions if some reader failed - stop it first
+            pipeline.abort();
+            for (DBCExecutionContext context : contexts) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Forwards reader's work to the producer monitor
+     */
+    private static class RangeProgressMonitor extends ProxyProgressMonitor {
+
+        private final DBRProgressMonitor parent;
+
+        RangeProgressMonitor(DBRProgressMonitor original, DBRProgressMonitor parent)
+        {
+            super(original);
+            this.parent = parent;
+        }
+
+        @Override
+        public void subTask(String name)
+        {
+            // Skip. Several readers would overwrite each other's messages
+        }
+
+        @Override
+        public void worked(int work)
+        {
+            synchronized (parent) {
+                parent.worked(work);
+            }
+        }
+
+        @Override
+        public boolean isCanceled()
+        {
+            return super.isCanceled() || parent.isCanceled();
+        }
+    }
+
+    private class RangeReaderJob extends AbstractJob {
+
+        private final DBCExecutionContext context;
+        private final String keyRange;
+        private final DatabaseTransferPipeline pipeline;
+        private final DBRProgressMonitor parentMonitor;
+        private final CountDownLatch finishLatch;
+        private final AtomicReference<RangeReaderJob> failedReader;
+        private volatile Throwable error;
+
+        RangeReaderJob(DBCExecutionContext context, String keyRange, DatabaseTransferPipeline pipeline, DBRProgressMonitor parentMonitor, CountDownLatch finishLatch, AtomicReference<RangeReaderJob> failedReader)
+        {
+            super("Read " + dataContainer.getName() + " [" + keyRange + "]");
+            this.context = context;
+            this.keyRange = keyRange;
+            this.pipeline = pipeline;
+            this.parentMonitor = parentMonitor;
+            this.finishLatch = finishLatch;
+            this.failedReader = failedReader;
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            try (DBCSession session = context.openSession(new RangeProgressMonitor(monitor, parentMonitor), DBCExecutionPurpose.UTIL, "Read key range")) {
+                session.enableLogging(false);
+                DBDDataFilter rangeFilter = new DBDDataFilter(new ArrayList<DBDAttributeConstraint>());
+                rangeFilter.setWhere(filterCondition == null ? keyRange : "(" + filterCondition + ") AND (" + keyRange + ")");
+                dataContainer.readData(
+                    new AbstractExecutionSource(dataContainer, context, DatabaseTransferRangeReader.this),
+                    session,
+                    pipeline.createReader(),
+                    rangeFilter,
+                    -1,
+                    -1,
+                    DBSDataContainer.FLAG_NONE);
+            } catch (Throwable e) {
+                error = e;
+                failedReader.compareAndSet(null, this);
+            } finally {
+                finishLatch.countDown();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
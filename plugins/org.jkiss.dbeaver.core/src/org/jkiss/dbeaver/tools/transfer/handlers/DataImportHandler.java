@@ -19,7 +19,12 @@ package org.jkiss.dbeaver.tools.transfer.handlers;
 
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.handlers.HandlerUtil;
+import org.jkiss.dbeaver.core.CoreMessages;
 import org.jkiss.dbeaver.core.DBeaverCore;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.DBNModel;
@@ -35,7 +40,13 @@ import org.jkiss.dbeaver.tools.transfer.IDataTransferNode;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProducer;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferProducer;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataFileContainer;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferProducer;
+import org.jkiss.dbeaver.tools.transfer.stream.impl.ColumnarFormat;
 import org.jkiss.dbeaver.ui.dialogs.BrowseObjectDialog;
+import org.jkiss.dbeaver.ui.dialogs.DialogUtils;
+
+import java.io.File;
 
 public class DataImportHandler extends DataTransferHandler {
 
@@ -53,12 +64,35 @@ public class DataImportHandler extends DataTransferHandler {
     @Override
     protected IDataTransferProducer chooseProducer(ExecutionEvent event, IDataTransferConsumer consumer)
     {
+        final Shell shell = HandlerUtil.getActiveShell(event);
+        if (consumer instanceof DatabaseTransferConsumer) {
+            // Data may be imported from another table or from data file
+            MessageDialog sourceDialog = new MessageDialog(
+                shell,
+                CoreMessages.data_transfer_import_source_title,
+                null,
+                NLS.bind(CoreMessages.data_transfer_import_source_message, consumer.getTargetName()),
+                MessageDialog.QUESTION,
+                new String[] {
+                    CoreMessages.data_transfer_import_source_table,
+                    CoreMessages.data_transfer_import_source_file,
+                    IDialogConstants.CANCEL_LABEL},
+                0);
+            switch (sourceDialog.open()) {
+                case 0:
+                    break;
+                case 1:
+                    return chooseFileProducer(shell, (DatabaseTransferConsumer) consumer);
+                default:
+                    return null;
+            }
+        }
         IProject activeProject = DBeaverCore.getInstance().getProjectRegistry().getActiveProject();
         if (activeProject != null) {
             final DBNModel navigatorModel = DBeaverCore.getInstance().getNavigatorModel();
             final DBNProject rootNode = navigatorModel.getRoot().getProject(activeProject);
             DBNNode node = BrowseObjectDialog.selectObject(
-                HandlerUtil.getActiveShell(event),
+                shell,
                 "Select source container for '" + consumer.getTargetName() + "'",
                 rootNode.getDatabases(),
                 null,
@@ -73,4 +107,15 @@ public class DataImportHandler extends DataTransferHandler {
         }
         return null;
     }
+
+    private IDataTransferProducer chooseFileProducer(Shell shell, DatabaseTransferConsumer consumer)
+    {
+        File file = DialogUtils.openFile(shell, new String[] {"*." + ColumnarFormat.FILE_EXTENSION, "*"});
+        if (file == null) {
+            return null;
+        }
+        // File is read using target data source
+        return new StreamTransferProducer(
+            new StreamDataFileContainer(file, consumer.getTargetObject().getDataSource()));
+    }
 }
\ No newline at end of file
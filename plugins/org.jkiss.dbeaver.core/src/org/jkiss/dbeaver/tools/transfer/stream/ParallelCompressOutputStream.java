@@ -0,0 +1,375 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream which compresses data in blocks using several threads.
+ * Each block is deflated separately with the tail of the previous block as a dictionary
+ * and blocks are joined into a single deflate stream (the same way as pigz does).
+ * Result is written as GZIP file or as ZIP archive with a single entry.
+ */
+public class ParallelCompressOutputStream extends OutputStream {
+
+    public enum Format {
+        ZIP,
+        GZIP
+    }
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int MAX_THREADS = 8;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private final OutputStream out;
+    private final Format format;
+    private final byte[] entryName;
+    private final long entryTime;
+    private final ExecutorService executor;
+    private final int maxPendingBlocks;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    private byte[] dictionary;
+    private long totalIn;
+    private long totalOut;
+    private long bytesWritten;
+    private boolean closed;
+
+    public ParallelCompressOutputStream(OutputStream out, Format format, String entryName) throws IOException
+    {
+        this.out = out;
+        this.format = format;
+        this.entryName = entryName.getBytes(StandardCharsets.UTF_8);
+        this.entryTime = System.currentTimeMillis();
+
+        int threadCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS));
+        this.maxPendingBlocks = threadCount * 2;
+        this.executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "Compress output " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            writeHeader();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (blockLength == BLOCK_SIZE) {
+            submitBlock(false);
+        }
+        block[blockLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        while (len > 0) {
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock(false);
+            }
+            int count = Math.min(len, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off, block, blockLength, count);
+            blockLength += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes already compressed blocks. Current block isn't compressed until it is full -
+     * forcing small blocks would make compression much worse.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+            writeBlock(pendingBlocks.removeFirst());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.removeFirst());
+            }
+            writeTrailer();
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock(final boolean last) throws IOException
+    {
+        final byte[] data = block;
+        final int length = blockLength;
+        final byte[] dict = dictionary;
+
+        crc.update(data, 0, length);
+        totalIn += length;
+        if (!last) {
+            // Non-last blocks are always full
+            dictionary = Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length);
+            block = new byte[BLOCK_SIZE];
+        }
+        blockLength = 0;
+
+        try {
+            pendingBlocks.addLast(executor.submit(new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws Exception
+                {
+                    return deflateBlock(data, length, dict, last);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            throw new IOException("Compression stopped", e);
+        }
+        // Limit memory used by blocks in progress
+        while (pendingBlocks.size() > maxPendingBlocks || (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone())) {
+            writeBlock(pendingBlocks.removeFirst());
+        }
+    }
+
+    private void writeBlock(Future<byte[]> future) throws IOException
+    {
+        byte[] compressed;
+        try {
+            compressed = future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Compression interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        }
+        writeBytes(compressed, compressed.length);
+        totalOut += compressed.length;
+    }
+
+    /**
+     * Non-last block ends with sync flush marker (byte aligned, not final),
+     * so the next block can be appended as is.
+     */
+    private static byte[] deflateBlock(byte[] data, int length, byte[] dictionary, boolean last)
+    {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data, 0, length);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    result.write(buffer, 0, count);
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    result.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeHeader() throws IOException
+    {
+        if (format == Format.GZIP) {
+            // Magic, deflate method, no flags, no time, no extra flags, unknown OS
+            writeBytes(new byte[] {(byte) 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff}, 10);
+        } else {
+            // Local file header. Sizes and CRC follow the data in data descriptor
+            writeInt(0x04034b50L);
+            writeShort(20);
+            writeShort(0x0808); // Data descriptor, UTF-8 name
+            writeShort(8);
+            writeInt(getDosTime());
+            writeInt(0);
+            writeInt(0);
+            writeInt(0);
+            writeShort(entryName.length);
+            writeShort(0);
+            writeBytes(entryName, entryName.length);
+        }
+    }
+
+    private void writeTrailer() throws IOException
+    {
+        if (format == Format.GZIP) {
+            writeInt(crc.getValue());
+            writeInt(totalIn & 0xFFFFFFFFL);
+            return;
+        }
+        boolean zip64 = totalIn >= ZIP64_MAGIC || totalOut >= ZIP64_MAGIC;
+
+        // Data descriptor
+        writeInt(0x08074b50L);
+        writeInt(crc.getValue());
+        if (zip64) {
+            writeLong(totalOut);
+            writeLong(totalIn);
+        } else {
+            writeInt(totalOut);
+            writeInt(totalIn);
+        }
+
+        // Central directory
+        long cenOffset = bytesWritten;
+        int extraLength = (totalOut >= ZIP64_MAGIC ? 8 : 0) + (totalIn >= ZIP64_MAGIC ? 8 : 0);
+        writeInt(0x02014b50L);
+        writeShort(zip64 ? 45 : 20);
+        writeShort(zip64 ? 45 : 20);
+        writeShort(0x0808);
+        writeShort(8);
+        writeInt(getDosTime());
+        writeInt(crc.getValue());
+        writeInt(Math.min(totalOut, ZIP64_MAGIC));
+        writeInt(Math.min(totalIn, ZIP64_MAGIC));
+        writeShort(entryName.length);
+        writeShort(extraLength == 0 ? 0 : extraLength + 4);
+        writeShort(0); // Comment
+        writeShort(0); // Disk number
+        writeShort(0); // Internal attributes
+        writeInt(0); // External attributes
+        writeInt(0); // Local header offset
+        writeBytes(entryName, entryName.length);
+        if (extraLength > 0) {
+            writeShort(0x0001);
+            writeShort(extraLength);
+            if (totalIn >= ZIP64_MAGIC) {
+                writeLong(totalIn);
+            }
+            if (totalOut >= ZIP64_MAGIC) {
+                writeLong(totalOut);
+            }
+        }
+        long cenLength = bytesWritten - cenOffset;
+
+        if (cenOffset >= ZIP64_MAGIC) {
+            // Zip64 end of central directory record and locator
+            long zip64EndOffset = bytesWritten;
+            writeInt(0x06064b50L);
+            writeLong(44);
+            writeShort(45);
+            writeShort(45);
+            writeInt(0);
+            writeInt(0);
+            writeLong(1);
+            writeLong(1);
+            writeLong(cenLength);
+            writeLong(cenOffset);
+
+            writeInt(0x07064b50L);
+            writeInt(0);
+            writeLong(zip64EndOffset);
+            writeInt(1);
+        }
+
+        // End of central directory
+        writeInt(0x06054b50L);
+        writeShort(0);
+        writeShort(0);
+        writeShort(1);
+        writeShort(1);
+        writeInt(cenLength);
+        writeInt(Math.min(cenOffset, ZIP64_MAGIC));
+        writeShort(0);
+    }
+
+    private long getDosTime()
+    {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(entryTime);
+        int year = cal.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long)(year - 1980) << 25) |
+            ((cal.get(Calendar.MONTH) + 1) << 21) |
+            (cal.get(Calendar.DAY_OF_MONTH) << 16) |
+            (cal.get(Calendar.HOUR_OF_DAY) << 11) |
+            (cal.get(Calendar.MINUTE) << 5) |
+            (cal.get(Calendar.SECOND) >> 1);
+    }
+
+    private void writeShort(int value) throws IOException
+    {
+        writeBytes(new byte[] {(byte) value, (byte) (value >> 8)}, 2);
+    }
+
+    private void writeInt(long value) throws IOException
+    {
+        writeBytes(new byte[] {(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)}, 4);
+    }
+
+    private void writeLong(long value) throws IOException
+    {
+        writeInt(value & 0xFFFFFFFFL);
+        writeInt(value >>> 32);
+    }
+
+    private void writeBytes(byte[] bytes, int length) throws IOException
+    {
+        out.write(bytes, 0, length);
+        bytesWritten += length;
+    }
+
+}
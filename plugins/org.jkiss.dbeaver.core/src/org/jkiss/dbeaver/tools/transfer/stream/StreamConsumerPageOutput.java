@@ -43,6 +43,10 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
     private Text directoryText;
     private Text fileNameText;
     private Button compressCheckbox;
+    private Combo compressFormatCombo;
+    private Button splitFilesCheckbox;
+    private Spinner maxFileSizeSpinner;
+    private Spinner maxFileRowsSpinner;
     private Button showFolderCheckbox;
     private Button clipboardCheck;
 
@@ -133,13 +137,52 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
             }
 
             compressCheckbox = UIUtils.createLabelCheckbox(generalSettings, CoreMessages.data_transfer_wizard_output_checkbox_compress, false);
-            compressCheckbox.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, true, false, 4, 1));
+            compressCheckbox.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
             compressCheckbox.addSelectionListener(new SelectionAdapter() {
                 @Override
                 public void widgetSelected(SelectionEvent e) {
                     settings.setCompressResults(compressCheckbox.getSelection());
+                    compressFormatCombo.setEnabled(compressCheckbox.getSelection());
                 }
             });
+            compressFormatCombo = new Combo(generalSettings, SWT.DROP_DOWN | SWT.READ_ONLY);
+            compressFormatCombo.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
+            for (ParallelCompressOutputStream.Format format : ParallelCompressOutputStream.Format.values()) {
+                compressFormatCombo.add(format.name());
+            }
+            compressFormatCombo.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setCompressFormat(ParallelCompressOutputStream.Format.values()[compressFormatCombo.getSelectionIndex()]);
+                }
+            });
+
+            splitFilesCheckbox = UIUtils.createLabelCheckbox(generalSettings, CoreMessages.data_transfer_wizard_output_checkbox_split_files, false);
+            splitFilesCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setSplitOutFiles(splitFilesCheckbox.getSelection());
+                    toggleSplitFiles();
+                }
+            });
+            maxFileSizeSpinner = UIUtils.createLabelSpinner(generalSettings, CoreMessages.data_transfer_wizard_output_label_max_file_size, 100, 0, Integer.MAX_VALUE);
+            maxFileSizeSpinner.addModifyListener(new ModifyListener() {
+                @Override
+                public void modifyText(ModifyEvent e) {
+                    settings.setMaxOutFileSize((long) maxFileSizeSpinner.getSelection() * 1024 * 1024);
+                }
+            });
+            new Label(generalSettings, SWT.NONE);
+            new Label(generalSettings, SWT.NONE);
+            new Label(generalSettings, SWT.NONE);
+            maxFileRowsSpinner = UIUtils.createLabelSpinner(generalSettings, CoreMessages.data_transfer_wizard_output_label_max_file_rows, 0, 0, Integer.MAX_VALUE);
+            maxFileRowsSpinner.addModifyListener(new ModifyListener() {
+                @Override
+                public void modifyText(ModifyEvent e) {
+                    settings.setMaxOutFileRows(maxFileRowsSpinner.getSelection());
+                }
+            });
+            new Label(generalSettings, SWT.NONE);
         }
 
         {
@@ -164,12 +207,21 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
         directoryText.setEnabled(!clipboard);
         fileNameText.setEnabled(!clipboard);
         compressCheckbox.setEnabled(!clipboard);
+        compressFormatCombo.setEnabled(!clipboard && compressCheckbox.getSelection());
+        splitFilesCheckbox.setEnabled(!clipboard);
+        toggleSplitFiles();
         encodingCombo.setEnabled(!clipboard);
         encodingBOMLabel.setEnabled(!clipboard);
         encodingBOMCheckbox.setEnabled(!clipboard);
         showFolderCheckbox.setEnabled(!clipboard);
     }
 
+    private void toggleSplitFiles() {
+        boolean split = !clipboardCheck.getSelection() && splitFilesCheckbox.getSelection();
+        maxFileSizeSpinner.setEnabled(split);
+        maxFileRowsSpinner.setEnabled(split);
+    }
+
     @Override
     public void activatePage()
     {
@@ -179,6 +231,10 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
         directoryText.setText(settings.getOutputFolder());
         fileNameText.setText(settings.getOutputFilePattern());
         compressCheckbox.setSelection(settings.isCompressResults());
+        compressFormatCombo.select(settings.getCompressFormat().ordinal());
+        splitFilesCheckbox.setSelection(settings.isSplitOutFiles());
+        maxFileSizeSpinner.setSelection((int) Math.min(settings.getMaxOutFileSize() / (1024 * 1024), Integer.MAX_VALUE));
+        maxFileRowsSpinner.setSelection((int) Math.min(settings.getMaxOutFileRows(), Integer.MAX_VALUE));
         encodingCombo.setText(settings.getOutputEncoding());
         encodingBOMCheckbox.setSelection(settings.isOutputEncodingBOM());
         showFolderCheckbox.setSelection(settings.isOpenFolderOnFinish());
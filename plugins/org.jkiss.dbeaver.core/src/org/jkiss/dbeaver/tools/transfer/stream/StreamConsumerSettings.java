@@ -62,6 +62,10 @@ public class StreamConsumerSettings implements IDataTransferSettings {
 
     private boolean outputClipboard = false;
     private boolean compressResults = false;
+    private ParallelCompressOutputStream.Format compressFormat = ParallelCompressOutputStream.Format.ZIP;
+    private boolean splitOutFiles = false;
+    private long maxOutFileSize = 100 * 1024 * 1024;
+    private long maxOutFileRows = 0;
     private boolean openFolderOnFinish = true;
 
     public LobExtractType getLobExtractType() {
@@ -128,6 +132,44 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         this.compressResults = compressResults;
     }
 
+    public ParallelCompressOutputStream.Format getCompressFormat() {
+        return compressFormat;
+    }
+
+    public void setCompressFormat(ParallelCompressOutputStream.Format compressFormat) {
+        this.compressFormat = compressFormat;
+    }
+
+    public boolean isSplitOutFiles() {
+        return splitOutFiles;
+    }
+
+    public void setSplitOutFiles(boolean splitOutFiles) {
+        this.splitOutFiles = splitOutFiles;
+    }
+
+    /**
+     * Maximum size of output file (before compression) in bytes. Zero means no limit.
+     */
+    public long getMaxOutFileSize() {
+        return maxOutFileSize;
+    }
+
+    public void setMaxOutFileSize(long maxOutFileSize) {
+        this.maxOutFileSize = maxOutFileSize;
+    }
+
+    /**
+     * Maximum number of rows in output file. Zero means no limit.
+     */
+    public long getMaxOutFileRows() {
+        return maxOutFileRows;
+    }
+
+    public void setMaxOutFileRows(long maxOutFileRows) {
+        this.maxOutFileRows = maxOutFileRows;
+    }
+
     public boolean isOpenFolderOnFinish() {
         return openFolderOnFinish;
     }
@@ -180,6 +222,22 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         if (!CommonUtils.isEmpty(dialogSettings.get("compressResults"))) {
             compressResults = dialogSettings.getBoolean("compressResults");
         }
+        if (!CommonUtils.isEmpty(dialogSettings.get("compressFormat"))) {
+            try {
+                compressFormat = ParallelCompressOutputStream.Format.valueOf(dialogSettings.get("compressFormat"));
+            } catch (IllegalArgumentException e) {
+                compressFormat = ParallelCompressOutputStream.Format.ZIP;
+            }
+        }
+        if (!CommonUtils.isEmpty(dialogSettings.get("splitOutFiles"))) {
+            splitOutFiles = dialogSettings.getBoolean("splitOutFiles");
+        }
+        if (!CommonUtils.isEmpty(dialogSettings.get("maxOutFileSize"))) {
+            maxOutFileSize = CommonUtils.toLong(dialogSettings.get("maxOutFileSize"));
+        }
+        if (!CommonUtils.isEmpty(dialogSettings.get("maxOutFileRows"))) {
+            maxOutFileRows = CommonUtils.toLong(dialogSettings.get("maxOutFileRows"));
+        }
         if (dialogSettings.get("openFolderOnFinish") != null) {
             openFolderOnFinish = dialogSettings.getBoolean("openFolderOnFinish");
         }
@@ -201,6 +259,10 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         dialogSettings.put("outputClipboard", outputClipboard);
 
         dialogSettings.put("compressResults", compressResults);
+        dialogSettings.put("compressFormat", compressFormat.name());
+        dialogSettings.put("splitOutFiles", splitOutFiles);
+        dialogSettings.put("maxOutFileSize", String.valueOf(maxOutFileSize));
+        dialogSettings.put("maxOutFileRows", String.valueOf(maxOutFileRows));
         dialogSettings.put("openFolderOnFinish", openFolderOnFinish);
 
         if (formatterProfile != null) {
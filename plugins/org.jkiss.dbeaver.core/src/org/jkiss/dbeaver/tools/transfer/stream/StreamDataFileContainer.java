@@ -0,0 +1,231 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.local.LocalResultSet;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.tools.transfer.stream.impl.ColumnarFormat;
+import org.jkiss.dbeaver.tools.transfer.stream.impl.ColumnarReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Data container which reads rows from columnar data file.
+ * File doesn't belong to any database so container uses data source of import target.
+ */
+public class StreamDataFileContainer implements DBSDataContainer {
+
+    private static final Log log = Log.getLog(StreamDataFileContainer.class);
+
+    @NotNull
+    private final File file;
+    @NotNull
+    private final DBPDataSource dataSource;
+
+    public StreamDataFileContainer(@NotNull File file, @NotNull DBPDataSource dataSource)
+    {
+        this.file = file;
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    public File getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public int getSupportedFeatures()
+    {
+        return DATA_SELECT | DATA_COUNT;
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics readData(@NotNull DBCExecutionSource source, @NotNull DBCSession session, @NotNull DBDDataReceiver dataReceiver, @Nullable DBDDataFilter dataFilter, long firstRow, long maxRows, long flags) throws DBCException
+    {
+        DBCStatistics statistics = new DBCStatistics();
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        long startTime = System.currentTimeMillis();
+        try (ColumnarReader reader = new ColumnarReader(file)) {
+            FileResultSet resultSet = new FileResultSet(session);
+            for (ColumnarFormat.Column column : reader.getColumns()) {
+                resultSet.addColumn(column.getName(), column);
+            }
+            long rowCount = 0;
+            try {
+                dataReceiver.fetchStart(session, resultSet, firstRow, maxRows);
+                List<ColumnarFormat.RowGroup> rowGroups = reader.getRowGroups();
+                long groupStart = 0;
+                for (int i = 0; i < rowGroups.size() && !monitor.isCanceled(); i++) {
+                    int groupRows = rowGroups.get(i).getRowCount();
+                    long groupEnd = groupStart + groupRows;
+                    if (firstRow > 0 && groupEnd <= firstRow) {
+                        // Skip whole row group without reading it
+                        groupStart = groupEnd;
+                        continue;
+                    }
+                    resultSet.setRowGroup(
+                        reader.readRowGroup(i),
+                        groupRows,
+                        firstRow > groupStart ? (int) (firstRow - groupStart) : 0);
+                    while (resultSet.nextRow()) {
+                        dataReceiver.fetchRow(session, resultSet);
+                        rowCount++;
+                        if (maxRows > 0 && rowCount >= maxRows) {
+                            break;
+                        }
+                    }
+                    if (maxRows > 0 && rowCount >= maxRows) {
+                        break;
+                    }
+                    monitor.worked(groupRows);
+                    groupStart = groupEnd;
+                }
+            } finally {
+                try {
+                    dataReceiver.fetchEnd(session, resultSet);
+                } catch (DBCException e) {
+                    log.error("Error while finishing result set fetch", e); //$NON-NLS-1$
+                }
+                resultSet.close();
+                dataReceiver.close();
+            }
+            statistics.setFetchTime(System.currentTimeMillis() - startTime);
+            statistics.setRowsFetched(rowCount);
+            return statistics;
+        } catch (IOException e) {
+            throw new DBCException("Error reading data file '" + file.getAbsolutePath() + "'", e);
+        }
+    }
+
+    @Override
+    public long countData(@NotNull DBCExecutionSource source, @NotNull DBCSession session, @Nullable DBDDataFilter dataFilter) throws DBCException
+    {
+        // Row count is stored in file footer
+        try (ColumnarReader reader = new ColumnarReader(file)) {
+            return reader.getRowCount();
+        } catch (IOException e) {
+            throw new DBCException("Error reading data file '" + file.getAbsolutePath() + "'", e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getDescription()
+    {
+        return file.getAbsolutePath();
+    }
+
+    @Nullable
+    @Override
+    public DBSObject getParentObject()
+    {
+        return null;
+    }
+
+    @NotNull
+    @Override
+    public DBPDataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    @NotNull
+    @Override
+    public String getName()
+    {
+        return file.getName();
+    }
+
+    @Override
+    public boolean isPersisted()
+    {
+        return true;
+    }
+
+    /**
+     * Result set over one row group of data file
+     */
+    private static class FileResultSet extends LocalResultSet<DBCStatement> {
+
+        private Object[][] groupValues;
+        private int groupRowCount;
+
+        FileResultSet(DBCSession session)
+        {
+            super(session, null);
+        }
+
+        void setRowGroup(Object[][] values, int rowCount, int startRow)
+        {
+            groupValues = values;
+            groupRowCount = rowCount;
+            curPosition = startRow - 1;
+        }
+
+        @Override
+        public Object getAttributeValue(int index) throws DBCException
+        {
+            if (index < 0 || index >= groupValues.length) {
+                throw new DBCException("Attribute index out of range (" + index + "/" + groupValues.length + ")");
+            }
+            return groupValues[index][curPosition];
+        }
+
+        @Override
+        public boolean nextRow()
+        {
+            if (groupValues == null || curPosition + 1 >= groupRowCount) {
+                return false;
+            }
+            curPosition++;
+            return true;
+        }
+
+        @Override
+        public boolean moveTo(int position) throws DBCException
+        {
+            if (groupValues == null || position < 0 || position >= groupRowCount) {
+                return false;
+            }
+            curPosition = position;
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+            super.close();
+            groupValues = null;
+            groupRowCount = 0;
+        }
+    }
+
+}
@@ -48,8 +48,6 @@ import org.jkiss.utils.IOUtils;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
 * Stream transfer consumer
@@ -60,6 +58,11 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
 
     private static final String LOB_DIRECTORY_NAME = "files"; //$NON-NLS-1$
 
+    private static final int OUT_FILE_BUFFER_SIZE = 1024 * 1024;
+    private static final int OUT_WRITER_BUFFER_SIZE = 64 * 1024;
+    // PrintWriter swallows IO errors, so we poll its error state once per this number of rows
+    private static final int WRITER_CHECK_INTERVAL = 1000;
+
     public static final String VARIABLE_TABLE = "table";
     public static final String VARIABLE_TIMESTAMP = "timestamp";
 
@@ -67,7 +70,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     private StreamConsumerSettings settings;
     private DBSObject sourceObject;
     private OutputStream outputStream;
-    private ZipOutputStream zipStream;
+    private CountingOutputStream countingStream;
     private PrintWriter writer;
     private List<DBDAttributeBinding> metaColumns;
     private Object[] row;
@@ -78,6 +81,34 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     private Map<Object, Object> processorProperties;
     private StringWriter outputBuffer;
     private boolean initialized = false;
+    private int outputFileNumber = 1;
+    private long outputFileRows;
+
+    /**
+     * Counts bytes written to the output file (before compression)
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long byteCount;
+
+        CountingOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            byteCount++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            byteCount += len;
+        }
+    }
 
     public StreamTransferConsumer()
     {
@@ -118,6 +149,10 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException
     {
         try {
+            if (isOutputFileFull()) {
+                // Continue in the next file
+                rollOutputFile(session);
+            }
             // Get values
             for (int i = 0; i < metaColumns.size(); i++) {
                 DBDAttributeBinding column = metaColumns.get(i);
@@ -144,6 +179,10 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
             }
             // Export row
             processor.exportRow(session.getProgressMonitor(), row);
+            outputFileRows++;
+            if (outputFileRows % WRITER_CHECK_INTERVAL == 0) {
+                checkWriterError();
+            }
         } catch (DBException e) {
             throw new DBCException("Error while exporting table row", e);
         } catch (IOException e) {
@@ -197,9 +236,21 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
 
         exportSite = new StreamExportSite();
 
-        // Open output streams
+        openOutputStreams();
+
+        try {
+            // init exporter
+            processor.init(exportSite);
+        } catch (DBException e) {
+            throw new DBCException("Can't initialize data exporter", e);
+        }
+    }
+
+    private void openOutputStreams() throws DBCException
+    {
         boolean outputClipboard = settings.isOutputClipboard();
         outputFile = outputClipboard ? null : makeOutputFile();
+        outputFileRows = 0;
         try {
             if (outputClipboard) {
                 this.outputBuffer = new StringWriter(2048);
@@ -207,17 +258,25 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
             } else {
                 this.outputStream = new BufferedOutputStream(
                     new FileOutputStream(outputFile),
-                    10000);
+                    OUT_FILE_BUFFER_SIZE);
                 if (settings.isCompressResults()) {
-                    zipStream = new ZipOutputStream(this.outputStream);
-                    zipStream.putNextEntry(new ZipEntry(getOutputFileName()));
-                    StreamTransferConsumer.this.outputStream = zipStream;
+                    this.outputStream = new ParallelCompressOutputStream(
+                        this.outputStream,
+                        settings.getCompressFormat(),
+                        getOutputFileName());
                 }
-                this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, settings.getOutputEncoding()), true);
+                this.countingStream = new CountingOutputStream(this.outputStream);
+                this.outputStream = this.countingStream;
+                // Exporters write cell by cell so writer must be buffered. No auto flush
+                this.writer = new PrintWriter(
+                    new BufferedWriter(
+                        new OutputStreamWriter(this.outputStream, settings.getOutputEncoding()),
+                        OUT_WRITER_BUFFER_SIZE),
+                    false);
             }
 
-            // Check for BOM
-            if (!outputClipboard && settings.isOutputEncodingBOM()) {
+            // Check for BOM. Binary exporters don't use text encoding
+            if (!outputClipboard && settings.isOutputEncodingBOM() && !(processor instanceof IStreamDataExporterBinary)) {
                 byte[] bom = GeneralUtils.getCharsetBOM(settings.getOutputEncoding());
                 if (bom != null) {
                     outputStream.write(bom);
@@ -225,56 +284,101 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
                 }
             }
         } catch (IOException e) {
-            closeExporter();
+            try {
+                closeExporter();
+            } catch (DBCException e1) {
+                log.debug(e1);
+            }
             throw new DBCException("Data transfer IO error", e);
         }
+    }
 
-        try {
-            // init exporter
-            processor.init(exportSite);
-        } catch (DBException e) {
-            throw new DBCException("Can't initialize data exporter", e);
+    /**
+     * Fails transfer if writer has encountered an IO error (e.g. disk full or compression failure).
+     * Note: it flushes the writer.
+     */
+    private void checkWriterError() throws DBCException
+    {
+        if (writer != null && writer.checkError()) {
+            throw new DBCException("Error writing output file '" + outputFile + "'");
         }
     }
 
-    private void closeExporter()
+    private void closeOutputStreams() throws DBCException
     {
+        IOException flushError = null;
         if (exportSite != null) {
             try {
                 exportSite.flush();
             } catch (IOException e) {
-                log.debug(e);
+                flushError = e;
             }
         }
 
-        if (processor != null) {
-            // Dispose exporter
-            processor.dispose();
-            processor = null;
+        boolean writeError = false;
+        try {
+            // Closes compression stream (if any) and output file
+            if (this.writer != null) {
+                ContentUtils.close(this.writer);
+                writeError = this.writer.checkError();
+                this.writer = null;
+            }
+        } finally {
+            if (outputStream != null) {
+                ContentUtils.close(outputStream);
+                outputStream = null;
+            }
+            countingStream = null;
+        }
+        if (flushError != null) {
+            throw new DBCException("Error writing output file '" + outputFile + "'", flushError);
+        }
+        if (writeError) {
+            throw new DBCException("Error writing output file '" + outputFile + "'");
         }
+    }
 
-        // Finish zip stream
-        if (zipStream != null) {
-            try {
-                zipStream.closeEntry();
-            } catch (IOException e) {
-                log.debug(e);
-            }
+    private void closeExporter() throws DBCException
+    {
+        if (processor != null) {
             try {
-                zipStream.finish();
+                exportSite.flush();
             } catch (IOException e) {
                 log.debug(e);
             }
-        }
-        if (this.writer != null) {
-            ContentUtils.close(this.writer);
-            this.writer = null;
+            // Dispose exporter
+            processor.dispose();
+            processor = null;
         }
 
-        if (outputStream != null) {
-            ContentUtils.close(outputStream);
-            outputStream = null;
+        closeOutputStreams();
+    }
+
+    /**
+     * Checks output file limits. Size is checked against bytes which passed writer buffer,
+     * so file may be a bit bigger than the limit.
+     */
+    private boolean isOutputFileFull()
+    {
+        if (!settings.isSplitOutFiles() || settings.isOutputClipboard() || outputFileRows == 0) {
+            return false;
+        }
+        if (settings.getMaxOutFileRows() > 0 && outputFileRows >= settings.getMaxOutFileRows()) {
+            return true;
         }
+        return settings.getMaxOutFileSize() > 0 && countingStream != null && countingStream.byteCount >= settings.getMaxOutFileSize();
+    }
+
+    private void rollOutputFile(DBCSession session) throws DBException, IOException
+    {
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        processor.exportFooter(monitor);
+        closeOutputStreams();
+
+        outputFileNumber++;
+        openOutputStreams();
+        processor.init(exportSite);
+        processor.exportHeader(monitor);
     }
 
     @Override
@@ -293,7 +397,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     }
 
     @Override
-    public void finishTransfer(DBRProgressMonitor monitor, boolean last)
+    public void finishTransfer(DBRProgressMonitor monitor, boolean last) throws DBException
     {
         if (!last) {
             try {
@@ -340,6 +444,9 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     {
         Object extension = processorProperties.get(StreamConsumerSettings.PROP_FILE_EXTENSION);
         String fileName = processTemplate(stripObjectName(sourceObject.getName()));
+        if (outputFileNumber > 1) {
+            fileName += "_" + outputFileNumber;
+        }
         if (extension != null) {
             return fileName + "." + extension;
         } else {
@@ -355,7 +462,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         }
         String fileName = getOutputFileName();
         if (settings.isCompressResults()) {
-            fileName += ".zip";
+            fileName += settings.getCompressFormat() == ParallelCompressOutputStream.Format.GZIP ? ".gz" : ".zip";
         }
         return new File(dir, fileName);
     }
@@ -0,0 +1,80 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.core.CoreMessages;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferProducer;
+
+/**
+ * Data file transfer producer.
+ * Reads data exported in columnar format.
+ */
+public class StreamTransferProducer implements IDataTransferProducer<StreamProducerSettings> {
+
+    private static final Log log = Log.getLog(StreamTransferProducer.class);
+
+    @NotNull
+    private final StreamDataFileContainer dataContainer;
+
+    public StreamTransferProducer(@NotNull StreamDataFileContainer dataContainer)
+    {
+        this.dataContainer = dataContainer;
+    }
+
+    @Override
+    public StreamDataFileContainer getSourceObject()
+    {
+        return dataContainer;
+    }
+
+    @Override
+    public void transferData(
+        DBRProgressMonitor monitor,
+        IDataTransferConsumer consumer,
+        StreamProducerSettings settings)
+        throws DBException
+    {
+        DBCExecutionContext context = dataContainer.getDataSource().getDefaultContext(false);
+        try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, CoreMessages.data_transfer_wizard_job_task_export)) {
+            AbstractExecutionSource transferSource = new AbstractExecutionSource(dataContainer, context, consumer);
+            long totalRows = 0;
+            try {
+                totalRows = dataContainer.countData(transferSource, session, null);
+            } catch (Throwable e) {
+                log.warn("Can't read row count from '" + dataContainer.getName() + "'", e);
+            }
+            monitor.beginTask(CoreMessages.data_transfer_wizard_job_task_export_table_data, (int) totalRows);
+            try {
+                dataContainer.readData(transferSource, session, consumer, null, -1, -1, DBSDataContainer.FLAG_NONE);
+            } finally {
+                monitor.done();
+            }
+        }
+    }
+
+}
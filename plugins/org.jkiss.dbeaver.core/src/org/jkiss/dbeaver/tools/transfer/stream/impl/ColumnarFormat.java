@@ -0,0 +1,383 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.impl;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Columnar binary data file format.
+ *
+ * File: MAGIC, row groups, footer, footer length (int), MAGIC.
+ * Row group contains one chunk per column. Chunk has its own value type and encoding
+ * (plain, run-length or dictionary) and starts with null bitmap if it has nulls.
+ * Footer describes columns and all row groups (chunk offsets, null counts, min/max values).
+ */
+public class ColumnarFormat {
+
+    public static final String FILE_EXTENSION = "dbcol";
+
+    static final byte[] MAGIC = {'D', 'B', 'V', 'C', 'O', 'L', '0', '1'};
+    static final int VERSION = 1;
+
+    // Chunk value types
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_DECIMAL = 3;
+    static final byte TYPE_BOOLEAN = 4;
+    static final byte TYPE_STRING = 5;
+    static final byte TYPE_DATE = 6;
+    static final byte TYPE_TIME = 7;
+    static final byte TYPE_TIMESTAMP = 8;
+    static final byte TYPE_BINARY = 9;
+
+    // Chunk encodings
+    static final byte ENCODING_PLAIN = 0;
+    static final byte ENCODING_RLE = 1;
+    static final byte ENCODING_DICTIONARY = 2;
+
+    /**
+     * Column description. Keeps source attribute type to let importer map it.
+     */
+    public static class Column implements DBSTypedObject {
+        private final String name;
+        private final String typeName;
+        private final int typeID;
+        private final DBPDataKind dataKind;
+        private final int scale;
+        private final int precision;
+        private final long maxLength;
+
+        public Column(String name, String typeName, int typeID, DBPDataKind dataKind, int scale, int precision, long maxLength)
+        {
+            this.name = name;
+            this.typeName = typeName;
+            this.typeID = typeID;
+            this.dataKind = dataKind;
+            this.scale = scale;
+            this.precision = precision;
+            this.maxLength = maxLength;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        @Override
+        public String getTypeName()
+        {
+            return typeName;
+        }
+
+        @Override
+        public int getTypeID()
+        {
+            return typeID;
+        }
+
+        @Override
+        public DBPDataKind getDataKind()
+        {
+            return dataKind;
+        }
+
+        @Override
+        public int getScale()
+        {
+            return scale;
+        }
+
+        @Override
+        public int getPrecision()
+        {
+            return precision;
+        }
+
+        @Override
+        public long getMaxLength()
+        {
+            return maxLength;
+        }
+    }
+
+    /**
+     * Column data of one row group
+     */
+    public static class ColumnChunk {
+        long offset;
+        int length;
+        byte valueType;
+        byte encoding;
+        int nullCount;
+        Object minValue;
+        Object maxValue;
+
+        public int getNullCount()
+        {
+            return nullCount;
+        }
+
+        /**
+         * Minimal non-null value or null if chunk values are not comparable
+         */
+        @Nullable
+        public Object getMinValue()
+        {
+            return minValue;
+        }
+
+        @Nullable
+        public Object getMaxValue()
+        {
+            return maxValue;
+        }
+    }
+
+    public static class RowGroup {
+        int rowCount;
+        ColumnChunk[] chunks;
+
+        public int getRowCount()
+        {
+            return rowCount;
+        }
+
+        @NotNull
+        public ColumnChunk getChunk(int column)
+        {
+            return chunks[column];
+        }
+    }
+
+    private ColumnarFormat()
+    {
+    }
+
+    /**
+     * Returns value type for java object or -1 if it is not supported
+     */
+    static byte getValueType(@NotNull Object value)
+    {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return TYPE_LONG;
+        } else if (value instanceof Double || value instanceof Float) {
+            return TYPE_DOUBLE;
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return TYPE_DECIMAL;
+        } else if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        } else if (value instanceof String) {
+            return TYPE_STRING;
+        } else if (value instanceof java.sql.Date) {
+            return TYPE_DATE;
+        } else if (value instanceof Time) {
+            return TYPE_TIME;
+        } else if (value instanceof java.util.Date) {
+            return TYPE_TIMESTAMP;
+        } else if (value instanceof byte[]) {
+            return TYPE_BINARY;
+        }
+        return -1;
+    }
+
+    /**
+     * Type of chunk which contains values of both types
+     */
+    static byte getCommonType(byte type1, byte type2)
+    {
+        if (type1 == type2 || type2 == TYPE_NULL) {
+            return type1;
+        } else if (type1 == TYPE_NULL) {
+            return type2;
+        }
+        boolean numeric1 = type1 == TYPE_LONG || type1 == TYPE_DOUBLE || type1 == TYPE_DECIMAL;
+        boolean numeric2 = type2 == TYPE_LONG || type2 == TYPE_DOUBLE || type2 == TYPE_DECIMAL;
+        if (numeric1 && numeric2) {
+            return TYPE_DECIMAL;
+        }
+        return TYPE_STRING;
+    }
+
+    /**
+     * Converts value to the chunk value type
+     */
+    static Object convertValue(@NotNull Object value, byte valueType)
+    {
+        switch (valueType) {
+            case TYPE_LONG:
+                return ((Number) value).longValue();
+            case TYPE_DOUBLE:
+                return ((Number) value).doubleValue();
+            case TYPE_DECIMAL:
+                if (value instanceof BigDecimal) {
+                    return value;
+                } else if (value instanceof BigInteger) {
+                    return new BigDecimal((BigInteger) value);
+                } else if (value instanceof Double || value instanceof Float) {
+                    return BigDecimal.valueOf(((Number) value).doubleValue());
+                } else {
+                    return BigDecimal.valueOf(((Number) value).longValue());
+                }
+            case TYPE_TIMESTAMP:
+                if (value instanceof Timestamp) {
+                    return value;
+                }
+                return new Timestamp(((java.util.Date) value).getTime());
+            case TYPE_STRING:
+                return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.ISO_8859_1) : value.toString();
+            default:
+                return value;
+        }
+    }
+
+    static boolean isComparable(byte valueType)
+    {
+        return valueType != TYPE_BINARY && valueType != TYPE_BOOLEAN && valueType != TYPE_NULL;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compareValues(Object value1, Object value2)
+    {
+        return ((Comparable<Object>) value1).compareTo(value2);
+    }
+
+    static void writeValue(DataOutputStream out, byte valueType, Object value) throws IOException
+    {
+        switch (valueType) {
+            case TYPE_LONG:
+                writeVarLong(out, (Long) value);
+                break;
+            case TYPE_DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case TYPE_DECIMAL: {
+                BigDecimal decimal = (BigDecimal) value;
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+                writeVarLong(out, decimal.scale());
+                break;
+            }
+            case TYPE_BOOLEAN:
+                out.writeByte((Boolean) value ? 1 : 0);
+                break;
+            case TYPE_STRING:
+                writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+                break;
+            case TYPE_DATE:
+            case TYPE_TIME:
+                writeVarLong(out, ((java.util.Date) value).getTime());
+                break;
+            case TYPE_TIMESTAMP: {
+                Timestamp timestamp = (Timestamp) value;
+                writeVarLong(out, timestamp.getTime());
+                writeVarLong(out, timestamp.getNanos());
+                break;
+            }
+            case TYPE_BINARY:
+                writeBytes(out, (byte[]) value);
+                break;
+            default:
+                throw new IOException("Bad value type: " + valueType);
+        }
+    }
+
+    static Object readValue(DataInputStream in, byte valueType) throws IOException
+    {
+        switch (valueType) {
+            case TYPE_LONG:
+                return readVarLong(in);
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_DECIMAL: {
+                BigInteger unscaled = new BigInteger(readBytes(in));
+                return new BigDecimal(unscaled, (int) readVarLong(in));
+            }
+            case TYPE_BOOLEAN:
+                return in.readByte() != 0;
+            case TYPE_STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case TYPE_DATE:
+                return new java.sql.Date(readVarLong(in));
+            case TYPE_TIME:
+                return new Time(readVarLong(in));
+            case TYPE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(readVarLong(in));
+                timestamp.setNanos((int) readVarLong(in));
+                return timestamp;
+            }
+            case TYPE_BINARY:
+                return readBytes(in);
+            default:
+                throw new IOException("Bad value type: " + valueType);
+        }
+    }
+
+    /**
+     * Zig-zag variable length long
+     */
+    static void writeVarLong(DataOutputStream out, long value) throws IOException
+    {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException
+    {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("Malformed variable length number");
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+    {
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Bad value length: " + length);
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.impl;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPDataKind;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads columnar data file.
+ * Footer is read on open, row groups are read on demand.
+ */
+public class ColumnarReader implements Closeable {
+
+    private static final int TAIL_LENGTH = 4 + ColumnarFormat.MAGIC.length;
+
+    private final RandomAccessFile file;
+    private final List<ColumnarFormat.Column> columns = new ArrayList<>();
+    private final List<ColumnarFormat.RowGroup> rowGroups = new ArrayList<>();
+    private long rowCount;
+
+    public ColumnarReader(@NotNull File file) throws IOException
+    {
+        this.file = new RandomAccessFile(file, "r");
+        try {
+            readFooter();
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    public List<ColumnarFormat.Column> getColumns()
+    {
+        return Collections.unmodifiableList(columns);
+    }
+
+    @NotNull
+    public List<ColumnarFormat.RowGroup> getRowGroups()
+    {
+        return Collections.unmodifiableList(rowGroups);
+    }
+
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Reads values of all columns of specified row group
+     * @return values arrays by column
+     */
+    @NotNull
+    public Object[][] readRowGroup(int index) throws IOException
+    {
+        ColumnarFormat.RowGroup rowGroup = rowGroups.get(index);
+        Object[][] values = new Object[columns.size()][];
+        for (int i = 0; i < values.length; i++) {
+            ColumnarFormat.ColumnChunk chunk = rowGroup.chunks[i];
+            byte[] data = new byte[chunk.length];
+            file.seek(chunk.offset);
+            file.readFully(data);
+            values[i] = readChunk(new DataInputStream(new ByteArrayInputStream(data)), chunk, rowGroup.rowCount);
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        file.close();
+    }
+
+    private void readFooter() throws IOException
+    {
+        long fileLength = file.length();
+        if (fileLength < ColumnarFormat.MAGIC.length + TAIL_LENGTH) {
+            throw new IOException("File is too short");
+        }
+        byte[] magic = new byte[ColumnarFormat.MAGIC.length];
+        file.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) {
+            throw new IOException("Not a columnar data file");
+        }
+        file.seek(fileLength - TAIL_LENGTH);
+        int footerLength = file.readInt();
+        file.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) {
+            throw new IOException("File is truncated or corrupted");
+        }
+        if (footerLength <= 0 || footerLength > fileLength - TAIL_LENGTH - ColumnarFormat.MAGIC.length) {
+            throw new IOException("Bad footer length: " + footerLength);
+        }
+        byte[] footerData = new byte[footerLength];
+        file.seek(fileLength - TAIL_LENGTH - footerLength);
+        file.readFully(footerData);
+
+        DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerData));
+        long version = ColumnarFormat.readVarLong(footer);
+        if (version > ColumnarFormat.VERSION) {
+            throw new IOException("Unsupported format version: " + version);
+        }
+        int columnCount = (int) ColumnarFormat.readVarLong(footer);
+        for (int i = 0; i < columnCount; i++) {
+            String name = readString(footer);
+            String typeName = readString(footer);
+            int typeID = (int) ColumnarFormat.readVarLong(footer);
+            DBPDataKind dataKind;
+            try {
+                dataKind = DBPDataKind.valueOf(readString(footer));
+            } catch (IllegalArgumentException e) {
+                dataKind = DBPDataKind.UNKNOWN;
+            }
+            int scale = (int) ColumnarFormat.readVarLong(footer);
+            int precision = (int) ColumnarFormat.readVarLong(footer);
+            long maxLength = ColumnarFormat.readVarLong(footer);
+            columns.add(new ColumnarFormat.Column(name, typeName, typeID, dataKind, scale, precision, maxLength));
+        }
+        int rowGroupCount = (int) ColumnarFormat.readVarLong(footer);
+        for (int i = 0; i < rowGroupCount; i++) {
+            ColumnarFormat.RowGroup rowGroup = new ColumnarFormat.RowGroup();
+            rowGroup.rowCount = (int) ColumnarFormat.readVarLong(footer);
+            rowGroup.chunks = new ColumnarFormat.ColumnChunk[columnCount];
+            for (int k = 0; k < columnCount; k++) {
+                ColumnarFormat.ColumnChunk chunk = new ColumnarFormat.ColumnChunk();
+                chunk.offset = ColumnarFormat.readVarLong(footer);
+                chunk.length = (int) ColumnarFormat.readVarLong(footer);
+                chunk.valueType = footer.readByte();
+                chunk.encoding = footer.readByte();
+                chunk.nullCount = (int) ColumnarFormat.readVarLong(footer);
+                if (footer.readBoolean()) {
+                    chunk.minValue = ColumnarFormat.readValue(footer, chunk.valueType);
+                    chunk.maxValue = ColumnarFormat.readValue(footer, chunk.valueType);
+                }
+                rowGroup.chunks[k] = chunk;
+            }
+            rowGroups.add(rowGroup);
+            rowCount += rowGroup.rowCount;
+        }
+    }
+
+    private static Object[] readChunk(DataInputStream in, ColumnarFormat.ColumnChunk chunk, int rowCount) throws IOException
+    {
+        Object[] values = new Object[rowCount];
+        if (chunk.valueType == ColumnarFormat.TYPE_NULL) {
+            return values;
+        }
+        byte[] nullBitmap = null;
+        if (chunk.nullCount > 0) {
+            nullBitmap = new byte[(rowCount + 7) / 8];
+            in.readFully(nullBitmap);
+        }
+        int count = rowCount - chunk.nullCount;
+        Object[] nonNulls = new Object[count];
+        switch (chunk.encoding) {
+            case ColumnarFormat.ENCODING_RLE: {
+                long runCount = ColumnarFormat.readVarLong(in);
+                int pos = 0;
+                for (long i = 0; i < runCount; i++) {
+                    int runLength = (int) ColumnarFormat.readVarLong(in);
+                    Object value = ColumnarFormat.readValue(in, chunk.valueType);
+                    if (runLength < 0 || pos + runLength > count) {
+                        throw new IOException("Bad run length: " + runLength);
+                    }
+                    Arrays.fill(nonNulls, pos, pos + runLength, value);
+                    pos += runLength;
+                }
+                break;
+            }
+            case ColumnarFormat.ENCODING_DICTIONARY: {
+                Object[] dictionary = new Object[(int) ColumnarFormat.readVarLong(in)];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = ColumnarFormat.readValue(in, chunk.valueType);
+                }
+                for (int i = 0; i < count; i++) {
+                    nonNulls[i] = dictionary[(int) ColumnarFormat.readVarLong(in)];
+                }
+                break;
+            }
+            case ColumnarFormat.ENCODING_PLAIN:
+                for (int i = 0; i < count; i++) {
+                    nonNulls[i] = ColumnarFormat.readValue(in, chunk.valueType);
+                }
+                break;
+            default:
+                throw new IOException("Bad chunk encoding: " + chunk.encoding);
+        }
+        for (int i = 0, pos = 0; i < rowCount; i++) {
+            if (nullBitmap == null || (nullBitmap[i >> 3] & (1 << (i & 7))) == 0) {
+                values[i] = nonNulls[pos++];
+            }
+        }
+        return values;
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        return (String) ColumnarFormat.readValue(in, ColumnarFormat.TYPE_STRING);
+    }
+
+}
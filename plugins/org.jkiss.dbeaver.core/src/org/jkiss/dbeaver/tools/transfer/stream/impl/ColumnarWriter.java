@@ -0,0 +1,277 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.impl;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Writes rows in columnar format.
+ * Rows are buffered by columns until row group is full, then each column is encoded separately.
+ */
+public class ColumnarWriter {
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+    // Flush row group earlier if it holds too much data (large texts or binaries)
+    private static final long MAX_ROW_GROUP_BYTES = 32 * 1024 * 1024;
+    private static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final List<ColumnarFormat.Column> columns;
+    private final int rowGroupSize;
+    private final List<Object>[] columnValues;
+    private final List<ColumnarFormat.RowGroup> rowGroups = new ArrayList<>();
+    private int rowCount;
+    private long rowGroupBytes;
+    private long position;
+
+    @SuppressWarnings("unchecked")
+    public ColumnarWriter(@NotNull OutputStream out, @NotNull List<ColumnarFormat.Column> columns, int rowGroupSize) throws IOException
+    {
+        this.out = out;
+        this.columns = columns;
+        this.rowGroupSize = rowGroupSize;
+        this.columnValues = new List[columns.size()];
+        for (int i = 0; i < columnValues.length; i++) {
+            columnValues[i] = new ArrayList<>();
+        }
+        write(ColumnarFormat.MAGIC);
+    }
+
+    /**
+     * Adds row. Values must be nulls or objects supported by format (numbers, strings, booleans, dates, byte arrays).
+     */
+    public void addRow(@NotNull Object[] row) throws IOException
+    {
+        for (int i = 0; i < columnValues.length; i++) {
+            Object value = i < row.length ? row[i] : null;
+            if (value != null && ColumnarFormat.getValueType(value) < 0) {
+                throw new IOException("Unsupported value type: " + value.getClass().getName());
+            }
+            columnValues[i].add(value);
+            rowGroupBytes += estimateSize(value);
+        }
+        rowCount++;
+        if (rowCount >= rowGroupSize || rowGroupBytes >= MAX_ROW_GROUP_BYTES) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Writes remaining rows and footer. Doesn't close target stream.
+     */
+    public void finish() throws IOException
+    {
+        flushRowGroup();
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(buffer);
+        ColumnarFormat.writeVarLong(footer, ColumnarFormat.VERSION);
+        ColumnarFormat.writeVarLong(footer, columns.size());
+        for (ColumnarFormat.Column column : columns) {
+            writeString(footer, column.getName());
+            writeString(footer, column.getTypeName());
+            ColumnarFormat.writeVarLong(footer, column.getTypeID());
+            writeString(footer, column.getDataKind().name());
+            ColumnarFormat.writeVarLong(footer, column.getScale());
+            ColumnarFormat.writeVarLong(footer, column.getPrecision());
+            ColumnarFormat.writeVarLong(footer, column.getMaxLength());
+        }
+        ColumnarFormat.writeVarLong(footer, rowGroups.size());
+        for (ColumnarFormat.RowGroup rowGroup : rowGroups) {
+            ColumnarFormat.writeVarLong(footer, rowGroup.rowCount);
+            for (ColumnarFormat.ColumnChunk chunk : rowGroup.chunks) {
+                ColumnarFormat.writeVarLong(footer, chunk.offset);
+                ColumnarFormat.writeVarLong(footer, chunk.length);
+                footer.writeByte(chunk.valueType);
+                footer.writeByte(chunk.encoding);
+                ColumnarFormat.writeVarLong(footer, chunk.nullCount);
+                footer.writeBoolean(chunk.minValue != null);
+                if (chunk.minValue != null) {
+                    ColumnarFormat.writeValue(footer, chunk.valueType, chunk.minValue);
+                    ColumnarFormat.writeValue(footer, chunk.valueType, chunk.maxValue);
+                }
+            }
+        }
+        footer.flush();
+
+        write(buffer.toByteArray());
+        int footerLength = buffer.size();
+        write(new byte[] {(byte) (footerLength >>> 24), (byte) (footerLength >>> 16), (byte) (footerLength >>> 8), (byte) footerLength});
+        write(ColumnarFormat.MAGIC);
+        out.flush();
+    }
+
+    private void flushRowGroup() throws IOException
+    {
+        if (rowCount == 0) {
+            return;
+        }
+        ColumnarFormat.RowGroup rowGroup = new ColumnarFormat.RowGroup();
+        rowGroup.rowCount = rowCount;
+        rowGroup.chunks = new ColumnarFormat.ColumnChunk[columnValues.length];
+        for (int i = 0; i < columnValues.length; i++) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            ColumnarFormat.ColumnChunk chunk = writeChunk(new DataOutputStream(buffer), columnValues[i]);
+            chunk.offset = position;
+            chunk.length = buffer.size();
+            rowGroup.chunks[i] = chunk;
+            write(buffer.toByteArray());
+            columnValues[i].clear();
+        }
+        rowGroups.add(rowGroup);
+        rowCount = 0;
+        rowGroupBytes = 0;
+    }
+
+    private static ColumnarFormat.ColumnChunk writeChunk(DataOutputStream out, List<Object> values) throws IOException
+    {
+        ColumnarFormat.ColumnChunk chunk = new ColumnarFormat.ColumnChunk();
+        byte valueType = ColumnarFormat.TYPE_NULL;
+        for (Object value : values) {
+            if (value == null) {
+                chunk.nullCount++;
+            } else {
+                valueType = ColumnarFormat.getCommonType(valueType, ColumnarFormat.getValueType(value));
+            }
+        }
+        chunk.valueType = valueType;
+        chunk.encoding = ColumnarFormat.ENCODING_PLAIN;
+        if (valueType == ColumnarFormat.TYPE_NULL) {
+            return chunk;
+        }
+
+        // Null bitmap
+        List<Object> nonNulls = new ArrayList<>(values.size() - chunk.nullCount);
+        if (chunk.nullCount > 0) {
+            byte[] bitmap = new byte[(values.size() + 7) / 8];
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == null) {
+                    bitmap[i >> 3] |= 1 << (i & 7);
+                }
+            }
+            out.write(bitmap);
+        }
+        for (Object value : values) {
+            if (value != null) {
+                nonNulls.add(ColumnarFormat.convertValue(value, valueType));
+            }
+        }
+
+        // Statistics
+        if (ColumnarFormat.isComparable(valueType)) {
+            Object min = null, max = null;
+            for (Object value : nonNulls) {
+                if (min == null || ColumnarFormat.compareValues(value, min) < 0) {
+                    min = value;
+                }
+                if (max == null || ColumnarFormat.compareValues(value, max) > 0) {
+                    max = value;
+                }
+            }
+            chunk.minValue = min;
+            chunk.maxValue = max;
+        }
+
+        // Choose encoding
+        int count = nonNulls.size();
+        int runCount = 0;
+        Map<Object, Integer> dictionary = null;
+        if (valueType != ColumnarFormat.TYPE_BINARY) {
+            Object prevValue = null;
+            for (Object value : nonNulls) {
+                if (!value.equals(prevValue)) {
+                    runCount++;
+                }
+                prevValue = value;
+            }
+            if (runCount > count / 2 && (valueType == ColumnarFormat.TYPE_STRING || valueType == ColumnarFormat.TYPE_DECIMAL)) {
+                dictionary = new LinkedHashMap<>();
+                for (Object value : nonNulls) {
+                    if (!dictionary.containsKey(value)) {
+                        if (dictionary.size() >= MAX_DICTIONARY_SIZE || dictionary.size() >= count / 2) {
+                            dictionary = null;
+                            break;
+                        }
+                        dictionary.put(value, dictionary.size());
+                    }
+                }
+            }
+        }
+
+        if (valueType != ColumnarFormat.TYPE_BINARY && runCount <= count / 2) {
+            chunk.encoding = ColumnarFormat.ENCODING_RLE;
+            ColumnarFormat.writeVarLong(out, runCount);
+            int i = 0;
+            while (i < count) {
+                Object value = nonNulls.get(i);
+                int runLength = 1;
+                while (i + runLength < count && value.equals(nonNulls.get(i + runLength))) {
+                    runLength++;
+                }
+                ColumnarFormat.writeVarLong(out, runLength);
+                ColumnarFormat.writeValue(out, valueType, value);
+                i += runLength;
+            }
+        } else if (dictionary != null) {
+            chunk.encoding = ColumnarFormat.ENCODING_DICTIONARY;
+            ColumnarFormat.writeVarLong(out, dictionary.size());
+            for (Object value : dictionary.keySet()) {
+                ColumnarFormat.writeValue(out, valueType, value);
+            }
+            for (Object value : nonNulls) {
+                ColumnarFormat.writeVarLong(out, dictionary.get(value));
+            }
+        } else {
+            for (Object value : nonNulls) {
+                ColumnarFormat.writeValue(out, valueType, value);
+            }
+        }
+        out.flush();
+        return chunk;
+    }
+
+    private static long estimateSize(@Nullable Object value)
+    {
+        if (value instanceof String) {
+            return 2 * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else {
+            return 8;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException
+    {
+        ColumnarFormat.writeValue(out, ColumnarFormat.TYPE_STRING, value == null ? "" : value);
+    }
+
+    private void write(byte[] bytes) throws IOException
+    {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+}
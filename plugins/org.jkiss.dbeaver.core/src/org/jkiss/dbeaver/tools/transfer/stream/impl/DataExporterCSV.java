@@ -60,8 +60,6 @@ public class DataExporterCSV extends StreamExporterAbstract {
     private PrintWriter out;
     private List<DBDAttributeBinding> columns;
 
-    private final StringBuilder buffer = new StringBuilder();
-
     @Override
     public void init(IStreamDataExporterSite site) throws DBException
     {
@@ -183,33 +181,37 @@ public class DataExporterCSV extends StreamExporterAbstract {
         if (!useQuotes) {
             quote = false;
         }
-        // check for needed quote
-        final boolean hasQuotes = useQuotes && value.indexOf(quoteChar) != -1;
-        if (!quote && !value.isEmpty()) {
-            if (hasQuotes ||
-                value.indexOf(delimiter) != -1 ||
-                value.indexOf('\r') != -1 ||
-                value.indexOf('\n') != -1 ||
-                value.contains(rowDelimiter))
-            {
+        // Check for needed quote in one pass.
+        // Row delimiter is a line separator so CR/LF check covers it.
+        final int length = value.length();
+        boolean hasQuotes = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == quoteChar && useQuotes) {
+                hasQuotes = true;
+                quote = true;
+                break;
+            } else if (c == delimiter || c == '\r' || c == '\n') {
                 quote = true;
+                if (!useQuotes) {
+                    break;
+                }
             }
         }
+        if (quote) out.write(quoteChar);
         if (quote && hasQuotes) {
             // escape quotes with double quotes
-            buffer.setLength(0);
-            for (int i = 0; i < value.length(); i++) {
-                char c = value.charAt(i);
-                if (c == quoteChar) {
-                    buffer.append(quoteChar);
-                }
-                buffer.append(c);
+            int start = 0;
+            for (int i = value.indexOf(quoteChar); i != -1; i = value.indexOf(quoteChar, i + 1)) {
+                out.write(value, start, i - start + 1);
+                out.write(quoteChar);
+                start = i + 1;
             }
-            value = buffer.toString();
+            out.write(value, start, length - start);
+        } else {
+            out.write(value);
         }
         if (quote) out.write(quoteChar);
-        out.write(value);
-        if (quote) out.write(quoteChar);
     }
 
     private void writeCellValue(Reader reader) throws IOException
@@ -223,12 +225,19 @@ public class DataExporterCSV extends StreamExporterAbstract {
                 if (count <= 0) {
                     break;
                 }
+                if (!useQuotes) {
+                    out.write(buffer, 0, count);
+                    continue;
+                }
+                int start = 0;
                 for (int i = 0; i < count; i++) {
-                    if (useQuotes && buffer[i] == quoteChar) {
+                    if (buffer[i] == quoteChar) {
+                        out.write(buffer, start, i - start + 1);
                         out.write(quoteChar);
+                        start = i + 1;
                     }
-                    out.write(buffer[i]);
                 }
+                out.write(buffer, start, count - start);
             }
             if (useQuotes) out.write(quoteChar);
         } finally {
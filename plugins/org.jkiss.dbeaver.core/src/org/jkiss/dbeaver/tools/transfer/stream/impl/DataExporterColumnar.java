@@ -0,0 +1,146 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.impl;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterBinary;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar binary format exporter.
+ * Values are written in typed column chunks, see {@link ColumnarFormat}.
+ */
+public class DataExporterColumnar extends StreamExporterAbstract implements IStreamDataExporterBinary {
+
+    public static final String PROP_ROW_GROUP_SIZE = "rowGroupSize";
+
+    private OutputStream out;
+    private List<DBDAttributeBinding> columns;
+    private ColumnarWriter columnarWriter;
+    private Object[] values;
+    private int rowGroupSize;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException
+    {
+        super.init(site);
+        out = site.getOutputStream();
+        if (out == null) {
+            throw new DBException("Columnar format can't be exported to clipboard");
+        }
+        rowGroupSize = CommonUtils.toInt(site.getProperties().get(PROP_ROW_GROUP_SIZE), ColumnarWriter.DEFAULT_ROW_GROUP_SIZE);
+        if (rowGroupSize <= 0) {
+            rowGroupSize = ColumnarWriter.DEFAULT_ROW_GROUP_SIZE;
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        out = null;
+        columnarWriter = null;
+        super.dispose();
+    }
+
+    @Override
+    public void exportHeader(DBRProgressMonitor monitor) throws DBException, IOException
+    {
+        columns = getSite().getAttributes();
+        List<ColumnarFormat.Column> fileColumns = new ArrayList<>(columns.size());
+        for (DBDAttributeBinding column : columns) {
+            fileColumns.add(new ColumnarFormat.Column(
+                column.getName(),
+                column.getTypeName(),
+                column.getTypeID(),
+                column.getDataKind(),
+                column.getScale(),
+                column.getPrecision(),
+                column.getMaxLength()));
+        }
+        values = new Object[columns.size()];
+        // Header starts new output file
+        getSite().flush();
+        columnarWriter = new ColumnarWriter(out, fileColumns, rowGroupSize);
+    }
+
+    @Override
+    public void exportRow(DBRProgressMonitor monitor, Object[] row) throws DBException, IOException
+    {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < row.length ? getColumnValue(monitor, columns.get(i), row[i]) : null;
+        }
+        columnarWriter.addRow(values);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws IOException
+    {
+        if (columnarWriter != null) {
+            columnarWriter.finish();
+            columnarWriter = null;
+        }
+    }
+
+    private Object getColumnValue(DBRProgressMonitor monitor, DBDAttributeBinding column, Object value)
+        throws DBException, IOException
+    {
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        } else if (value instanceof DBDContent) {
+            DBDContent content = (DBDContent) value;
+            try {
+                DBDContentStorage cs = content.getContents(monitor);
+                if (cs == null) {
+                    return null;
+                }
+                if (ContentUtils.isTextContent(content)) {
+                    return ContentUtils.readToString(cs.getContentReader());
+                } else {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    try (InputStream contentStream = cs.getContentStream()) {
+                        IOUtils.fastCopy(contentStream, buffer);
+                    }
+                    return buffer.toByteArray();
+                }
+            }
+            finally {
+                content.release();
+            }
+        } else if (value instanceof File) {
+            // LOB saved in separate file
+            return ((File) value).getAbsolutePath();
+        } else if (ColumnarFormat.getValueType(value) >= 0) {
+            return value;
+        } else {
+            return super.getValueDisplayString(column, value);
+        }
+    }
+
+}
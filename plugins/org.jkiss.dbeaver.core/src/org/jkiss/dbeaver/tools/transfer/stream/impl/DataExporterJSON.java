@@ -80,6 +80,8 @@ public class DataExporterJSON extends StreamExporterAbstract {
     {
         columns = getSite().getAttributes();
         tableName = getSite().getSource().getName();
+        // Header starts new output file
+        rowNum = 0;
         printHeader();
     }
 
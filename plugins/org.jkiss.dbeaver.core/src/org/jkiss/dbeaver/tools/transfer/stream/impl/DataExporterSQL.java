@@ -36,30 +36,42 @@ import org.jkiss.utils.CommonUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
 
 /**
- * SQL Exporter
+ * SQL Exporter.
+ * In bulk mode uses dialect specific format: COPY blocks, INSERT ALL or multi-row INSERTs limited by statement size.
  */
 public class DataExporterSQL extends StreamExporterAbstract {
 
     private static final String PROP_OMIT_SCHEMA = "omitSchema";
     private static final String PROP_ROWS_IN_STATEMENT = "rowsInStatement";
+    private static final String PROP_BULK_FORMAT = "bulkFormat";
+    private static final String PROP_MAX_STATEMENT_SIZE = "maxStatementSize";
     private static final char STRING_QUOTE = '\'';
+    private static final int DEFAULT_MAX_STATEMENT_SIZE = 1024;
 
     private String rowDelimiter;
     private boolean omitSchema;
     private int rowsInStatement;
+    private boolean bulkFormat;
+    private long maxStatementSize;
     private PrintWriter out;
     private String tableName;
+    private String columnList;
     private List<DBDAttributeBinding> columns;
 
-    private transient StringBuilder sqlBuffer = new StringBuilder(100);
     private transient long rowCount;
+    private transient int statementRows;
+    private transient long statementLength;
     private SQLDialect dialect;
+    private SQLDialect.MultiValueInsertMode insertMode;
+    private boolean copyMode;
 
     @Override
     public void init(IStreamDataExporterSite site) throws DBException
@@ -73,9 +85,14 @@ public class DataExporterSQL extends StreamExporterAbstract {
         } catch (NumberFormatException e) {
             rowsInStatement = 10;
         }
+        bulkFormat = CommonUtils.toBoolean(site.getProperties().get(PROP_BULK_FORMAT));
+        int maxStatementSizeKb = CommonUtils.toInt(site.getProperties().get(PROP_MAX_STATEMENT_SIZE), DEFAULT_MAX_STATEMENT_SIZE);
+        maxStatementSize = (maxStatementSizeKb > 0 ? maxStatementSizeKb : DEFAULT_MAX_STATEMENT_SIZE) * 1024L;
         out = site.getWriter();
         rowDelimiter = GeneralUtils.getDefaultLineSeparator();
         dialect = SQLUtils.getDialectFromObject(site.getSource());
+        insertMode = getMultiValueInsertMode();
+        copyMode = bulkFormat && dialect != null && dialect.supportsCopyFromStdin();
     }
 
     @Override
@@ -97,137 +114,345 @@ public class DataExporterSQL extends StreamExporterAbstract {
         } else {
             throw new DBException("SQL export may be done only from table object");
         }
+        StringBuilder columnsBuffer = new StringBuilder(100);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                columnsBuffer.append(',');
+            }
+            columnsBuffer.append(DBUtils.getQuotedIdentifier(columns.get(i)));
+        }
+        columnList = columnsBuffer.toString();
         rowCount = 0;
+        statementRows = 0;
+        if (copyMode) {
+            // Single COPY block per output file
+            write("COPY ");
+            write(tableName);
+            write(" (");
+            write(columnList);
+            write(") FROM stdin;");
+            write(rowDelimiter);
+        }
     }
 
     @Override
     public void exportRow(DBRProgressMonitor monitor, Object[] row) throws DBException, IOException
     {
-        SQLDialect.MultiValueInsertMode insertMode = getMultiValueInsertMode();
+        if (copyMode) {
+            writeCopyRow(monitor, row);
+            rowCount++;
+            return;
+        }
         int columnsSize = columns.size();
         boolean firstRow = false;
-        if (insertMode == SQLDialect.MultiValueInsertMode.NOT_SUPPORTED || rowCount % rowsInStatement == 0) {
-            sqlBuffer.setLength(0);
-            if (rowCount > 0) {
-                if (insertMode == SQLDialect.MultiValueInsertMode.PLAIN) {
-                    sqlBuffer.append(");").append(rowDelimiter);
-                } else if (insertMode == SQLDialect.MultiValueInsertMode.GROUP_ROWS) {
-                    sqlBuffer.append(";").append(rowDelimiter);
-                }
+        if (isNewStatement(row)) {
+            if (rowCount > 0 && insertMode != SQLDialect.MultiValueInsertMode.NOT_SUPPORTED) {
+                finishStatement();
+                write(rowDelimiter);
             }
-            sqlBuffer.append("INSERT INTO ").append(tableName).append(" (");
-            for (int i = 0; i < columnsSize; i++) {
-                DBDAttributeBinding column = columns.get(i);
-                if (i > 0) {
-                    sqlBuffer.append(',');
+            statementRows = 0;
+            statementLength = 0;
+            if (insertMode == SQLDialect.MultiValueInsertMode.INSERT_ALL) {
+                write("INSERT ALL");
+                write(rowDelimiter);
+            } else {
+                write("INSERT INTO ");
+                write(tableName);
+                write(" (");
+                write(columnList);
+                write(") VALUES ");
+                if (insertMode != SQLDialect.MultiValueInsertMode.GROUP_ROWS) {
+                    write('(');
+                }
+                if (rowsInStatement > 1 || bulkFormat) {
+                    write(rowDelimiter);
                 }
-                sqlBuffer.append(DBUtils.getQuotedIdentifier(column));
-            }
-            sqlBuffer.append(") VALUES ");
-            if (insertMode != SQLDialect.MultiValueInsertMode.GROUP_ROWS) {
-                sqlBuffer.append("(");
-            }
-            if (rowsInStatement > 1) {
-                sqlBuffer.append(rowDelimiter);
             }
-            out.write(sqlBuffer.toString());
             firstRow = true;
         }
-        if (insertMode != SQLDialect.MultiValueInsertMode.NOT_SUPPORTED && !firstRow) {
-            out.write(",");
-        }
-        if (insertMode == SQLDialect.MultiValueInsertMode.GROUP_ROWS) {
-            out.write("(");
+        switch (insertMode) {
+            case INSERT_ALL:
+                write("INTO ");
+                write(tableName);
+                write(" (");
+                write(columnList);
+                write(") VALUES (");
+                break;
+            case GROUP_ROWS:
+                if (!firstRow) {
+                    write(',');
+                }
+                write('(');
+                break;
+            case PLAIN:
+                if (!firstRow) {
+                    write(',');
+                }
+                break;
+            default:
+                break;
         }
         rowCount++;
+        statementRows++;
         for (int i = 0; i < columnsSize; i++) {
             if (i > 0) {
-                out.write(',');
+                write(',');
             }
+            writeSQLValue(monitor, columns.get(i), row[i]);
+        }
+        if (insertMode != SQLDialect.MultiValueInsertMode.PLAIN) {
+            write(')');
+        }
+        if (insertMode == SQLDialect.MultiValueInsertMode.NOT_SUPPORTED) {
+            write(';');
+        }
+        write(rowDelimiter);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException
+    {
+        if (copyMode) {
+            write("\\.");
+            write(rowDelimiter);
+        } else if (rowCount > 0) {
+            finishStatement();
+        }
+    }
+
+    private boolean isNewStatement(Object[] row) throws DBException
+    {
+        if (rowCount == 0 || insertMode == SQLDialect.MultiValueInsertMode.NOT_SUPPORTED) {
+            return true;
+        }
+        if (bulkFormat && insertMode != SQLDialect.MultiValueInsertMode.INSERT_ALL) {
+            // Extended insert. Keep statement below server packet limit.
+            // Check the row before it is written - a single wide row may be larger than the remaining space.
+            return statementLength + estimateRowLength(row) > maxStatementSize;
+        }
+        return statementRows >= rowsInStatement;
+    }
+
+    /**
+     * Estimates length of row values in SQL text. Escaping is not counted.
+     */
+    private long estimateRowLength(Object[] row) throws DBException
+    {
+        long length = columns.size() + 3 + rowDelimiter.length();
+        for (int i = 0; i < columns.size(); i++) {
             Object value = row[i];
+            if (DBUtils.isNullValue(value)) {
+                length += SQLConstants.NULL_VALUE.length();
+            } else if (value instanceof DBDContent) {
+                DBDContent content = (DBDContent) value;
+                long contentLength = content.getContentLength();
+                length += (ContentUtils.isTextContent(content) ? contentLength : contentLength * 2) + 2;
+            } else if (value instanceof String) {
+                length += ((String) value).length() + 2;
+            } else if (value instanceof Number) {
+                length += value.toString().length();
+            } else if (value instanceof File) {
+                length += ((File) value).getAbsolutePath().length() + 1;
+            } else {
+                length += super.getValueDisplayString(columns.get(i), value).length() + 2;
+            }
+        }
+        return length;
+    }
 
-            DBDAttributeBinding column = columns.get(i);
+    private void finishStatement()
+    {
+        switch (insertMode) {
+            case GROUP_ROWS:
+                write(';');
+                break;
+            case PLAIN:
+                write(");");
+                break;
+            case INSERT_ALL:
+                write("SELECT 1 FROM DUAL;");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void writeSQLValue(DBRProgressMonitor monitor, DBDAttributeBinding column, Object value) throws DBException, IOException
+    {
+        if (DBUtils.isNullValue(value)) {
+            // just skip it
+            write(SQLConstants.NULL_VALUE);
+        } else if (value instanceof DBDContent) {
+            // Content
+            // Inline textual content and handle binaries in some special way
+            DBDContent content = (DBDContent) value;
+            try {
+                DBDContentStorage cs = content.getContents(monitor);
+                if (cs != null) {
+                    if (ContentUtils.isTextContent(content)) {
+                        writeStringValue(cs.getContentReader());
+                    } else {
+                        getSite().writeBinaryData(cs);
+                        statementLength += cs.getContentLength() * 2;
+                    }
+                }
+            }
+            finally {
+                content.release();
+            }
+        } else if (value instanceof File) {
+            write('@');
+            write(((File) value).getAbsolutePath());
+        } else if (value instanceof String) {
+            writeStringValue((String) value);
+        } else if (value instanceof Number) {
+            write(value.toString());
+        } else if (value instanceof Date) {
+            String stringValue = super.getValueDisplayString(column, value);
+            if (getSite().getExportFormat() != DBDDisplayFormat.NATIVE) {
+                writeStringValue(stringValue);
+            } else {
+                write(stringValue);
+            }
+        } else {
+            write(super.getValueDisplayString(column, value));
+        }
+    }
+
+    /**
+     * Writes row in COPY text format: tab separated values, \N for nulls, special characters escaped with backslash
+     */
+    private void writeCopyRow(DBRProgressMonitor monitor, Object[] row) throws DBException, IOException
+    {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                write('\t');
+            }
+            Object value = row[i];
             if (DBUtils.isNullValue(value)) {
-                // just skip it
-                out.write(SQLConstants.NULL_VALUE);
-            } else if (row[i] instanceof DBDContent) {
-                // Content
-                // Inline textual content and handle binaries in some special way
-                DBDContent content = (DBDContent)row[i];
+                write("\\N");
+            } else if (value instanceof DBDContent) {
+                DBDContent content = (DBDContent) value;
                 try {
                     DBDContentStorage cs = content.getContents(monitor);
-                    if (cs != null) {
-                        if (ContentUtils.isTextContent(content)) {
-                            writeStringValue(cs.getContentReader());
-                        } else {
-                            getSite().writeBinaryData(cs);
+                    if (cs == null) {
+                        write("\\N");
+                    } else if (ContentUtils.isTextContent(content)) {
+                        writeCopyText(cs.getContentReader());
+                    } else {
+                        try (InputStream stream = cs.getContentStream()) {
+                            write("\\\\x");
+                            byte[] buffer = new byte[5000];
+                            for (;;) {
+                                int count = stream.read(buffer);
+                                if (count <= 0) {
+                                    break;
+                                }
+                                GeneralUtils.writeBytesAsHex(out, buffer, 0, count);
+                            }
                         }
                     }
                 }
                 finally {
                     content.release();
                 }
+            } else if (value instanceof byte[]) {
+                byte[] bytes = (byte[]) value;
+                write("\\\\x");
+                GeneralUtils.writeBytesAsHex(out, bytes, 0, bytes.length);
             } else if (value instanceof File) {
-                out.write("@");
-                out.write(((File)value).getAbsolutePath());
+                writeCopyText(((File) value).getAbsolutePath());
             } else if (value instanceof String) {
-                writeStringValue((String) value);
-            } else if (value instanceof Number) {
-                out.write(value.toString());
+                writeCopyText((String) value);
+            } else if (value instanceof Number || value instanceof Boolean) {
+                write(value.toString());
+            } else if (value instanceof java.sql.Date || value instanceof java.sql.Time || value instanceof Timestamp) {
+                // JDBC types are printed in ISO format
+                write(value.toString());
             } else if (value instanceof Date) {
-                String stringValue = super.getValueDisplayString(column, row[i]);
-                if (getSite().getExportFormat() != DBDDisplayFormat.NATIVE) {
-                    writeStringValue(stringValue);
-                } else {
-                    out.write(stringValue);
-                }
+                write(new Timestamp(((Date) value).getTime()).toString());
             } else {
-                out.write(super.getValueDisplayString(column, row[i]));
+                writeCopyText(super.getValueDisplayString(columns.get(i), value));
             }
         }
-        if (insertMode != SQLDialect.MultiValueInsertMode.PLAIN) {
-            out.write(")");
+        write(rowDelimiter);
+    }
+
+    private void writeCopyText(String value)
+    {
+        int length = value.length();
+        int segmentStart = 0;
+        for (int i = 0; i < length; i++) {
+            String escape = getCopyEscape(value.charAt(i));
+            if (escape != null) {
+                if (i > segmentStart) {
+                    out.write(value, segmentStart, i - segmentStart);
+                }
+                out.write(escape);
+                segmentStart = i + 1;
+            }
         }
-        if (insertMode == SQLDialect.MultiValueInsertMode.NOT_SUPPORTED) {
-            out.write(";");
+        if (segmentStart < length) {
+            out.write(value, segmentStart, length - segmentStart);
         }
-        out.write(rowDelimiter);
     }
 
-    @Override
-    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException
+    private void writeCopyText(Reader reader) throws IOException
     {
-        switch (getMultiValueInsertMode()) {
-            case GROUP_ROWS:
-                if (rowCount > 0) {
-                    out.write(";");
+        try {
+            char buffer[] = new char[2000];
+            for (;;) {
+                int count = reader.read(buffer);
+                if (count <= 0) {
+                    break;
                 }
-                break;
-            case PLAIN:
-                if (rowCount > 0) {
-                    out.write(");");
+                int segmentStart = 0;
+                for (int i = 0; i < count; i++) {
+                    String escape = getCopyEscape(buffer[i]);
+                    if (escape != null) {
+                        if (i > segmentStart) {
+                            out.write(buffer, segmentStart, i - segmentStart);
+                        }
+                        out.write(escape);
+                        segmentStart = i + 1;
+                    }
                 }
-                break;
-            default:
-                break;
+                if (segmentStart < count) {
+                    out.write(buffer, segmentStart, count - segmentStart);
+                }
+            }
+        } finally {
+            ContentUtils.close(reader);
+        }
+    }
+
+    private static String getCopyEscape(char c)
+    {
+        switch (c) {
+            case '\\': return "\\\\";
+            case '\t': return "\\t";
+            case '\n': return "\\n";
+            case '\r': return "\\r";
+            default: return null;
         }
     }
 
     private void writeStringValue(String value)
     {
-        out.write(STRING_QUOTE);
-        if (dialect != null) {
-            out.write(dialect.escapeString(value));
+        write(STRING_QUOTE);
+        if (dialect != null && value.indexOf(STRING_QUOTE) >= 0) {
+            write(dialect.escapeString(value));
         } else {
-            out.write(value);
+            // Nothing to escape - write as is
+            write(value);
         }
-        out.write(STRING_QUOTE);
+        write(STRING_QUOTE);
     }
 
     private void writeStringValue(Reader reader) throws IOException
     {
         try {
-            out.write(STRING_QUOTE);
+            write(STRING_QUOTE);
             // Copy reader
             char buffer[] = new char[2000];
             for (;;) {
@@ -235,18 +460,41 @@ public class DataExporterSQL extends StreamExporterAbstract {
                 if (count <= 0) {
                     break;
                 }
-                if (dialect != null) {
-                    out.write(dialect.escapeString(String.valueOf(buffer, 0, count)));
+                if (dialect != null && hasStringQuote(buffer, count)) {
+                    write(dialect.escapeString(String.valueOf(buffer, 0, count)));
                 } else {
                     out.write(buffer, 0, count);
+                    statementLength += count;
                 }
             }
-            out.write(STRING_QUOTE);
+            write(STRING_QUOTE);
         } finally {
             ContentUtils.close(reader);
         }
     }
 
+    private static boolean hasStringQuote(char[] buffer, int count)
+    {
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] == STRING_QUOTE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(String str)
+    {
+        out.write(str);
+        statementLength += str.length();
+    }
+
+    private void write(char c)
+    {
+        out.write(c);
+        statementLength++;
+    }
+
     private SQLDialect.MultiValueInsertMode getMultiValueInsertMode() {
         SQLDialect.MultiValueInsertMode insertMode = SQLDialect.MultiValueInsertMode.NOT_SUPPORTED;
         if (dialect != null) {
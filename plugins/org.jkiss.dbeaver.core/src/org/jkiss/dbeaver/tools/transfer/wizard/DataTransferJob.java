@@ -21,23 +21,43 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.core.CoreMessages;
 import org.jkiss.dbeaver.core.DBeaverUI;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProducer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferSettings;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Data transfer job
+ * Data transfer job.
+ * Drains data pipes from settings. If more than one job is allowed then pipes are processed
+ * by a pool of worker jobs. Each worker opens its own producer/consumer contexts (per pipe).
+ * Progress of all workers is aggregated in this job's monitor.
  */
 public class DataTransferJob extends AbstractJob {
 
+    private static final Log log = Log.getLog(DataTransferJob.class);
+
+    private static final long PROGRESS_UPDATE_INTERVAL = 500;
+
     private DataTransferSettings settings;
 
+    private final AtomicLong rowsTransferred = new AtomicLong();
+    private final AtomicInteger pipesFinished = new AtomicInteger();
+    private volatile boolean hasErrors = false;
+
     public DataTransferJob(DataTransferSettings settings)
     {
         super(CoreMessages.data_transfer_wizard_job_name);
@@ -55,22 +75,85 @@ public class DataTransferJob extends AbstractJob {
     @Override
     protected IStatus run(DBRProgressMonitor monitor)
     {
-        boolean hasErrors = false;
         long startTime = System.currentTimeMillis();
+        int totalPipes = settings.getDataPipes().size();
+        int workerCount = Math.min(settings.getMaxJobCount(), totalPipes);
+        if (workerCount <= 1) {
+            transferPipes(new TransferProgressMonitor(monitor), this);
+        } else {
+            runWorkers(monitor, workerCount, totalPipes, startTime);
+        }
+        settings.finishTransfer(monitor);
+        showResult(System.currentTimeMillis() - startTime, rowsTransferred.get());
+        return Status.OK_STATUS;
+    }
+
+    private void runWorkers(DBRProgressMonitor monitor, int workerCount, int totalPipes, long startTime)
+    {
+        monitor.beginTask(CoreMessages.data_transfer_wizard_job_task_export, totalPipes);
+        try {
+            CountDownLatch workersLatch = new CountDownLatch(workerCount);
+            List<TransferWorkerJob> workers = new ArrayList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                TransferWorkerJob worker = new TransferWorkerJob(i + 1, workersLatch);
+                workers.add(worker);
+                worker.schedule();
+            }
+            int pipesReported = 0;
+            boolean canceled = false;
+            for (;;) {
+                boolean interrupted = false;
+                try {
+                    if (workersLatch.await(PROGRESS_UPDATE_INTERVAL, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    // Treat interruption as cancel request
+                    interrupted = true;
+                }
+                if (!canceled && (interrupted || monitor.isCanceled())) {
+                    canceled = true;
+                    for (TransferWorkerJob worker : workers) {
+                        worker.cancel();
+                    }
+                }
+                pipesReported = reportProgress(monitor, pipesReported, startTime);
+            }
+            reportProgress(monitor, pipesReported, startTime);
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private int reportProgress(DBRProgressMonitor monitor, int pipesReported, long startTime)
+    {
+        int finished = pipesFinished.get();
+        if (finished > pipesReported) {
+            monitor.worked(finished - pipesReported);
+        }
+        long rows = rowsTransferred.get();
+        monitor.subTask(rows + " rows transferred (" + formatRowRate(rows, System.currentTimeMillis() - startTime) + ")");
+        return finished;
+    }
+
+    private void transferPipes(DBRProgressMonitor monitor, AbstractJob job)
+    {
         for (; ;) {
+            if (monitor.isCanceled()) {
+                break;
+            }
             DataTransferPipe transferPipe = settings.acquireDataPipe(monitor);
             if (transferPipe == null) {
                 break;
             }
-            if (!transferData(monitor, transferPipe)) {
+            if (!transferData(monitor, job, transferPipe)) {
                 hasErrors = true;
             }
+            pipesFinished.incrementAndGet();
         }
-        showResult(System.currentTimeMillis() - startTime, hasErrors);
-        return Status.OK_STATUS;
     }
 
-    private void showResult(final long time, final boolean hasErrors)
+    private void showResult(final long time, final long rows)
     {
         DBeaverUI.asyncExec(new Runnable() {
             @Override
@@ -78,20 +161,26 @@ public class DataTransferJob extends AbstractJob {
                 UIUtils.showMessageBox(
                     DBeaverUI.getActiveWorkbenchShell(),
                     "Data transfer",
-                    "Data transfer completed " + (hasErrors ? "with errors " : "") + "(" + RuntimeUtils.formatExecutionTime(time) + ")",
+                    "Data transfer completed " + (hasErrors ? "with errors " : "") + "(" + RuntimeUtils.formatExecutionTime(time) + ", " + formatRowRate(rows, time) + ")",
                     hasErrors ? SWT.ICON_ERROR : SWT.ICON_INFORMATION);
             }
         });
     }
 
-    private boolean transferData(DBRProgressMonitor monitor, DataTransferPipe transferPipe)
+    private static String formatRowRate(long rows, long time)
+    {
+        long rate = time <= 0 ? rows : rows * 1000 / time;
+        return rate + " rows/sec";
+    }
+
+    private boolean transferData(DBRProgressMonitor monitor, AbstractJob job, DataTransferPipe transferPipe)
     {
         IDataTransferProducer producer = transferPipe.getProducer();
         IDataTransferConsumer consumer = transferPipe.getConsumer();
 
         IDataTransferSettings consumerSettings = settings.getNodeSettings(consumer);
 
-        setName(NLS.bind(CoreMessages.data_transfer_wizard_job_container_name,
+        job.setName(NLS.bind(CoreMessages.data_transfer_wizard_job_container_name,
             producer.getSourceObject().getName()));
 
         IDataTransferSettings nodeSettings = settings.getNodeSettings(producer);
@@ -111,4 +200,57 @@ public class DataTransferJob extends AbstractJob {
 
     }
 
+    /**
+     * Counts work reported by producers (fetched rows) in the overall job statistics
+     */
+    private class TransferProgressMonitor extends ProxyProgressMonitor {
+
+        TransferProgressMonitor(DBRProgressMonitor original)
+        {
+            super(original);
+        }
+
+        @Override
+        public void worked(int work)
+        {
+            super.worked(work);
+            rowsTransferred.addAndGet(work);
+        }
+    }
+
+    /**
+     * Worker job. Acquires pipes from settings until there are no more pipes left.
+     */
+    private class TransferWorkerJob extends AbstractJob {
+
+        private final CountDownLatch finishLatch;
+
+        TransferWorkerJob(int workerNum, CountDownLatch finishLatch)
+        {
+            super(CoreMessages.data_transfer_wizard_job_name + " #" + workerNum);
+            this.finishLatch = finishLatch;
+            setSystem(true);
+        }
+
+        @Override
+        public boolean belongsTo(Object family)
+        {
+            return family == settings;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            try {
+                transferPipes(new TransferProgressMonitor(monitor), this);
+            } catch (Throwable e) {
+                hasErrors = true;
+                log.error("Data transfer worker failed", e);
+            } finally {
+                finishLatch.countDown();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
 }
@@ -250,10 +250,6 @@ public class DataTransferSettings {
     {
         if (curPipeNum >= dataPipes.size()) {
             // End of transfer
-            // Signal last pipe about it
-            if (!dataPipes.isEmpty()) {
-                dataPipes.get(dataPipes.size() - 1).getConsumer().finishTransfer(monitor, true);
-            }
             return null;
         }
 
@@ -263,6 +259,21 @@ public class DataTransferSettings {
         return result;
     }
 
+    /**
+     * Signals last pipe about the end of transfer.
+     * Must be called once all pipes were processed (by all transfer workers).
+     */
+    public void finishTransfer(DBRProgressMonitor monitor)
+    {
+        if (!dataPipes.isEmpty()) {
+            try {
+                dataPipes.get(dataPipes.size() - 1).getConsumer().finishTransfer(monitor, true);
+            } catch (DBException e) {
+                log.error("Error finishing data transfer", e);
+            }
+        }
+    }
+
     public DataTransferNodeDescriptor getProducer()
     {
         return producer;
@@ -182,14 +182,8 @@ public class DataTransferWizard extends Wizard implements IExportWizard {
     }
 
     private void executeJobs() {
-        // Schedule jobs for data providers
-        int totalJobs = settings.getDataPipes().size();
-        if (totalJobs > settings.getMaxJobCount()) {
-            totalJobs = settings.getMaxJobCount();
-        }
-        for (int i = 0; i < totalJobs; i++) {
-            new DataTransferJob(settings).schedule();
-        }
+        // Schedule transfer job. It will spawn up to maxJobCount workers for data pipes
+        new DataTransferJob(settings).schedule();
     }
 
 }
\ No newline at end of file
@@ -45,6 +45,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.*;
 import org.eclipse.ui.IWorkbenchCommandConstants;
 import org.eclipse.ui.IWorkbenchPartSite;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.core.CoreCommands;
 import org.jkiss.dbeaver.core.CoreMessages;
@@ -56,11 +57,15 @@ import org.jkiss.dbeaver.model.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.qm.*;
 import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLConstants;
 import org.jkiss.dbeaver.model.sql.SQLDialect;
 import org.jkiss.dbeaver.registry.DataSourceRegistry;
 import org.jkiss.dbeaver.runtime.qm.DefaultEventFilter;
+import org.jkiss.dbeaver.runtime.qm.QMLogEntry;
+import org.jkiss.dbeaver.runtime.qm.QMLogFileWriter;
+import org.jkiss.dbeaver.runtime.qm.QMLogStore;
 import org.jkiss.dbeaver.ui.*;
 import org.jkiss.dbeaver.ui.dialogs.sql.BaseSQLDialog;
 import org.jkiss.dbeaver.ui.editors.sql.handlers.OpenNewSQLEditorHandler;
@@ -73,6 +78,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -309,6 +315,11 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
     private QMEventFilter defaultFilter;
 
     private int entriesPerPage = MIN_ENTRIES_PER_PAGE;
+    // Persisted history entries are shown after live events
+    private int historyItemCount;
+    private long historyBoundary = -1;
+    private QMLogStore.Position historyPosition;
+    private boolean historyLoading;
 
     public QueryLogViewer(Composite parent, IWorkbenchPartSite site, QMEventFilter filter, boolean showConnection)
     {
@@ -361,7 +372,9 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
             public void widgetDefaultSelected(SelectionEvent e)
             {
                 //TableItem item = (TableItem)e.item;
-                showEventDetails((QMMetaEvent) e.item.getData());
+                if (e.item.getData() instanceof QMMetaEvent) {
+                    showEventDetails((QMMetaEvent) e.item.getData());
+                }
             }
         });
 
@@ -473,10 +486,11 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
     @Override
     public IStructuredSelection getSelection()
     {
+        // Contains QMMetaEvent for live events and QMLogEntry for history entries
         TableItem[] items = logTable.getSelection();
-        QMMetaEvent[] data = new QMMetaEvent[items.length];
+        Object[] data = new Object[items.length];
         for (int i = 0, itemsLength = items.length; i < itemsLength; i++) {
-            data[i] = (QMMetaEvent)items[i].getData();
+            data[i] = items[i].getData();
         }
         return new StructuredSelection(data);
     }
@@ -626,14 +640,15 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
                     }
                 }
             }
-            int itemCount = logTable.getItemCount();
+            // Trim live events only. History entries (at the end) are kept until log is cleared.
+            int itemCount = logTable.getItemCount() - historyItemCount;
             if (itemCount > entriesPerPage) {
                 int[] indexes = new int[itemCount - entriesPerPage];
                 for (int i = 0; i < itemCount - entriesPerPage; i++) {
                     indexes[i] = entriesPerPage + i;
                     TableItem tableItem = logTable.getItem(entriesPerPage + i);
-                    if (tableItem != null && tableItem.getData() instanceof QMMObject) {
-                        objectToItemMap.remove(((QMMObject) tableItem.getData()).getObjectId());
+                    if (tableItem != null && tableItem.getData() instanceof QMMetaEvent) {
+                        objectToItemMap.remove(((QMMetaEvent) tableItem.getData()).getObject().getObjectId());
                     }
                 }
                 logTable.remove(indexes);
@@ -738,7 +753,7 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
 
                 boolean hasStatements = false;
                 for (TableItem item : logTable.getSelection()) {
-                    if (((QMMetaEvent)item.getData()).getObject() instanceof QMMStatementExecuteInfo) {
+                    if (getQueryText(item.getData()) != null) {
                         hasStatements = true;
                         break;
                     }
@@ -751,6 +766,18 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
                 manager.add(copyAllAction);
                 manager.add(selectAllAction);
                 manager.add(clearLogAction);
+                if (filter == null && getLogStore() != null) {
+                    IAction loadHistoryAction = new Action(CoreMessages.controls_querylog_action_load_history) {
+                        @Override
+                        public void run()
+                        {
+                            loadHistory();
+                        }
+                    };
+                    loadHistoryAction.setEnabled(!historyLoading);
+                    manager.add(new Separator());
+                    manager.add(loadHistoryAction);
+                }
                 //manager.add(new GroupMarker(IWorkbenchActionConstants.MB_ADDITIONS));
             }
         });
@@ -764,15 +791,17 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
         StringBuilder sql = new StringBuilder();
         TableItem[] items = logTable.getSelection();
         for (TableItem item : items) {
-            QMMetaEvent event = (QMMetaEvent) item.getData();
-            QMMObject object = event.getObject();
-            if (object instanceof QMMStatementExecuteInfo) {
-                QMMStatementExecuteInfo stmtExec = (QMMStatementExecuteInfo) object;
+            String queryString = getQueryText(item.getData());
+            if (queryString != null) {
                 if (dsContainer == null) {
-                    String containerId = stmtExec.getStatement().getSession().getContainerId();
+                    String containerId;
+                    if (item.getData() instanceof QMLogEntry) {
+                        containerId = ((QMLogEntry) item.getData()).getContainerId();
+                    } else {
+                        containerId = ((QMMStatementExecuteInfo) ((QMMetaEvent) item.getData()).getObject()).getStatement().getSession().getContainerId();
+                    }
                     dsContainer = DataSourceRegistry.findDataSource(containerId);
                 }
-                String queryString = stmtExec.getQueryString();
                 if (!CommonUtils.isEmptyTrimmed(queryString)) {
                     if (sql.length() > 0) {
                         sql.append("\n");
@@ -826,6 +855,148 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
     {
         logTable.removeAll();
         objectToItemMap.clear();
+        historyItemCount = 0;
+        historyBoundary = -1;
+        historyPosition = null;
+    }
+
+    @Nullable
+    private static QMLogStore getLogStore()
+    {
+        QMLogFileWriter logWriter = DBeaverCore.getInstance().getQueryLogWriter();
+        return logWriter == null ? null : logWriter.getLogStore();
+    }
+
+    @Nullable
+    private static String getQueryText(Object data)
+    {
+        if (data instanceof QMMetaEvent && ((QMMetaEvent) data).getObject() instanceof QMMStatementExecuteInfo) {
+            return ((QMMStatementExecuteInfo) ((QMMetaEvent) data).getObject()).getQueryString();
+        } else if (data instanceof QMLogEntry && ((QMLogEntry) data).getType() == QMLogEntry.Type.QUERY) {
+            return ((QMLogEntry) data).getText();
+        }
+        return null;
+    }
+
+    /**
+     * Loads next page of persisted history (older than all shown events) in background
+     */
+    private void loadHistory()
+    {
+        final QMLogStore logStore = getLogStore();
+        if (logStore == null || historyLoading) {
+            return;
+        }
+        if (historyBoundary < 0) {
+            // Start from the oldest live event. Newer events are already shown.
+            historyBoundary = System.currentTimeMillis();
+            int itemCount = logTable.getItemCount();
+            if (itemCount > 0 && logTable.getItem(itemCount - 1).getData() instanceof QMMetaEvent) {
+                historyBoundary = ((QMMetaEvent) logTable.getItem(itemCount - 1).getData()).getObject().getOpenTime();
+            }
+        }
+        final long beforeTime = historyBoundary;
+        final QMLogStore.Position olderThan = historyPosition;
+        final int pageSize = entriesPerPage;
+        historyLoading = true;
+        new AbstractJob("Load query history") {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor)
+            {
+                QMLogStore.Page page;
+                try {
+                    page = logStore.readEntries(beforeTime, olderThan, null, pageSize);
+                } catch (Exception e) {
+                    log.error("Error reading query history", e);
+                    page = null;
+                }
+                final QMLogStore.Page result = page;
+                DBeaverUI.asyncExec(new Runnable() {
+                    @Override
+                    public void run()
+                    {
+                        historyLoading = false;
+                        if (result != null) {
+                            appendHistory(beforeTime, olderThan, result);
+                        }
+                    }
+                });
+                return Status.OK_STATUS;
+            }
+        }.schedule();
+    }
+
+    private synchronized void appendHistory(long beforeTime, QMLogStore.Position olderThan, QMLogStore.Page page)
+    {
+        if (logTable.isDisposed() || historyBoundary != beforeTime || historyPosition != olderThan) {
+            // Log was cleared or reloaded
+            return;
+        }
+        logTable.setRedraw(false);
+        try {
+            for (QMLogEntry entry : page.getEntries()) {
+                TableItem item = new TableItem(logTable, SWT.NONE);
+                item.setData(entry);
+                for (int i = 0, columnsSize = columns.size(); i < columnsSize; i++) {
+                    item.setText(i, TextUtils.getSingleLineString(getHistoryText(columns.get(i).logColumn, entry)));
+                }
+                if (entry.hasError()) {
+                    item.setBackground(colorLightRed);
+                    item.setForeground(colorGray);
+                }
+                historyItemCount++;
+            }
+            // Time boundary stays the same, next page is read before the last read entry
+            historyPosition = page.getLastPosition();
+        } finally {
+            logTable.setRedraw(true);
+        }
+    }
+
+    private static String getHistoryText(LogColumn column, QMLogEntry entry)
+    {
+        if (column == COLUMN_TIME) {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).format(new Date(entry.getTime())); //$NON-NLS-1$
+        } else if (column == COLUMN_TYPE) {
+            switch (entry.getType()) {
+                case QUERY: return "SQL"; //$NON-NLS-1$
+                case COMMIT:
+                case ROLLBACK: return CoreMessages.controls_querylog_transaction;
+                default: return CoreMessages.model_navigator_Connection;
+            }
+        } else if (column == COLUMN_TEXT) {
+            switch (entry.getType()) {
+                case QUERY: return entry.getText();
+                case COMMIT: return CoreMessages.controls_querylog_commit;
+                case ROLLBACK: return CoreMessages.controls_querylog_rollback;
+                case CONNECT: return CoreMessages.controls_querylog_connected_to + entry.getContainerName() + "\"";
+                default: return CoreMessages.controls_querylog_disconnected_from + entry.getContainerName() + "\"";
+            }
+        } else if (column == COLUMN_DURATION) {
+            if (entry.getType() == QMLogEntry.Type.QUERY) {
+                return String.valueOf(entry.getDuration()) + CoreMessages.controls_querylog__ms;
+            } else if (entry.getType() == QMLogEntry.Type.CONNECT) {
+                return ""; //$NON-NLS-1$
+            }
+            return formatMinutes(entry.getDuration());
+        } else if (column == COLUMN_ROWS) {
+            return entry.getRowCount() < 0 ? "" : String.valueOf(entry.getRowCount()); //$NON-NLS-1$
+        } else if (column == COLUMN_RESULT) {
+            if (entry.getType() != QMLogEntry.Type.QUERY) {
+                return ""; //$NON-NLS-1$
+            } else if (!entry.hasError()) {
+                return CoreMessages.controls_querylog_success;
+            } else if (entry.getErrorCode() == 0) {
+                return entry.getErrorMessage();
+            } else {
+                return "[" + entry.getErrorCode() + "] " + entry.getErrorMessage();
+            }
+        } else if (column == COLUMN_DATA_SOURCE) {
+            return entry.getContainerName() == null ? "?" : entry.getContainerName();
+        } else if (column == COLUMN_CONTEXT) {
+            return entry.getContextName() == null ? "?" : entry.getContextName();
+        }
+        return ""; //$NON-NLS-1$
     }
 
     public void selectAll()
@@ -855,21 +1026,25 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
         }
         StringBuilder tdt = new StringBuilder();
         for (Iterator<?> i = selection.iterator(); i.hasNext(); ) {
-            QMMetaEvent item = (QMMetaEvent)i.next();
+            Object item = i.next();
             if (tdt.length() > 0) {
                 tdt.append(GeneralUtils.getDefaultLineSeparator());
             }
             if (extraInfo) {
                 for (int i1 = 0, columnsSize = columns.size(); i1 < columnsSize; i1++) {
                     ColumnDescriptor cd = columns.get(i1);
-                    String text = cd.logColumn.getText(item);
+                    String text = item instanceof QMLogEntry ?
+                        getHistoryText(cd.logColumn, (QMLogEntry) item) :
+                        cd.logColumn.getText((QMMetaEvent) item);
                     if (i1 > 0) {
                         tdt.append('\t');
                     }
                     tdt.append(text);
                 }
             } else {
-                String text = COLUMN_TEXT.getText(item);
+                String text = item instanceof QMLogEntry ?
+                    getHistoryText(COLUMN_TEXT, (QMLogEntry) item) :
+                    COLUMN_TEXT.getText((QMMetaEvent) item);
                 tdt.append(text);
             }
         }
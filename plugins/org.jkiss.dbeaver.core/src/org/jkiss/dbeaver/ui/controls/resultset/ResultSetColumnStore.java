@@ -0,0 +1,1123 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.core.DBeaverCore;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Columnar storage of result set values.
+ * Numbers, booleans and date/time values are kept in primitive arrays with null bitmaps,
+ * strings are dictionary encoded. Column switches to plain object storage once it gets a value
+ * of some other type (DBDValue, driver-specific object, etc) or more than MAX_DICTIONARY_SIZE (1024)
+ * distinct strings in a page.
+ * Rows are addressed by slot. Slot never changes so rows may be reordered freely.
+ *
+ * Values are stored in pages of PAGE_SIZE rows. If resident rows limit is set then least recently
+ * used pages are spilled into temporary file and read back on access. Pages with values
+ * which can't be serialized (LOBs, complex types) always stay in memory.
+ * Spilled pages are written in background. UI reads spilled pages in background too (see loadRow).
+ */
+class ResultSetColumnStore {
+
+    private static final Log log = Log.getLog(ResultSetColumnStore.class);
+
+    static final int PAGE_SIZE = 4096;
+    private static final int INITIAL_CAPACITY = 64;
+    // Dictionary is per page (so pages may be spilled independently). Page columns with more distinct strings
+    // are stored as objects: dictionary of mostly unique values takes more memory than plain references.
+    private static final int MAX_DICTIONARY_SIZE = PAGE_SIZE / 4;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final Column[] EMPTY_COLUMNS = new Column[0];
+
+    private static class Page {
+        // Null if page is spilled
+        Column[] columns = new Column[0];
+        int capacity;
+        // Spilled copy of page
+        long fileOffset = -1;
+        int fileLength;
+        boolean dirty = true;
+        // Page has complex values and can't be spilled
+        boolean pinned;
+        // Serialized page waiting for background write. Page keeps its columns until write completes
+        byte[] pendingData;
+        // Listeners of background page load. Not null if load was requested
+        List<Runnable> loadListeners;
+        // Page can't be read from spill file
+        boolean broken;
+    }
+
+    private final List<Page> pages = new ArrayList<>();
+    private final int maxResidentPages;
+    // Resident pages which may be spilled, in access order
+    private final LinkedHashMap<Page, Page> residentPages = new LinkedHashMap<>(16, 0.75f, true);
+    // Pages waiting for background write or load
+    private final LinkedList<Page> ioQueue = new LinkedList<>();
+    private PageIOJob ioJob;
+    private File spillFile;
+    private RandomAccessFile spillRAF;
+    private long spillFileLength;
+    private int slotCount;
+    private int columnCount;
+    private boolean closed;
+
+    ResultSetColumnStore() {
+        this(0);
+    }
+
+    /**
+     * @param maxResidentRows maximum number of rows kept in memory. Zero means no limit.
+     */
+    ResultSetColumnStore(int maxResidentRows) {
+        this.maxResidentPages = maxResidentRows <= 0 ? 0 : Math.max(2, maxResidentRows / PAGE_SIZE);
+    }
+
+    synchronized int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Adds new row. Values array isn't referenced after this call.
+     * Evicted pages are written to spill file in background.
+     * @return new row slot
+     */
+    synchronized int addRow(@NotNull Object[] values) {
+        int slot = slotCount;
+        int pageIndex = slot / PAGE_SIZE;
+        if (pageIndex == pages.size()) {
+            pages.add(new Page());
+        }
+        Page page = pages.get(pageIndex);
+        Column[] columns = getColumns(page);
+        int localSlot = slot % PAGE_SIZE;
+        if (localSlot >= page.capacity) {
+            page.capacity = Math.min(PAGE_SIZE, Math.max(INITIAL_CAPACITY, page.capacity + (page.capacity >> 1)));
+            for (Column column : columns) {
+                if (column != null) {
+                    column.ensureCapacity(page.capacity);
+                }
+            }
+        }
+        slotCount++;
+        for (int i = 0; i < values.length; i++) {
+            setValue(slot, i, values[i]);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns row value. Spilled page is read in caller's thread, so UI code which paints cells
+     * must check {@link #isRowResident(int)} first and use {@link #loadRow(int, Runnable)}.
+     * Values of unreadable pages are nulls.
+     */
+    @Nullable
+    synchronized Object getValue(int slot, int index) {
+        Column column = getColumn(slot, index);
+        return column == null ? null : column.get(slot % PAGE_SIZE);
+    }
+
+    synchronized void setValue(int slot, int index, @Nullable Object value) {
+        if (index >= columnCount) {
+            columnCount = index + 1;
+        }
+        Page page = pages.get(slot / PAGE_SIZE);
+        Column[] columns = getColumns(page);
+        if (page.broken) {
+            log.debug("Can't change value of unreadable result set page");
+            return;
+        }
+        if (index >= columns.length) {
+            columns = page.columns = Arrays.copyOf(columns, columnCount);
+        }
+        int localSlot = slot % PAGE_SIZE;
+        Column column = columns[index];
+        if (column == null) {
+            if (value == null) {
+                // All values are nulls so far
+                return;
+            }
+            column = createColumn(value, page.capacity);
+            columns[index] = column;
+        }
+        page.dirty = true;
+        if (!column.set(localSlot, value)) {
+            // Value of different type - move column to object storage
+            ObjectColumn objectColumn = new ObjectColumn(page.capacity);
+            for (int i = 0; i < page.capacity; i++) {
+                objectColumn.set(i, column.get(i));
+            }
+            objectColumn.set(localSlot, value);
+            columns[index] = objectColumn;
+        }
+    }
+
+    @NotNull
+    synchronized Object[] getValues(int slot) {
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = getValue(slot, i);
+        }
+        return values;
+    }
+
+    /**
+     * Checks whether row values are in memory and may be read without file access
+     */
+    synchronized boolean isRowResident(int slot) {
+        Page page = pages.get(slot / PAGE_SIZE);
+        return maxResidentPages == 0 || page.pinned || page.columns != null;
+    }
+
+    /**
+     * Checks whether row page failed to load from spill file
+     */
+    synchronized boolean isRowBroken(int slot) {
+        return pages.get(slot / PAGE_SIZE).broken;
+    }
+
+    /**
+     * Reads spilled row page in background. Listener is notified (in background thread) when page is loaded
+     * or turns to be unreadable. Repeated requests of the same page are merged.
+     */
+    synchronized void loadRow(int slot, @NotNull Runnable listener) {
+        Page page = pages.get(slot / PAGE_SIZE);
+        if (page.columns != null || page.broken || closed) {
+            return;
+        }
+        if (page.loadListeners == null) {
+            page.loadListeners = new ArrayList<>(1);
+            ioQueue.add(page);
+            scheduleIO();
+        }
+        if (!page.loadListeners.contains(listener)) {
+            page.loadListeners.add(listener);
+        }
+    }
+
+    /**
+     * Releases row values. Primitive values do not need to be released.
+     */
+    synchronized void releaseRow(int slot) {
+        Page page = pages.get(slot / PAGE_SIZE);
+        if (page.columns == null) {
+            // Spilled pages contain only simple values
+            return;
+        }
+        int localSlot = slot % PAGE_SIZE;
+        page.dirty = true;
+        for (Column column : page.columns) {
+            if (column instanceof ObjectColumn) {
+                ObjectColumn objectColumn = (ObjectColumn) column;
+                DBUtils.releaseValue(objectColumn.values[localSlot]);
+                objectColumn.values[localSlot] = null;
+            }
+        }
+    }
+
+    /**
+     * Compares values of two rows. Nulls are greater than any other value.
+     * Primitive columns are compared without boxing.
+     * Sorting reads rows in random order, so stores with spilled pages should not be sorted directly.
+     */
+    synchronized int compareValues(int slot1, int slot2, int index) {
+        Column column1 = getColumn(slot1, index);
+        Column column2 = getColumn(slot2, index);
+        int localSlot1 = slot1 % PAGE_SIZE, localSlot2 = slot2 % PAGE_SIZE;
+        boolean null1 = column1 == null || column1.isNull(localSlot1);
+        boolean null2 = column2 == null || column2.isNull(localSlot2);
+        if (null1 || null2) {
+            return null1 == null2 ? 0 : (null1 ? 1 : -1);
+        }
+        return column1.compare(localSlot1, column2, localSlot2);
+    }
+
+    /**
+     * Closes and deletes spill file
+     */
+    synchronized void close() {
+        closed = true;
+        residentPages.clear();
+        ioQueue.clear();
+        if (ioJob != null) {
+            ioJob.cancel();
+        }
+        if (spillRAF != null) {
+            try {
+                spillRAF.close();
+            } catch (IOException e) {
+                log.debug(e);
+            }
+            spillRAF = null;
+        }
+        if (spillFile != null) {
+            if (!spillFile.delete()) {
+                log.debug("Can't delete result set spill file '" + spillFile.getAbsolutePath() + "'");
+            }
+            spillFile = null;
+        }
+    }
+
+    static int compareObjects(@Nullable Object cell1, @Nullable Object cell2) {
+        if (cell1 == cell2) {
+            return 0;
+        } else if (DBUtils.isNullValue(cell1)) {
+            return 1;
+        } else if (DBUtils.isNullValue(cell2)) {
+            return -1;
+        } else if (cell1 instanceof Comparable) {
+            return ((Comparable) cell1).compareTo(cell2);
+        } else {
+            String str1 = String.valueOf(cell1);
+            String str2 = String.valueOf(cell2);
+            return str1.compareTo(str2);
+        }
+    }
+
+    @Nullable
+    private Column getColumn(int slot, int index) {
+        Column[] columns = getColumns(pages.get(slot / PAGE_SIZE));
+        return index < columns.length ? columns[index] : null;
+    }
+
+    @NotNull
+    private Column[] getColumns(@NotNull Page page) {
+        if (maxResidentPages == 0 || page.pinned) {
+            return page.columns;
+        }
+        if (page.columns == null) {
+            if (page.broken || !loadPage(page)) {
+                return EMPTY_COLUMNS;
+            }
+            residentPages.put(page, page);
+            spillPages();
+        } else if (residentPages.get(page) == null) {
+            residentPages.put(page, page);
+            spillPages();
+        }
+        return page.columns;
+    }
+
+    /**
+     * Evicts least recently used pages. Dirty pages are serialized here and written in background.
+     */
+    private void spillPages() {
+        for (Iterator<Page> iter = residentPages.keySet().iterator(); residentPages.size() > maxResidentPages && iter.hasNext(); ) {
+            Page page = iter.next();
+            if (residentPages.size() == 1) {
+                break;
+            }
+            iter.remove();
+            if (page.pendingData != null) {
+                // Already waits for write
+                continue;
+            }
+            if (page.dirty) {
+                try {
+                    page.pendingData = serializePage(page);
+                } catch (NotSerializableException e) {
+                    // Page has complex values. Keep it in memory (and do not track it anymore)
+                    page.pinned = true;
+                    continue;
+                } catch (IOException e) {
+                    log.debug("Error serializing result set page", e);
+                    continue;
+                }
+                page.dirty = false;
+                ioQueue.add(page);
+                scheduleIO();
+                continue;
+            }
+            page.columns = null;
+        }
+    }
+
+    private void scheduleIO() {
+        if (ioJob == null) {
+            ioJob = new PageIOJob();
+        }
+        ioJob.schedule();
+    }
+
+    private static byte[] serializePage(Page page) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(PAGE_SIZE * 8);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(page.capacity);
+        out.writeInt(page.columns.length);
+        for (Column column : page.columns) {
+            if (column == null) {
+                out.writeByte(0);
+            } else {
+                out.writeByte(column.getTypeId());
+                column.write(out, page.capacity);
+            }
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes serialized page into spill file. Runs in I/O job.
+     */
+    private void writePage(Page page) {
+        byte[] data;
+        long offset;
+        FileChannel channel;
+        synchronized (this) {
+            data = page.pendingData;
+            if (data == null || closed) {
+                return;
+            }
+            try {
+                if (spillRAF == null) {
+                    File folder = DBeaverCore.getInstance().getTempFolder(VoidProgressMonitor.INSTANCE, "resultset");
+                    spillFile = File.createTempFile("resultset", ".dat", folder);
+                    spillFile.deleteOnExit();
+                    spillRAF = new RandomAccessFile(spillFile, "rw");
+                }
+            } catch (IOException e) {
+                log.debug("Error creating result set spill file", e);
+                page.pendingData = null;
+                page.dirty = true;
+                page.pinned = true;
+                residentPages.remove(page);
+                return;
+            }
+            // Overwrite previous copy if it has enough space. Nobody reads it while page is resident.
+            offset = page.fileOffset >= 0 && page.fileLength >= data.length ? page.fileOffset : spillFileLength;
+            if (offset == spillFileLength) {
+                spillFileLength += data.length;
+            }
+            channel = spillRAF.getChannel();
+        }
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (this) {
+            page.pendingData = null;
+            if (error != null) {
+                if (!closed) {
+                    log.debug("Error writing result set page into spill file", error);
+                }
+                // Keep page in memory. Do not retry, file is probably unusable.
+                page.dirty = true;
+                page.pinned = true;
+                residentPages.remove(page);
+                return;
+            }
+            page.fileOffset = offset;
+            page.fileLength = data.length;
+            if (!page.dirty && !residentPages.containsKey(page)) {
+                // Page wasn't used while it was written
+                page.columns = null;
+            } else if (!residentPages.containsKey(page)) {
+                // Page stays in memory - track it again, so it will be spilled later
+                residentPages.put(page, page);
+                spillPages();
+            }
+        }
+    }
+
+    /**
+     * Reads spilled page in I/O job and notifies load listeners
+     */
+    private void loadPageAsync(Page page) {
+        List<Runnable> listeners;
+        long offset;
+        int length;
+        FileChannel channel = null;
+        synchronized (this) {
+            offset = page.fileOffset;
+            length = page.fileLength;
+            if (page.columns == null && !page.broken && !closed && spillRAF != null) {
+                channel = spillRAF.getChannel();
+            }
+        }
+        byte[] data = null;
+        IOException error = null;
+        if (channel != null) {
+            try {
+                data = readPageData(channel, offset, length);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        synchronized (this) {
+            if (channel != null && page.columns == null && !page.broken && !closed) {
+                if (error == null) {
+                    error = installPage(page, data);
+                }
+                if (error != null) {
+                    log.error("Error reading result set page from spill file", error);
+                    page.broken = true;
+                } else {
+                    residentPages.put(page, page);
+                    spillPages();
+                }
+            }
+            listeners = page.loadListeners;
+            page.loadListeners = null;
+        }
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Reads spilled page in caller's thread.
+     * @return false if page is unreadable. Error is logged and page is marked as broken.
+     */
+    private boolean loadPage(Page page) {
+        IOException error;
+        if (spillRAF == null) {
+            error = new IOException("Spill file is closed");
+        } else {
+            try {
+                error = installPage(page, readPageData(spillRAF.getChannel(), page.fileOffset, page.fileLength));
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            log.error("Error reading result set page from spill file", error);
+            page.broken = true;
+            return false;
+        }
+        return true;
+    }
+
+    private static byte[] readPageData(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        long position = offset;
+        while (data.hasRemaining()) {
+            int count = channel.read(data, position);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            position += count;
+        }
+        return data.array();
+    }
+
+    @Nullable
+    private static IOException installPage(Page page, byte[] data) {
+        Column[] columns;
+        int capacity;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            capacity = in.readInt();
+            columns = new Column[in.readInt()];
+            for (int i = 0; i < columns.length; i++) {
+                byte typeId = in.readByte();
+                switch (typeId) {
+                    case 0: break;
+                    case PrimitiveColumn.TYPE_ID: columns[i] = PrimitiveColumn.read(in, capacity); break;
+                    case TimestampColumn.TYPE_ID: columns[i] = TimestampColumn.read(in, capacity); break;
+                    case StringColumn.TYPE_ID: columns[i] = StringColumn.read(in, capacity); break;
+                    case ObjectColumn.TYPE_ID: columns[i] = ObjectColumn.read(in, capacity); break;
+                    default: throw new IOException("Bad column type: " + typeId);
+                }
+            }
+        } catch (IOException e) {
+            return e;
+        }
+        page.capacity = capacity;
+        page.columns = columns;
+        page.dirty = false;
+        return null;
+    }
+
+    /**
+     * Performs spill file I/O in background
+     */
+    private class PageIOJob extends AbstractJob {
+
+        PageIOJob() {
+            super("Result set spill file I/O");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            for (;;) {
+                Page page;
+                boolean write;
+                synchronized (ResultSetColumnStore.this) {
+                    page = ioQueue.poll();
+                    if (page == null || closed) {
+                        break;
+                    }
+                    write = page.pendingData != null;
+                }
+                if (write) {
+                    writePage(page);
+                } else {
+                    loadPageAsync(page);
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    private static Column createColumn(@NotNull Object value, int capacity) {
+        Class<?> valueClass = value.getClass();
+        if (valueClass == String.class) {
+            return new StringColumn(capacity);
+        } else if (valueClass == Timestamp.class) {
+            return new TimestampColumn(capacity);
+        }
+        int kind = PrimitiveColumn.getKind(valueClass);
+        if (kind >= 0) {
+            return new PrimitiveColumn(kind, valueClass, capacity);
+        }
+        return new ObjectColumn(capacity);
+    }
+
+    private static void writeString(DataOutput out, String str) throws IOException {
+        byte[] bytes = str.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static void writeBitSet(DataOutput out, BitSet bitSet) throws IOException {
+        long[] words = bitSet.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static BitSet readBitSet(DataInput in) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static abstract class Column {
+        @Nullable
+        abstract Object get(int slot);
+
+        /**
+         * Stores value. Returns false if value can't be stored in this column.
+         */
+        abstract boolean set(int slot, @Nullable Object value);
+
+        abstract boolean isNull(int slot);
+
+        /**
+         * Compares non-null values. Other column may belong to another page and have different type.
+         */
+        int compare(int slot, @NotNull Column other, int otherSlot) {
+            return compareObjects(get(slot), other.get(otherSlot));
+        }
+
+        abstract void ensureCapacity(int capacity);
+
+        abstract byte getTypeId();
+
+        /**
+         * Writes column values. Throws NotSerializableException if column contains complex values.
+         */
+        abstract void write(DataOutput out, int capacity) throws IOException;
+    }
+
+    private static class ObjectColumn extends Column {
+        static final byte TYPE_ID = 4;
+
+        private static final byte VALUE_NULL = 0;
+        private static final byte VALUE_STRING = 1;
+        private static final byte VALUE_DECIMAL = 2;
+        private static final byte VALUE_BIGINT = 3;
+        private static final byte VALUE_BYTES = 4;
+        private static final byte VALUE_PRIMITIVE = 5;
+        private static final byte VALUE_TIMESTAMP = 6;
+
+        Object[] values;
+
+        ObjectColumn(int capacity) {
+            values = new Object[capacity];
+        }
+
+        @Override
+        Object get(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            values[slot] = value;
+            return true;
+        }
+
+        @Override
+        boolean isNull(int slot) {
+            return DBUtils.isNullValue(values[slot]);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        byte getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        void write(DataOutput out, int capacity) throws IOException {
+            // Check all values first - page must stay in memory if any of them can't be written
+            for (int i = 0; i < capacity; i++) {
+                Object value = values[i];
+                if (value != null && value.getClass() != String.class && value.getClass() != BigDecimal.class &&
+                    value.getClass() != BigInteger.class && value.getClass() != byte[].class &&
+                    value.getClass() != Timestamp.class && PrimitiveColumn.getKind(value.getClass()) < 0)
+                {
+                    throw new NotSerializableException(value.getClass().getName());
+                }
+            }
+            for (int i = 0; i < capacity; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    out.writeByte(VALUE_NULL);
+                } else if (value instanceof String) {
+                    out.writeByte(VALUE_STRING);
+                    writeString(out, (String) value);
+                } else if (value instanceof BigDecimal) {
+                    out.writeByte(VALUE_DECIMAL);
+                    byte[] unscaled = ((BigDecimal) value).unscaledValue().toByteArray();
+                    out.writeInt(((BigDecimal) value).scale());
+                    out.writeInt(unscaled.length);
+                    out.write(unscaled);
+                } else if (value instanceof BigInteger) {
+                    out.writeByte(VALUE_BIGINT);
+                    byte[] bytes = ((BigInteger) value).toByteArray();
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                } else if (value instanceof byte[]) {
+                    out.writeByte(VALUE_BYTES);
+                    out.writeInt(((byte[]) value).length);
+                    out.write((byte[]) value);
+                } else if (value instanceof Timestamp) {
+                    out.writeByte(VALUE_TIMESTAMP);
+                    out.writeLong(((Timestamp) value).getTime());
+                    out.writeInt(((Timestamp) value).getNanos());
+                } else {
+                    out.writeByte(VALUE_PRIMITIVE);
+                    int kind = PrimitiveColumn.getKind(value.getClass());
+                    out.writeByte(kind);
+                    out.writeLong(PrimitiveColumn.encode(kind, value));
+                }
+            }
+        }
+
+        static ObjectColumn read(DataInput in, int capacity) throws IOException {
+            ObjectColumn column = new ObjectColumn(capacity);
+            for (int i = 0; i < capacity; i++) {
+                byte valueType = in.readByte();
+                switch (valueType) {
+                    case VALUE_NULL:
+                        break;
+                    case VALUE_STRING:
+                        column.values[i] = readString(in);
+                        break;
+                    case VALUE_DECIMAL: {
+                        int scale = in.readInt();
+                        byte[] unscaled = new byte[in.readInt()];
+                        in.readFully(unscaled);
+                        column.values[i] = new BigDecimal(new BigInteger(unscaled), scale);
+                        break;
+                    }
+                    case VALUE_BIGINT: {
+                        byte[] bytes = new byte[in.readInt()];
+                        in.readFully(bytes);
+                        column.values[i] = new BigInteger(bytes);
+                        break;
+                    }
+                    case VALUE_BYTES: {
+                        byte[] bytes = new byte[in.readInt()];
+                        in.readFully(bytes);
+                        column.values[i] = bytes;
+                        break;
+                    }
+                    case VALUE_TIMESTAMP: {
+                        Timestamp timestamp = new Timestamp(in.readLong());
+                        timestamp.setNanos(in.readInt());
+                        column.values[i] = timestamp;
+                        break;
+                    }
+                    case VALUE_PRIMITIVE: {
+                        int kind = in.readByte();
+                        column.values[i] = PrimitiveColumn.decode(kind, in.readLong());
+                        break;
+                    }
+                    default:
+                        throw new IOException("Bad value type: " + valueType);
+                }
+            }
+            return column;
+        }
+    }
+
+    /**
+     * Numbers, booleans and dates encoded in long values
+     */
+    private static class PrimitiveColumn extends Column {
+        static final byte TYPE_ID = 1;
+
+        static final int KIND_LONG = 0;
+        static final int KIND_INTEGER = 1;
+        static final int KIND_SHORT = 2;
+        static final int KIND_BYTE = 3;
+        static final int KIND_DOUBLE = 4;
+        static final int KIND_FLOAT = 5;
+        static final int KIND_BOOLEAN = 6;
+        static final int KIND_DATE = 7;
+        static final int KIND_SQL_DATE = 8;
+        static final int KIND_SQL_TIME = 9;
+        private static final Class<?>[] KIND_CLASSES = {
+            Long.class, Integer.class, Short.class, Byte.class, Double.class, Float.class, Boolean.class,
+            Date.class, java.sql.Date.class, java.sql.Time.class };
+
+        final int kind;
+        final Class<?> valueClass;
+        BitSet notNulls = new BitSet();
+        long[] values;
+
+        PrimitiveColumn(int kind, Class<?> valueClass, int capacity) {
+            this.kind = kind;
+            this.valueClass = valueClass;
+            this.values = new long[capacity];
+        }
+
+        static int getKind(Class<?> valueClass) {
+            for (int i = 0; i < KIND_CLASSES.length; i++) {
+                if (KIND_CLASSES[i] == valueClass) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        static long encode(int kind, Object value) {
+            switch (kind) {
+                case KIND_DOUBLE: return Double.doubleToRawLongBits((Double) value);
+                case KIND_FLOAT: return Float.floatToRawIntBits((Float) value);
+                case KIND_BOOLEAN: return (Boolean) value ? 1 : 0;
+                case KIND_DATE:
+                case KIND_SQL_DATE:
+                case KIND_SQL_TIME: return ((Date) value).getTime();
+                default: return ((Number) value).longValue();
+            }
+        }
+
+        static Object decode(int kind, long value) {
+            switch (kind) {
+                case KIND_LONG: return value;
+                case KIND_INTEGER: return (int) value;
+                case KIND_SHORT: return (short) value;
+                case KIND_BYTE: return (byte) value;
+                case KIND_DOUBLE: return Double.longBitsToDouble(value);
+                case KIND_FLOAT: return Float.intBitsToFloat((int) value);
+                case KIND_BOOLEAN: return value != 0;
+                case KIND_DATE: return new Date(value);
+                case KIND_SQL_DATE: return new java.sql.Date(value);
+                default: return new java.sql.Time(value);
+            }
+        }
+
+        @Override
+        Object get(int slot) {
+            return notNulls.get(slot) ? decode(kind, values[slot]) : null;
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            if (value == null) {
+                notNulls.clear(slot);
+                return true;
+            }
+            if (value.getClass() != valueClass) {
+                return false;
+            }
+            values[slot] = encode(kind, value);
+            notNulls.set(slot);
+            return true;
+        }
+
+        @Override
+        boolean isNull(int slot) {
+            return !notNulls.get(slot);
+        }
+
+        @Override
+        int compare(int slot, @NotNull Column other, int otherSlot) {
+            if (!(other instanceof PrimitiveColumn) || ((PrimitiveColumn) other).kind != kind) {
+                return super.compare(slot, other, otherSlot);
+            }
+            long value1 = values[slot], value2 = ((PrimitiveColumn) other).values[otherSlot];
+            switch (kind) {
+                case KIND_DOUBLE:
+                    return Double.compare(Double.longBitsToDouble(value1), Double.longBitsToDouble(value2));
+                case KIND_FLOAT:
+                    return Float.compare(Float.intBitsToFloat((int) value1), Float.intBitsToFloat((int) value2));
+                default:
+                    return Long.compare(value1, value2);
+            }
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        byte getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        void write(DataOutput out, int capacity) throws IOException {
+            out.writeByte(kind);
+            writeBitSet(out, notNulls);
+            for (int i = 0; i < capacity; i++) {
+                out.writeLong(values[i]);
+            }
+        }
+
+        static PrimitiveColumn read(DataInput in, int capacity) throws IOException {
+            int kind = in.readByte();
+            PrimitiveColumn column = new PrimitiveColumn(kind, KIND_CLASSES[kind], capacity);
+            column.notNulls = readBitSet(in);
+            for (int i = 0; i < capacity; i++) {
+                column.values[i] = in.readLong();
+            }
+            return column;
+        }
+    }
+
+    private static class TimestampColumn extends Column {
+        static final byte TYPE_ID = 2;
+
+        BitSet notNulls = new BitSet();
+        long[] times;
+        int[] nanos;
+
+        TimestampColumn(int capacity) {
+            times = new long[capacity];
+            nanos = new int[capacity];
+        }
+
+        @Override
+        Object get(int slot) {
+            if (!notNulls.get(slot)) {
+                return null;
+            }
+            Timestamp timestamp = new Timestamp(times[slot]);
+            timestamp.setNanos(nanos[slot]);
+            return timestamp;
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            if (value == null) {
+                notNulls.clear(slot);
+                return true;
+            }
+            if (value.getClass() != Timestamp.class) {
+                return false;
+            }
+            Timestamp timestamp = (Timestamp) value;
+            times[slot] = timestamp.getTime();
+            nanos[slot] = timestamp.getNanos();
+            notNulls.set(slot);
+            return true;
+        }
+
+        @Override
+        boolean isNull(int slot) {
+            return !notNulls.get(slot);
+        }
+
+        @Override
+        int compare(int slot, @NotNull Column other, int otherSlot) {
+            if (!(other instanceof TimestampColumn)) {
+                return super.compare(slot, other, otherSlot);
+            }
+            TimestampColumn otherColumn = (TimestampColumn) other;
+            int result = Long.compare(times[slot], otherColumn.times[otherSlot]);
+            return result != 0 ? result : Integer.compare(nanos[slot], otherColumn.nanos[otherSlot]);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            times = Arrays.copyOf(times, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+        }
+
+        @Override
+        byte getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        void write(DataOutput out, int capacity) throws IOException {
+            writeBitSet(out, notNulls);
+            for (int i = 0; i < capacity; i++) {
+                out.writeLong(times[i]);
+                out.writeInt(nanos[i]);
+            }
+        }
+
+        static TimestampColumn read(DataInput in, int capacity) throws IOException {
+            TimestampColumn column = new TimestampColumn(capacity);
+            column.notNulls = readBitSet(in);
+            for (int i = 0; i < capacity; i++) {
+                column.times[i] = in.readLong();
+                column.nanos[i] = in.readInt();
+            }
+            return column;
+        }
+    }
+
+    private static class StringColumn extends Column {
+        static final byte TYPE_ID = 3;
+
+        // Zero code means null, otherwise code is dictionary index + 1
+        int[] codes;
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+        StringColumn(int capacity) {
+            codes = new int[capacity];
+        }
+
+        @Override
+        Object get(int slot) {
+            int code = codes[slot];
+            return code == 0 ? null : dictionary.get(code - 1);
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            if (value == null) {
+                codes[slot] = 0;
+                return true;
+            }
+            if (value.getClass() != String.class) {
+                return false;
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+                    // Too many distinct values. Dictionary doesn't save memory anymore
+                    return false;
+                }
+                dictionary.add((String) value);
+                code = dictionary.size();
+                dictionaryIndex.put((String) value, code);
+            }
+            codes[slot] = code;
+            return true;
+        }
+
+        @Override
+        boolean isNull(int slot) {
+            return codes[slot] == 0;
+        }
+
+        @Override
+        int compare(int slot, @NotNull Column other, int otherSlot) {
+            if (other == this && codes[slot] == codes[otherSlot]) {
+                return 0;
+            }
+            return super.compare(slot, other, otherSlot);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        byte getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        void write(DataOutput out, int capacity) throws IOException {
+            out.writeInt(dictionary.size());
+            for (String str : dictionary) {
+                writeString(out, str);
+            }
+            for (int i = 0; i < capacity; i++) {
+                out.writeInt(codes[i]);
+            }
+        }
+
+        static StringColumn read(DataInput in, int capacity) throws IOException {
+            StringColumn column = new StringColumn(capacity);
+            int dictionarySize = in.readInt();
+            for (int i = 0; i < dictionarySize; i++) {
+                String str = readString(in);
+                column.dictionary.add(str);
+                column.dictionaryIndex.put(str, i + 1);
+            }
+            for (int i = 0; i < capacity; i++) {
+                column.codes[i] = in.readInt();
+            }
+            return column;
+        }
+    }
+
+}
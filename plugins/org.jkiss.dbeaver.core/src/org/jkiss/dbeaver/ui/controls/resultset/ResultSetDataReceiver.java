@@ -37,10 +37,14 @@ class ResultSetDataReceiver implements DBDDataReceiver {
 
     private static final Log log = Log.getLog(ResultSetDataReceiver.class);
 
+    // Appended rows are pushed into viewer by chunks so fetch buffer doesn't hold all rows
+    private static final int APPEND_CHUNK_SIZE = 10000;
+
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBindingMeta[] metaColumns;
     private List<Object[]> rows = new ArrayList<>();
+    private long rowsFetched;
     private boolean hasMoreData;
     private boolean nextSegmentRead;
     private long offset;
@@ -70,6 +74,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
         throws DBCException
     {
         this.rows.clear();
+        this.rowsFetched = 0;
         this.offset = offset;
         this.maxRows = maxRows;
 
@@ -123,6 +128,17 @@ class ResultSetDataReceiver implements DBDDataReceiver {
             }
         }
         rows.add(row);
+        rowsFetched++;
+        if (nextSegmentRead && rows.size() >= APPEND_CHUNK_SIZE) {
+            final List<Object[]> tmpRows = rows;
+            rows = new ArrayList<>();
+            DBeaverUI.asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    resultSetViewer.appendData(tmpRows);
+                }
+            });
+        }
     }
 
     @Override
@@ -135,6 +151,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
         }
 
         final List<Object[]> tmpRows = rows;
+        final long rowsFetched = this.rowsFetched;
 
         final boolean nextSegmentRead = this.nextSegmentRead;
         DBeaverUI.asyncExec(new Runnable() {
@@ -148,7 +165,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
                     resultSetViewer.appendData(tmpRows);
                 }
                 // Check for more data
-                hasMoreData = maxRows > 0 && tmpRows.size() >= maxRows;
+                hasMoreData = maxRows > 0 && rowsFetched >= maxRows;
             }
         });
     }
@@ -55,6 +55,9 @@ public class ResultSetModel {
 
     // Data
     private List<ResultSetRow> curRows = new ArrayList<>();
+    private ResultSetColumnStore rowStore = new ResultSetColumnStore();
+    // Maximum number of rows kept in memory. Other rows are spilled to disk
+    private int memoryRowsLimit;
     private int changesCount = 0;
     private volatile boolean hasData = false;
     // Flag saying that edited values update is in progress
@@ -286,7 +289,7 @@ public class ResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -299,14 +302,14 @@ public class ResultSetModel {
         int depth = attribute.getLevel();
         if (depth == 0) {
             final int index = attribute.getOrdinalPosition();
-            if (index >= row.values.length) {
+            if (index >= row.getValueCount()) {
                 log.debug("Bad attribute - index out of row values' bounds");
                 return null;
             } else {
-                return row.values[index];
+                return row.getValue(index);
             }
         }
-        Object curValue = row.values[attribute.getTopParent().getOrdinalPosition()];
+        Object curValue = row.getValue(attribute.getTopParent().getOrdinalPosition());
 
         for (int i = 0; i < depth; i++) {
             if (curValue == null) {
@@ -346,7 +349,7 @@ public class ResultSetModel {
         } else {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -410,7 +413,7 @@ public class ResultSetModel {
                     log.warn("Value [" + ownerValue + "] edit is not supported");
                 }
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -597,7 +600,7 @@ public class ResultSetModel {
         List<ResultSetRow> newRows = new ArrayList<>(rowCount);
         for (int i = 0; i < rowCount; i++) {
             newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+                new ResultSetRow(firstRowNum + i, rowStore, rows.get(i)));
         }
         curRows.addAll(newRows);
         updateRowColors(newRows);
@@ -607,10 +610,16 @@ public class ResultSetModel {
         // Refresh all rows
         this.releaseAll();
         this.curRows = new ArrayList<>();
+        this.rowStore.close();
+        this.rowStore = new ResultSetColumnStore(memoryRowsLimit);
 
         hasData = false;
     }
 
+    void setMemoryRowsLimit(int memoryRowsLimit) {
+        this.memoryRowsLimit = memoryRowsLimit;
+    }
+
     public boolean hasData() {
         return hasData;
     }
@@ -640,7 +649,7 @@ public class ResultSetModel {
     }
 
     ResultSetRow addNewRow(int rowNum, @NotNull Object[] data) {
-        ResultSetRow newRow = new ResultSetRow(curRows.size(), data);
+        ResultSetRow newRow = new ResultSetRow(curRows.size(), rowStore, data);
         newRow.setVisualNumber(rowNum);
         newRow.setState(ResultSetRow.STATE_ADDED);
         shiftRows(newRow, 1);
@@ -790,50 +799,98 @@ public class ResultSetModel {
         this.dataFilter.setAnyConstraint(filter.isAnyConstraint());
     }
 
-    public void resetOrdering() {
-        final boolean hasOrdering = dataFilter.hasOrdering();
-        // Sort locally
-        final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-        Collections.sort(curRows, new Comparator<ResultSetRow>() {
-            @Override
-            public int compare(ResultSetRow row1, ResultSetRow row2) {
-                if (!hasOrdering) {
+    /**
+     * Sorts rows locally according to data filter ordering. Model isn't changed, so this method
+     * may be called in background job, sorted rows are then set by {@link #setRowsOrder(List, List)}.
+     * Key values are copied into separate in-memory store first. Rows are read in storage order,
+     * so each spilled page is read once instead of random reads on each comparison.
+     */
+    @NotNull
+    public List<ResultSetRow> sortRows(@NotNull List<ResultSetRow> rows) {
+        List<ResultSetRow> sortedRows = new ArrayList<>(rows);
+        final List<DBDAttributeBinding> keyAttributes = new ArrayList<>();
+        final List<Boolean> keyDescending = new ArrayList<>();
+        if (dataFilter.hasOrdering()) {
+            for (DBDAttributeConstraint co : dataFilter.getOrderConstraints()) {
+                final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
+                if (binding != null) {
+                    keyAttributes.add(binding);
+                    keyDescending.add(co.isOrderDescending());
+                }
+            }
+        }
+        if (keyAttributes.isEmpty()) {
+            Collections.sort(sortedRows, new Comparator<ResultSetRow>() {
+                @Override
+                public int compare(ResultSetRow row1, ResultSetRow row2) {
                     return row1.getRowNumber() - row2.getRowNumber();
                 }
-                int result = 0;
-                for (DBDAttributeConstraint co : orderConstraints) {
-                    final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                    if (binding == null) {
-                        continue;
-                    }
-                    Object cell1 = getCellValue(binding, row1);
-                    Object cell2 = getCellValue(binding, row2);
-                    if (cell1 == cell2) {
-                        result = 0;
-                    } else if (DBUtils.isNullValue(cell1)) {
-                        result = 1;
-                    } else if (DBUtils.isNullValue(cell2)) {
-                        result = -1;
-                    } else if (cell1 instanceof Comparable) {
-                        result = ((Comparable) cell1).compareTo(cell2);
-                    } else {
-                        String str1 = String.valueOf(cell1);
-                        String str2 = String.valueOf(cell2);
-                        result = str1.compareTo(str2);
-                    }
-                    if (co.isOrderDescending()) {
-                        result = -result;
-                    }
-                    if (result != 0) {
-                        break;
+            });
+            return sortedRows;
+        }
+        // Copy keys
+        List<ResultSetRow> storageOrder = new ArrayList<>(rows);
+        Collections.sort(storageOrder, new Comparator<ResultSetRow>() {
+            @Override
+            public int compare(ResultSetRow row1, ResultSetRow row2) {
+                return row1.getSlot() - row2.getSlot();
+            }
+        });
+        final ResultSetColumnStore keyStore = new ResultSetColumnStore();
+        final Map<ResultSetRow, Integer> keySlots = new IdentityHashMap<>(rows.size());
+        Object[] keys = new Object[keyAttributes.size()];
+        for (ResultSetRow row : storageOrder) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = getCellValue(keyAttributes.get(i), row);
+            }
+            keySlots.put(row, keyStore.addRow(keys));
+        }
+        try {
+            Collections.sort(sortedRows, new Comparator<ResultSetRow>() {
+                @Override
+                public int compare(ResultSetRow row1, ResultSetRow row2) {
+                    int slot1 = keySlots.get(row1), slot2 = keySlots.get(row2);
+                    int result = 0;
+                    for (int i = 0; i < keyAttributes.size(); i++) {
+                        // Compare stored values directly (without boxing)
+                        result = keyStore.compareValues(slot1, slot2, i);
+                        if (keyDescending.get(i)) {
+                            result = -result;
+                        }
+                        if (result != 0) {
+                            break;
+                        }
                     }
+                    return result;
                 }
-                return result;
+            });
+        } finally {
+            // Key values are shared with rows, do not release them
+            keyStore.close();
+        }
+        return sortedRows;
+    }
+
+    /**
+     * Sets rows order calculated by {@link #sortRows(List)}.
+     * @param rows       rows which were sorted
+     * @param sortedRows sorted rows
+     * @return false if model rows were changed since sort start. Order isn't changed then.
+     */
+    public boolean setRowsOrder(@NotNull List<ResultSetRow> rows, @NotNull List<ResultSetRow> sortedRows) {
+        if (rows.size() != curRows.size()) {
+            return false;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) != curRows.get(i)) {
+                return false;
             }
-        });
+        }
+        curRows = new ArrayList<>(sortedRows);
         for (int i = 0; i < curRows.size(); i++) {
             curRows.get(i).setVisualNumber(i);
         }
+        return true;
     }
 
     private void fillVisibleAttributes() {
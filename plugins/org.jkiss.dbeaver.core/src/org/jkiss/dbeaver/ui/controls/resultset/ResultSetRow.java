@@ -42,9 +42,10 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
+    // Column values storage and row position in it
     @NotNull
-    public Object[] values;
+    private final ResultSetColumnStore store;
+    private final int slot;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -53,16 +54,59 @@ public class ResultSetRow {
     public Map<DBDValue, CollectionElementData> collections;
     public Color foreground, background;
 
-    ResultSetRow(int rowNumber, @NotNull Object[] values) {
+    ResultSetRow(int rowNumber, @NotNull ResultSetColumnStore store, @NotNull Object[] values) {
         this.rowNumber = rowNumber;
         this.visualNumber = rowNumber;
-        this.values = values;
+        this.store = store;
+        this.slot = store.addRow(values);
         this.state = STATE_NORMAL;
     }
 
+    /**
+     * Returns copy of row values. Use {@link #getValue(int)} to read single values.
+     */
     @NotNull
     public Object[] getValues() {
-        return values;
+        return store.getValues(slot);
+    }
+
+    public int getValueCount() {
+        return store.getColumnCount();
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        return store.getValue(slot, index);
+    }
+
+    void setValue(int index, @Nullable Object value) {
+        store.setValue(slot, index, value);
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Checks whether row values may be read without disk access.
+     * Code which runs in UI thread (e.g. paints grid) must not read values of not loaded rows.
+     */
+    public boolean isLoaded() {
+        return store.isRowResident(slot);
+    }
+
+    /**
+     * Checks whether row values can't be read from disk
+     */
+    public boolean isUnreadable() {
+        return store.isRowBroken(slot);
+    }
+
+    /**
+     * Loads row values in background. Listener is notified in background thread.
+     */
+    public void loadValues(@NotNull Runnable listener) {
+        store.loadRow(slot, listener);
     }
 
     public boolean isChanged() {
@@ -113,9 +157,7 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
-        }
+        store.releaseRow(slot);
         if (changes != null) {
             for (Object oldValue : changes.values()) {
                 DBUtils.releaseValue(oldValue);
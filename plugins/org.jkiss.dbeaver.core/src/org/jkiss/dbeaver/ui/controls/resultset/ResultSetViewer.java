@@ -1197,6 +1197,7 @@ public class ResultSetViewer extends Viewer
      */
     void setMetaData(DBDAttributeBinding[] attributes)
     {
+        model.setMemoryRowsLimit(getPreferenceStore().getInt(DBeaverPreferences.RESULT_SET_MEMORY_MAX_ROWS));
         model.setMetaData(attributes);
         activePresentation.clearMetaData();
     }
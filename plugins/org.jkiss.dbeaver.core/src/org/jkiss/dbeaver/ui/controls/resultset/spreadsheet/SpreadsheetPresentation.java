@@ -72,6 +72,7 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.DBeaverPreferences;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.core.CoreMessages;
+import org.jkiss.dbeaver.core.DBeaverUI;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.DBCSession;
@@ -138,6 +139,22 @@ public class SpreadsheetPresentation extends AbstractPresentation implements IRe
     private boolean showOddRows = true;
     private boolean showCelIcons = true;
 
+    // Grid doesn't read spilled rows in UI thread. They are loaded in background and then grid is redrawn.
+    private static final String ROW_LOADING_TEXT = "...";
+    private final Runnable rowLoadListener = new Runnable() {
+        @Override
+        public void run() {
+            DBeaverUI.asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    if (spreadsheet != null && !spreadsheet.isDisposed()) {
+                        spreadsheet.redrawGrid();
+                    }
+                }
+            });
+        }
+    };
+
     public SpreadsheetPresentation() {
         findReplaceTarget = new SpreadsheetFindReplaceTarget(this);
 
@@ -851,8 +868,24 @@ public class SpreadsheetPresentation extends AbstractPresentation implements IRe
     private void reorderLocally()
     {
         controller.rejectChanges();
-        controller.getModel().resetOrdering();
-        refreshData(false, false);
+        final ResultSetModel model = controller.getModel();
+        final List<ResultSetRow> rows = new ArrayList<>(model.getAllRows());
+        // Rows may be spilled to disk - do not read them in UI thread
+        new AbstractJob("Sort result set rows") {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                final List<ResultSetRow> sortedRows = model.sortRows(rows);
+                DBeaverUI.asyncExec(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!spreadsheet.isDisposed() && model.setRowsOrder(rows, sortedRows)) {
+                            refreshData(false, false);
+                        }
+                    }
+                });
+                return Status.OK_STATUS;
+            }
+        }.schedule();
     }
 
     public void changeSorting(Object columnElement, final int state)
@@ -1277,7 +1310,7 @@ public class SpreadsheetPresentation extends AbstractPresentation implements IRe
         @Override
         public DBPImage getCellImage(Object colElement, Object rowElement)
         {
-            if (!showCelIcons) {
+            if (!showCelIcons || !isRowLoaded(colElement, rowElement)) {
                 return null;
             }
             Object cellValue = getCellValue(colElement, rowElement, false);
@@ -1293,9 +1326,26 @@ public class SpreadsheetPresentation extends AbstractPresentation implements IRe
         @Override
         public String getCellText(Object colElement, Object rowElement)
         {
+            if (!isRowLoaded(colElement, rowElement)) {
+                ResultSetRow row = (ResultSetRow) (!controller.isRecordMode() ?  rowElement : colElement);
+                return row.isUnreadable() ? CoreMessages.controls_resultset_viewer_value_unreadable : ROW_LOADING_TEXT;
+            }
             return String.valueOf(getCellValue(colElement, rowElement, true));
         }
 
+        /**
+         * Checks that row values are in memory. Otherwise requests background load.
+         */
+        private boolean isRowLoaded(Object colElement, Object rowElement)
+        {
+            ResultSetRow row = (ResultSetRow) (!controller.isRecordMode() ?  rowElement : colElement);
+            if (row.isLoaded()) {
+                return true;
+            }
+            row.loadValues(rowLoadListener);
+            return false;
+        }
+
         @Nullable
         @Override
         public Color getCellForeground(Object colElement, Object rowElement)
@@ -1304,6 +1354,12 @@ public class SpreadsheetPresentation extends AbstractPresentation implements IRe
             if (row.foreground != null) {
                 return row.foreground;
             }
+            if (!isRowLoaded(colElement, rowElement)) {
+                if (foregroundDefault == null) {
+                    foregroundDefault = controller.getDefaultForeground();
+                }
+                return foregroundDefault;
+            }
 
             Object value = getCellValue(colElement, rowElement, false);
             if (DBUtils.isNullValue(value)) {
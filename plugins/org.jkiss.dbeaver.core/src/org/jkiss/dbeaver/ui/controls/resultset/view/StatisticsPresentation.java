@@ -66,7 +66,7 @@ public class StatisticsPresentation extends AbstractPresentation {
         java.util.List<DBDAttributeBinding> visibleAttributes = controller.getModel().getVisibleAttributes();
         for (int i = 0; i < visibleAttributes.size(); i++) {
             DBDAttributeBinding attr = visibleAttributes.get(i);
-            Object value = row.getValues()[i];
+            Object value = row.getValue(i);
             TableItem item = new TableItem(table, SWT.LEFT);
             item.setText(0, attr.getName());
             item.setText(1, DBUtils.getDefaultValueDisplayString(value, DBDDisplayFormat.UI));
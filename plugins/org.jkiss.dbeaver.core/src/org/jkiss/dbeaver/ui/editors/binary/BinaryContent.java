@@ -638,6 +638,70 @@ public class BinaryContent {
     }
 
 
+    /**
+     * Tells whether there are single byte changes not yet merged into ranges
+     */
+    boolean hasPendingChanges()
+    {
+        return changeList != null;
+    }
+
+
+    /**
+     * Gets a read only view of a part of this content. Part within a single memory range is not copied,
+     * file ranges are read with positional reads. Doesn't use traversing state nor pending changes, so
+     * several threads may call it while content is not modified.
+     *
+     * @param position start of the part
+     * @param length   part length
+     * @return buffer with position 0 and limit <code>length</code>
+     * @throws IOException
+     */
+    ByteBuffer getReadOnlyBuffer(long position, int length)
+        throws IOException
+    {
+        Range range = getRangeAt(position);
+        if (range != null && range.data instanceof ByteBuffer &&
+            range.position <= position && position + length <= range.exclusiveEnd()) {
+            return getRangeBuffer(range, position - range.position, length);
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(length);
+        for (Range part : ranges.tailSet(new Range(position, 1L))) {
+            if (!result.hasRemaining()) break;
+            long overlap = position + result.position() - part.position;
+            int partLength = (int) Math.min(part.length - overlap, result.remaining());
+            if (part.data instanceof RandomAccessFile) {
+                FileChannel channel = ((RandomAccessFile) part.data).getChannel();
+                long filePosition = part.dataOffset + overlap;
+                int partEnd = result.position() + partLength;
+                result.limit(partEnd);
+                while (result.hasRemaining()) {
+                    int read = channel.read(result, filePosition);
+                    if (read < 0) throw new IOException("Unexpected end of file");
+                    filePosition += read;
+                }
+                result.limit(length);
+            } else {
+                result.put(getRangeBuffer(part, overlap, partLength));
+            }
+        }
+        result.flip();
+
+        return result.asReadOnlyBuffer();
+    }
+
+
+    private static ByteBuffer getRangeBuffer(Range range, long overlap, int length)
+    {
+        ByteBuffer buffer = ((ByteBuffer) range.data).duplicate();
+        buffer.position((int) (range.dataOffset + overlap));
+        buffer.limit(buffer.position() + length);
+
+        return buffer.slice().asReadOnlyBuffer();
+    }
+
+
     Set<Range> initSubtreeTraversing(long position, long length)
     {
         Set<Range> result = ranges.tailSet(new Range(position, 1L));
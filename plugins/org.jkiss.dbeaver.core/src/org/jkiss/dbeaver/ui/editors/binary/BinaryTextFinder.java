@@ -21,6 +21,9 @@ package org.jkiss.dbeaver.ui.editors.binary;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,6 +33,8 @@ import java.util.regex.Pattern;
  * Given a literal, finds its position in the file. It is possible to get subsequent finds.
  * The search is either binary or text based. Text based search uses standard java unicode (all of big
  * and little endian, odd and even address) plus ascii when the literal falls within ascii char limits.
+ * Byte sequences and literals without non-ascii case folding are searched as plain byte patterns
+ * (Boyer-Moore-Horspool) in content chunks processed in parallel. Other literals use regular expressions.
  *
  * @author Jordi
  */
@@ -38,6 +43,9 @@ public class BinaryTextFinder {
 
     public static final int MAP_SIZE = 64 * 1024;
     public static final int MAX_SEQUENCE_SIZE = 2 * 1024;  // a search string of 2K should be enough
+    static final int SEARCH_CHUNK_SIZE = 4 * 1024 * 1024;  // bytes scanned by one parallel task
+
+    private static ForkJoinPool searchPool = null;
 
     private long bufferPosition = -1L;
     private ByteBuffer byteBuffer = null;
@@ -51,7 +59,30 @@ public class BinaryTextFinder {
     private CharSequence literal = null;
     private int literalByteLength = -1;
     private Pattern pattern = null;
-    private boolean stopSearching = false;
+    private LiteralPattern[] literalPatterns = null;  // byte patterns of fast search, null if not applicable
+    private volatile boolean stopSearching = false;
+
+
+    /**
+     * Receives matches found by {@link #findAll(MatchCollector)}
+     */
+    public interface MatchCollector {
+        /**
+         * Called for each match, in position order
+         *
+         * @param position match position in the content
+         * @param length   byte length of the match
+         * @return false to stop searching
+         */
+        boolean onMatch(long position, int length);
+    }
+
+
+    private enum SearchMode {
+        FIRST,
+        LAST,
+        ALL
+    }
 
 
     /**
@@ -196,6 +227,17 @@ public class BinaryTextFinder {
         throws IOException
     {
         stopSearching = false;
+        if (canSearchLiteral()) {
+            long[] match = findNextLiteral();
+            stopSearching = false;
+            if (match == null) {
+                return null;
+            }
+            setNewStart(match[0] + (directionForward ? 1 : match[1] - 1));
+
+            return new Number[]{match[0], (int) match[1]};
+        }
+
         populatePart();
         findAllMatches();
 
@@ -215,6 +257,184 @@ public class BinaryTextFinder {
     }
 
 
+    /**
+     * Finds all matches from the search start point till the end of content. Matches are passed to the
+     * collector as soon as they are found, so huge contents don't need to be searched to the end.
+     * Search start point and direction are not changed.
+     *
+     * @param collector match receiver
+     * @return number of matches passed to the collector
+     */
+    public long findAll(MatchCollector collector)
+        throws IOException
+    {
+        stopSearching = false;
+        long count = 0;
+        if (!canSearchLiteral()) {
+            boolean wasForward = directionForward;
+            long startPoint = currentPosition;
+            directionForward = true;
+            try {
+                for (Number[] match = getNextMatch(); match != null; match = getNextMatch()) {
+                    count++;
+                    if (!collector.onMatch(match[0].longValue(), match[1].intValue())) {
+                        break;
+                    }
+                }
+            } finally {
+                directionForward = wasForward;
+                setNewStart(startPoint);
+            }
+            return count;
+        }
+
+        long contentLength = getContentLength();
+        long batchSize = getSearchBatchSize();
+        for (long position = currentPosition; position < contentLength && !stopSearching; position += batchSize) {
+            bufferPosition = position;
+            for (long[] match : searchLiteral(SearchMode.ALL, position, Math.min(position + batchSize, contentLength), contentLength)) {
+                count++;
+                if (!collector.onMatch(match[0], (int) match[1])) {
+                    stopSearching = true;
+                    break;
+                }
+            }
+        }
+        stopSearching = false;
+
+        return count;
+    }
+
+
+    private boolean canSearchLiteral()
+    {
+        // Pending single byte changes are kept outside of ranges, leave them to content.get()
+        return literalPatterns != null && content != null && !content.hasPendingChanges();
+    }
+
+
+    private long[] findNextLiteral()
+        throws IOException
+    {
+        long contentLength = getContentLength();
+        long maxBatchSize = getSearchBatchSize();
+        // Start with a small batch, nearby matches must not cost a parallel scan of the whole batch
+        long batchSize = MAP_SIZE / 2;
+        if (directionForward) {
+            for (long position = currentPosition; position < contentLength && !stopSearching; position += batchSize) {
+                bufferPosition = position;
+                batchSize = Math.min(batchSize * 2, maxBatchSize);
+                List<long[]> found = searchLiteral(SearchMode.FIRST, position, Math.min(position + batchSize, contentLength), contentLength);
+                if (!found.isEmpty()) {
+                    return found.get(0);
+                }
+            }
+        } else {
+            long limit = Math.min(currentPosition, contentLength);
+            for (long end = limit; end > 0L && !stopSearching; end -= batchSize) {
+                batchSize = Math.min(batchSize * 2, maxBatchSize);
+                long start = Math.max(0L, end - batchSize);
+                bufferPosition = start;
+                List<long[]> found = searchLiteral(SearchMode.LAST, start, end, limit);
+                if (!found.isEmpty()) {
+                    return found.get(0);
+                }
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Searches matches starting in [start, end) and ending not after limit
+     */
+    private List<long[]> searchLiteral(SearchMode mode, long start, long end, long limit)
+        throws IOException
+    {
+        if (end - start <= SEARCH_CHUNK_SIZE) {
+            return searchChunk(mode, start, end, limit);
+        }
+        try {
+            return getSearchPool().invoke(new SearchTask(mode, start, end, limit));
+        } catch (SearchException e) {
+            throw e.ioError;
+        }
+    }
+
+
+    private List<long[]> searchChunk(SearchMode mode, long start, long end, long limit)
+        throws IOException
+    {
+        List<long[]> matches = new ArrayList<>();
+        int minLength = Integer.MAX_VALUE, maxLength = 0;
+        for (LiteralPattern literalPattern : literalPatterns) {
+            minLength = Math.min(minLength, literalPattern.length());
+            maxLength = Math.max(maxLength, literalPattern.length());
+        }
+        // Window includes tail of the last match which may start in this chunk
+        int windowLength = (int) Math.min(end - start + maxLength - 1, limit - start);
+        if (windowLength < minLength) {
+            return matches;
+        }
+        ByteBuffer window = content.getReadOnlyBuffer(start, windowLength);
+        int lastStart = (int) (end - start - 1);
+
+        long[] best = null;
+        for (LiteralPattern literalPattern : literalPatterns) {
+            int maxStart = Math.min(lastStart, windowLength - literalPattern.length());
+            if (mode == SearchMode.FIRST && best != null) {
+                // Earlier patterns (ascii/hex) win at the same position
+                maxStart = Math.min(maxStart, (int) (best[0] - start) - 1);
+            }
+            for (int found = literalPattern.indexOf(window, 0, maxStart);
+                found >= 0 && !stopSearching;
+                found = literalPattern.indexOf(window, found + 1, maxStart))
+            {
+                long position = start + found;
+                if (mode == SearchMode.ALL) {
+                    matches.add(new long[]{position, literalPattern.length()});
+                } else if (mode == SearchMode.FIRST) {
+                    best = new long[]{position, literalPattern.length()};
+                    break;
+                } else if (best == null || position > best[0]) {
+                    best = new long[]{position, literalPattern.length()};
+                }
+            }
+        }
+        if (best != null) {
+            matches.add(best);
+        } else if (literalPatterns.length > 1) {
+            // Stable sort keeps pattern order of matches at the same position
+            Collections.sort(matches, new Comparator<long[]>() {
+                @Override
+                public int compare(long[] o1, long[] o2)
+                {
+                    return Long.compare(o1[0], o2[0]);
+                }
+            });
+        }
+
+        return matches;
+    }
+
+
+    private static long getSearchBatchSize()
+    {
+        // Bounded batches let first match searches stop early and keep search position up to date
+        return (long) SEARCH_CHUNK_SIZE * getSearchPool().getParallelism() * 2;
+    }
+
+
+    private static synchronized ForkJoinPool getSearchPool()
+    {
+        if (searchPool == null) {
+            searchPool = new ForkJoinPool();
+        }
+        return searchPool;
+    }
+
+
     void initSearchHex(byte[] sequence)
     {
         byteFindSequence = sequence;
@@ -225,6 +445,42 @@ public class BinaryTextFinder {
         }
 
         literalByteLength = byteFindSequence.length;
+        initLiteralPatterns();
+    }
+
+
+    void initLiteralPatterns()
+    {
+        literalPatterns = null;
+        if (literal == null) {
+            if (byteFindSequence.length > 0) {
+                literalPatterns = new LiteralPattern[]{new LiteralPattern(byteFindSequence, !caseSensitive)};
+            }
+            return;
+        }
+        if (literal.length() == 0) {
+            return;
+        }
+        byte[] littleEndian = new byte[literal.length() * 2];
+        byte[] bigEndian = new byte[literal.length() * 2];
+        for (int i = 0; i < literal.length(); ++i) {
+            char aChar = literal.charAt(i);
+            if (!caseSensitive && aChar > 127) {
+                return;  // Unicode case folding is left to regular expressions
+            }
+            littleEndian[i * 2] = bigEndian[i * 2 + 1] = (byte) aChar;
+            littleEndian[i * 2 + 1] = bigEndian[i * 2] = (byte) (aChar >> 8);
+        }
+        // Byte patterns at any address cover both even and odd unicode alignments
+        List<LiteralPattern> patterns = new ArrayList<>(3);
+        if (byteFindSequence != null) {
+            patterns.add(new LiteralPattern(byteFindSequence, !caseSensitive));
+        }
+        patterns.add(new LiteralPattern(littleEndian, !caseSensitive));
+        if (!Arrays.equals(littleEndian, bigEndian)) {
+            patterns.add(new LiteralPattern(bigEndian, !caseSensitive));
+        }
+        literalPatterns = patterns.toArray(new LiteralPattern[patterns.size()]);
     }
 
 
@@ -270,6 +526,7 @@ public class BinaryTextFinder {
 
         if (isAsciiCompatible)
             byteFindSequence = tmpBytes;
+        initLiteralPatterns();
     }
 
 
@@ -343,6 +600,8 @@ public class BinaryTextFinder {
         caseSensitive = beSensitive;
         if (literal != null)
             initSearchUnicodeAscii();
+        else if (byteFindSequence != null)
+            initLiteralPatterns();
     }
 
 
@@ -384,4 +643,126 @@ public class BinaryTextFinder {
     {
         stopSearching = true;
     }
+
+
+    /**
+     * Byte pattern matched with Boyer-Moore-Horspool algorithm.
+     * Ignoring case folds ascii letters only.
+     */
+    static final class LiteralPattern {
+        private final byte[] sequence;
+        private final byte[] caseMap = new byte[256];
+        private final int[] shifts = new int[256];
+
+        LiteralPattern(byte[] aSequence, boolean ignoreCase)
+        {
+            for (int i = 0; i < caseMap.length; i++) {
+                caseMap[i] = (byte) (ignoreCase && i >= 'A' && i <= 'Z' ? i + ('a' - 'A') : i);
+            }
+            sequence = new byte[aSequence.length];
+            for (int i = 0; i < sequence.length; i++) {
+                sequence[i] = caseMap[aSequence[i] & 0xFF];
+            }
+            int last = sequence.length - 1;
+            Arrays.fill(shifts, sequence.length);
+            for (int i = 0; i < last; i++) {
+                shifts[sequence[i] & 0xFF] = last - i;
+            }
+            if (ignoreCase) {
+                for (int i = 'A'; i <= 'Z'; i++) {
+                    shifts[i] = shifts[i + ('a' - 'A')];
+                }
+            }
+        }
+
+        int length()
+        {
+            return sequence.length;
+        }
+
+        /**
+         * Finds first match starting in [from, maxStart]. Caller makes sure the whole match fits the buffer.
+         *
+         * @return match start or -1
+         */
+        int indexOf(ByteBuffer buffer, int from, int maxStart)
+        {
+            int last = sequence.length - 1;
+            byte lastByte = sequence[last];
+            for (int i = from; i <= maxStart; ) {
+                int tail = buffer.get(i + last) & 0xFF;
+                if (caseMap[tail] == lastByte) {
+                    int j = last - 1;
+                    while (j >= 0 && caseMap[buffer.get(i + j) & 0xFF] == sequence[j]) {
+                        j--;
+                    }
+                    if (j < 0) {
+                        return i;
+                    }
+                }
+                i += shifts[tail];
+            }
+            return -1;
+        }
+    }
+
+
+    /**
+     * Searches a range of match starts, splitting it into chunks scanned in parallel
+     */
+    private class SearchTask extends RecursiveTask<List<long[]>> {
+        private final SearchMode mode;
+        private final long start;
+        private final long end;
+        private final long limit;
+
+        SearchTask(SearchMode mode, long start, long end, long limit)
+        {
+            this.mode = mode;
+            this.start = start;
+            this.end = end;
+            this.limit = limit;
+        }
+
+        @Override
+        protected List<long[]> compute()
+        {
+            if (end - start > SEARCH_CHUNK_SIZE) {
+                long middle = start + (end - start) / 2;
+                SearchTask head = new SearchTask(mode, start, middle, limit);
+                SearchTask tail = new SearchTask(mode, middle, end, limit);
+                tail.fork();
+                List<long[]> headMatches = head.compute();
+                List<long[]> tailMatches = tail.join();
+                switch (mode) {
+                    case FIRST:
+                        return headMatches.isEmpty() ? tailMatches : headMatches;
+                    case LAST:
+                        return tailMatches.isEmpty() ? headMatches : tailMatches;
+                    default:
+                        headMatches.addAll(tailMatches);
+                        return headMatches;
+                }
+            }
+            if (stopSearching) {
+                return new ArrayList<>();
+            }
+            try {
+                return searchChunk(mode, start, end, limit);
+            } catch (IOException e) {
+                throw new SearchException(e);
+            }
+        }
+    }
+
+
+    private static class SearchException extends RuntimeException {
+        private final IOException ioError;
+
+        SearchException(IOException ioError)
+        {
+            super(ioError);
+            this.ioError = ioError;
+        }
+    }
 }
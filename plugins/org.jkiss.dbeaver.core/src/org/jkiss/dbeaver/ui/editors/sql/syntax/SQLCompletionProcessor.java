@@ -35,6 +35,7 @@ import org.jkiss.dbeaver.core.DBeaverCore;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.impl.DBObjectNameCaseTransformer;
+import org.jkiss.dbeaver.model.impl.struct.AbstractObjectReference;
 import org.jkiss.dbeaver.model.navigator.DBNNode;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -63,6 +64,10 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
 {
     private static final Log log = Log.getLog(SQLCompletionProcessor.class);
 
+    // Containers with less children are scanned directly (it gives better fuzzy matches)
+    private static final int INDEX_MIN_CHILDREN = 1000;
+    private static final int MAX_INDEX_PROPOSALS = 500;
+
     private enum QueryType {
         TABLE,
         COLUMN
@@ -335,17 +340,7 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
                         if (childObject == null) {
                             DBSStructureAssistant structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, sc);
                             if (structureAssistant != null) {
-                                Collection<DBSObjectReference> references = structureAssistant.findObjectsByMask(
-                                    monitor,
-                                    null,
-                                    structureAssistant.getAutoCompleteObjectTypes(),
-                                    wordDetector.removeQuotes(token),
-                                    wordDetector.isQuoted(token),
-                                    false,
-                                    2);
-                                if (!references.isEmpty()) {
-                                    childObject = references.iterator().next().resolveObject(monitor);
-                                }
+                                childObject = findObjectByName(monitor, structureAssistant, null, token);
                             }
                         }
                     } else {
@@ -490,18 +485,7 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
                 // No such object found - may be it's start of table name
                 DBSStructureAssistant structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, sc);
                 if (structureAssistant != null) {
-                    String objectNameMask = nameList.get(0);
-                    Collection<DBSObjectReference> tables = structureAssistant.findObjectsByMask(
-                        monitor,
-                        sc,
-                        structureAssistant.getAutoCompleteObjectTypes(),
-                        wordDetector.removeQuotes(objectNameMask),
-                        wordDetector.isQuoted(objectNameMask),
-                        false,
-                        2);
-                    if (!tables.isEmpty()) {
-                        return tables.iterator().next().resolveObject(monitor);
-                    }
+                    return findObjectByName(monitor, structureAssistant, sc, nameList.get(0));
                 }
                 return null;
             } else {
@@ -534,6 +518,18 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
                 children = ((DBSEntity)parent).getAttributes(monitor);
             }
             if (children != null && !children.isEmpty()) {
+                if (!CommonUtils.isEmpty(startPart) && children.size() > INDEX_MIN_CHILDREN && parent instanceof DBSObjectContainer) {
+                    SQLObjectNameIndex nameIndex = getNameIndex();
+                    if (nameIndex != null && nameIndex.isContainerIndexed((DBSObject) parent)) {
+                        Class<? extends DBSObject> childType = ((DBSObjectContainer) parent).getChildType(monitor);
+                        for (DBSObject child : nameIndex.findObjects(startPart, (DBSObject) parent, null, MAX_INDEX_PROPOSALS)) {
+                            if ((childType == null || childType.isInstance(child)) && !DBUtils.isHiddenObject(child)) {
+                                proposals.add(makeProposalsFromObject(monitor, child));
+                            }
+                        }
+                        return;
+                    }
+                }
                 List<DBSObject> matchedObjects = new ArrayList<>();
                 final Map<String, Integer> scoredMatches = new HashMap<>();
                 for (DBSObject child : children) {
@@ -581,6 +577,22 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
         String objectName,
         List<SQLCompletionProposal> proposals)
     {
+        SQLObjectNameIndex nameIndex = getNameIndex();
+        if (nameIndex != null) {
+            int prevSize = proposals.size();
+            DBSObjectType[] objectTypes = assistant.getAutoCompleteObjectTypes();
+            for (DBSObject object : nameIndex.findObjects(wordDetector.removeQuotes(objectName), rootSC, objectTypes, 100)) {
+                DBSObjectType objectType = getObjectType(objectTypes, object);
+                proposals.add(makeProposalsFromObject(
+                    monitor,
+                    new IndexedObjectReference(object, nameIndex.getObjectContainer(object), objectType),
+                    objectType == null ? null : objectType.getImage()));
+            }
+            if (proposals.size() > prevSize) {
+                return;
+            }
+            // Index may miss objects (e.g. deeply nested or not loaded yet) - ask database
+        }
         try {
             Collection<DBSObjectReference> references = assistant.findObjectsByMask(
                 monitor,
@@ -598,6 +610,63 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
         }
     }
 
+    /**
+     * Finds object by exact name. Uses names index (if it is ready) and then structure assistant.
+     */
+    @Nullable
+    private DBSObject findObjectByName(DBRProgressMonitor monitor, DBSStructureAssistant assistant, @Nullable DBSObjectContainer container, String objectName)
+        throws DBException
+    {
+        SQLObjectNameIndex nameIndex = getNameIndex();
+        if (nameIndex != null) {
+            List<DBSObject> objects = nameIndex.findObjectsByName(
+                wordDetector.removeQuotes(objectName),
+                wordDetector.isQuoted(objectName),
+                container,
+                assistant.getAutoCompleteObjectTypes(),
+                1);
+            if (!objects.isEmpty()) {
+                return objects.get(0);
+            }
+        }
+        Collection<DBSObjectReference> references = assistant.findObjectsByMask(
+            monitor,
+            container,
+            assistant.getAutoCompleteObjectTypes(),
+            wordDetector.removeQuotes(objectName),
+            wordDetector.isQuoted(objectName),
+            false,
+            2);
+        return references.isEmpty() ? null : references.iterator().next().resolveObject(monitor);
+    }
+
+    /**
+     * Returns names index of active data source or null if index is disabled or not built yet
+     */
+    @Nullable
+    private SQLObjectNameIndex getNameIndex()
+    {
+        DBPDataSource dataSource = editor.getDataSource();
+        if (dataSource == null || !getPreferences().getBoolean(SQLPreferenceConstants.PROPOSAL_NAME_INDEX)) {
+            return null;
+        }
+        SQLObjectNameIndex nameIndex = SQLObjectNameIndex.getIndex(dataSource);
+        return nameIndex.isReady() ? nameIndex : null;
+    }
+
+    @Nullable
+    private static DBSObjectType getObjectType(@Nullable DBSObjectType[] objectTypes, DBSObject object)
+    {
+        if (objectTypes != null) {
+            for (DBSObjectType type : objectTypes) {
+                if (type.getTypeClass().isInstance(object)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+
     private SQLCompletionProposal makeProposalsFromObject(DBRProgressMonitor monitor, DBSObject object)
     {
         DBNNode node = DBeaverCore.getInstance().getNavigatorModel().getNodeByObject(monitor, object, false);
@@ -819,6 +888,25 @@ public class SQLCompletionProcessor implements IContentAssistProcessor
         }
     }
 
+    /**
+     * Reference to object found in names index
+     */
+    private static class IndexedObjectReference extends AbstractObjectReference {
+        private final DBSObject object;
+
+        IndexedObjectReference(DBSObject object, @Nullable DBSObject container, DBSObjectType objectType)
+        {
+            super(object.getName(), container == null ? object.getParentObject() : container, object.getDescription(), object.getClass(), objectType);
+            this.object = object;
+        }
+
+        @Override
+        public DBSObject resolveObject(DBRProgressMonitor monitor)
+        {
+            return object;
+        }
+    }
+
     private class ProposalSearchJob extends AbstractJob {
         private List<SQLCompletionProposal> proposals;
         private String wordPart;
@@ -0,0 +1,671 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.ui.editors.sql.syntax;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.core.DBeaverCore;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.navigator.DBNDataSource;
+import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
+import org.jkiss.dbeaver.model.navigator.DBNEvent;
+import org.jkiss.dbeaver.model.navigator.INavigatorListener;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.model.struct.rdb.DBSProcedure;
+import org.jkiss.dbeaver.model.struct.rdb.DBSProcedureContainer;
+import org.jkiss.dbeaver.ui.TextUtils;
+
+import java.util.*;
+
+/**
+ * In-memory index of database object names (entities, procedures and entity attributes).
+ * Used by SQL completion to find objects without database metadata queries.
+ * Index is built in background from objects already loaded in navigator plus the active schema.
+ * Other containers are never read by index, it is kept up to date by navigator events.
+ */
+public class SQLObjectNameIndex {
+
+    private static final Log log = Log.getLog(SQLObjectNameIndex.class);
+
+    private static final int NGRAM_LENGTH = 3;
+    private static final long REBUILD_DELAY = 1000;
+
+    private static final Map<DBPDataSourceContainer, SQLObjectNameIndex> indexMap = new IdentityHashMap<>();
+    private static INavigatorListener navigatorListener;
+
+    private static class IndexEntry {
+        final DBSObject object;
+        final DBSObject container;
+        final String name;
+
+        IndexEntry(DBSObject object, DBSObject container, String name)
+        {
+            this.object = object;
+            this.container = container;
+            this.name = name;
+        }
+    }
+
+    private static class IndexData {
+        // Upper-case name -> entries. Sorted map serves prefix lookups
+        final NavigableMap<String, List<IndexEntry>> nameMap = new TreeMap<>();
+        // N-gram -> upper-case names which contain it
+        final Map<String, Set<String>> ngramMap = new HashMap<>();
+        final Map<DBSObject, IndexEntry> objectMap = new IdentityHashMap<>();
+        // Entity -> its indexed attributes. Attributes are removed with entity
+        final Map<DBSObject, List<DBSObject>> attributeMap = new IdentityHashMap<>();
+        // Containers whose children were all read by index
+        final Set<DBSObject> containers = Collections.newSetFromMap(new IdentityHashMap<DBSObject, Boolean>());
+
+        void addObject(DBSObject object, DBSObject container)
+        {
+            if (objectMap.containsKey(object)) {
+                return;
+            }
+            String name = getIndexName(object.getName());
+            IndexEntry entry = new IndexEntry(object, container, name);
+            objectMap.put(object, entry);
+            if (object instanceof DBSEntityAttribute) {
+                List<DBSObject> attributes = attributeMap.get(container);
+                if (attributes == null) {
+                    attributes = new ArrayList<>();
+                    attributeMap.put(container, attributes);
+                }
+                attributes.add(object);
+            }
+            List<IndexEntry> entries = nameMap.get(name);
+            if (entries == null) {
+                entries = new ArrayList<>(1);
+                nameMap.put(name, entries);
+                for (int i = 0; i <= name.length() - NGRAM_LENGTH; i++) {
+                    String ngram = name.substring(i, i + NGRAM_LENGTH);
+                    Set<String> names = ngramMap.get(ngram);
+                    if (names == null) {
+                        names = new HashSet<>();
+                        ngramMap.put(ngram, names);
+                    }
+                    names.add(name);
+                }
+            }
+            entries.add(entry);
+        }
+
+        void removeObject(DBSObject object)
+        {
+            IndexEntry entry = objectMap.remove(object);
+            if (entry == null) {
+                return;
+            }
+            List<DBSObject> attributes = attributeMap.remove(object);
+            if (attributes != null) {
+                for (DBSObject attribute : attributes) {
+                    removeObject(attribute);
+                }
+            }
+            if (object instanceof DBSEntityAttribute) {
+                List<DBSObject> siblings = attributeMap.get(entry.container);
+                if (siblings != null) {
+                    siblings.remove(object);
+                }
+            }
+            List<IndexEntry> entries = nameMap.get(entry.name);
+            if (entries != null) {
+                entries.remove(entry);
+                if (entries.isEmpty()) {
+                    nameMap.remove(entry.name);
+                    for (int i = 0; i <= entry.name.length() - NGRAM_LENGTH; i++) {
+                        String ngram = entry.name.substring(i, i + NGRAM_LENGTH);
+                        Set<String> names = ngramMap.get(ngram);
+                        if (names != null) {
+                            names.remove(entry.name);
+                            if (names.isEmpty()) {
+                                ngramMap.remove(ngram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Removes all objects of specified container and its nested containers
+         */
+        void removeContainer(DBSObject container)
+        {
+            List<DBSObject> objects = new ArrayList<>();
+            for (IndexEntry entry : objectMap.values()) {
+                if (!(entry.object instanceof DBSEntityAttribute) && isEntryMatches(entry, container, null)) {
+                    objects.add(entry.object);
+                }
+            }
+            for (DBSObject object : objects) {
+                removeObject(object);
+            }
+            for (Iterator<DBSObject> iter = containers.iterator(); iter.hasNext(); ) {
+                if (isChildOf(iter.next(), container)) {
+                    iter.remove();
+                }
+            }
+        }
+
+        void addAll(IndexData indexData)
+        {
+            for (IndexEntry entry : indexData.objectMap.values()) {
+                addObject(entry.object, entry.container);
+            }
+            containers.addAll(indexData.containers);
+        }
+    }
+
+    private final DBPDataSource dataSource;
+    private final IndexBuildJob buildJob;
+    private IndexData data = new IndexData();
+    private volatile boolean ready;
+    private volatile boolean disposed;
+
+    private SQLObjectNameIndex(@NotNull DBPDataSource dataSource)
+    {
+        this.dataSource = dataSource;
+        this.buildJob = new IndexBuildJob();
+    }
+
+    /**
+     * Returns names index of specified data source. Index build starts on the first call.
+     */
+    @NotNull
+    public static synchronized SQLObjectNameIndex getIndex(@NotNull DBPDataSource dataSource)
+    {
+        if (navigatorListener == null) {
+            navigatorListener = new IndexUpdater();
+            DBeaverCore.getInstance().getNavigatorModel().addListener(navigatorListener);
+        }
+        DBPDataSourceContainer container = dataSource.getContainer();
+        SQLObjectNameIndex index = indexMap.get(container);
+        if (index == null || index.dataSource != dataSource) {
+            if (index != null) {
+                index.dispose();
+            }
+            index = new SQLObjectNameIndex(dataSource);
+            indexMap.put(container, index);
+            index.buildJob.schedule();
+        }
+        return index;
+    }
+
+    @Nullable
+    private static synchronized SQLObjectNameIndex findIndex(@NotNull DBPDataSourceContainer container)
+    {
+        return indexMap.get(container);
+    }
+
+    private static synchronized void removeIndex(@NotNull DBPDataSourceContainer container)
+    {
+        SQLObjectNameIndex index = indexMap.remove(container);
+        if (index != null) {
+            index.dispose();
+        }
+    }
+
+    private static String getIndexName(String name)
+    {
+        return name == null ? "" : name.toUpperCase(Locale.ENGLISH);
+    }
+
+    public boolean isReady()
+    {
+        return ready;
+    }
+
+    /**
+     * Checks whether all children of specified container are in index
+     */
+    public synchronized boolean isContainerIndexed(@NotNull DBSObject container)
+    {
+        return ready && data.containers.contains(container);
+    }
+
+    /**
+     * Finds objects whose names start with or contain specified name part.
+     * Prefix matches go first (in name order), then other matches ordered by fuzzy score.
+     * Substring matches are looked up only for name parts not shorter than n-gram length.
+     * @param namePart     name part (case insensitive)
+     * @param container    parent container (direct or indirect) or null
+     * @param objectTypes  allowed object types or null
+     * @param maxResults   maximum results number
+     */
+    @NotNull
+    public List<DBSObject> findObjects(@NotNull String namePart, @Nullable DBSObject container, @Nullable DBSObjectType[] objectTypes, int maxResults)
+    {
+        final String mask = getIndexName(namePart);
+        List<DBSObject> result = new ArrayList<>();
+        synchronized (this) {
+            for (List<IndexEntry> entries : data.nameMap.subMap(mask, true, mask + Character.MAX_VALUE, true).values()) {
+                if (!addEntries(entries, container, objectTypes, result, maxResults)) {
+                    return result;
+                }
+            }
+            if (mask.length() < NGRAM_LENGTH) {
+                return result;
+            }
+            // Candidates are names which contain all n-grams of the mask
+            Set<String> candidates = null;
+            for (int i = 0; i <= mask.length() - NGRAM_LENGTH; i++) {
+                Set<String> names = data.ngramMap.get(mask.substring(i, i + NGRAM_LENGTH));
+                if (names == null) {
+                    return result;
+                }
+                if (candidates == null || names.size() < candidates.size()) {
+                    candidates = names;
+                }
+            }
+            if (candidates == null) {
+                return result;
+            }
+            List<String> matchedNames = new ArrayList<>();
+            for (String name : candidates) {
+                if (!name.startsWith(mask) && name.contains(mask)) {
+                    matchedNames.add(name);
+                }
+            }
+            final Map<String, Integer> scores = new HashMap<>();
+            for (String name : matchedNames) {
+                scores.put(name, TextUtils.fuzzyScore(name, mask));
+            }
+            Collections.sort(matchedNames, new Comparator<String>() {
+                @Override
+                public int compare(String o1, String o2)
+                {
+                    int score1 = scores.get(o1);
+                    int score2 = scores.get(o2);
+                    return score1 == score2 ? o1.compareTo(o2) : score2 - score1;
+                }
+            });
+            for (String name : matchedNames) {
+                if (!addEntries(data.nameMap.get(name), container, objectTypes, result, maxResults)) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds objects with exactly the same name
+     */
+    @NotNull
+    public List<DBSObject> findObjectsByName(@NotNull String name, boolean caseSensitive, @Nullable DBSObject container, @Nullable DBSObjectType[] objectTypes, int maxResults)
+    {
+        List<DBSObject> result = new ArrayList<>();
+        synchronized (this) {
+            List<IndexEntry> entries = data.nameMap.get(getIndexName(name));
+            if (entries != null) {
+                for (IndexEntry entry : entries) {
+                    if (result.size() >= maxResults) {
+                        break;
+                    }
+                    if ((!caseSensitive || name.equals(entry.object.getName())) && isEntryMatches(entry, container, objectTypes)) {
+                        result.add(entry.object);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns container of indexed object
+     */
+    @Nullable
+    public synchronized DBSObject getObjectContainer(@NotNull DBSObject object)
+    {
+        IndexEntry entry = data.objectMap.get(object);
+        return entry == null ? null : entry.container;
+    }
+
+    private static boolean addEntries(List<IndexEntry> entries, DBSObject container, DBSObjectType[] objectTypes, List<DBSObject> result, int maxResults)
+    {
+        if (entries == null) {
+            return true;
+        }
+        for (IndexEntry entry : entries) {
+            if (result.size() >= maxResults) {
+                return false;
+            }
+            if (isEntryMatches(entry, container, objectTypes)) {
+                result.add(entry.object);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEntryMatches(IndexEntry entry, DBSObject container, DBSObjectType[] objectTypes)
+    {
+        if (objectTypes != null) {
+            boolean typeMatches = false;
+            for (DBSObjectType type : objectTypes) {
+                if (type.getTypeClass().isInstance(entry.object)) {
+                    typeMatches = true;
+                    break;
+                }
+            }
+            if (!typeMatches) {
+                return false;
+            }
+        }
+        return container == null || isChildOf(entry.container, container);
+    }
+
+    private static boolean isChildOf(DBSObject object, DBSObject container)
+    {
+        for (DBSObject parent = object; parent != container; parent = parent.getParentObject()) {
+            if (parent == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIndexedObject(DBSObject object)
+    {
+        return object instanceof DBSEntity || object instanceof DBSProcedure || object instanceof DBSEntityAttribute;
+    }
+
+    private synchronized void addObject(@NotNull DBSObject object)
+    {
+        data.addObject(object, object.getParentObject());
+    }
+
+    /**
+     * Indexes attributes of new or refreshed entity in background
+     */
+    private void indexAttributes(@NotNull final DBSEntity entity)
+    {
+        AbstractJob indexJob = new AbstractJob("Index attributes of " + entity.getName()) {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor)
+            {
+                Collection<? extends DBSEntityAttribute> attributes;
+                try {
+                    attributes = entity.getAttributes(monitor);
+                } catch (DBException e) {
+                    log.debug("Can't index attributes of " + DBUtils.getObjectFullName(entity) + ": " + e.getMessage());
+                    return Status.OK_STATUS;
+                }
+                if (attributes != null) {
+                    synchronized (SQLObjectNameIndex.this) {
+                        if (!disposed && data.objectMap.containsKey(entity)) {
+                            for (DBSEntityAttribute attribute : attributes) {
+                                if (!DBUtils.isHiddenObject(attribute)) {
+                                    data.addObject(attribute, entity);
+                                }
+                            }
+                        }
+                    }
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        indexJob.setSystem(true);
+        indexJob.schedule();
+    }
+
+    private synchronized void removeObject(@NotNull DBSObject object)
+    {
+        data.removeObject(object);
+    }
+
+    private void dispose()
+    {
+        disposed = true;
+        buildJob.cancel();
+        synchronized (this) {
+            ready = false;
+            data = new IndexData();
+        }
+    }
+
+    /**
+     * Re-indexes container after its children were reloaded.
+     * Only the active schema is read from database, other containers are indexed from loaded navigator nodes.
+     */
+    private void refreshContainer(@NotNull final DBNDatabaseNode node, @NotNull final DBSObjectContainer container)
+    {
+        final boolean readChildren;
+        synchronized (this) {
+            readChildren = data.containers.contains(container);
+        }
+        AbstractJob refreshJob = new AbstractJob("Index object names of " + container.getName()) {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor)
+            {
+                IndexData indexData = new IndexData();
+                if (readChildren) {
+                    indexContainer(monitor, indexData, container);
+                } else {
+                    indexLoadedNodes(monitor, indexData, node);
+                }
+                if (!monitor.isCanceled()) {
+                    synchronized (SQLObjectNameIndex.this) {
+                        if (!disposed) {
+                            data.removeContainer(container);
+                            data.addAll(indexData);
+                        }
+                    }
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        refreshJob.setSystem(true);
+        refreshJob.schedule(REBUILD_DELAY);
+    }
+
+    /**
+     * Indexes objects of already loaded navigator nodes. Doesn't read anything from database.
+     */
+    private void indexLoadedNodes(DBRProgressMonitor monitor, IndexData indexData, DBNDatabaseNode node)
+    {
+        DBNDatabaseNode[] children = node.getChildNodes();
+        if (children == null) {
+            return;
+        }
+        for (DBNDatabaseNode child : children) {
+            if (monitor.isCanceled() || disposed) {
+                return;
+            }
+            DBSObject object = child.getObject();
+            if (object != null && isIndexedObject(object) && !DBUtils.isHiddenObject(object)) {
+                indexData.addObject(object, object.getParentObject());
+            }
+            indexLoadedNodes(monitor, indexData, child);
+        }
+    }
+
+    /**
+     * Reads and indexes all objects of container. Nested containers are not read.
+     */
+    private void indexContainer(DBRProgressMonitor monitor, IndexData indexData, DBSObjectContainer container)
+    {
+        if (monitor.isCanceled() || disposed) {
+            return;
+        }
+        monitor.subTask("Index " + DBUtils.getObjectFullName(container));
+        try {
+            Collection<? extends DBSObject> children = container.getChildren(monitor);
+            List<DBSEntity> entities = new ArrayList<>();
+            if (children != null) {
+                for (DBSObject child : children) {
+                    if (DBUtils.isHiddenObject(child)) {
+                        continue;
+                    }
+                    if (child instanceof DBSEntity || child instanceof DBSProcedure) {
+                        indexData.addObject(child, container);
+                        if (child instanceof DBSEntity) {
+                            entities.add((DBSEntity) child);
+                        }
+                    }
+                }
+            }
+            if (!entities.isEmpty()) {
+                indexAttributes(monitor, indexData, container, entities);
+            }
+            if (container instanceof DBSProcedureContainer) {
+                Collection<? extends DBSProcedure> procedures = ((DBSProcedureContainer) container).getProcedures(monitor);
+                if (procedures != null) {
+                    for (DBSProcedure procedure : procedures) {
+                        indexData.addObject(procedure, container);
+                    }
+                }
+            }
+            indexData.containers.add(container);
+        } catch (DBException e) {
+            log.debug("Can't index objects of " + DBUtils.getObjectFullName(container) + ": " + e.getMessage());
+        }
+    }
+
+    private void indexAttributes(DBRProgressMonitor monitor, IndexData indexData, DBSObjectContainer container, List<DBSEntity> entities)
+    {
+        try {
+            // Read attributes of all entities at once (if container supports it)
+            container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ATTRIBUTES);
+        } catch (DBException e) {
+            log.debug("Can't read attributes of " + DBUtils.getObjectFullName(container) + ": " + e.getMessage());
+        }
+        for (DBSEntity entity : entities) {
+            if (monitor.isCanceled() || disposed) {
+                return;
+            }
+            try {
+                Collection<? extends DBSEntityAttribute> attributes = entity.getAttributes(monitor);
+                if (attributes != null) {
+                    for (DBSEntityAttribute attribute : attributes) {
+                        if (!DBUtils.isHiddenObject(attribute)) {
+                            indexData.addObject(attribute, entity);
+                        }
+                    }
+                }
+            } catch (DBException e) {
+                log.debug("Can't index attributes of " + DBUtils.getObjectFullName(entity) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private class IndexBuildJob extends AbstractJob {
+
+        IndexBuildJob()
+        {
+            super("Index object names of " + dataSource.getContainer().getName());
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            IndexData indexData = new IndexData();
+            monitor.beginTask("Index object names", 2);
+            try {
+                DBNDatabaseNode dataSourceNode = DBeaverCore.getInstance().getNavigatorModel().getNodeByObject(dataSource.getContainer());
+                if (dataSourceNode != null) {
+                    indexLoadedNodes(monitor, indexData, dataSourceNode);
+                }
+                monitor.worked(1);
+                // Active schema (or data source itself if it has no schemas)
+                DBSObject activeObject = DBUtils.getSelectedObject(dataSource, true);
+                DBSObjectContainer activeContainer = activeObject == null ?
+                    DBUtils.getAdapter(DBSObjectContainer.class, dataSource) :
+                    DBUtils.getAdapter(DBSObjectContainer.class, activeObject);
+                if (activeContainer != null) {
+                    indexContainer(monitor, indexData, activeContainer);
+                }
+                monitor.worked(1);
+            } finally {
+                monitor.done();
+            }
+            if (!monitor.isCanceled() && !disposed) {
+                synchronized (SQLObjectNameIndex.this) {
+                    data = indexData;
+                    ready = true;
+                }
+                log.debug("Object names index of " + dataSource.getContainer().getName() + " built (" + indexData.objectMap.size() + " objects)");
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    private static class IndexUpdater implements INavigatorListener {
+        @Override
+        public void nodeChanged(DBNEvent event)
+        {
+            if (!(event.getNode() instanceof DBNDatabaseNode)) {
+                return;
+            }
+            DBNDatabaseNode node = (DBNDatabaseNode) event.getNode();
+            DBPDataSourceContainer container = node.getDataSourceContainer();
+            if (container == null) {
+                return;
+            }
+            if (node instanceof DBNDataSource) {
+                if (event.getAction() == DBNEvent.Action.REMOVE || event.getNodeChange() == DBNEvent.NodeChange.UNLOAD) {
+                    removeIndex(container);
+                }
+                return;
+            }
+            SQLObjectNameIndex index = findIndex(container);
+            DBSObject object = node.getObject();
+            if (index == null || object == null) {
+                return;
+            }
+            switch (event.getAction()) {
+                case ADD:
+                    if (isIndexedObject(object)) {
+                        index.addObject(object);
+                        if (object instanceof DBSEntity) {
+                            index.indexAttributes((DBSEntity) object);
+                        }
+                    }
+                    break;
+                case REMOVE:
+                    index.removeObject(object);
+                    break;
+                case UPDATE:
+                    if (event.getNodeChange() == DBNEvent.NodeChange.REFRESH || event.getNodeChange() == DBNEvent.NodeChange.STRUCT_REFRESH) {
+                        if (isIndexedObject(object)) {
+                            // Object may be renamed. Entity attributes are re-read.
+                            index.removeObject(object);
+                            index.addObject(object);
+                            if (object instanceof DBSEntity) {
+                                index.indexAttributes((DBSEntity) object);
+                            }
+                        } else if (object instanceof DBSObjectContainer) {
+                            // Container children were reloaded
+                            index.refreshContainer(node, (DBSObjectContainer) object);
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+}
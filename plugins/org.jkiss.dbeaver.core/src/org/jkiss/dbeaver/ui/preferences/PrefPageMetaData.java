@@ -23,6 +23,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Spinner;
 import org.jkiss.dbeaver.DBeaverPreferences;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.core.CoreMessages;
@@ -41,6 +42,8 @@ public class PrefPageMetaData extends TargetPrefPage
     private Button readExpensiveCheck;
     private Button separateMetaConnectionCheck;
     private Button caseSensitiveNamesCheck;
+    private Button metaSnapshotCheck;
+    private Spinner metaSnapshotMaxAgeSpinner;
 
     public PrefPageMetaData()
     {
@@ -54,7 +57,9 @@ public class PrefPageMetaData extends TargetPrefPage
         return
             store.contains(DBeaverPreferences.READ_EXPENSIVE_PROPERTIES) ||
             store.contains(ModelPreferences.META_SEPARATE_CONNECTION) ||
-            store.contains(ModelPreferences.META_CASE_SENSITIVE)
+            store.contains(ModelPreferences.META_CASE_SENSITIVE) ||
+            store.contains(ModelPreferences.META_SNAPSHOT_ENABLED) ||
+            store.contains(ModelPreferences.META_SNAPSHOT_MAX_AGE)
             ;
     }
 
@@ -75,6 +80,8 @@ public class PrefPageMetaData extends TargetPrefPage
             separateMetaConnectionCheck = UIUtils.createLabelCheckbox(metadataGroup, CoreMessages.pref_page_database_general_separate_meta_connection, false);
             caseSensitiveNamesCheck = UIUtils.createLabelCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names, false);
             readExpensiveCheck = UIUtils.createLabelCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_show_row_count, false);
+            metaSnapshotCheck = UIUtils.createLabelCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_meta_snapshot, false);
+            metaSnapshotMaxAgeSpinner = UIUtils.createLabelSpinner(metadataGroup, CoreMessages.pref_page_database_general_label_meta_snapshot_max_age, 24, 1, 24 * 365);
         }
 
 
@@ -88,6 +95,8 @@ public class PrefPageMetaData extends TargetPrefPage
             readExpensiveCheck.setSelection(store.getBoolean(DBeaverPreferences.READ_EXPENSIVE_PROPERTIES));
             separateMetaConnectionCheck.setSelection(store.getBoolean(ModelPreferences.META_SEPARATE_CONNECTION));
             caseSensitiveNamesCheck.setSelection(store.getBoolean(ModelPreferences.META_CASE_SENSITIVE));
+            metaSnapshotCheck.setSelection(store.getBoolean(ModelPreferences.META_SNAPSHOT_ENABLED));
+            metaSnapshotMaxAgeSpinner.setSelection(store.getInt(ModelPreferences.META_SNAPSHOT_MAX_AGE));
         } catch (Exception e) {
             log.warn(e);
         }
@@ -100,6 +109,8 @@ public class PrefPageMetaData extends TargetPrefPage
             store.setValue(DBeaverPreferences.READ_EXPENSIVE_PROPERTIES, readExpensiveCheck.getSelection());
             store.setValue(ModelPreferences.META_SEPARATE_CONNECTION, separateMetaConnectionCheck.getSelection());
             store.setValue(ModelPreferences.META_CASE_SENSITIVE, caseSensitiveNamesCheck.getSelection());
+            store.setValue(ModelPreferences.META_SNAPSHOT_ENABLED, metaSnapshotCheck.getSelection());
+            store.setValue(ModelPreferences.META_SNAPSHOT_MAX_AGE, metaSnapshotMaxAgeSpinner.getSelection());
         } catch (Exception e) {
             log.warn(e);
         }
@@ -112,6 +123,8 @@ public class PrefPageMetaData extends TargetPrefPage
         store.setToDefault(DBeaverPreferences.READ_EXPENSIVE_PROPERTIES);
         store.setToDefault(ModelPreferences.META_SEPARATE_CONNECTION);
         store.setToDefault(ModelPreferences.META_CASE_SENSITIVE);
+        store.setToDefault(ModelPreferences.META_SNAPSHOT_ENABLED);
+        store.setToDefault(ModelPreferences.META_SNAPSHOT_MAX_AGE);
     }
 
     @Override
@@ -50,6 +50,7 @@ public class PrefPageResultSetBinaries extends TargetPrefPage
     private Button contentCacheClob;
     private Button contentCacheBlob;
     private Spinner contentCacheMaxSize;
+    private Button contentLobLazyRead;
 
     private Spinner maxTextContentSize;
     private Button editLongAsLobCheck;
@@ -76,6 +77,7 @@ public class PrefPageResultSetBinaries extends TargetPrefPage
             store.contains(ModelPreferences.CONTENT_CACHE_CLOB) ||
             store.contains(ModelPreferences.CONTENT_CACHE_BLOB) ||
             store.contains(ModelPreferences.CONTENT_CACHE_MAX_SIZE) ||
+            store.contains(ModelPreferences.CONTENT_LOB_LAZY_READ) ||
             store.contains(DBeaverPreferences.RS_EDIT_LONG_AS_LOB) ||
 
             store.contains(DBeaverPreferences.RS_EDIT_MAX_TEXT_SIZE) ||
@@ -129,6 +131,7 @@ public class PrefPageResultSetBinaries extends TargetPrefPage
             contentCacheMaxSize = UIUtils.createLabelSpinner(binaryGroup, CoreMessages.pref_page_database_general_label_cache_max_size, 0, 0, Integer.MAX_VALUE);
             contentCacheMaxSize.setDigits(0);
             contentCacheMaxSize.setIncrement(100000);
+            contentLobLazyRead = UIUtils.createLabelCheckbox(binaryGroup, CoreMessages.pref_page_content_lob_lazy_read, true);
             editLongAsLobCheck = UIUtils.createLabelCheckbox(binaryGroup, CoreMessages.pref_page_content_editor_checkbox_edit_long_as_lobs, false);
         }
 
@@ -174,6 +177,7 @@ public class PrefPageResultSetBinaries extends TargetPrefPage
             contentCacheClob.setSelection(store.getBoolean(ModelPreferences.CONTENT_CACHE_CLOB));
             contentCacheBlob.setSelection(store.getBoolean(ModelPreferences.CONTENT_CACHE_BLOB));
             contentCacheMaxSize.setSelection(store.getInt(ModelPreferences.CONTENT_CACHE_MAX_SIZE));
+            contentLobLazyRead.setSelection(store.getBoolean(ModelPreferences.CONTENT_LOB_LAZY_READ));
             editLongAsLobCheck.setSelection(store.getBoolean(DBeaverPreferences.RS_EDIT_LONG_AS_LOB));
 
             maxTextContentSize.setSelection(store.getInt(DBeaverPreferences.RS_EDIT_MAX_TEXT_SIZE));
@@ -207,6 +211,7 @@ public class PrefPageResultSetBinaries extends TargetPrefPage
             store.setValue(ModelPreferences.CONTENT_CACHE_CLOB, contentCacheClob.getSelection());
             store.setValue(ModelPreferences.CONTENT_CACHE_BLOB, contentCacheBlob.getSelection());
             store.setValue(ModelPreferences.CONTENT_CACHE_MAX_SIZE, contentCacheMaxSize.getSelection());
+            store.setValue(ModelPreferences.CONTENT_LOB_LAZY_READ, contentLobLazyRead.getSelection());
             store.setValue(DBeaverPreferences.RS_EDIT_LONG_AS_LOB, editLongAsLobCheck.getSelection());
 
             store.setValue(DBeaverPreferences.RS_EDIT_MAX_TEXT_SIZE, maxTextContentSize.getSelection());
@@ -229,6 +234,7 @@ public class PrefPageResultSetBinaries extends TargetPrefPage
         store.setToDefault(ModelPreferences.CONTENT_CACHE_CLOB);
         store.setToDefault(ModelPreferences.CONTENT_CACHE_BLOB);
         store.setToDefault(ModelPreferences.CONTENT_CACHE_MAX_SIZE);
+        store.setToDefault(ModelPreferences.CONTENT_LOB_LAZY_READ);
         store.setToDefault(DBeaverPreferences.RS_EDIT_LONG_AS_LOB);
 
         store.setToDefault(DBeaverPreferences.RS_EDIT_MAX_TEXT_SIZE);
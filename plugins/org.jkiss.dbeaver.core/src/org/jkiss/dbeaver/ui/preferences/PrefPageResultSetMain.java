@@ -43,6 +43,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
     private Button serverSideOrderingCheck;
     private Button useFetchSize;
     private Spinner queryCancelTimeout;
+    private Spinner memoryMaxRows;
 
     private Button keepStatementOpenCheck;
     private Button rollbackOnErrorCheck;
@@ -64,6 +65,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL) ||
             store.contains(ModelPreferences.RESULT_SET_USE_FETCH_SIZE) ||
             store.contains(DBeaverPreferences.RESULT_SET_CANCEL_TIMEOUT) ||
+            store.contains(DBeaverPreferences.RESULT_SET_MEMORY_MAX_ROWS) ||
             store.contains(ModelPreferences.QUERY_ROLLBACK_ON_ERROR) ||
             store.contains(DBeaverPreferences.RS_EDIT_USE_ALL_COLUMNS) ||
             store.contains(DBeaverPreferences.KEEP_STATEMENT_OPEN) ||
@@ -93,6 +95,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             useFetchSize = UIUtils.createLabelCheckbox(queriesGroup, CoreMessages.pref_page_database_resultsets_label_fetch_size, false);
             queryCancelTimeout = UIUtils.createLabelSpinner(queriesGroup, CoreMessages.pref_page_database_general_label_result_set_cancel_timeout, CoreMessages.pref_page_database_general_label_result_set_cancel_timeout_tip, 0, 0, Integer.MAX_VALUE);
             queryCancelTimeout.setEnabled(false);
+            memoryMaxRows = UIUtils.createLabelSpinner(queriesGroup, CoreMessages.pref_page_database_general_label_result_set_memory_rows, CoreMessages.pref_page_database_general_label_result_set_memory_rows_tip, 0, 0, Integer.MAX_VALUE);
         }
 
         // Transactions settings
@@ -121,6 +124,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             serverSideOrderingCheck.setSelection(store.getBoolean(DBeaverPreferences.RESULT_SET_ORDER_SERVER_SIDE));
             useFetchSize.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE));
             queryCancelTimeout.setSelection(store.getInt(DBeaverPreferences.RESULT_SET_CANCEL_TIMEOUT));
+            memoryMaxRows.setSelection(store.getInt(DBeaverPreferences.RESULT_SET_MEMORY_MAX_ROWS));
 
             keepStatementOpenCheck.setSelection(store.getBoolean(DBeaverPreferences.KEEP_STATEMENT_OPEN));
             rollbackOnErrorCheck.setSelection(store.getBoolean(ModelPreferences.QUERY_ROLLBACK_ON_ERROR));
@@ -140,6 +144,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.setValue(DBeaverPreferences.RESULT_SET_ORDER_SERVER_SIDE, serverSideOrderingCheck.getSelection());
             store.setValue(ModelPreferences.RESULT_SET_USE_FETCH_SIZE, useFetchSize.getSelection());
             store.setValue(DBeaverPreferences.RESULT_SET_CANCEL_TIMEOUT, queryCancelTimeout.getSelection());
+            store.setValue(DBeaverPreferences.RESULT_SET_MEMORY_MAX_ROWS, memoryMaxRows.getSelection());
 
             store.setValue(DBeaverPreferences.KEEP_STATEMENT_OPEN, keepStatementOpenCheck.getSelection());
             store.setValue(ModelPreferences.QUERY_ROLLBACK_ON_ERROR, rollbackOnErrorCheck.getSelection());
@@ -159,6 +164,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
         store.setToDefault(DBeaverPreferences.RESULT_SET_ORDER_SERVER_SIDE);
         store.setToDefault(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
         store.setToDefault(DBeaverPreferences.RESULT_SET_CANCEL_TIMEOUT);
+        store.setToDefault(DBeaverPreferences.RESULT_SET_MEMORY_MAX_ROWS);
 
         store.setToDefault(DBeaverPreferences.KEEP_STATEMENT_OPEN);
         store.setToDefault(ModelPreferences.QUERY_ROLLBACK_ON_ERROR);
@@ -42,11 +42,13 @@ public class PrefPageSQLExecute extends TargetPrefPage
 
     private Button invalidateBeforeExecuteCheck;
     private Spinner executeTimeoutText;
+    private Spinner statementCacheSizeText;
     private Button soundOnQueryEnd;
 
     private Combo commitTypeCombo;
     private Combo errorHandlingCombo;
     private Spinner commitLinesText;
+    private Spinner batchSizeText;
     private Button fetchResultSetsCheck;
     private Button resetCursorCheck;
 
@@ -70,10 +72,12 @@ public class PrefPageSQLExecute extends TargetPrefPage
         return
             store.contains(DBeaverPreferences.STATEMENT_INVALIDATE_BEFORE_EXECUTE) ||
             store.contains(DBeaverPreferences.STATEMENT_TIMEOUT) ||
+            store.contains(ModelPreferences.QUERY_STATEMENT_CACHE_SIZE) ||
             store.contains(DBeaverPreferences.SCRIPT_COMMIT_TYPE) ||
             store.contains(DBeaverPreferences.SCRIPT_ERROR_HANDLING) ||
             store.contains(DBeaverPreferences.SCRIPT_COMMIT_LINES) ||
             store.contains(DBeaverPreferences.SCRIPT_FETCH_RESULT_SETS) ||
+            store.contains(DBeaverPreferences.SCRIPT_BATCH_SIZE) ||
             store.contains(ModelPreferences.SCRIPT_STATEMENT_DELIMITER) ||
             store.contains(ModelPreferences.SCRIPT_IGNORE_NATIVE_DELIMITER) ||
             store.contains(ModelPreferences.SCRIPT_STATEMENT_DELIMITER_BLANK) ||
@@ -112,6 +116,14 @@ public class PrefPageSQLExecute extends TargetPrefPage
                 executeTimeoutText.setMinimum(1);
                 executeTimeoutText.setMaximum(100000);
 
+                UIUtils.createControlLabel(commonGroup, CoreMessages.pref_page_sql_editor_label_statement_cache_size);
+                statementCacheSizeText = new Spinner(commonGroup, SWT.BORDER);
+                statementCacheSizeText.setSelection(0);
+                statementCacheSizeText.setDigits(0);
+                statementCacheSizeText.setIncrement(10);
+                statementCacheSizeText.setMinimum(0);
+                statementCacheSizeText.setMaximum(10000);
+
                 soundOnQueryEnd = UIUtils.createLabelCheckbox(commonGroup, CoreMessages.pref_page_sql_editor_label_sound_on_query_end, false);
             }
         }
@@ -149,6 +161,16 @@ public class PrefPageSQLExecute extends TargetPrefPage
                 errorHandlingCombo.add(CoreMessages.pref_page_sql_editor_combo_item_ignore, SQLScriptErrorHandling.IGNORE.ordinal());
             }
 
+            {
+                UIUtils.createControlLabel(scriptsGroup, CoreMessages.pref_page_sql_editor_label_batch_size);
+                batchSizeText = new Spinner(scriptsGroup, SWT.BORDER);
+                batchSizeText.setSelection(0);
+                batchSizeText.setDigits(0);
+                batchSizeText.setIncrement(100);
+                batchSizeText.setMinimum(0);
+                batchSizeText.setMaximum(100000);
+            }
+
             fetchResultSetsCheck = UIUtils.createLabelCheckbox(scriptsGroup, CoreMessages.pref_page_sql_editor_checkbox_fetch_resultsets, false);
             resetCursorCheck = UIUtils.createLabelCheckbox(scriptsGroup, CoreMessages.pref_page_sql_editor_checkbox_reset_cursor, false);
         }
@@ -181,11 +203,13 @@ public class PrefPageSQLExecute extends TargetPrefPage
         try {
             invalidateBeforeExecuteCheck.setSelection(store.getBoolean(DBeaverPreferences.STATEMENT_INVALIDATE_BEFORE_EXECUTE));
             executeTimeoutText.setSelection(store.getInt(DBeaverPreferences.STATEMENT_TIMEOUT));
+            statementCacheSizeText.setSelection(store.getInt(ModelPreferences.QUERY_STATEMENT_CACHE_SIZE));
             soundOnQueryEnd.setSelection(store.getBoolean(SQLPreferenceConstants.BEEP_ON_QUERY_END));
 
             commitTypeCombo.select(SQLScriptCommitType.valueOf(store.getString(DBeaverPreferences.SCRIPT_COMMIT_TYPE)).ordinal());
             errorHandlingCombo.select(SQLScriptErrorHandling.valueOf(store.getString(DBeaverPreferences.SCRIPT_ERROR_HANDLING)).ordinal());
             commitLinesText.setSelection(store.getInt(DBeaverPreferences.SCRIPT_COMMIT_LINES));
+            batchSizeText.setSelection(store.getInt(DBeaverPreferences.SCRIPT_BATCH_SIZE));
             fetchResultSetsCheck.setSelection(store.getBoolean(DBeaverPreferences.SCRIPT_FETCH_RESULT_SETS));
             resetCursorCheck.setSelection(store.getBoolean(SQLPreferenceConstants.RESET_CURSOR_ON_EXECUTE));
 
@@ -207,11 +231,13 @@ public class PrefPageSQLExecute extends TargetPrefPage
         try {
             store.setValue(DBeaverPreferences.STATEMENT_INVALIDATE_BEFORE_EXECUTE, invalidateBeforeExecuteCheck.getSelection());
             store.setValue(DBeaverPreferences.STATEMENT_TIMEOUT, executeTimeoutText.getSelection());
+            store.setValue(ModelPreferences.QUERY_STATEMENT_CACHE_SIZE, statementCacheSizeText.getSelection());
             store.setValue(SQLPreferenceConstants.BEEP_ON_QUERY_END, soundOnQueryEnd.getSelection());
 
             store.setValue(DBeaverPreferences.SCRIPT_COMMIT_TYPE, CommonUtils.fromOrdinal(SQLScriptCommitType.class, commitTypeCombo.getSelectionIndex()).name());
             store.setValue(DBeaverPreferences.SCRIPT_COMMIT_LINES, commitLinesText.getSelection());
             store.setValue(DBeaverPreferences.SCRIPT_ERROR_HANDLING, CommonUtils.fromOrdinal(SQLScriptErrorHandling.class, errorHandlingCombo.getSelectionIndex()).name());
+            store.setValue(DBeaverPreferences.SCRIPT_BATCH_SIZE, batchSizeText.getSelection());
             store.setValue(DBeaverPreferences.SCRIPT_FETCH_RESULT_SETS, fetchResultSetsCheck.getSelection());
             store.setValue(SQLPreferenceConstants.RESET_CURSOR_ON_EXECUTE, resetCursorCheck.getSelection());
 
@@ -233,9 +259,11 @@ public class PrefPageSQLExecute extends TargetPrefPage
     {
         store.setToDefault(DBeaverPreferences.STATEMENT_INVALIDATE_BEFORE_EXECUTE);
         store.setToDefault(DBeaverPreferences.STATEMENT_TIMEOUT);
+        store.setToDefault(ModelPreferences.QUERY_STATEMENT_CACHE_SIZE);
 
         store.setToDefault(DBeaverPreferences.SCRIPT_COMMIT_TYPE);
         store.setToDefault(DBeaverPreferences.SCRIPT_COMMIT_LINES);
+        store.setToDefault(DBeaverPreferences.SCRIPT_BATCH_SIZE);
         store.setToDefault(DBeaverPreferences.SCRIPT_ERROR_HANDLING);
         store.setToDefault(DBeaverPreferences.SCRIPT_FETCH_RESULT_SETS);
         store.setToDefault(SQLPreferenceConstants.RESET_CURSOR_ON_EXECUTE);
@@ -31,11 +31,13 @@ public class SearchDataObject implements DBPNamedObject {
     private final DBNNode node;
     private final int foundRows;
     private final DBDDataFilter filter;
+    private final long searchTime;
 
-    public SearchDataObject(DBNNode node, int foundRows, DBDDataFilter filter) {
+    public SearchDataObject(DBNNode node, int foundRows, DBDDataFilter filter, long searchTime) {
         this.node = node;
         this.foundRows = foundRows;
         this.filter = filter;
+        this.searchTime = searchTime;
     }
 
     @NotNull
@@ -50,6 +52,14 @@ public class SearchDataObject implements DBPNamedObject {
         return foundRows;
     }
 
+    /**
+     * Table search time in milliseconds
+     */
+    @Property(viewable = true)
+    public long getSearchTime() {
+        return searchTime;
+    }
+
     public DBNNode getNode() {
         return node;
     }
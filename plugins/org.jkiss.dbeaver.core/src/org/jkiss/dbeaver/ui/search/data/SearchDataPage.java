@@ -58,6 +58,8 @@ public class SearchDataPage extends AbstractSearchPage {
     private static final String PROP_FAST_SEARCH = "search.data.fast-search"; //$NON-NLS-1$
     private static final String PROP_SEARCH_NUMBERS = "search.data.search-numbers"; //$NON-NLS-1$
     private static final String PROP_SEARCH_LOBS = "search.data.search-lobs"; //$NON-NLS-1$
+    private static final String PROP_MAX_TOTAL_ROWS = "search.data.max-total-rows"; //$NON-NLS-1$
+    private static final String PROP_THREADS = "search.data.threads-per-database"; //$NON-NLS-1$
     private static final String PROP_HISTORY = "search.data.history"; //$NON-NLS-1$
     private static final String PROP_SOURCES = "search.data.object-source"; //$NON-NLS-1$
 
@@ -184,6 +186,29 @@ public class SearchDataPage extends AbstractSearchPage {
                 }
             });
 
+            final Spinner maxTotalResultsSpinner = UIUtils.createLabelSpinner(optionsGroup2, "Stop after total rows (0 - no limit)", params.maxTotalResults, 0, Integer.MAX_VALUE);
+            maxTotalResultsSpinner.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            maxTotalResultsSpinner.addModifyListener(new ModifyListener() {
+                @Override
+                public void modifyText(ModifyEvent e)
+                {
+                    params.maxTotalResults = maxTotalResultsSpinner.getSelection();
+                }
+            });
+
+            if (params.maxThreadsPerDataSource <= 0) {
+                params.maxThreadsPerDataSource = 2;
+            }
+            final Spinner threadsSpinner = UIUtils.createLabelSpinner(optionsGroup2, "Parallel queries per database", params.maxThreadsPerDataSource, 1, 16);
+            threadsSpinner.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            threadsSpinner.addModifyListener(new ModifyListener() {
+                @Override
+                public void modifyText(ModifyEvent e)
+                {
+                    params.maxThreadsPerDataSource = threadsSpinner.getSelection();
+                }
+            });
+
             final Button caseCheckbox = UIUtils.createLabelCheckbox(optionsGroup2, CoreMessages.dialog_search_objects_case_sensitive, params.caseSensitive);
             caseCheckbox.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
             caseCheckbox.addSelectionListener(new SelectionAdapter() {
@@ -279,6 +304,8 @@ public class SearchDataPage extends AbstractSearchPage {
         params.searchNumbers = store.getString(PROP_SEARCH_NUMBERS) == null || store.getBoolean(PROP_SEARCH_NUMBERS);
         params.searchLOBs = store.getBoolean(PROP_SEARCH_LOBS);
         params.maxResults = store.getInt(PROP_SAMPLE_ROWS);
+        params.maxTotalResults = store.getInt(PROP_MAX_TOTAL_ROWS);
+        params.maxThreadsPerDataSource = store.getInt(PROP_THREADS);
         for (int i = 0; ;i++) {
             String history = store.getString(PROP_HISTORY + "." + i); //$NON-NLS-1$
             if (CommonUtils.isEmpty(history)) {
@@ -295,6 +322,8 @@ public class SearchDataPage extends AbstractSearchPage {
         store.setValue(PROP_MASK, params.searchString);
         store.setValue(PROP_CASE_SENSITIVE, params.caseSensitive);
         store.setValue(PROP_SAMPLE_ROWS, params.maxResults);
+        store.setValue(PROP_MAX_TOTAL_ROWS, params.maxTotalResults);
+        store.setValue(PROP_THREADS, params.maxThreadsPerDataSource);
         store.setValue(PROP_FAST_SEARCH, params.fastSearch);
         store.setValue(PROP_SEARCH_NUMBERS, params.searchNumbers);
         store.setValue(PROP_SEARCH_LOBS, params.searchLOBs);
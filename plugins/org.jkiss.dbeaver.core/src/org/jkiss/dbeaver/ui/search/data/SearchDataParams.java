@@ -34,6 +34,8 @@ public class SearchDataParams {
     boolean searchNumbers;
     boolean searchLOBs;
     int maxResults;
+    int maxTotalResults; // 0 means no limit
+    int maxThreadsPerDataSource = 2;
 
     public SearchDataParams()
     {
@@ -94,4 +96,20 @@ public class SearchDataParams {
     public void setMaxResults(int maxResults) {
         this.maxResults = maxResults;
     }
+
+    public int getMaxTotalResults() {
+        return maxTotalResults;
+    }
+
+    public void setMaxTotalResults(int maxTotalResults) {
+        this.maxTotalResults = maxTotalResults;
+    }
+
+    public int getMaxThreadsPerDataSource() {
+        return maxThreadsPerDataSource;
+    }
+
+    public void setMaxThreadsPerDataSource(int maxThreadsPerDataSource) {
+        this.maxThreadsPerDataSource = maxThreadsPerDataSource;
+    }
 }
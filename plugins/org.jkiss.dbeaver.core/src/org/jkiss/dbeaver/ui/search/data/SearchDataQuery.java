@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.core.DBeaverCore;
@@ -36,8 +37,9 @@ import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
-import org.jkiss.dbeaver.model.navigator.DBNModel;
-import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
@@ -46,14 +48,41 @@ import org.jkiss.utils.ArrayUtils;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SearchDataQuery implements ISearchQuery {
 
     private static final Log log = Log.getLog(SearchDataQuery.class);
 
+    private static final long PROGRESS_UPDATE_PERIOD = 100;
+    private static final int MAX_REPORTED_TABLE_TIMES = 10;
+
     private final SearchDataParams params;
     private SearchDataResult searchResult;
 
+    // Current search state (shared between search workers)
+    private final AtomicInteger tablesSearched = new AtomicInteger();
+    private final AtomicLong totalRowsFound = new AtomicLong();
+    private final List<TableSearchTime> tableTimes = new ArrayList<>();
+    private volatile boolean searchStopped;
+    private volatile String currentTable;
+    private volatile DBException searchError;
+
+    private static class TableSearchTime {
+        final String tableName;
+        final long time;
+
+        TableSearchTime(String tableName, long time)
+        {
+            this.tableName = tableName;
+            this.time = time;
+        }
+    }
+
     private SearchDataQuery(SearchDataParams params)
     {
         this.params = params;
@@ -85,57 +114,144 @@ public class SearchDataQuery implements ISearchQuery {
 
     @Override
     public IStatus run(IProgressMonitor monitor) throws OperationCanceledException {
-        try {
-            String searchString = params.getSearchString();
-
-            //monitor.subTask("Collect tables");
-            Set<DBPDataSource> dataSources = new HashSet<>();
-            for (DBSDataContainer searcher : params.sources) {
-                dataSources.add(searcher.getDataSource());
+        String searchString = params.getSearchString();
+
+        // Group tables by data source. Each data source has its own queue served by limited number of workers.
+        Map<DBPDataSource, Queue<DBSDataContainer>> dataSourceTables = new LinkedHashMap<>();
+        for (DBSDataContainer dataContainer : params.sources) {
+            DBPDataSource dataSource = dataContainer.getDataSource();
+            if (dataSource == null) {
+                log.warn("Object \"" + DBUtils.getObjectFullName(dataContainer) + "\" not connected");
+                continue;
             }
+            Queue<DBSDataContainer> tables = dataSourceTables.get(dataSource);
+            if (tables == null) {
+                tables = new ConcurrentLinkedQueue<>();
+                dataSourceTables.put(dataSource, tables);
+            }
+            tables.add(dataContainer);
+        }
 
-            // Search
-            DBNModel dbnModel = DBeaverCore.getInstance().getNavigatorModel();
+        tablesSearched.set(0);
+        totalRowsFound.set(0);
+        synchronized (tableTimes) {
+            tableTimes.clear();
+        }
+        searchStopped = false;
+        currentTable = null;
+        searchError = null;
 
-            monitor.beginTask(
-                "Search \"" + searchString + "\" in " + params.sources.size() + " table(s) / " + dataSources.size() + " database(s)",
-                params.sources.size());
-            try {
-                for (DBSDataContainer dataContainer : params.sources) {
-                    if (monitor.isCanceled()) {
+        monitor.beginTask(
+            "Search \"" + searchString + "\" in " + params.sources.size() + " table(s) / " + dataSourceTables.size() + " database(s)",
+            params.sources.size());
+        try {
+            int threadsPerDataSource = Math.max(1, params.maxThreadsPerDataSource);
+            List<SearchWorkerJob> workers = new ArrayList<>();
+            for (Map.Entry<DBPDataSource, Queue<DBSDataContainer>> entry : dataSourceTables.entrySet()) {
+                int workerCount = Math.min(threadsPerDataSource, entry.getValue().size());
+                for (int i = 0; i < workerCount; i++) {
+                    // Concurrent workers can't share util connection, so they use isolated contexts
+                    workers.add(new SearchWorkerJob(entry.getKey(), entry.getValue(), workerCount > 1));
+                }
+            }
+            CountDownLatch finishLatch = new CountDownLatch(workers.size());
+            for (SearchWorkerJob worker : workers) {
+                worker.finishLatch = finishLatch;
+                worker.schedule();
+            }
+
+            int reportedTables = 0;
+            boolean interrupted = false;
+            for (;;) {
+                try {
+                    if (finishLatch.await(PROGRESS_UPDATE_PERIOD, TimeUnit.MILLISECONDS)) {
                         break;
                     }
-                    String objectName = DBUtils.getObjectFullName(dataContainer);
-                    DBNDatabaseNode node = dbnModel.findNode(dataContainer);
-                    if (node == null) {
-                        log.warn("Can't find tree node for object \"" + objectName + "\"");
-                        continue;
-                    }
-                    monitor.subTask(objectName);
-                    DBPDataSource dataSource = dataContainer.getDataSource();
-                    if (dataSource == null) {
-                        log.warn("Object \"" + objectName + "\" not connected");
-                        continue;
-                    }
-                    SearchTableMonitor searchMonitor = new SearchTableMonitor();
-                    try (DBCSession session = DBUtils.openUtilSession(searchMonitor, dataSource, "Search rows in " + objectName)) {
-                        TestDataReceiver dataReceiver = new TestDataReceiver(searchMonitor);
-                        findRows(session, dataContainer, dataReceiver);
-
-                        if (dataReceiver.rowCount > 0) {
-                            SearchDataObject object = new SearchDataObject(node, dataReceiver.rowCount, dataReceiver.filter);
-                            searchResult.addObjects(Collections.singletonList(object));
-                        }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                if ((monitor.isCanceled() || interrupted) && !searchStopped) {
+                    searchStopped = true;
+                    for (SearchWorkerJob worker : workers) {
+                        worker.cancel();
                     }
-                    monitor.worked(1);
                 }
-            } finally {
-                monitor.done();
+                int searched = tablesSearched.get();
+                if (searched > reportedTables) {
+                    monitor.worked(searched - reportedTables);
+                    reportedTables = searched;
+                }
+                String tableName = currentTable;
+                if (tableName != null) {
+                    monitor.subTask(tableName);
+                }
             }
-            return Status.OK_STATUS;
-        } catch (DBException e) {
-            return GeneralUtils.makeExceptionStatus(e);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            logTableTimes();
+        } finally {
+            monitor.done();
+        }
+        if (searchError != null) {
+            return GeneralUtils.makeExceptionStatus(searchError);
         }
+        return Status.OK_STATUS;
+    }
+
+    private void searchTable(@NotNull DBRProgressMonitor workerMonitor, @Nullable DBCExecutionContext context, @NotNull DBSDataContainer dataContainer) throws DBException
+    {
+        String objectName = DBUtils.getObjectFullName(dataContainer);
+        DBNDatabaseNode node = DBeaverCore.getInstance().getNavigatorModel().findNode(dataContainer);
+        if (node == null) {
+            log.warn("Can't find tree node for object \"" + objectName + "\"");
+            return;
+        }
+        currentTable = objectName;
+        long startTime = System.currentTimeMillis();
+        SearchTableMonitor searchMonitor = new SearchTableMonitor(workerMonitor);
+        String task = "Search rows in " + objectName;
+        try (DBCSession session = context != null ?
+            context.openSession(searchMonitor, DBCExecutionPurpose.UTIL, task) :
+            DBUtils.openUtilSession(searchMonitor, dataContainer.getDataSource(), task)) {
+            TestDataReceiver dataReceiver = new TestDataReceiver(searchMonitor);
+            findRows(session, dataContainer, dataReceiver);
+
+            long searchTime = System.currentTimeMillis() - startTime;
+            synchronized (tableTimes) {
+                tableTimes.add(new TableSearchTime(objectName, searchTime));
+            }
+            if (dataReceiver.rowCount > 0) {
+                // Results are streamed as soon as table search is finished
+                SearchDataObject object = new SearchDataObject(node, dataReceiver.rowCount, dataReceiver.filter, searchTime);
+                synchronized (searchResult) {
+                    searchResult.addObjects(Collections.singletonList(object));
+                }
+            }
+        }
+    }
+
+    private void logTableTimes()
+    {
+        List<TableSearchTime> times;
+        synchronized (tableTimes) {
+            times = new ArrayList<>(tableTimes);
+        }
+        if (times.isEmpty()) {
+            return;
+        }
+        Collections.sort(times, new Comparator<TableSearchTime>() {
+            @Override
+            public int compare(TableSearchTime o1, TableSearchTime o2)
+            {
+                return Long.compare(o2.time, o1.time);
+            }
+        });
+        StringBuilder message = new StringBuilder("Data search finished in " + times.size() + " table(s). Slowest tables:");
+        for (int i = 0; i < times.size() && i < MAX_REPORTED_TABLE_TIMES; i++) {
+            message.append("\n\t").append(times.get(i).tableName).append(": ").append(times.get(i).time).append("ms");
+        }
+        log.debug(message.toString());
     }
 
     private DBCStatistics findRows(
@@ -253,16 +369,77 @@ public class SearchDataQuery implements ISearchQuery {
         return new SearchDataQuery(params);
     }
 
-    private class SearchTableMonitor extends VoidProgressMonitor {
+    /**
+     * Searches tables from data source queue until queue is empty or search is stopped
+     */
+    private class SearchWorkerJob extends AbstractJob {
+
+        private final DBPDataSource dataSource;
+        private final Queue<DBSDataContainer> tables;
+        private final boolean isolated;
+        private CountDownLatch finishLatch;
+
+        private SearchWorkerJob(DBPDataSource dataSource, Queue<DBSDataContainer> tables, boolean isolated) {
+            super("Search data in " + dataSource.getContainer().getName());
+            this.dataSource = dataSource;
+            this.tables = tables;
+            this.isolated = isolated;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            DBCExecutionContext context = null;
+            try {
+                if (isolated && !searchStopped) {
+                    try {
+                        context = dataSource.openIsolatedContext(monitor, "Data search");
+                    } catch (DBException e) {
+                        log.warn("Can't open isolated context for data search. Use default connection.", e);
+                    }
+                }
+                for (DBSDataContainer dataContainer = tables.poll(); dataContainer != null; dataContainer = tables.poll()) {
+                    if (searchStopped || monitor.isCanceled()) {
+                        break;
+                    }
+                    try {
+                        searchTable(monitor, context, dataContainer);
+                    } catch (DBException e) {
+                        if (!searchStopped) {
+                            searchError = e;
+                            searchStopped = true;
+                        }
+                        break;
+                    } finally {
+                        tablesSearched.incrementAndGet();
+                    }
+                }
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+                finishLatch.countDown();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Table search monitor. Cancels fetch when enough rows are found.
+     * Blocks (statements) are registered in worker job monitor so job cancel also cancels them.
+     */
+    private class SearchTableMonitor extends ProxyProgressMonitor {
 
         private volatile boolean canceled;
 
-        private SearchTableMonitor() {
+        private SearchTableMonitor(DBRProgressMonitor workerMonitor) {
+            super(workerMonitor);
         }
 
         @Override
         public boolean isCanceled() {
-            return canceled;
+            return canceled || searchStopped || super.isCanceled();
         }
     }
 
@@ -287,6 +464,10 @@ public class SearchDataQuery implements ISearchQuery {
             if (rowCount >= params.maxResults) {
                 searchMonitor.canceled = true;
             }
+            if (params.maxTotalResults > 0 && totalRowsFound.incrementAndGet() >= params.maxTotalResults) {
+                // Enough hits - stop the whole search
+                searchStopped = true;
+            }
         }
 
         @Override
@@ -24,12 +24,15 @@ import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ext.erd.ERDActivator;
 import org.jkiss.dbeaver.ext.erd.editor.ERDAttributeStyle;
 import org.jkiss.dbeaver.ext.erd.editor.ERDAttributeVisibility;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
 import org.jkiss.utils.ArrayUtils;
 
 import java.util.*;
@@ -42,6 +45,15 @@ import java.util.*;
  */
 public class EntityDiagram extends ERDObject<DBSObject>
 {
+    private static final Log log = Log.getLog(EntityDiagram.class);
+
+    // Containers with fewer diagram tables are not prefetched: reading whole container structure
+    // costs more than reading metadata of a few tables one by one
+    private static final int PREFETCH_MIN_TABLES = 10;
+    // Minimal share (in percents) of container tables shown in diagram. Otherwise bulk read
+    // of a big schema costs more than per-table reads even for many tables.
+    private static final int PREFETCH_MIN_TABLES_PERCENT = 25;
+
 	private String name;
 	private List<ERDEntity> entities = new ArrayList<>();
 	private boolean layoutManualDesired = true;
@@ -98,12 +110,7 @@ public class EntityDiagram extends ERDObject<DBSObject>
 
 	public synchronized void addTable(ERDEntity entity, int i, boolean reflect)
 	{
-        if (i < 0) {
-            entities.add(entity);
-        } else {
-		    entities.add(i, entity);
-        }
-        tableMap.put(entity.getObject(), entity);
+        registerTable(entity, i);
 
         if (reflect) {
 		    firePropertyChange(CHILD, null, entity);
@@ -126,6 +133,16 @@ public class EntityDiagram extends ERDObject<DBSObject>
         }
 	}
 
+    private synchronized void registerTable(ERDEntity entity, int i)
+    {
+        if (i < 0) {
+            entities.add(entity);
+        } else {
+            entities.add(i, entity);
+        }
+        tableMap.put(entity.getObject(), entity);
+    }
+
     private void resolveRelations(boolean reflect)
     {
         // Resolve incomplete relations
@@ -240,6 +257,8 @@ public class EntityDiagram extends ERDObject<DBSObject>
 
     public void fillTables(DBRProgressMonitor monitor, Collection<DBSEntity> tables, DBSObject dbObject)
     {
+        prefetchMetadata(monitor, tables);
+
         // Load entities
         monitor.beginTask("Load entities metadata", tables.size());
         for (DBSEntity table : tables) {
@@ -250,8 +269,8 @@ public class EntityDiagram extends ERDObject<DBSObject>
             ERDEntity erdEntity = ERDEntity.fromObject(monitor, this, table);
             erdEntity.setPrimary(table == dbObject);
 
-            addTable(erdEntity, false);
-            tableMap.put(table, erdEntity);
+            // Relations are resolved once all entities are loaded
+            registerTable(erdEntity, -1);
 
             monitor.worked(1);
         }
@@ -272,6 +291,46 @@ public class EntityDiagram extends ERDObject<DBSObject>
             monitor.worked(1);
         }
         monitor.done();
+
+        // Entities added before may refer to the new ones
+        resolveRelations(false);
+    }
+
+    /**
+     * Reads attributes, constraints and foreign keys of all diagram tables with a few bulk queries per container.
+     * Otherwise each table reads its metadata separately.
+     */
+    private void prefetchMetadata(DBRProgressMonitor monitor, Collection<DBSEntity> tables)
+    {
+        Map<DBSObjectContainer, Integer> containers = new LinkedHashMap<>();
+        for (DBSEntity table : tables) {
+            DBSObject parent = table.getParentObject();
+            if (parent instanceof DBSObjectContainer) {
+                Integer tableCount = containers.get(parent);
+                containers.put((DBSObjectContainer) parent, tableCount == null ? 1 : tableCount + 1);
+            }
+        }
+        monitor.beginTask("Prefetch entities metadata", containers.size());
+        for (Map.Entry<DBSObjectContainer, Integer> entry : containers.entrySet()) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            if (entry.getValue() >= PREFETCH_MIN_TABLES) {
+                DBSObjectContainer container = entry.getKey();
+                monitor.subTask("Prefetch " + container.getName());
+                try {
+                    Collection<? extends DBSObject> children = container.getChildren(monitor);
+                    if (children != null && entry.getValue() * 100L >= children.size() * (long) PREFETCH_MIN_TABLES_PERCENT) {
+                        container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
+                    }
+                } catch (DBException e) {
+                    // Not fatal, tables will read their metadata one by one
+                    log.warn("Can't prefetch '" + container.getName() + "' metadata", e);
+                }
+            }
+            monitor.worked(1);
+        }
+        monitor.done();
     }
 
     public boolean containsTable(DBSEntity table)
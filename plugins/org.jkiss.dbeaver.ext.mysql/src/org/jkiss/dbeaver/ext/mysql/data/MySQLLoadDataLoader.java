@@ -0,0 +1,140 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.ext.mysql.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.mysql.model.MySQLTableBase;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.data.ExecuteBulkLoadImpl;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Bulk loader based on LOAD DATA LOCAL INFILE.
+ * Data is passed to Connector/J as input stream (setLocalInfileInputStream) so no file is created.
+ * Note: server and driver must allow local infile.
+ * LOAD DATA LOCAL works as if IGNORE was specified: duplicate keys are skipped and bad values are truncated
+ * with just a warning. Such load is reported as error, like the same rows would fail in INSERT.
+ */
+public class MySQLLoadDataLoader extends ExecuteBulkLoadImpl {
+
+    private static final Log log = Log.getLog(MySQLLoadDataLoader.class);
+
+    private static final Charset LOAD_CHARSET = Charset.forName("UTF-8");
+
+    private final MySQLTableBase table;
+    private final String loadQuery;
+
+    private MySQLLoadDataLoader(@NotNull MySQLTableBase table, @NotNull DBSAttributeBase[] attributes)
+    {
+        super(attributes);
+        this.table = table;
+
+        StringBuilder query = new StringBuilder(100);
+        query.append("LOAD DATA LOCAL INFILE 'stream' INTO TABLE ").append(table.getFullQualifiedName())
+            .append(" CHARACTER SET utf8 (");
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) query.append(",");
+            query.append(DBUtils.getQuotedIdentifier(table.getDataSource(), attributes[i].getName()));
+        }
+        query.append(")");
+        this.loadQuery = query.toString();
+    }
+
+    /**
+     * Creates LOAD DATA loader or returns null if it can't be used for given session or attributes
+     */
+    @Nullable
+    public static MySQLLoadDataLoader create(@NotNull DBCSession session, @NotNull MySQLTableBase table, @NotNull DBSAttributeBase[] attributes)
+    {
+        if (!(session instanceof JDBCSession) || !isBulkLoadSupported(attributes)) {
+            return null;
+        }
+        try (Statement statement = ((JDBCSession) session).getOriginal().createStatement()) {
+            if (getStreamMethod(statement) == null) {
+                return null;
+            }
+        } catch (SQLException e) {
+            log.debug("Can't check LOAD DATA support: " + e.getMessage());
+            return null;
+        }
+        return new MySQLLoadDataLoader(table, attributes);
+    }
+
+    @Override
+    protected String formatBoolean(boolean value)
+    {
+        return value ? "1" : "0";
+    }
+
+    @Override
+    protected long loadRows(@NotNull DBCSession session) throws DBCException
+    {
+        try (Statement statement = ((JDBCSession) session).getOriginal().createStatement()) {
+            Method streamMethod = getStreamMethod(statement);
+            if (streamMethod == null) {
+                throw new DBCException("Driver doesn't support LOAD DATA from stream");
+            }
+            long rowCount;
+            try (InputStream stream = openRowsStream(LOAD_CHARSET)) {
+                streamMethod.invoke(statement, stream);
+                rowCount = statement.executeUpdate(loadQuery);
+            }
+            // Driver reads warnings with SHOW WARNINGS
+            SQLWarning warning = statement.getWarnings();
+            if (rowCount != values.size() || warning != null) {
+                StringBuilder message = new StringBuilder();
+                message.append("LOAD DATA stored ").append(rowCount).append(" of ").append(values.size()).append(" row(s)");
+                if (warning != null) {
+                    message.append(": ").append(warning.getMessage());
+                }
+                throw new DBCException(message.toString(), warning);
+            }
+            return rowCount;
+        } catch (InvocationTargetException e) {
+            throw new DBCException(e.getTargetException(), table.getDataSource());
+        } catch (DBCException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DBCException(e, table.getDataSource());
+        }
+    }
+
+    @Nullable
+    private static Method getStreamMethod(@NotNull Statement statement)
+    {
+        try {
+            return statement.getClass().getMethod("setLocalInfileInputStream", InputStream.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
@@ -566,6 +566,52 @@ public class MySQLDataSource extends JDBCDataSource implements DBSObjectSelector
         }
     }
 
+    @Nullable
+    @Override
+    public DBSObject getMetadataMarkerOwner(@NotNull DBSObject owner)
+    {
+        for (DBSObject object = owner; object != null; object = object.getParentObject()) {
+            if (object instanceof MySQLCatalog) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public String readMetadataMarker(@NotNull JDBCSession session, @NotNull DBSObject markerOwner)
+        throws SQLException
+    {
+        // Tables creation time changes on ALTERs which rebuild table, but in-place column changes
+        // (type, nullability, default) keep it and columns count. So columns definitions are checksummed.
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(
+            "SELECT " +
+                "(SELECT COUNT(*) FROM " + MySQLConstants.META_TABLE_TABLES + " WHERE TABLE_SCHEMA=?)," +
+                "(SELECT MAX(CREATE_TIME) FROM " + MySQLConstants.META_TABLE_TABLES + " WHERE TABLE_SCHEMA=?)," +
+                "(SELECT COUNT(*) FROM " + MySQLConstants.META_TABLE_COLUMNS + " WHERE TABLE_SCHEMA=?)," +
+                "(SELECT SUM(CRC32(CONCAT_WS('|',TABLE_NAME,COLUMN_NAME,ORDINAL_POSITION,COLUMN_TYPE,IS_NULLABLE," +
+                    "IFNULL(COLUMN_DEFAULT,'<null>'),IFNULL(COLLATION_NAME,''),COLUMN_KEY,EXTRA,COLUMN_COMMENT))) " +
+                    "FROM " + MySQLConstants.META_TABLE_COLUMNS + " WHERE TABLE_SCHEMA=?)," +
+                "(SELECT COUNT(*) FROM " + MySQLConstants.META_TABLE_ROUTINES + " WHERE ROUTINE_SCHEMA=?)," +
+                "(SELECT MAX(LAST_ALTERED) FROM " + MySQLConstants.META_TABLE_ROUTINES + " WHERE ROUTINE_SCHEMA=?)"))
+        {
+            for (int i = 1; i <= 6; i++) {
+                dbStat.setString(i, markerOwner.getName());
+            }
+            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                if (!dbResult.next()) {
+                    return null;
+                }
+                StringBuilder marker = new StringBuilder();
+                for (int i = 1; i <= 6; i++) {
+                    marker.append(dbResult.getString(i)).append(';');
+                }
+                return marker.toString();
+            }
+        }
+    }
+
     @Override
     public DBCQueryTransformer createQueryTransformer(@NotNull DBCQueryTransformType type) {
         if (type == DBCQueryTransformType.RESULT_SET_LIMIT) {
@@ -527,6 +527,36 @@ public class OracleDataSource extends JDBCDataSource
         }
     }
 
+    @Nullable
+    @Override
+    public DBSObject getMetadataMarkerOwner(@NotNull DBSObject owner)
+    {
+        for (DBSObject object = owner; object != null; object = object.getParentObject()) {
+            if (object instanceof OracleSchema) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public String readMetadataMarker(@NotNull JDBCSession session, @NotNull DBSObject markerOwner)
+        throws SQLException
+    {
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(
+            "SELECT COUNT(*),MAX(LAST_DDL_TIME) FROM " + OracleUtils.getAdminAllViewPrefix(this) + "OBJECTS WHERE OWNER=?"))
+        {
+            dbStat.setString(1, markerOwner.getName());
+            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                if (!dbResult.next()) {
+                    return null;
+                }
+                return dbResult.getString(1) + ";" + dbResult.getString(2);
+            }
+        }
+    }
+
     @Nullable
     @Override
     public DBCQueryTransformer createQueryTransformer(@NotNull DBCQueryTransformType type) {
@@ -263,7 +263,7 @@ class OracleSQLDialect extends JDBCSQLDialect {
     @NotNull
     @Override
     public MultiValueInsertMode getMultiValueInsertMode() {
-        return MultiValueInsertMode.GROUP_ROWS;
+        return MultiValueInsertMode.INSERT_ALL;
     }
 
     @Override
@@ -47,6 +47,11 @@ class PostgreDialect extends JDBCSQLDialect {
     }
 */
 
+    @Override
+    public boolean supportsCopyFromStdin() {
+        return true;
+    }
+
     @Nullable
     @Override
     public String getBlockToggleString() {
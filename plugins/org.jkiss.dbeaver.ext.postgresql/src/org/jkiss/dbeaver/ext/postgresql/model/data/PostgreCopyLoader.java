@@ -0,0 +1,109 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.postgresql.model.PostgreTableBase;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.data.ExecuteBulkLoadImpl;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+
+/**
+ * Bulk loader based on COPY FROM STDIN.
+ * PgJDBC copy API is accessed via reflection because driver classes are not visible to the plugin.
+ */
+public class PostgreCopyLoader extends ExecuteBulkLoadImpl {
+
+    private static final Log log = Log.getLog(PostgreCopyLoader.class);
+
+    private final PostgreTableBase table;
+    private final String copyQuery;
+
+    private PostgreCopyLoader(@NotNull PostgreTableBase table, @NotNull DBSAttributeBase[] attributes)
+    {
+        super(attributes);
+        this.table = table;
+
+        StringBuilder query = new StringBuilder(100);
+        query.append("COPY ").append(table.getFullQualifiedName()).append(" (");
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) query.append(",");
+            query.append(DBUtils.getQuotedIdentifier(table.getDataSource(), attributes[i].getName()));
+        }
+        query.append(") FROM STDIN");
+        this.copyQuery = query.toString();
+    }
+
+    /**
+     * Creates COPY loader or returns null if COPY can't be used for given session or attributes
+     */
+    @Nullable
+    public static PostgreCopyLoader create(@NotNull DBCSession session, @NotNull PostgreTableBase table, @NotNull DBSAttributeBase[] attributes)
+    {
+        if (!(session instanceof JDBCSession) || !isBulkLoadSupported(attributes)) {
+            return null;
+        }
+        try {
+            if (getCopyMethod(((JDBCSession) session).getOriginal()) == null) {
+                return null;
+            }
+        } catch (Exception e) {
+            log.debug("PostgreSQL copy API is not available: " + e.getMessage());
+            return null;
+        }
+        return new PostgreCopyLoader(table, attributes);
+    }
+
+    @Override
+    protected long loadRows(@NotNull DBCSession session) throws DBCException
+    {
+        try {
+            Connection connection = ((JDBCSession) session).getOriginal();
+            Object copyManager = connection.getClass().getMethod("getCopyAPI").invoke(connection);
+            Object rowCount = getCopyMethod(connection).invoke(copyManager, copyQuery, openRowsReader());
+            return rowCount instanceof Number ? ((Number) rowCount).longValue() : values.size();
+        } catch (InvocationTargetException e) {
+            throw new DBCException(e.getTargetException(), table.getDataSource());
+        } catch (Exception e) {
+            throw new DBCException(e, table.getDataSource());
+        }
+    }
+
+    @Nullable
+    private static Method getCopyMethod(@NotNull Connection connection) throws Exception
+    {
+        Method getCopyAPI;
+        try {
+            getCopyAPI = connection.getClass().getMethod("getCopyAPI");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        return getCopyAPI.getReturnType().getMethod("copyIn", String.class, Reader.class);
+    }
+
+}
@@ -25,7 +25,9 @@ import java.util.Locale;
 import java.util.Map;
 
 /**
- * Data formatter
+ * Data formatter.
+ * Formatter is initialized once and then may be used by many threads concurrently,
+ * so format and parse methods must not share mutable state between calls.
  */
 public interface DBDDataFormatter {
 
@@ -30,17 +30,25 @@ import org.jkiss.dbeaver.model.sql.SQLDataSource;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Various objects cache
+ * Various objects cache.
+ * Modifications are synchronized on cache instance. Readers do not lock - they see immutable list snapshot
+ * and concurrent name map.
  */
 public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extends DBSObject> implements DBSObjectCache<OWNER, OBJECT>
 {
     private static final Log log = Log.getLog(AbstractObjectCache.class);
 
-    private List<OBJECT> objectList;
-    private Map<String, OBJECT> objectMap;
-    protected boolean caseSensitive = true;
+    // Ordered by insertion, keyed by object identity. Guarded by this.
+    private LinkedHashMap<ObjectKey, OBJECT> objectStore;
+    // Snapshot of objectStore values. Reset on each modification
+    private volatile List<OBJECT> objectList;
+    // Lazily built name index
+    private volatile Map<String, OBJECT> objectMap;
+    private volatile boolean cached;
+    protected volatile boolean caseSensitive = true;
     protected Comparator<OBJECT> listOrderComparator;
 
     protected AbstractObjectCache() {
@@ -61,12 +69,25 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         this.listOrderComparator = listOrderComparator;
     }
 
+    /**
+     * Returns read-only snapshot of cached objects
+     */
     @NotNull
     @Override
     public List<OBJECT> getCachedObjects()
     {
+        List<OBJECT> list = objectList;
+        if (list != null) {
+            return list;
+        }
         synchronized (this) {
-            return objectList == null ? Collections.<OBJECT>emptyList() : objectList;
+            if (objectStore == null) {
+                return Collections.emptyList();
+            }
+            if (objectList == null) {
+                objectList = Collections.unmodifiableList(new ArrayList<>(objectStore.values()));
+            }
+            return objectList;
         }
     }
 
@@ -86,18 +107,27 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public OBJECT getCachedObject(@NotNull String name)
     {
-        synchronized (this) {
-            return objectList == null || name == null ? null : getObjectMap().get(caseSensitive ? name : name.toUpperCase());
+        if (name == null || !cached) {
+            return null;
         }
+        Map<String, OBJECT> map = objectMap;
+        if (map == null) {
+            map = getObjectMap();
+            if (map == null) {
+                return null;
+            }
+        }
+        return map.get(caseSensitive ? name : name.toUpperCase());
     }
 
     @Override
     public void cacheObject(@NotNull OBJECT object)
     {
         synchronized (this) {
-            if (this.objectList != null) {
+            if (this.objectStore != null) {
                 detectCaseSensitivity(object);
-                this.objectList.add(object);
+                this.objectStore.put(new ObjectKey(object), object);
+                this.objectList = null;
                 if (this.objectMap != null) {
                     String name = getObjectName(object);
                     checkDuplicateName(name, object);
@@ -111,9 +141,18 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void removeObject(@NotNull OBJECT object)
     {
         synchronized (this) {
-            if (this.objectList != null) {
+            if (this.objectStore != null) {
                 detectCaseSensitivity(object);
-                this.objectList.remove(object);
+                if (this.objectStore.remove(new ObjectKey(object)) == null) {
+                    // Not the same instance - look for equal object
+                    for (Iterator<OBJECT> iter = this.objectStore.values().iterator(); iter.hasNext(); ) {
+                        if (iter.next().equals(object)) {
+                            iter.remove();
+                            break;
+                        }
+                    }
+                }
+                this.objectList = null;
                 if (this.objectMap != null) {
                     this.objectMap.remove(getObjectName(object));
                 }
@@ -131,15 +170,15 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 
     public boolean isCached()
     {
-        synchronized (this) {
-            return objectList != null;
-        }
+        return cached;
     }
 
     @Override
     public void clearCache()
     {
         synchronized (this) {
+            this.cached = false;
+            this.objectStore = null;
             this.objectList = null;
             this.objectMap = null;
         }
@@ -148,16 +187,27 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void setCache(List<OBJECT> objects)
     {
         synchronized (this) {
-            objectList = objects;
+            if (objects == null) {
+                clearCache();
+                return;
+            }
+            LinkedHashMap<ObjectKey, OBJECT> store = new LinkedHashMap<>(objects.size() * 4 / 3 + 1);
+            for (OBJECT object : objects) {
+                store.put(new ObjectKey(object), object);
+            }
+            objectStore = store;
+            objectList = null;
             objectMap = null;
+            cached = true;
         }
     }
 
+    @Nullable
     private synchronized Map<String, OBJECT> getObjectMap()
     {
-        if (objectMap == null) {
-            this.objectMap = new HashMap<>();
-            for (OBJECT object : objectList) {
+        if (objectMap == null && objectStore != null) {
+            this.objectMap = new ConcurrentHashMap<>(objectStore.size() * 4 / 3 + 1);
+            for (OBJECT object : objectStore.values()) {
                 String name = getObjectName(object);
                 checkDuplicateName(name, object);
                 this.objectMap.put(name, object);
@@ -196,14 +246,45 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         } else {
             name = object.getName();
         }
+        if (name == null) {
+            // Concurrent map doesn't accept nulls
+            name = "";
+        }
         if (!caseSensitive) {
             return name.toUpperCase();
         }
         return name;
     }
 
+    /**
+     * Identity key. Cached objects may override equals but cache must keep each instance.
+     */
+    private static final class ObjectKey {
+        private final Object object;
+
+        ObjectKey(Object object)
+        {
+            this.object = object;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(object);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof ObjectKey && ((ObjectKey) obj).object == object;
+        }
+    }
+
+    /**
+     * Iterates over cached objects. Must be used while holding cache lock.
+     */
     protected class CacheIterator implements Iterator<OBJECT> {
-        private Iterator<OBJECT> listIterator = objectList.iterator();
+        private Iterator<OBJECT> listIterator = objectStore.values().iterator();
         private OBJECT curObject;
         public CacheIterator()
         {
@@ -225,6 +306,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         public void remove()
         {
             listIterator.remove();
+            objectList = null;
             if (objectMap != null) {
                 objectMap.remove(getObjectName(curObject));
             }
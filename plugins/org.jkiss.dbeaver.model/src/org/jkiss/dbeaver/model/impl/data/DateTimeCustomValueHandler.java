@@ -38,7 +38,8 @@ public abstract class DateTimeCustomValueHandler extends DateTimeValueHandler {
     protected static final Log log = Log.getLog(DateTimeCustomValueHandler.class);
 
     private DBDDataFormatterProfile formatterProfile;
-    protected DBDDataFormatter formatter;
+    // Formatter is thread safe. Lazy initialization may create it twice but it is harmless
+    protected volatile DBDDataFormatter formatter;
 
     public DateTimeCustomValueHandler(DBDDataFormatterProfile formatterProfile)
     {
@@ -103,10 +104,12 @@ public abstract class DateTimeCustomValueHandler extends DateTimeValueHandler {
     @NotNull
     protected DBDDataFormatter getFormatter(DBSTypedObject column)
     {
-        if (formatter == null) {
-            formatter = getFormatter(getFormatterId(column));
+        DBDDataFormatter result = formatter;
+        if (result == null) {
+            result = getFormatter(getFormatterId(column));
+            formatter = result;
         }
-        return formatter;
+        return result;
     }
 
     @NotNull
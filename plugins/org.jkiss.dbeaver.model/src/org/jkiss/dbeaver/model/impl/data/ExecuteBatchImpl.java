@@ -31,9 +31,7 @@ import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
 import org.jkiss.utils.ArrayUtils;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 /**
  * Execute batch.
@@ -44,6 +42,22 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
 
     private static final Log log = Log.getLog(ExecuteBatchImpl.class);
 
+    private static final int MAX_POOLED_STATEMENTS = 16;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Prepared statement with its pending batch
+     */
+    private static class StatementBatch {
+        final DBCStatement statement;
+        int statementsInBatch;
+
+        StatementBatch(DBCStatement statement)
+        {
+            this.statement = statement;
+        }
+    }
+
     protected final DBSAttributeBase[] attributes;
     protected final List<Object[]> values = new ArrayList<>();
     protected final DBDDataReceiver keysReceiver;
@@ -108,49 +122,63 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
         }
 
         DBCStatistics statistics = new DBCStatistics();
-        DBCStatement statement = null;
 
+        // Here we'll try to reuse prepared statements.
+        // It makes a great sense in case of data transfer where we need millions of inserts.
+        // We must be aware of nulls because actual insert statements may differ depending on null values.
+        // So we keep a small pool of prepared statements keyed by row nulls pattern.
+        // Rows must be executed in source order (e.g. self-referencing foreign keys), so only one batch
+        // is pending at a time. It is flushed when nulls pattern changes or when it reaches the size threshold.
+        Map<BitSet, StatementBatch> statementPool = new LinkedHashMap<>(16, 0.75f, true);
+        StatementBatch pendingBatch = null;
         try {
-            // Here we'll try to reuse prepared statement.
-            // It makes a great sense in case of data transfer where we need millions of inserts.
-            // We must be aware of nulls because actual insert statements may differ depending on null values.
-            // So if row nulls aren't the same as in previous row we need to prepare new statement and restart batch.
-            // Quite complicated but works.
-            boolean[] prevNulls = new boolean[attributes.length];
-            boolean[] nulls = new boolean[attributes.length];
-            int statementsInBatch = 0;
-
             for (Object[] rowValues : values) {
-                boolean reuse = reuseStatement;
-                if (reuse) {
+                StatementBatch batch = null;
+                BitSet nulls = null;
+                if (reuseStatement) {
+                    nulls = new BitSet(rowValues.length);
                     for (int i = 0; i < rowValues.length; i++) {
-                        nulls[i] = DBUtils.isNullValue(rowValues[i]);
-                    }
-                    if (!Arrays.equals(prevNulls, nulls) && statementsInBatch > 0) {
-                        reuse = false;
-                    }
-                    System.arraycopy(nulls, 0, prevNulls, 0, nulls.length);
-                    if (!reuse && statementsInBatch > 0) {
-                        // Flush batch
-                        if (actions == null) {
-                            flushBatch(statistics, statement);
+                        if (DBUtils.isNullValue(rowValues[i])) {
+                            nulls.set(i);
                         }
-                        statement.close();
-                        statement = null;
-                        statementsInBatch = 0;
-                        reuse = true;
                     }
+                    batch = statementPool.get(nulls);
                 }
-                if (statement == null || !reuse) {
-                    statement = prepareStatement(session, rowValues);
-                    statistics.setQueryText(statement.getQueryString());
+                if (batch == null) {
+                    if (reuseStatement && statementPool.size() >= MAX_POOLED_STATEMENTS) {
+                        // Release least recently used statement
+                        Iterator<StatementBatch> lruIter = statementPool.values().iterator();
+                        StatementBatch lruBatch = lruIter.next();
+                        lruIter.remove();
+                        try {
+                            if (actions == null) {
+                                flushBatch(statistics, lruBatch);
+                            }
+                        } finally {
+                            lruBatch.statement.close();
+                        }
+                    }
+                    batch = new StatementBatch(prepareStatement(session, rowValues));
+                    statistics.setQueryText(batch.statement.getQueryString());
+                    if (reuseStatement) {
+                        statementPool.put(nulls, batch);
+                    }
                 }
+                DBCStatement statement = batch.statement;
                 try {
+                    if (actions == null && useBatch && pendingBatch != null && pendingBatch != batch) {
+                        // Execute previous rows before this one
+                        flushBatch(statistics, pendingBatch);
+                    }
                     bindStatement(handlers, statement, rowValues);
                     if (actions == null) {
                         if (useBatch) {
                             statement.addToBatch();
-                            statementsInBatch++;
+                            batch.statementsInBatch++;
+                            pendingBatch = batch;
+                            if (batch.statementsInBatch >= MAX_BATCH_SIZE) {
+                                flushBatch(statistics, batch);
+                            }
                         } else {
                             // Execute each row separately
                             long startTime = System.currentTimeMillis();
@@ -181,32 +209,32 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
                                 DBEPersistAction.ActionType.NORMAL));
                     }
                 } finally {
-                    if (!reuse) {
+                    if (!reuseStatement) {
                         statement.close();
                     }
                 }
             }
             values.clear();
 
-            if (statementsInBatch > 0) {
-                if (actions == null) {
-                    flushBatch(statistics, statement);
-                }
-                statement.close();
-                statement = null;
+            if (actions == null && pendingBatch != null) {
+                flushBatch(statistics, pendingBatch);
             }
         } finally {
-            if (reuseStatement && statement != null) {
-                statement.close();
+            for (StatementBatch batch : statementPool.values()) {
+                batch.statement.close();
             }
         }
 
         return statistics;
     }
 
-    private void flushBatch(DBCStatistics statistics, DBCStatement statement) throws DBCException {
+    private void flushBatch(DBCStatistics statistics, StatementBatch batch) throws DBCException {
+        if (batch.statementsInBatch <= 0) {
+            return;
+        }
+        batch.statementsInBatch = 0;
         long startTime = System.currentTimeMillis();
-        int[] updatedRows = statement.executeStatementBatch();
+        int[] updatedRows = batch.statement.executeStatementBatch();
         statistics.addExecuteTime(System.currentTimeMillis() - startTime);
         if (!ArrayUtils.isEmpty(updatedRows)) {
             for (int rows : updatedRows) {
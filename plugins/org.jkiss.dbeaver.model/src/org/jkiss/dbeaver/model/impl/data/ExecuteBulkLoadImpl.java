@@ -0,0 +1,264 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.edit.DBEPersistAction;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatistics;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.utils.ArrayUtils;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bulk load batch.
+ * Rows are streamed to the server in tab-separated text format: backslash escapes, NULL as \N, one row per line.
+ * This format is understood by PostgreSQL COPY and by MySQL LOAD DATA with default options.
+ * Rows are rendered lazily while the driver reads the stream, so no temporary file is created.
+ */
+public abstract class ExecuteBulkLoadImpl implements DBSDataManipulator.ExecuteBatch {
+
+    protected final DBSAttributeBase[] attributes;
+    protected final List<Object[]> values = new ArrayList<>();
+
+    protected ExecuteBulkLoadImpl(@NotNull DBSAttributeBase[] attributes)
+    {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Checks whether all attributes values may be rendered in bulk load text format.
+     */
+    public static boolean isBulkLoadSupported(@NotNull DBSAttributeBase[] attributes)
+    {
+        if (ArrayUtils.isEmpty(attributes)) {
+            return false;
+        }
+        for (DBSAttributeBase attribute : attributes) {
+            if (attribute.isPseudoAttribute()) {
+                return false;
+            }
+            switch (attribute.getDataKind()) {
+                case BOOLEAN:
+                case NUMERIC:
+                case STRING:
+                case DATETIME:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void add(@NotNull Object[] attributeValues) throws DBCException
+    {
+        if (attributeValues.length != attributes.length) {
+            throw new DBCException("Bad attribute values: " + Arrays.toString(attributeValues));
+        }
+        values.add(attributeValues);
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics execute(@NotNull DBCSession session) throws DBCException
+    {
+        DBCStatistics statistics = new DBCStatistics();
+        if (values.isEmpty()) {
+            return statistics;
+        }
+        long startTime = System.currentTimeMillis();
+        long rowCount = loadRows(session);
+        statistics.addExecuteTime(System.currentTimeMillis() - startTime);
+        statistics.addRowsUpdated(rowCount);
+        // Rows are cleared only after successful load. If loadRows fails they stay in batch but part of them
+        // may be already stored by server (e.g. MySQL LOAD DATA in auto-commit mode), so batch can't be just retried.
+        values.clear();
+        return statistics;
+    }
+
+    @Override
+    public void generatePersistActions(@NotNull DBCSession session, @NotNull List<DBEPersistAction> actions) throws DBCException
+    {
+        throw new DBCException("Bulk load doesn't support script generation");
+    }
+
+    @Override
+    public void close()
+    {
+        values.clear();
+    }
+
+    /**
+     * Sends all pending rows to the server.
+     * Implementation should use {@link #openRowsReader()} or {@link #openRowsStream(Charset)} as data source.
+     * Implementation must fail if server skipped or changed some rows instead of rejecting them.
+     * @return number of loaded rows
+     */
+    protected abstract long loadRows(@NotNull DBCSession session) throws DBCException;
+
+    protected Reader openRowsReader()
+    {
+        return new RowsReader();
+    }
+
+    protected InputStream openRowsStream(@NotNull Charset charset)
+    {
+        return new RowsInputStream(charset);
+    }
+
+    protected String formatBoolean(boolean value)
+    {
+        return value ? "true" : "false";
+    }
+
+    protected String formatValue(@NotNull Object value)
+    {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        } else if (value instanceof Boolean) {
+            return formatBoolean((Boolean) value);
+        } else if (value instanceof Date && !(value instanceof java.sql.Date) && !(value instanceof java.sql.Time) && !(value instanceof Timestamp)) {
+            return new Timestamp(((Date) value).getTime()).toString();
+        } else {
+            // SQL date/time types are already in ISO format
+            return value.toString();
+        }
+    }
+
+    private void renderRow(@NotNull StringBuilder buffer, @NotNull Object[] rowValues)
+    {
+        buffer.setLength(0);
+        for (int i = 0; i < rowValues.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            Object value = rowValues[i];
+            if (DBUtils.isNullValue(value)) {
+                buffer.append("\\N");
+                continue;
+            }
+            String text = formatValue(value);
+            for (int k = 0; k < text.length(); k++) {
+                char c = text.charAt(k);
+                switch (c) {
+                    case '\\': buffer.append("\\\\"); break;
+                    case '\t': buffer.append("\\t"); break;
+                    case '\n': buffer.append("\\n"); break;
+                    case '\r': buffer.append("\\r"); break;
+                    default: buffer.append(c); break;
+                }
+            }
+        }
+        buffer.append('\n');
+    }
+
+    private class RowsReader extends Reader {
+        private final StringBuilder rowBuffer = new StringBuilder();
+        private int rowIndex;
+        private int bufferPos;
+
+        @Override
+        public int read(@NotNull char[] cbuf, int off, int len)
+        {
+            if (len == 0) {
+                return 0;
+            }
+            if (bufferPos >= rowBuffer.length()) {
+                if (rowIndex >= values.size()) {
+                    return -1;
+                }
+                renderRow(rowBuffer, values.get(rowIndex++));
+                bufferPos = 0;
+            }
+            int count = Math.min(len, rowBuffer.length() - bufferPos);
+            rowBuffer.getChars(bufferPos, bufferPos + count, cbuf, off);
+            bufferPos += count;
+            return count;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private class RowsInputStream extends InputStream {
+        private final Charset charset;
+        private final StringBuilder rowBuffer = new StringBuilder();
+        private byte[] rowBytes = new byte[0];
+        private int rowIndex;
+        private int bufferPos;
+
+        RowsInputStream(Charset charset)
+        {
+            this.charset = charset;
+        }
+
+        private boolean nextRow()
+        {
+            while (bufferPos >= rowBytes.length) {
+                if (rowIndex >= values.size()) {
+                    return false;
+                }
+                renderRow(rowBuffer, values.get(rowIndex++));
+                rowBytes = rowBuffer.toString().getBytes(charset);
+                bufferPos = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read()
+        {
+            if (!nextRow()) {
+                return -1;
+            }
+            return rowBytes[bufferPos++] & 0xff;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len)
+        {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextRow()) {
+                return -1;
+            }
+            int count = Math.min(len, rowBytes.length - bufferPos);
+            System.arraycopy(rowBytes, bufferPos, b, off, count);
+            bufferPos += count;
+            return count;
+        }
+    }
+
+}
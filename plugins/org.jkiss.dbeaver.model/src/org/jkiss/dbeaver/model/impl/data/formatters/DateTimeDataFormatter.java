@@ -33,8 +33,14 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
 
     private String pattern;
     private DateFormat dateFormat;
-    private StringBuffer buffer;
-    private FieldPosition position;
+    // DateFormat isn't thread safe. Each thread uses its own copy of format
+    private final ThreadLocal<DateFormat> threadFormat = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue()
+        {
+            return (DateFormat) dateFormat.clone();
+        }
+    };
 
     @Override
     public void init(Locale locale, Map<Object, Object> properties)
@@ -43,8 +49,6 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
         dateFormat = new ExtendedDateFormat(
             pattern,
             locale);
-        buffer = new StringBuffer();
-        position = new FieldPosition(0);
     }
 
     @Override
@@ -56,16 +60,13 @@ public class DateTimeDataFormatter implements DBDDataFormatter {
     @Override
     public String formatValue(Object value)
     {
-        synchronized (dateFormat) {
-            buffer.setLength(0);
-            return value == null ? null : dateFormat.format(value, buffer, position).toString();
-        }
+        return value == null ? null : threadFormat.get().format(value, new StringBuffer(), new FieldPosition(0)).toString();
     }
 
     @Override
     public Object parseValue(String value, Class<?> typeHint) throws ParseException
     {
-        return dateFormat.parse(value);
+        return threadFormat.get().parse(value);
     }
 
 }
@@ -34,8 +34,14 @@ import java.util.Map;
 public class NumberDataFormatter implements DBDDataFormatter {
 
     private DecimalFormat numberFormat;
-    private StringBuffer buffer;
-    private FieldPosition position;
+    // NumberFormat isn't thread safe. Each thread uses its own copy of format
+    private final ThreadLocal<DecimalFormat> threadFormat = new ThreadLocal<DecimalFormat>() {
+        @Override
+        protected DecimalFormat initialValue()
+        {
+            return (DecimalFormat) numberFormat.clone();
+        }
+    };
 
     @Override
     public void init(Locale locale, Map<Object, Object> properties)
@@ -69,8 +75,6 @@ public class NumberDataFormatter implements DBDDataFormatter {
                 // just skip it
             }
         }
-        buffer = new StringBuffer();
-        position = new FieldPosition(0);
     }
 
     @Nullable
@@ -88,10 +92,7 @@ public class NumberDataFormatter implements DBDDataFormatter {
             return null;
         }
         try {
-            synchronized (this) {
-                buffer.setLength(0);
-                return numberFormat.format(value, buffer, position).toString();
-            }
+            return threadFormat.get().format(value, new StringBuffer(), new FieldPosition(0)).toString();
         } catch (Exception e) {
             return value.toString();
         }
@@ -100,26 +101,25 @@ public class NumberDataFormatter implements DBDDataFormatter {
     @Override
     public Object parseValue(String value, @Nullable Class<?> typeHint) throws ParseException
     {
-        synchronized (this) {
-            numberFormat.setParseBigDecimal(typeHint == BigDecimal.class || typeHint == BigInteger.class);
-            Number number = numberFormat.parse(value);
-            if (number != null && typeHint != null) {
-                if (typeHint == Byte.class) {
-                    return number.byteValue();
-                } else if (typeHint == Short.class) {
-                    return number.shortValue();
-                } else if (typeHint == Integer.class) {
-                    return number.intValue();
-                } else if (typeHint == Long.class) {
-                    return number.longValue();
-                } else if (typeHint == Float.class) {
-                    return number.floatValue();
-                } else if (typeHint == Double.class) {
-                    return number.doubleValue();
-                }
+        DecimalFormat format = threadFormat.get();
+        format.setParseBigDecimal(typeHint == BigDecimal.class || typeHint == BigInteger.class);
+        Number number = format.parse(value);
+        if (number != null && typeHint != null) {
+            if (typeHint == Byte.class) {
+                return number.byteValue();
+            } else if (typeHint == Short.class) {
+                return number.shortValue();
+            } else if (typeHint == Integer.class) {
+                return number.intValue();
+            } else if (typeHint == Long.class) {
+                return number.longValue();
+            } else if (typeHint == Float.class) {
+                return number.floatValue();
+            } else if (typeHint == Double.class) {
+                return number.doubleValue();
             }
-            return number;
         }
+        return number;
     }
 
 }
@@ -45,7 +45,13 @@ public class EpochTimeAttributeTransformer implements DBDAttributeTransformer {
     private static final Log log = Log.getLog(EpochTimeAttributeTransformer.class);
     private static final String PROP_UNIT = "unit";
 
-    private static final SimpleDateFormat DEFAULT_TIME_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.ENGLISH);
+    private static final ThreadLocal<SimpleDateFormat> DEFAULT_TIME_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue()
+        {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.ENGLISH);
+        }
+    };
 
     enum EpochUnit {
         seconds,
@@ -85,7 +91,7 @@ public class EpochTimeAttributeTransformer implements DBDAttributeTransformer {
                     case seconds: dateValue *= 1000; break;
                     case nanoseconds: dateValue /= 1000; break;
                 }
-                return DEFAULT_TIME_FORMAT.format(new Date(dateValue));
+                return DEFAULT_TIME_FORMAT.get().format(new Date(dateValue));
             }
             return DBUtils.getDefaultValueDisplayString(value, format);
         }
@@ -95,7 +101,7 @@ public class EpochTimeAttributeTransformer implements DBDAttributeTransformer {
         public Object getValueFromObject(@NotNull DBCSession session, @NotNull DBSTypedObject type, @Nullable Object object, boolean copy) throws DBCException {
             if (object instanceof String) {
                 try {
-                    return DEFAULT_TIME_FORMAT.parse((String) object).getTime();
+                    return DEFAULT_TIME_FORMAT.get().parse((String) object).getTime();
                 } catch (Exception e) {
                     log.debug("Error parsing time value", e);
                 }
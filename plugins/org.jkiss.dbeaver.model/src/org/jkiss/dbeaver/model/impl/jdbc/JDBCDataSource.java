@@ -27,6 +27,7 @@ import org.jkiss.dbeaver.model.data.DBDDataFormatterProfile;
 import org.jkiss.dbeaver.model.data.DBDPreferences;
 import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCFactory;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataSnapshot;
 import org.jkiss.dbeaver.model.impl.jdbc.data.handlers.JDBCObjectValueHandler;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
 import org.jkiss.dbeaver.model.impl.sql.BasicSQLDialect;
@@ -82,6 +83,8 @@ public abstract class JDBCDataSource
     protected volatile DBPDataSourceInfo dataSourceInfo;
     protected volatile SQLDialect sqlDialect;
     protected final JDBCFactory jdbcFactory;
+    @Nullable
+    private volatile JDBCMetadataSnapshot metadataSnapshot;
 
     private int databaseMajorVersion;
     private int databaseMinorVersion;
@@ -340,6 +343,45 @@ public abstract class JDBCDataSource
                 dataSourceInfo = new JDBCDataSourceInfo(container);
             }
         }
+        // Snapshot version depends on server info so it is loaded after metadata read.
+        // Save previous snapshot first (on reconnect), otherwise we'll load its older version.
+        JDBCMetadataSnapshot prevSnapshot = metadataSnapshot;
+        if (prevSnapshot != null) {
+            prevSnapshot.save();
+        }
+        metadataSnapshot = JDBCMetadataSnapshot.load(this);
+    }
+
+    /**
+     * Offline snapshot of metadata caches. Null if snapshots are disabled.
+     */
+    @Nullable
+    public JDBCMetadataSnapshot getMetadataSnapshot()
+    {
+        return metadataSnapshot;
+    }
+
+    /**
+     * Returns object whose metadata modification marker covers specified cache owner (e.g. schema of a table).
+     * Metadata snapshot entries are replayed only if marker of their owner didn't change.
+     * @return marker owner or null if data source can't detect metadata modifications
+     */
+    @Nullable
+    public DBSObject getMetadataMarkerOwner(@NotNull DBSObject owner)
+    {
+        return null;
+    }
+
+    /**
+     * Reads metadata modification marker (e.g. last DDL time and objects count) of specified object.
+     * @param markerOwner object returned by {@link #getMetadataMarkerOwner(DBSObject)}
+     * @return marker or null if it can't be determined
+     */
+    @Nullable
+    public String readMetadataMarker(@NotNull JDBCSession session, @NotNull DBSObject markerOwner)
+        throws SQLException
+    {
+        return null;
     }
 
     @Override
@@ -347,6 +389,10 @@ public abstract class JDBCDataSource
     {
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
+        JDBCMetadataSnapshot snapshot = metadataSnapshot;
+        if (snapshot != null) {
+            snapshot.save();
+        }
         synchronized (this) {
             executionContext.close();
             if (metaContext != null) {
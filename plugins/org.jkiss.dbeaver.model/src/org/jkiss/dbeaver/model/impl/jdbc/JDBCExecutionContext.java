@@ -20,6 +20,7 @@ package org.jkiss.dbeaver.model.impl.jdbc;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPTransactionIsolation;
@@ -45,6 +46,7 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
     private volatile Connection connection;
     private volatile Boolean autoCommit;
     private volatile Integer transactionIsolationLevel;
+    private volatile JDBCStatementCache statementCache;
 
     public JDBCExecutionContext(@NotNull JDBCDataSource dataSource, String purpose)
     {
@@ -56,6 +58,14 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         return connection;
     }
 
+    /**
+     * Prepared statements cache. Null if statements caching is disabled.
+     */
+    @Nullable
+    public JDBCStatementCache getStatementCache() {
+        return statementCache;
+    }
+
     public void connect(DBRProgressMonitor monitor) throws DBCException
     {
         connect(monitor, null, null, false);
@@ -75,6 +85,9 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
                 throw new DBCException("Null connection returned");
             }
 
+            int statementCacheSize = dataSource.getContainer().getPreferenceStore().getInt(ModelPreferences.QUERY_STATEMENT_CACHE_SIZE);
+            this.statementCache = statementCacheSize > 0 ? new JDBCStatementCache(statementCacheSize) : null;
+
             // Get defaults from preferences
             if (autoCommit == null) {
                 autoCommit = dataSource.getContainer().isDefaultAutoCommit();
@@ -175,6 +188,7 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
             return InvalidateResult.CONNECTED;
         }
 
+        invalidateStatementCache();
         if (!JDBCUtils.isConnectionAlive(getConnection())) {
             Boolean prevAutocommit = autoCommit;
             Integer txnLevel = transactionIsolationLevel;
@@ -192,6 +206,7 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
         synchronized (this) {
+            invalidateStatementCache();
             if (connection != null) {
                 this.dataSource.closeConnection(connection);
                 connection = null;
@@ -204,6 +219,14 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
 
     }
 
+    private void invalidateStatementCache()
+    {
+        JDBCStatementCache cache = this.statementCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
     //////////////////////////////////////////////////////////////
     // Transaction manager
     //////////////////////////////////////////////////////////////
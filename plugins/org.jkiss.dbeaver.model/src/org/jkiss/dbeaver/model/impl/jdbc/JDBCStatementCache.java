@@ -0,0 +1,258 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements of one connection.
+ * Statement is taken from cache while it is in use and returned back on close.
+ * Statements are keyed by SQL text, result set type and concurrency.
+ * Statement settings are reset to their initial values when statement is returned to the cache.
+ * Statements which failed are closed instead of caching.
+ */
+public class JDBCStatementCache {
+
+    private static final Log log = Log.getLog(JDBCStatementCache.class);
+
+    private static class StatementKey {
+        final String sql;
+        final int resultSetType;
+        final int resultSetConcurrency;
+
+        StatementKey(String sql, int resultSetType, int resultSetConcurrency)
+        {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey key = (StatementKey) obj;
+            return resultSetType == key.resultSetType &&
+                resultSetConcurrency == key.resultSetConcurrency &&
+                sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return sql.hashCode() + resultSetType * 31 + resultSetConcurrency;
+        }
+    }
+
+    /**
+     * Cached statement with its initial settings
+     */
+    private static class CachedStatement {
+        final StatementKey key;
+        final PreparedStatement statement;
+        final int fetchSize;
+        final int fetchDirection;
+        final int queryTimeout;
+
+        CachedStatement(StatementKey key, PreparedStatement statement)
+            throws SQLException
+        {
+            this.key = key;
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.fetchDirection = statement.getFetchDirection();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+
+        void resetState()
+            throws SQLException
+        {
+            // Failed batch may leave pending rows
+            statement.clearBatch();
+            statement.clearParameters();
+            statement.setMaxRows(0);
+            if (statement.getFetchSize() != fetchSize) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (statement.getFetchDirection() != fetchDirection) {
+                statement.setFetchDirection(fetchDirection);
+            }
+            if (statement.getQueryTimeout() != queryTimeout) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+        }
+    }
+
+    private final int maxSize;
+    private final Map<StatementKey, CachedStatement> idleStatements;
+    private final Map<PreparedStatement, CachedStatement> activeStatements = new IdentityHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public JDBCStatementCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+        this.idleStatements = new LinkedHashMap<StatementKey, CachedStatement>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest)
+            {
+                if (size() > JDBCStatementCache.this.maxSize) {
+                    closeStatement(eldest.getValue().statement);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * Returns cached statement or prepares a new one.
+     * Zero result set type means driver's default statement type.
+     */
+    @NotNull
+    public PreparedStatement prepareStatement(@NotNull Connection connection, @NotNull String sql, int resultSetType, int resultSetConcurrency)
+        throws SQLException
+    {
+        StatementKey key = new StatementKey(sql, resultSetType, resultSetConcurrency);
+        synchronized (this) {
+            CachedStatement cached = idleStatements.remove(key);
+            if (cached != null && !isStatementClosed(cached.statement)) {
+                hitCount.incrementAndGet();
+                activeStatements.put(cached.statement, cached);
+                return cached.statement;
+            }
+        }
+        missCount.incrementAndGet();
+        PreparedStatement statement = resultSetType == 0 ?
+            connection.prepareStatement(sql) :
+            connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        CachedStatement cached;
+        try {
+            cached = new CachedStatement(key, statement);
+        } catch (Throwable e) {
+            // Can't read initial settings - do not cache this statement
+            log.debug("Can't read statement settings", e);
+            return statement;
+        }
+        synchronized (this) {
+            activeStatements.put(statement, cached);
+        }
+        return statement;
+    }
+
+    /**
+     * Returns statement to the cache.
+     * @param failed true if the last statement execution failed. Such statement is closed.
+     * @return false if statement doesn't belong to this cache and must be closed by caller
+     */
+    public boolean releaseStatement(@NotNull PreparedStatement statement, boolean failed)
+    {
+        CachedStatement cached;
+        synchronized (this) {
+            cached = activeStatements.remove(statement);
+        }
+        if (cached == null) {
+            return false;
+        }
+        if (failed) {
+            closeStatement(statement);
+            return true;
+        }
+        try {
+            cached.resetState();
+        } catch (Throwable e) {
+            log.debug("Can't reset cached statement state", e);
+            closeStatement(statement);
+            return true;
+        }
+        synchronized (this) {
+            CachedStatement prevStatement = idleStatements.put(cached.key, cached);
+            if (prevStatement != null) {
+                // The same query was prepared twice. Keep the latest one
+                closeStatement(prevStatement.statement);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes all idle statements. Statements which are in use will be closed by their owners.
+     */
+    public void invalidate()
+    {
+        List<CachedStatement> statements;
+        synchronized (this) {
+            statements = new ArrayList<>(idleStatements.values());
+            idleStatements.clear();
+            activeStatements.clear();
+        }
+        for (CachedStatement cached : statements) {
+            closeStatement(cached.statement);
+        }
+    }
+
+    private static boolean isStatementClosed(PreparedStatement statement)
+    {
+        try {
+            return statement.isClosed();
+        } catch (Throwable e) {
+            // Old drivers may not support isClosed
+            return false;
+        }
+    }
+
+    private static void closeStatement(PreparedStatement statement)
+    {
+        try {
+            statement.close();
+        } catch (Throwable e) {
+            log.debug("Can't close cached statement", e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Statement cache (hits: " + hitCount.get() + ", misses: " + missCount.get() + ")";
+    }
+
+}
@@ -0,0 +1,700 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.bundle.ModelActivator;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Persistent snapshot of metadata read by object caches.
+ *
+ * Snapshot doesn't serialize model objects. It records values which cache read from metadata result set
+ * and later replays them to the same cache, so objects are created by their own fetch methods.
+ * Replay fails (and cache reads from database) if fetch method requests a value which wasn't recorded.
+ *
+ * Each entry keeps metadata modification marker (see {@link JDBCDataSource#readMetadataMarker}) of its owner.
+ * Entry is replayed only if marker didn't change on server. If data source doesn't support markers
+ * then entries are replayed until they become older than max snapshot age.
+ * Snapshot is saved in background shortly after new entries were recorded.
+ */
+public class JDBCMetadataSnapshot {
+
+    private static final Log log = Log.getLog(JDBCMetadataSnapshot.class);
+
+    private static final int FILE_MAGIC = 0x44425348;
+    private static final int FORMAT_VERSION = 2;
+    private static final long SAVE_DELAY = 5000;
+    private static final String SNAPSHOT_FOLDER = "metadata-snapshots";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_SHORT = 4;
+    private static final byte VALUE_BYTE = 5;
+    private static final byte VALUE_BOOLEAN = 6;
+    private static final byte VALUE_DOUBLE = 7;
+    private static final byte VALUE_FLOAT = 8;
+    private static final byte VALUE_DECIMAL = 9;
+    private static final byte VALUE_TIMESTAMP = 10;
+    private static final byte VALUE_DATE = 11;
+    private static final byte VALUE_TIME = 12;
+    private static final byte VALUE_BYTES = 13;
+    private static final byte VALUE_ERROR = 14;
+
+    // Marks value which getter failed to read
+    private static final Object ERROR_VALUE = new Object();
+
+    private static final Set<Class<?>> RECORDED_TYPES = new HashSet<Class<?>>(Arrays.asList(
+        String.class, Integer.TYPE, Long.TYPE, Short.TYPE, Byte.TYPE, Boolean.TYPE, Double.TYPE, Float.TYPE,
+        BigDecimal.class, Timestamp.class, java.sql.Date.class, Time.class, byte[].class, Object.class));
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<>();
+    static {
+        PRIMITIVE_DEFAULTS.put(Integer.TYPE, 0);
+        PRIMITIVE_DEFAULTS.put(Long.TYPE, 0L);
+        PRIMITIVE_DEFAULTS.put(Short.TYPE, (short) 0);
+        PRIMITIVE_DEFAULTS.put(Byte.TYPE, (byte) 0);
+        PRIMITIVE_DEFAULTS.put(Boolean.TYPE, false);
+        PRIMITIVE_DEFAULTS.put(Double.TYPE, 0.0);
+        PRIMITIVE_DEFAULTS.put(Float.TYPE, 0.0f);
+    }
+
+    // Marks objects which marker can't be read
+    private static final String NO_MARKER = new String();
+
+    private static class SnapshotEntry {
+        final long time;
+        @Nullable
+        final String marker;
+        final List<Map<String, Object>> rows;
+
+        SnapshotEntry(long time, @Nullable String marker, List<Map<String, Object>> rows)
+        {
+            this.time = time;
+            this.marker = marker;
+            this.rows = rows;
+        }
+    }
+
+    private final File file;
+    private final String versionStamp;
+    // Entries to persist
+    private final Map<String, SnapshotEntry> entries = new LinkedHashMap<>();
+    // Entries loaded from disk which weren't replayed yet. Each entry is replayed only once,
+    // further reads (e.g. after refresh) go to database.
+    private final Map<String, SnapshotEntry> unusedEntries = new HashMap<>();
+    // Current markers of marker owners. Read once per connection.
+    private final Map<DBSObject, String> currentMarkers = new IdentityHashMap<>();
+    private final SaveJob saveJob = new SaveJob();
+    private boolean modified;
+
+    private JDBCMetadataSnapshot(@NotNull File file, @NotNull String versionStamp)
+    {
+        this.file = file;
+        this.versionStamp = versionStamp;
+    }
+
+    /**
+     * Loads snapshot of specified data source. Returns null if snapshots are disabled.
+     */
+    @Nullable
+    public static JDBCMetadataSnapshot load(@NotNull DBPDataSource dataSource)
+    {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        if (!container.getPreferenceStore().getBoolean(ModelPreferences.META_SNAPSHOT_ENABLED)) {
+            return null;
+        }
+        String fileName = container.getRegistry().getProject().getName() + "-" + container.getId();
+        File folder = new File(ModelActivator.getInstance().getStateLocation().toFile(), SNAPSHOT_FOLDER);
+        File file = new File(folder, CommonUtils.escapeFileName(fileName) + ".bin");
+        String versionStamp = container.getDriver().getId() + ":" +
+            CommonUtils.notEmpty(dataSource.getInfo().getDatabaseProductName()) + ":" +
+            CommonUtils.notEmpty(dataSource.getInfo().getDatabaseProductVersion());
+        long maxAge = container.getPreferenceStore().getInt(ModelPreferences.META_SNAPSHOT_MAX_AGE) * 60L * 60L * 1000L;
+
+        JDBCMetadataSnapshot snapshot = new JDBCMetadataSnapshot(file, versionStamp);
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                snapshot.readEntries(in, maxAge);
+            } catch (IOException e) {
+                log.debug("Can't read metadata snapshot '" + file.getAbsolutePath() + "': " + e.getMessage());
+                snapshot.entries.clear();
+                snapshot.unusedEntries.clear();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Makes snapshot key from cache class, owner path and optional suffix
+     */
+    @NotNull
+    public static String makeKey(@NotNull Object cache, @NotNull DBSObject owner, @Nullable String suffix)
+    {
+        List<String> path = new ArrayList<>();
+        for (DBSObject object = owner; object != null && !(object instanceof DBPDataSource); object = object.getParentObject()) {
+            path.add(object.getName());
+        }
+        StringBuilder key = new StringBuilder(cache.getClass().getName());
+        for (int i = path.size() - 1; i >= 0; i--) {
+            key.append('/').append(path.get(i));
+        }
+        if (suffix != null) {
+            key.append(':').append(suffix);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns result set which replays recorded values or null if there is no such recording
+     * or owner metadata was modified since recording.
+     * Must be called before metadata query execution: it also reads owner marker for further recording.
+     */
+    @Nullable
+    public JDBCResultSet openResultSet(@NotNull JDBCSession session, @NotNull String key, @NotNull DBSObject owner)
+    {
+        boolean markerSupported = false;
+        String marker = null;
+        if (session.getDataSource() instanceof JDBCDataSource) {
+            JDBCDataSource dataSource = (JDBCDataSource) session.getDataSource();
+            DBSObject markerOwner = dataSource.getMetadataMarkerOwner(owner);
+            if (markerOwner != null) {
+                markerSupported = true;
+                marker = getCurrentMarker(session, dataSource, markerOwner);
+            }
+        }
+        SnapshotEntry entry;
+        synchronized (this) {
+            entry = unusedEntries.remove(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (markerSupported && (marker == null || !marker.equals(entry.marker))) {
+            // Metadata was changed (or we can't check it)
+            removeEntry(key);
+            return null;
+        }
+        return (JDBCResultSet) Proxy.newProxyInstance(
+            JDBCResultSet.class.getClassLoader(),
+            new Class[] { JDBCResultSet.class },
+            new ReplayHandler(session, key, entry.rows));
+    }
+
+    /**
+     * Wraps result set to record values read from it.
+     * Recording is saved when result set was read till the end and closed.
+     */
+    @NotNull
+    public JDBCResultSet recordResultSet(@NotNull JDBCSession session, @NotNull String key, @NotNull DBSObject owner, @NotNull JDBCResultSet resultSet)
+    {
+        String marker = null;
+        if (session.getDataSource() instanceof JDBCDataSource) {
+            JDBCDataSource dataSource = (JDBCDataSource) session.getDataSource();
+            DBSObject markerOwner = dataSource.getMetadataMarkerOwner(owner);
+            if (markerOwner != null) {
+                marker = getCurrentMarker(session, dataSource, markerOwner);
+            }
+        }
+        return (JDBCResultSet) Proxy.newProxyInstance(
+            JDBCResultSet.class.getClassLoader(),
+            new Class[] { JDBCResultSet.class },
+            new RecordHandler(key, marker, resultSet));
+    }
+
+    @Nullable
+    private String getCurrentMarker(JDBCSession session, JDBCDataSource dataSource, DBSObject markerOwner)
+    {
+        synchronized (currentMarkers) {
+            String marker = currentMarkers.get(markerOwner);
+            if (marker != null) {
+                return marker == NO_MARKER ? null : marker;
+            }
+            try {
+                marker = dataSource.readMetadataMarker(session, markerOwner);
+            } catch (Exception e) {
+                log.debug("Can't read metadata marker of '" + markerOwner.getName() + "': " + e.getMessage());
+            }
+            currentMarkers.put(markerOwner, marker == null ? NO_MARKER : marker);
+            return marker;
+        }
+    }
+
+    /**
+     * Checks whether replay result set requested values which are not in snapshot.
+     * In this case snapshot entry is removed and caller must read data from database.
+     */
+    public boolean isReplayFailed(@NotNull JDBCResultSet resultSet)
+    {
+        if (Proxy.isProxyClass(resultSet.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(resultSet);
+            if (handler instanceof ReplayHandler && ((ReplayHandler) handler).failed) {
+                removeEntry(((ReplayHandler) handler).key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void removeEntry(@NotNull String key)
+    {
+        unusedEntries.remove(key);
+        if (entries.remove(key) != null) {
+            modified = true;
+        }
+    }
+
+    private synchronized void putEntry(String key, @Nullable String marker, List<Map<String, Object>> rows)
+    {
+        unusedEntries.remove(key);
+        entries.put(key, new SnapshotEntry(System.currentTimeMillis(), marker, rows));
+        modified = true;
+        // Do not wait for disconnect - application may be killed
+        saveJob.schedule(SAVE_DELAY);
+    }
+
+    /**
+     * Writes snapshot on disk (if it was changed)
+     */
+    public synchronized void save()
+    {
+        if (!modified) {
+            return;
+        }
+        File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+            log.debug("Can't create metadata snapshot folder '" + folder.getAbsolutePath() + "'");
+            return;
+        }
+        File tmpFile = new File(folder, file.getName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 64 * 1024))) {
+                writeEntries(out);
+            }
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Can't delete old snapshot");
+            }
+            if (!tmpFile.renameTo(file)) {
+                throw new IOException("Can't rename temporary snapshot file");
+            }
+            modified = false;
+        } catch (IOException e) {
+            log.debug("Can't save metadata snapshot '" + file.getAbsolutePath() + "': " + e.getMessage());
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                log.debug("Can't delete temporary snapshot file");
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////
+    // Serialization
+
+    private void writeEntries(DataOutput out) throws IOException
+    {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, versionStamp);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, SnapshotEntry> entry : entries.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeLong(entry.getValue().time);
+            String marker = entry.getValue().marker;
+            out.writeBoolean(marker != null);
+            if (marker != null) {
+                writeString(out, marker);
+            }
+            // Column keys dictionary
+            List<Map<String, Object>> rows = entry.getValue().rows;
+            Map<String, Integer> columnKeys = new LinkedHashMap<>();
+            for (Map<String, Object> row : rows) {
+                for (String columnKey : row.keySet()) {
+                    if (!columnKeys.containsKey(columnKey)) {
+                        columnKeys.put(columnKey, columnKeys.size());
+                    }
+                }
+            }
+            out.writeInt(columnKeys.size());
+            for (String columnKey : columnKeys.keySet()) {
+                writeString(out, columnKey);
+            }
+            out.writeInt(rows.size());
+            for (Map<String, Object> row : rows) {
+                out.writeInt(row.size());
+                for (Map.Entry<String, Object> value : row.entrySet()) {
+                    out.writeInt(columnKeys.get(value.getKey()));
+                    writeValue(out, value.getValue());
+                }
+            }
+        }
+    }
+
+    private void readEntries(DataInput in, long maxAge) throws IOException
+    {
+        if (in.readInt() != FILE_MAGIC || in.readInt() != FORMAT_VERSION) {
+            log.debug("Metadata snapshot format is not supported");
+            return;
+        }
+        if (!versionStamp.equals(readString(in))) {
+            log.debug("Metadata snapshot was made for another database version");
+            return;
+        }
+        long minTime = System.currentTimeMillis() - maxAge;
+        int entryCount = in.readInt();
+        for (int i = 0; i < entryCount; i++) {
+            String key = readString(in);
+            long time = in.readLong();
+            String marker = in.readBoolean() ? readString(in) : null;
+            int keyCount = in.readInt();
+            String[] columnKeys = new String[keyCount];
+            for (int k = 0; k < keyCount; k++) {
+                columnKeys[k] = readString(in);
+            }
+            int rowCount = in.readInt();
+            List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                int valueCount = in.readInt();
+                Map<String, Object> row = new HashMap<>(valueCount * 2);
+                for (int v = 0; v < valueCount; v++) {
+                    int keyIndex = in.readInt();
+                    if (keyIndex < 0 || keyIndex >= keyCount) {
+                        throw new IOException("Bad column key index: " + keyIndex);
+                    }
+                    row.put(columnKeys[keyIndex], readValue(in));
+                }
+                rows.add(row);
+            }
+            if (time >= minTime) {
+                SnapshotEntry entry = new SnapshotEntry(time, marker, rows);
+                entries.put(key, entry);
+                unusedEntries.put(key, entry);
+            } else {
+                // Stale entry will be dropped on save
+                modified = true;
+            }
+        }
+    }
+
+    private static void writeValue(DataOutput out, Object value) throws IOException
+    {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value == ERROR_VALUE) {
+            out.writeByte(VALUE_ERROR);
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(VALUE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(VALUE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(VALUE_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(VALUE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(VALUE_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(VALUE_TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(VALUE_BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else {
+            throw new IOException("Unsupported value type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInput in) throws IOException
+    {
+        byte type = in.readByte();
+        switch (type) {
+            case VALUE_NULL: return null;
+            case VALUE_ERROR: return ERROR_VALUE;
+            case VALUE_STRING: return readString(in);
+            case VALUE_INT: return in.readInt();
+            case VALUE_LONG: return in.readLong();
+            case VALUE_SHORT: return in.readShort();
+            case VALUE_BYTE: return in.readByte();
+            case VALUE_BOOLEAN: return in.readBoolean();
+            case VALUE_DOUBLE: return in.readDouble();
+            case VALUE_FLOAT: return in.readFloat();
+            case VALUE_DECIMAL: return new BigDecimal(readString(in));
+            case VALUE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            }
+            case VALUE_DATE: return new java.sql.Date(in.readLong());
+            case VALUE_TIME: return new Time(in.readLong());
+            case VALUE_BYTES: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            }
+            default:
+                throw new IOException("Bad value type: " + type);
+        }
+    }
+
+    private static boolean isSupportedValue(Object value)
+    {
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long ||
+            value instanceof Short || value instanceof Byte || value instanceof Boolean || value instanceof Double ||
+            value instanceof Float || value instanceof BigDecimal || value instanceof Timestamp ||
+            value instanceof java.sql.Date || value instanceof Time || value instanceof byte[];
+    }
+
+    private static void writeString(DataOutput out, String str) throws IOException
+    {
+        byte[] bytes = str.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Bad string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Returns value key for getter call or null if it is not a value getter
+     */
+    @Nullable
+    private static String getValueKey(Method method, Object[] args)
+    {
+        if (!method.getName().startsWith("get") || args == null || args.length != 1 || !RECORDED_TYPES.contains(method.getReturnType())) {
+            return null;
+        }
+        if (args[0] instanceof String) {
+            return method.getName() + "#" + ((String) args[0]).toUpperCase(Locale.ENGLISH);
+        } else if (args[0] instanceof Integer) {
+            return method.getName() + "#" + args[0];
+        }
+        return null;
+    }
+
+    ////////////////////////////////////////////////////
+    // Result set handlers
+
+    private class RecordHandler implements InvocationHandler {
+        private final String key;
+        private final String marker;
+        private final JDBCResultSet resultSet;
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private Map<String, Object> currentRow;
+        private boolean finished;
+        private boolean unsupported;
+
+        RecordHandler(String key, String marker, JDBCResultSet resultSet)
+        {
+            this.key = key;
+            this.marker = marker;
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName()) {
+                case "next": {
+                    boolean hasRow = (Boolean) invokeOriginal(method, args);
+                    if (hasRow) {
+                        currentRow = new HashMap<>();
+                        rows.add(currentRow);
+                    } else {
+                        finished = true;
+                    }
+                    return hasRow;
+                }
+                case "close":
+                    invokeOriginal(method, args);
+                    if (finished && !unsupported) {
+                        putEntry(key, marker, rows);
+                    }
+                    return null;
+                case "wasNull":
+                case "getSession":
+                case "getSourceStatement":
+                case "toString":
+                case "hashCode":
+                case "equals":
+                    return invokeOriginal(method, args);
+            }
+            String valueKey = getValueKey(method, args);
+            if (valueKey == null || currentRow == null) {
+                // Can't replay this call
+                unsupported = true;
+                return invokeOriginal(method, args);
+            }
+            Object value;
+            try {
+                value = invokeOriginal(method, args);
+            } catch (SQLException e) {
+                currentRow.put(valueKey, ERROR_VALUE);
+                throw e;
+            }
+            if (!isSupportedValue(value)) {
+                unsupported = true;
+            } else {
+                currentRow.put(valueKey, value == null || resultSet.wasNull() ? null : value);
+            }
+            return value;
+        }
+
+        private Object invokeOriginal(Method method, Object[] args) throws Throwable
+        {
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private static class ReplayHandler implements InvocationHandler {
+        private final JDBCSession session;
+        private final String key;
+        private final List<Map<String, Object>> rows;
+        private int rowIndex = -1;
+        private boolean lastValueNull;
+        private volatile boolean failed;
+
+        ReplayHandler(JDBCSession session, String key, List<Map<String, Object>> rows)
+        {
+            this.session = session;
+            this.key = key;
+            this.rows = rows;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName()) {
+                case "next":
+                    if (failed) {
+                        return false;
+                    }
+                    rowIndex++;
+                    return rowIndex < rows.size();
+                case "close":
+                    return null;
+                case "wasNull":
+                    return lastValueNull;
+                case "getSession":
+                    return session;
+                case "toString":
+                    return "Metadata snapshot of " + key;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+            }
+            String valueKey = getValueKey(method, args);
+            if (valueKey == null || rowIndex < 0 || rowIndex >= rows.size()) {
+                failed = true;
+                throw new SQLFeatureNotSupportedException("Method " + method.getName() + " is not supported by metadata snapshot");
+            }
+            Map<String, Object> row = rows.get(rowIndex);
+            if (!row.containsKey(valueKey)) {
+                failed = true;
+                throw new SQLException("Value " + valueKey + " is not in metadata snapshot");
+            }
+            Object value = row.get(valueKey);
+            if (value == ERROR_VALUE) {
+                throw new SQLException("Value " + valueKey + " wasn't read from database");
+            }
+            lastValueNull = value == null;
+            if (value == null && method.getReturnType().isPrimitive()) {
+                return PRIMITIVE_DEFAULTS.get(method.getReturnType());
+            }
+            return value;
+        }
+    }
+
+    private class SaveJob extends AbstractJob {
+        SaveJob()
+        {
+            super("Save metadata snapshot");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            save();
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -28,11 +28,14 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractObjectCache;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Various objects cache.
@@ -46,6 +49,9 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
 
     // Maximum number of objects in cache
     private int maximumCacheSize = DEFAULT_MAX_CACHE_SIZE;
+    // Load in progress. Other threads wait for it instead of reading the same objects again
+    private final Object loadLock = new Object();
+    private CacheLoader activeLoader;
 
     protected JDBCObjectCache() {
     }
@@ -89,40 +95,78 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
             return;
         }
 
+        CacheLoader ownLoader;
+        for (;;) {
+            CacheLoader loader;
+            synchronized (loadLock) {
+                if (isCached()) {
+                    return;
+                }
+                loader = activeLoader;
+                if (loader == null) {
+                    ownLoader = activeLoader = new CacheLoader();
+                    break;
+                }
+            }
+            if (loader.thread == Thread.currentThread()) {
+                // Nested load from the same thread - read objects as usual
+                readObjects(monitor, owner);
+                return;
+            }
+            // If other thread failed or was canceled then cache is still empty and we'll load it ourselves
+            loader.await(monitor);
+        }
+
+        try {
+            readObjects(monitor, owner);
+        } finally {
+            synchronized (loadLock) {
+                activeLoader = null;
+            }
+            ownLoader.finish();
+        }
+    }
+
+    private void readObjects(DBRProgressMonitor monitor, OWNER owner)
+        throws DBException
+    {
         List<OBJECT> tmpObjectList = new ArrayList<>();
 
         DBPDataSource dataSource = owner.getDataSource();
         if (dataSource == null) {
             throw new DBException("Not connected to database");
         }
+        JDBCMetadataSnapshot snapshot = dataSource instanceof JDBCDataSource ? ((JDBCDataSource) dataSource).getMetadataSnapshot() : null;
+        String snapshotKey = snapshot == null ? null : JDBCMetadataSnapshot.makeKey(this, owner, null);
         try {
             try (JDBCSession session = DBUtils.openMetaSession(monitor, dataSource, "Load objects from " + owner.getName())) {
-                try (JDBCStatement dbStat = prepareObjectsStatement(session, owner)) {
-                    monitor.subTask("Execute query");
-                    dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
-                    dbStat.executeStatement();
-                    JDBCResultSet dbResult = dbStat.getResultSet();
-                    if (dbResult != null) {
-                        try {
-                            while (dbResult.next()) {
-                                if (monitor.isCanceled()) {
-                                    break;
-                                }
-
-                                OBJECT object = fetchObject(session, owner, dbResult);
-                                if (object == null) {
-                                    continue;
-                                }
-                                tmpObjectList.add(object);
-
-                                monitor.subTask(object.getName());
-                                if (tmpObjectList.size() == maximumCacheSize) {
-                                    log.warn("Maximum cache size exceeded (" + maximumCacheSize + ") in " + this);
-                                    break;
-                                }
+                JDBCResultSet snapshotResult = snapshot == null ? null : snapshot.openResultSet(session, snapshotKey, owner);
+                if (snapshotResult != null) {
+                    try {
+                        fetchObjects(monitor, session, owner, snapshotResult, tmpObjectList);
+                    } catch (Exception e) {
+                        log.debug("Error reading objects from metadata snapshot", e);
+                    }
+                    if (snapshot.isReplayFailed(snapshotResult)) {
+                        tmpObjectList.clear();
+                        snapshotResult = null;
+                    }
+                }
+                if (snapshotResult == null) {
+                    try (JDBCStatement dbStat = prepareObjectsStatement(session, owner)) {
+                        monitor.subTask("Execute query");
+                        dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+                        dbStat.executeStatement();
+                        JDBCResultSet dbResult = dbStat.getResultSet();
+                        if (dbResult != null) {
+                            if (snapshot != null) {
+                                dbResult = snapshot.recordResultSet(session, snapshotKey, owner, dbResult);
+                            }
+                            try {
+                                fetchObjects(monitor, session, owner, dbResult, tmpObjectList);
+                            } finally {
+                                dbResult.close();
                             }
-                        } finally {
-                            dbResult.close();
                         }
                     }
                 }
@@ -147,10 +191,56 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
         }
     }
 
+    private void fetchObjects(DBRProgressMonitor monitor, JDBCSession session, OWNER owner, JDBCResultSet dbResult, List<OBJECT> objectList)
+        throws SQLException, DBException
+    {
+        while (dbResult.next()) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+
+            OBJECT object = fetchObject(session, owner, dbResult);
+            if (object == null) {
+                continue;
+            }
+            objectList.add(object);
+
+            monitor.subTask(object.getName());
+            if (objectList.size() == maximumCacheSize) {
+                log.warn("Maximum cache size exceeded (" + maximumCacheSize + ") in " + this);
+                break;
+            }
+        }
+    }
+
     // Can be implemented to provide custom cache error handler
     protected boolean handleCacheReadError(DBException error) {
         return false;
     }
 
+    private static class CacheLoader {
+        private final Thread thread = Thread.currentThread();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        void finish()
+        {
+            finished.countDown();
+        }
+
+        void await(DBRProgressMonitor monitor)
+            throws DBException
+        {
+            try {
+                while (!finished.await(100, TimeUnit.MILLISECONDS)) {
+                    if (monitor.isCanceled()) {
+                        throw new DBException("Objects load canceled");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DBException("Objects load interrupted", e);
+            }
+        }
+    }
 
 }
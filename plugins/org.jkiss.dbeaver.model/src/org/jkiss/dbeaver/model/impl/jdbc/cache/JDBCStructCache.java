@@ -30,6 +30,7 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.DBSObjectCache;
 import org.jkiss.dbeaver.model.impl.DBSStructCache;
 import org.jkiss.dbeaver.model.impl.SimpleObjectCache;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
@@ -83,90 +84,118 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
         if (dataSource == null) {
             throw new DBException("Not connected to database");
         }
+        JDBCMetadataSnapshot snapshot = dataSource instanceof JDBCDataSource ? ((JDBCDataSource) dataSource).getMetadataSnapshot() : null;
+        String snapshotKey = snapshot == null ? null :
+            JDBCMetadataSnapshot.makeKey(this, owner, "children:" + (forObject == null ? "*" : forObject.getName()));
         try (JDBCSession session = DBUtils.openMetaSession(monitor, dataSource, "Load child objects")) {
             Map<OBJECT, List<CHILD>> objectMap = new HashMap<>();
 
-            // Load columns
-            try (JDBCStatement dbStat = prepareChildrenStatement(session, owner, forObject)) {
-                dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
-                dbStat.executeStatement();
-                JDBCResultSet dbResult = dbStat.getResultSet();
-                if (dbResult != null) {
-                    try {
-                        while (dbResult.next()) {
-                            if (monitor.isCanceled()) {
-                                break;
-                            }
-                            String objectName;
-                            if (objectNameColumn instanceof Number) {
-                                objectName = JDBCUtils.safeGetString(dbResult, ((Number) objectNameColumn).intValue());
-                            } else {
-                                objectName = JDBCUtils.safeGetStringTrimmed(dbResult, objectNameColumn.toString());
-                            }
-                            if (objectName == null) {
-                                log.debug("NULL object name in " + this);
-                                continue;
-                            }
-                            OBJECT object = forObject;
-                            if (object == null) {
-                                object = super.getCachedObject(objectName);
-                                if (object == null) {
-                                    log.debug("Object '" + objectName + "' not found");
-                                    continue;
-                                }
-                            }
-                            if (isChildrenCached(object)) {
-                                // Already read
-                                continue;
-                            }
-                            CHILD child = fetchChild(session, owner, object, dbResult);
-                            if (child == null) {
-                                continue;
-                            }
-
-                            // Add to map
-                            List<CHILD> children = objectMap.get(object);
-                            if (children == null) {
-                                children = new ArrayList<>();
-                                objectMap.put(object, children);
-                            }
-                            children.add(child);
+            boolean fetched = false;
+            JDBCResultSet snapshotResult = snapshot == null ? null : snapshot.openResultSet(session, snapshotKey, owner);
+            if (snapshotResult != null) {
+                try {
+                    fetchChildren(monitor, session, owner, forObject, snapshotResult, objectMap);
+                } catch (Exception e) {
+                    log.debug("Error reading child objects from metadata snapshot", e);
+                }
+                if (snapshot.isReplayFailed(snapshotResult)) {
+                    objectMap.clear();
+                } else {
+                    fetched = true;
+                }
+            }
+            if (!fetched) {
+                // Load columns
+                try (JDBCStatement dbStat = prepareChildrenStatement(session, owner, forObject)) {
+                    dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+                    dbStat.executeStatement();
+                    JDBCResultSet dbResult = dbStat.getResultSet();
+                    if (dbResult != null) {
+                        if (snapshot != null) {
+                            dbResult = snapshot.recordResultSet(session, snapshotKey, owner, dbResult);
                         }
-
-                        if (monitor.isCanceled()) {
-                            return;
+                        try {
+                            fetchChildren(monitor, session, owner, forObject, dbResult, objectMap);
+                            fetched = true;
+                        } finally {
+                            dbResult.close();
                         }
+                    }
+                }
+            }
+            if (!fetched || monitor.isCanceled()) {
+                return;
+            }
 
-                        // All children are read. Now assign them to parents
-                        for (Map.Entry<OBJECT, List<CHILD>> colEntry : objectMap.entrySet()) {
-                            cacheChildren(colEntry.getKey(), colEntry.getValue());
-                        }
-                        if (forObject == null) {
-                            if (objectMap.isEmpty()) {
-                                // Nothing was read. May be it means empty list of children
-                                // but possibly this feature is not supported [JDBC: SQLite]
-                            } else {
-                                // Now set empty column list for other tables
-                                for (OBJECT tmpObject : getAllObjects(monitor, owner)) {
-                                    if (!isChildrenCached(tmpObject) && !objectMap.containsKey(tmpObject)) {
-                                        cacheChildren(tmpObject, new ArrayList<CHILD>());
-                                    }
-                                }
-                                this.childrenCached = true;
-                            }
-                        } else if (!objectMap.containsKey(forObject)) {
-                            cacheChildren(forObject, new ArrayList<CHILD>());
+            // All children are read. Now assign them to parents
+            for (Map.Entry<OBJECT, List<CHILD>> colEntry : objectMap.entrySet()) {
+                cacheChildren(colEntry.getKey(), colEntry.getValue());
+            }
+            if (forObject == null) {
+                if (objectMap.isEmpty()) {
+                    // Nothing was read. May be it means empty list of children
+                    // but possibly this feature is not supported [JDBC: SQLite]
+                } else {
+                    // Now set empty column list for other tables
+                    for (OBJECT tmpObject : getAllObjects(monitor, owner)) {
+                        if (!isChildrenCached(tmpObject) && !objectMap.containsKey(tmpObject)) {
+                            cacheChildren(tmpObject, new ArrayList<CHILD>());
                         }
-                    } finally {
-                        dbResult.close();
                     }
+                    this.childrenCached = true;
                 }
+            } else if (!objectMap.containsKey(forObject)) {
+                cacheChildren(forObject, new ArrayList<CHILD>());
             }
         } catch (SQLException ex) {
             throw new DBException(ex, dataSource);
         }
     }
 
+    private void fetchChildren(DBRProgressMonitor monitor, JDBCSession session, OWNER owner, @Nullable OBJECT forObject, JDBCResultSet dbResult, Map<OBJECT, List<CHILD>> objectMap)
+        throws SQLException, DBException
+    {
+        while (dbResult.next()) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            String objectName;
+            if (objectNameColumn instanceof Number) {
+                objectName = JDBCUtils.safeGetString(dbResult, ((Number) objectNameColumn).intValue());
+            } else {
+                objectName = JDBCUtils.safeGetStringTrimmed(dbResult, objectNameColumn.toString());
+            }
+            if (objectName == null) {
+                log.debug("NULL object name in " + this);
+                continue;
+            }
+            OBJECT object = forObject;
+            if (object == null) {
+                object = super.getCachedObject(objectName);
+                if (object == null) {
+                    log.debug("Object '" + objectName + "' not found");
+                    continue;
+                }
+            }
+            if (isChildrenCached(object)) {
+                // Already read
+                continue;
+            }
+            CHILD child = fetchChild(session, owner, object, dbResult);
+            if (child == null) {
+                continue;
+            }
+
+            // Add to map
+            List<CHILD> children = objectMap.get(object);
+            if (children == null) {
+                children = new ArrayList<>();
+                objectMap.put(object, children);
+            }
+            children.add(child);
+        }
+    }
+
     @Override
     public void removeObject(@NotNull OBJECT object)
     {
@@ -22,6 +22,7 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPApplication;
 import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.data.DBDContentStorage;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.exec.DBCException;
@@ -82,13 +83,14 @@ public class JDBCContentBLOB extends JDBCContentLOB {
         if (storage == null && blob != null) {
             long contentLength = getContentLength();
             DBPApplication application = dataSource.getContainer().getApplication();
-            if (contentLength < application.getPreferenceStore().getInt(ModelPreferences.MEMORY_CONTENT_MAX_SIZE)) {
+            DBPPreferenceStore preferenceStore = application.getPreferenceStore();
+            if (contentLength < preferenceStore.getInt(ModelPreferences.MEMORY_CONTENT_MAX_SIZE)) {
                 try {
                     try (InputStream bs = blob.getBinaryStream()) {
                         storage = BytesContentStorage.createFromStream(
                             bs,
                             contentLength,
-                            application.getPreferenceStore().getString(ModelPreferences.CONTENT_HEX_ENCODING));
+                            preferenceStore.getString(ModelPreferences.CONTENT_HEX_ENCODING));
                     }
                 }
                 catch (SQLException e) {
@@ -96,6 +98,15 @@ public class JDBCContentBLOB extends JDBCContentLOB {
                 } catch (IOException e) {
                     throw new DBCException("IO error while reading content", e);
                 }
+            } else if (preferenceStore.getBoolean(ModelPreferences.CONTENT_LOB_LAZY_READ)) {
+                // Read content from blob on demand. Storage takes ownership of blob.
+                storage = JDBCLazyContentStorage.createForBlob(
+                    application,
+                    blob,
+                    contentLength,
+                    preferenceStore.getString(ModelPreferences.CONTENT_HEX_ENCODING));
+                blob = null;
+                return storage;
             } else {
                 // Create new local storage
                 File tempFile;
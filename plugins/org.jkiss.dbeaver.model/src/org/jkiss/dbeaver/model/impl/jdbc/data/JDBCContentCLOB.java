@@ -22,6 +22,7 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPApplication;
 import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.data.DBDContent;
 import org.jkiss.dbeaver.model.data.DBDContentCached;
 import org.jkiss.dbeaver.model.data.DBDContentStorage;
@@ -85,7 +86,8 @@ public class JDBCContentCLOB extends JDBCContentLOB implements DBDContent {
         if (storage == null && clob != null) {
             long contentLength = getContentLength();
             DBPApplication application = dataSource.getContainer().getApplication();
-            if (contentLength < application.getPreferenceStore().getInt(ModelPreferences.MEMORY_CONTENT_MAX_SIZE)) {
+            DBPPreferenceStore preferenceStore = application.getPreferenceStore();
+            if (contentLength < preferenceStore.getInt(ModelPreferences.MEMORY_CONTENT_MAX_SIZE)) {
                 try {
                     storage = StringContentStorage.createFromReader(clob.getCharacterStream(), contentLength);
                 }
@@ -94,6 +96,11 @@ public class JDBCContentCLOB extends JDBCContentLOB implements DBDContent {
                 } catch (SQLException e) {
                     throw new DBCException(e, dataSource);
                 }
+            } else if (preferenceStore.getBoolean(ModelPreferences.CONTENT_LOB_LAZY_READ)) {
+                // Read content from clob on demand. Storage takes ownership of clob.
+                storage = JDBCLazyContentStorage.createForClob(application, clob, contentLength);
+                clob = null;
+                return storage;
             } else {
                 // Create new local storage
                 File tempFile;
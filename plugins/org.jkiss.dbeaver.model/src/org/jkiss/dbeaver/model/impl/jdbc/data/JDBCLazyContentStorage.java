@@ -0,0 +1,458 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPApplication;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.impl.TemporaryContentStorage;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+
+import java.io.*;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LOB content storage which reads content directly from LOB locator.
+ * Content is read by pages on demand, a few recently used pages are cached.
+ * Storage owns LOB - it is freed on release.
+ */
+public abstract class JDBCLazyContentStorage<PAGE> implements DBDContentStorage {
+
+    private static final Log log = Log.getLog(JDBCLazyContentStorage.class);
+
+    public static final int PAGE_SIZE = 64 * 1024;
+    private static final int MAX_CACHED_PAGES = 16;
+
+    protected final DBPApplication application;
+    protected final long length;
+    private final Map<Long, PAGE> pageCache = new LinkedHashMap<Long, PAGE>(MAX_CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PAGE> eldest)
+        {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private boolean released;
+
+    protected JDBCLazyContentStorage(@NotNull DBPApplication application, long length)
+    {
+        this.application = application;
+        this.length = length;
+    }
+
+    public static JDBCLazyContentStorage<byte[]> createForBlob(@NotNull DBPApplication application, @NotNull Blob blob, long length, String encoding)
+    {
+        return new BlobStorage(application, blob, length, encoding);
+    }
+
+    public static JDBCLazyContentStorage<char[]> createForClob(@NotNull DBPApplication application, @NotNull Clob clob, long length)
+    {
+        return new ClobStorage(application, clob, length);
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return length;
+    }
+
+    @Override
+    public synchronized void release()
+    {
+        if (!released) {
+            released = true;
+            pageCache.clear();
+            try {
+                freeLOB();
+            } catch (Throwable e) {
+                log.debug(e);
+            }
+        }
+    }
+
+    /**
+     * Returns page which contains specified offset (zero-based)
+     */
+    protected synchronized PAGE getPage(long offset)
+        throws IOException
+    {
+        if (released) {
+            throw new IOException("LOB content was released");
+        }
+        Long pageOffset = offset - offset % PAGE_SIZE;
+        PAGE page = pageCache.get(pageOffset);
+        if (page == null) {
+            int pageLength = (int) Math.min(PAGE_SIZE, length - pageOffset);
+            try {
+                page = readPage(pageOffset, pageLength);
+            } catch (SQLException e) {
+                throw new IOException("Error reading LOB content at offset " + pageOffset, e);
+            }
+            pageCache.put(pageOffset, page);
+        }
+        return page;
+    }
+
+    protected abstract PAGE readPage(long offset, int pageLength) throws SQLException, IOException;
+
+    protected abstract void freeLOB() throws SQLException;
+
+    /**
+     * Makes detached copy of content. Lazy storage can't be shared because LOB is freed with storage.
+     */
+    protected DBDContentStorage copyToFile(DBRProgressMonitor monitor, String prefix)
+        throws IOException
+    {
+        File tempFile = ContentUtils.createTempContentFile(monitor, application, prefix + this.hashCode());
+        try {
+            try (InputStream is = getContentStream()) {
+                try (OutputStream os = new FileOutputStream(tempFile)) {
+                    ContentUtils.copyStreams(is, length, os, monitor);
+                }
+            }
+        } catch (IOException e) {
+            ContentUtils.deleteTempFile(tempFile);
+            throw e;
+        }
+        return new TemporaryContentStorage(application, tempFile);
+    }
+
+    private static class BlobStorage extends JDBCLazyContentStorage<byte[]> {
+
+        private final Blob blob;
+        private final String encoding;
+
+        BlobStorage(DBPApplication application, Blob blob, long length, String encoding)
+        {
+            super(application, length);
+            this.blob = blob;
+            this.encoding = encoding;
+        }
+
+        @Override
+        protected byte[] readPage(long offset, int pageLength) throws SQLException, IOException
+        {
+            // LOB positions are 1-based
+            byte[] page = blob.getBytes(offset + 1, pageLength);
+            if (page == null || page.length == 0) {
+                throw new IOException("Can't read " + pageLength + " bytes at offset " + offset);
+            }
+            return page;
+        }
+
+        @Override
+        protected void freeLOB() throws SQLException
+        {
+            blob.free();
+        }
+
+        @Override
+        public InputStream getContentStream()
+        {
+            return new PagedInputStream();
+        }
+
+        @Override
+        public Reader getContentReader()
+            throws IOException
+        {
+            return new InputStreamReader(getContentStream(), encoding);
+        }
+
+        @Override
+        public String getCharset()
+        {
+            return GeneralUtils.getDefaultFileEncoding();
+        }
+
+        @Override
+        public DBDContentStorage cloneStorage(DBRProgressMonitor monitor)
+            throws IOException
+        {
+            return copyToFile(monitor, "blob");
+        }
+
+        private class PagedInputStream extends InputStream {
+            private long position;
+            private long mark;
+
+            @Override
+            public int read() throws IOException
+            {
+                if (position >= length) {
+                    return -1;
+                }
+                byte[] page = getPage(position);
+                int pagePos = (int) (position % PAGE_SIZE);
+                if (pagePos >= page.length) {
+                    position = length;
+                    return -1;
+                }
+                position++;
+                return page[pagePos] & 0xff;
+            }
+
+            @Override
+            public int read(@NotNull byte[] b, int off, int len) throws IOException
+            {
+                if (len == 0) {
+                    return 0;
+                }
+                if (position >= length) {
+                    return -1;
+                }
+                byte[] page = getPage(position);
+                int pagePos = (int) (position % PAGE_SIZE);
+                int count = Math.min(len, page.length - pagePos);
+                if (count <= 0) {
+                    // Actual LOB is shorter than declared
+                    position = length;
+                    return -1;
+                }
+                System.arraycopy(page, pagePos, b, off, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public long skip(long n)
+            {
+                long skipped = Math.max(0, Math.min(n, length - position));
+                position += skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available()
+            {
+                return (int) Math.min(Integer.MAX_VALUE, length - position);
+            }
+
+            @Override
+            public boolean markSupported()
+            {
+                return true;
+            }
+
+            @Override
+            public synchronized void mark(int readlimit)
+            {
+                mark = position;
+            }
+
+            @Override
+            public synchronized void reset()
+            {
+                position = mark;
+            }
+        }
+    }
+
+    private static class ClobStorage extends JDBCLazyContentStorage<char[]> {
+
+        private final Clob clob;
+
+        ClobStorage(DBPApplication application, Clob clob, long length)
+        {
+            super(application, length);
+            this.clob = clob;
+        }
+
+        @Override
+        protected char[] readPage(long offset, int pageLength) throws SQLException, IOException
+        {
+            // LOB positions are 1-based
+            String page = clob.getSubString(offset + 1, pageLength);
+            if (page == null || page.isEmpty()) {
+                throw new IOException("Can't read " + pageLength + " characters at offset " + offset);
+            }
+            return page.toCharArray();
+        }
+
+        @Override
+        protected void freeLOB() throws SQLException
+        {
+            clob.free();
+        }
+
+        @Override
+        public InputStream getContentStream()
+            throws IOException
+        {
+            return new ReaderInputStream(getContentReader(), getCharset());
+        }
+
+        @Override
+        public Reader getContentReader()
+        {
+            return new PagedReader();
+        }
+
+        @Override
+        public String getCharset()
+        {
+            return GeneralUtils.getDefaultFileEncoding();
+        }
+
+        @Override
+        public DBDContentStorage cloneStorage(DBRProgressMonitor monitor)
+            throws IOException
+        {
+            return copyToFile(monitor, "clob");
+        }
+
+        private class PagedReader extends Reader {
+            private long position;
+            private long mark;
+
+            @Override
+            public int read(@NotNull char[] cbuf, int off, int len) throws IOException
+            {
+                if (len == 0) {
+                    return 0;
+                }
+                if (position >= length) {
+                    return -1;
+                }
+                char[] page = getPage(position);
+                int pagePos = (int) (position % PAGE_SIZE);
+                int count = Math.min(len, page.length - pagePos);
+                if (count <= 0) {
+                    position = length;
+                    return -1;
+                }
+                System.arraycopy(page, pagePos, cbuf, off, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public long skip(long n)
+            {
+                long skipped = Math.max(0, Math.min(n, length - position));
+                position += skipped;
+                return skipped;
+            }
+
+            @Override
+            public boolean ready()
+            {
+                return position < length;
+            }
+
+            @Override
+            public boolean markSupported()
+            {
+                return true;
+            }
+
+            @Override
+            public void mark(int readAheadLimit)
+            {
+                mark = position;
+            }
+
+            @Override
+            public void reset()
+            {
+                position = mark;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        }
+    }
+
+    /**
+     * Encodes characters from reader. Encodes one reader buffer at a time.
+     */
+    private static class ReaderInputStream extends InputStream {
+        private final Reader reader;
+        private final String charset;
+        private final char[] charBuffer = new char[PAGE_SIZE / 4];
+        private byte[] bytes = new byte[0];
+        private int bytesPos;
+
+        ReaderInputStream(Reader reader, String charset)
+        {
+            this.reader = reader;
+            this.charset = charset;
+        }
+
+        private boolean fill() throws IOException
+        {
+            while (bytesPos >= bytes.length) {
+                int count = reader.read(charBuffer);
+                if (count < 0) {
+                    return false;
+                }
+                String chunk = new String(charBuffer, 0, count);
+                if (count > 0 && Character.isHighSurrogate(charBuffer[count - 1])) {
+                    // Do not split surrogate pair between buffers
+                    int next = reader.read();
+                    if (next >= 0) {
+                        chunk += (char) next;
+                    }
+                }
+                bytes = chunk.getBytes(charset);
+                bytesPos = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (!fill()) {
+                return -1;
+            }
+            return bytes[bytesPos++] & 0xff;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, bytes.length - bytesPos);
+            System.arraycopy(bytes, bytesPos, b, off, count);
+            bytesPos += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            reader.close();
+        }
+    }
+
+}
@@ -42,24 +42,26 @@ import java.sql.SQLException;
 public class JDBCNumberValueHandler extends JDBCAbstractValueHandler {
 
     private static final Log log = Log.getLog(JDBCNumberValueHandler.class);
-    private DBDDataFormatter formatter;
+    private final DBDDataFormatter formatter;
 
     public JDBCNumberValueHandler(DBDDataFormatterProfile formatterProfile)
     {
+        DBDDataFormatter numberFormatter;
         try {
-            formatter = formatterProfile.createFormatter(DBDDataFormatter.TYPE_NAME_NUMBER);
+            numberFormatter = formatterProfile.createFormatter(DBDDataFormatter.TYPE_NAME_NUMBER);
         } catch (Exception e) {
             log.error("Can't create formatter for number value handler", e); //$NON-NLS-1$
-            formatter = DefaultDataFormatter.INSTANCE;
+            numberFormatter = DefaultDataFormatter.INSTANCE;
         }
+        this.formatter = numberFormatter;
     }
 
     /**
-     * NumberFormat is not thread safe thus this method is synchronized.
+     * Formatter is thread safe so display strings may be rendered by many threads (e.g. in parallel export).
      */
     @NotNull
     @Override
-    public synchronized String getValueDisplayString(@NotNull DBSTypedObject column, @Nullable Object value, @NotNull DBDDisplayFormat format)
+    public String getValueDisplayString(@NotNull DBSTypedObject column, @Nullable Object value, @NotNull DBDDisplayFormat format)
     {
         if (value == null) {
             return DBUtils.getDefaultValueDisplayString(null, format);
@@ -47,12 +47,9 @@ public class JDBCReferenceValueHandler extends JDBCComplexValueHandler {
 
     public static final JDBCReferenceValueHandler INSTANCE = new JDBCReferenceValueHandler();
 
-    /**
-     * NumberFormat is not thread safe thus this method is synchronized.
-     */
     @NotNull
     @Override
-    public synchronized String getValueDisplayString(@NotNull DBSTypedObject column, Object value, @NotNull DBDDisplayFormat format)
+    public String getValueDisplayString(@NotNull DBSTypedObject column, Object value, @NotNull DBDDisplayFormat format)
     {
         return DBUtils.getDefaultValueDisplayString(value, format);
     }
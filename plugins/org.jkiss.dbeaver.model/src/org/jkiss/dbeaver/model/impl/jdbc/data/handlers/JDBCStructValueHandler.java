@@ -52,12 +52,9 @@ public class JDBCStructValueHandler extends JDBCComplexValueHandler implements D
 
     public static final JDBCStructValueHandler INSTANCE = new JDBCStructValueHandler();
 
-    /**
-     * NumberFormat is not thread safe thus this method is synchronized.
-     */
     @NotNull
     @Override
-    public synchronized String getValueDisplayString(@NotNull DBSTypedObject column, Object value, @NotNull DBDDisplayFormat format)
+    public String getValueDisplayString(@NotNull DBSTypedObject column, Object value, @NotNull DBDDisplayFormat format)
     {
         if (value instanceof JDBCComposite) {
             if (format == DBDDisplayFormat.UI) {
@@ -28,6 +28,7 @@ import org.jkiss.dbeaver.model.impl.AbstractSession;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCException;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCStatementCache;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRBlockingObject;
@@ -211,6 +212,10 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
     public JDBCPreparedStatement prepareStatement(String sql)
         throws SQLException
     {
+        JDBCStatementCache statementCache = context.getStatementCache();
+        if (statementCache != null) {
+            return createPreparedStatementImpl(statementCache.prepareStatement(getOriginal(), sql, 0, 0), sql);
+        }
         return createPreparedStatementImpl(getOriginal().prepareStatement(sql), sql);
     }
 
@@ -372,6 +377,10 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
     public JDBCPreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
         throws SQLException
     {
+        JDBCStatementCache statementCache = context.getStatementCache();
+        if (statementCache != null) {
+            return createPreparedStatementImpl(statementCache.prepareStatement(getOriginal(), sql, resultSetType, resultSetConcurrency), sql);
+        }
         return createPreparedStatementImpl(
             getOriginal().prepareStatement(sql, resultSetType, resultSetConcurrency),
             sql);
@@ -28,6 +28,8 @@ import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCStatementCache;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 
@@ -514,13 +516,28 @@ public class JDBCStatementImpl<STATEMENT extends Statement> implements JDBCState
 
         // Close statement
         try {
-            getOriginal().close();
+            if (!releaseCachedStatement()) {
+                getOriginal().close();
+            }
         }
         catch (Throwable e) {
             log.error("Can't close statement", e); //$NON-NLS-1$
         }
     }
 
+    /**
+     * Returns original statement to the connection statement cache (if it came from there).
+     * Statement is not reused if its last execution failed.
+     */
+    private boolean releaseCachedStatement()
+    {
+        if (original instanceof PreparedStatement && connection.getExecutionContext() instanceof JDBCExecutionContext) {
+            JDBCStatementCache statementCache = ((JDBCExecutionContext) connection.getExecutionContext()).getStatementCache();
+            return statementCache != null && statementCache.releaseStatement((PreparedStatement) original, executeError != null);
+        }
+        return false;
+    }
+
     ////////////////////////////////////
     // Other
 
@@ -301,6 +301,11 @@ public class BasicSQLDialect implements SQLDialect {
         return MultiValueInsertMode.NOT_SUPPORTED;
     }
 
+    @Override
+    public boolean supportsCopyFromStdin() {
+        return false;
+    }
+
     @Override
     public String addFiltersToQuery(DBPDataSource dataSource, String query, DBDDataFilter filter) throws DBException {
         return SQLSemanticProcessor.addFiltersToQuery(dataSource, query, filter);
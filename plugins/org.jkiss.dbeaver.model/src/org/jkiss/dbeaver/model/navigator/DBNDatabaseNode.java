@@ -209,7 +209,11 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
         // Do nothing
     }
 
-    DBNDatabaseNode[] getChildNodes()
+    /**
+     * Returns child nodes if they were already loaded. Never reads children.
+     */
+    @Nullable
+    public DBNDatabaseNode[] getChildNodes()
     {
         return childNodes;
     }
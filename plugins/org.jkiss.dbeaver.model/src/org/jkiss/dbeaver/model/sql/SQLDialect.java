@@ -48,7 +48,9 @@ public interface SQLDialect {
     enum MultiValueInsertMode {
         NOT_SUPPORTED,
         GROUP_ROWS,
-        PLAIN
+        PLAIN,
+        // INSERT ALL INTO ... VALUES (...) INTO ... VALUES (...) SELECT ...
+        INSERT_ALL
     }
 
     /**
@@ -233,6 +235,12 @@ public interface SQLDialect {
     @NotNull
     MultiValueInsertMode getMultiValueInsertMode();
 
+    /**
+     * Check whether scripts may load data with COPY ... FROM stdin statement
+     * followed by rows in text format.
+     */
+    boolean supportsCopyFromStdin();
+
     String addFiltersToQuery(DBPDataSource dataSource, String query, DBDDataFilter filter) throws DBException;
 
     /**
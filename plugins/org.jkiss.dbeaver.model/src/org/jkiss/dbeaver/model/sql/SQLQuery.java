@@ -18,7 +18,6 @@
 
 package org.jkiss.dbeaver.model.sql;
 
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Database;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
@@ -39,6 +38,7 @@ import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCAttributeMetaData;
 import org.jkiss.dbeaver.model.exec.DBCEntityMetaData;
+import org.jkiss.dbeaver.model.sql.parser.SQLSemanticProcessor;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.*;
@@ -59,13 +59,19 @@ public class SQLQuery {
     private int offset;
     private int length;
     private Object data;
-    @NotNull
+    @Nullable
     private SQLQueryType type;
+    private boolean parsed;
+    // Parsed statement is shared with parse cache and used only for analysis
     @Nullable
     private Statement statement;
+    // Statement returned to callers. May be modified by them
+    @Nullable
+    private Statement ownStatement;
     private List<SQLQueryParameter> parameters;
     private SingleTableMeta singleTableMeta;
     private List<SQLSelectItem> selectItems;
+    private boolean titleExtracted;
     private String queryTitle;
 
     public SQLQuery(@NotNull String query)
@@ -78,65 +84,185 @@ public class SQLQuery {
         this.originalQuery = this.query = query;
         this.offset = offset;
         this.length = length;
+    }
 
-        try {
-            statement = CCJSqlParserUtil.parse(query);
-            if (statement instanceof Select) {
-                type = SQLQueryType.SELECT;
-                // Detect single source table
-                SelectBody selectBody = ((Select) statement).getSelectBody();
-                if (selectBody instanceof PlainSelect) {
-                    PlainSelect plainSelect = (PlainSelect) selectBody;
-                    if (plainSelect.getFromItem() instanceof Table &&
-                        CommonUtils.isEmpty(plainSelect.getJoins()) &&
-                        CommonUtils.isEmpty(plainSelect.getGroupByColumnReferences()) &&
-                        CommonUtils.isEmpty(plainSelect.getIntoTables()))
-                    {
-                        Table fromItem = (Table) plainSelect.getFromItem();
-                        Database database = fromItem.getDatabase();
-                        String catalogName = database == null ? null : database.getDatabaseName();
-                        String schemaName = fromItem.getSchemaName();
-                        String tableName = fromItem.getName();
-                        singleTableMeta = new SingleTableMeta(
-                            unquoteIdentifier(catalogName),
-                            unquoteIdentifier(schemaName),
-                            unquoteIdentifier(tableName));
-                    }
-                    // Extract select items info
-                    final List<SelectItem> items = plainSelect.getSelectItems();
-                    if (items != null && !items.isEmpty()) {
-                        selectItems = new ArrayList<>();
-                        for (SelectItem item : items) {
-                            selectItems.add(new SQLSelectItem(item));
-                        }
+    /**
+     * Parses query text. Full parse is expensive so it is performed only when statement structure is needed.
+     */
+    private void parseQuery()
+    {
+        if (parsed) {
+            return;
+        }
+        parsed = true;
+        statement = SQLSemanticProcessor.parseQuery(originalQuery);
+        if (statement instanceof Select) {
+            // Detect single source table
+            SelectBody selectBody = ((Select) statement).getSelectBody();
+            if (selectBody instanceof PlainSelect) {
+                PlainSelect plainSelect = (PlainSelect) selectBody;
+                if (plainSelect.getFromItem() instanceof Table &&
+                    CommonUtils.isEmpty(plainSelect.getJoins()) &&
+                    CommonUtils.isEmpty(plainSelect.getGroupByColumnReferences()) &&
+                    CommonUtils.isEmpty(plainSelect.getIntoTables()))
+                {
+                    Table fromItem = (Table) plainSelect.getFromItem();
+                    Database database = fromItem.getDatabase();
+                    String catalogName = database == null ? null : database.getDatabaseName();
+                    String schemaName = fromItem.getSchemaName();
+                    String tableName = fromItem.getName();
+                    singleTableMeta = new SingleTableMeta(
+                        unquoteIdentifier(catalogName),
+                        unquoteIdentifier(schemaName),
+                        unquoteIdentifier(tableName));
+                }
+                // Extract select items info
+                final List<SelectItem> items = plainSelect.getSelectItems();
+                if (items != null && !items.isEmpty()) {
+                    selectItems = new ArrayList<>();
+                    for (SelectItem item : items) {
+                        selectItems.add(new SQLSelectItem(item));
                     }
                 }
-            } else if (statement instanceof Insert) {
-                type = SQLQueryType.INSERT;
-            } else if (statement instanceof Update) {
-                type = SQLQueryType.UPDATE;
-            } else if (statement instanceof Delete) {
-                type = SQLQueryType.DELETE;
-            } else if (statement instanceof Alter ||
-                statement instanceof CreateTable ||
-                statement instanceof CreateView ||
-                statement instanceof Drop ||
-                statement instanceof CreateIndex)
-            {
-                type = SQLQueryType.DDL;
+            }
+        }
+    }
+
+    /**
+     * Detects query type by its first keyword.
+     * Only queries which look like SELECT are parsed because select structure is used by result set viewer.
+     */
+    @NotNull
+    private SQLQueryType detectQueryType()
+    {
+        String keyword = getFirstKeyword(originalQuery);
+        if (keyword == null || keyword.equals("SELECT") || keyword.equals("WITH")) {
+            parseQuery();
+            return statement == null ? SQLQueryType.UNKNOWN : getStatementType(statement);
+        }
+        switch (keyword) {
+            case "INSERT":
+                return SQLQueryType.INSERT;
+            case "UPDATE":
+                return SQLQueryType.UPDATE;
+            case "DELETE":
+                return SQLQueryType.DELETE;
+            case "CREATE":
+            case "ALTER":
+            case "DROP":
+                return SQLQueryType.DDL;
+            default:
+                return SQLQueryType.UNKNOWN;
+        }
+    }
+
+    @NotNull
+    private static SQLQueryType getStatementType(Statement statement)
+    {
+        if (statement instanceof Select) {
+            return SQLQueryType.SELECT;
+        } else if (statement instanceof Insert) {
+            return SQLQueryType.INSERT;
+        } else if (statement instanceof Update) {
+            return SQLQueryType.UPDATE;
+        } else if (statement instanceof Delete) {
+            return SQLQueryType.DELETE;
+        } else if (statement instanceof Alter ||
+            statement instanceof CreateTable ||
+            statement instanceof CreateView ||
+            statement instanceof Drop ||
+            statement instanceof CreateIndex)
+        {
+            return SQLQueryType.DDL;
+        } else {
+            return SQLQueryType.UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns first keyword (upper case) skipping leading comments.
+     * Returns null if query starts with something else (e.g. with bracket).
+     */
+    @Nullable
+    private static String getFirstKeyword(String text)
+    {
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '-' && pos + 1 < length && text.charAt(pos + 1) == '-') {
+                int lineEnd = text.indexOf('\n', pos);
+                pos = lineEnd == -1 ? length : lineEnd + 1;
+            } else if (c == '/' && pos + 1 < length && text.charAt(pos + 1) == '*') {
+                int commentEnd = text.indexOf("*/", pos + 2);
+                pos = commentEnd == -1 ? length : commentEnd + 2;
             } else {
-                type = SQLQueryType.UNKNOWN;
+                break;
             }
-        } catch (Throwable e) {
-            this.type = SQLQueryType.UNKNOWN;
-            //log.debug("Error parsing SQL query [" + query + "]:" + CommonUtils.getRootCause(e).getMessage());
         }
-        // Extract query title
-        queryTitle = null;
-        final Matcher matcher = QUERY_TITLE_PATTERN.matcher(query);
-        if (matcher.find()) {
-            queryTitle = matcher.group(1);
+        int start = pos;
+        while (pos < length && Character.isLetter(text.charAt(pos))) {
+            pos++;
         }
+        if (pos == start) {
+            return null;
+        }
+        return text.substring(start, pos).toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Checks whether query is a data modification statement which returns update count only.
+     * Statements with RETURNING (PostgreSQL, Oracle) or OUTPUT (SQL Server) clauses return result sets.
+     * Query text is scanned for these keywords outside of literals and comments.
+     * If text can't be scanned till the end (unterminated literal or comment) query is not considered plain.
+     * @return true if query is INSERT, UPDATE or DELETE without result set clauses
+     */
+    public boolean isPlainUpdate()
+    {
+        switch (getType()) {
+            case INSERT:
+            case UPDATE:
+            case DELETE:
+                break;
+            default:
+                return false;
+        }
+        String text = originalQuery;
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '\'' || c == '"' || c == '`' || c == '[') {
+                int end = text.indexOf(c == '[' ? ']' : c, pos + 1);
+                if (end == -1) {
+                    return false;
+                }
+                pos = end + 1;
+            } else if (c == '-' && pos + 1 < length && text.charAt(pos + 1) == '-') {
+                int lineEnd = text.indexOf('\n', pos);
+                pos = lineEnd == -1 ? length : lineEnd + 1;
+            } else if (c == '/' && pos + 1 < length && text.charAt(pos + 1) == '*') {
+                int commentEnd = text.indexOf("*/", pos + 2);
+                if (commentEnd == -1) {
+                    return false;
+                }
+                pos = commentEnd + 2;
+            } else if (Character.isLetter(c)) {
+                int start = pos;
+                while (pos < length && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                    pos++;
+                }
+                String word = text.substring(start, pos);
+                if (word.equalsIgnoreCase("RETURNING") || word.equalsIgnoreCase("OUTPUT")) {
+                    return false;
+                }
+            } else {
+                pos++;
+            }
+        }
+        return true;
     }
 
     private String unquoteIdentifier(String name) {
@@ -151,6 +277,7 @@ public class SQLQuery {
      * @return true is this query is a plain select
      */
     public boolean isPlainSelect() {
+        parseQuery();
         if (statement instanceof Select && ((Select) statement).getSelectBody() instanceof PlainSelect) {
             PlainSelect selectBody = (PlainSelect) ((Select) statement).getSelectBody();
             return selectBody.getFromItem() != null &&
@@ -163,6 +290,7 @@ public class SQLQuery {
     }
 
     public SQLSelectItem getSelectItem(String name) {
+        parseQuery();
         if (selectItems == null) {
             return null;
         }
@@ -175,6 +303,7 @@ public class SQLQuery {
     }
 
     public SQLSelectItem getSelectItem(int index) {
+        parseQuery();
         return selectItems == null || selectItems.size() <= index ? null : selectItems.get(index);
     }
 
@@ -194,12 +323,28 @@ public class SQLQuery {
     }
 
     public String getQueryTitle() {
+        if (!titleExtracted) {
+            titleExtracted = true;
+            if (originalQuery.contains("--")) {
+                final Matcher matcher = QUERY_TITLE_PATTERN.matcher(originalQuery);
+                if (matcher.find()) {
+                    queryTitle = matcher.group(1);
+                }
+            }
+        }
         return queryTitle;
     }
 
+    /**
+     * Returns parsed statement. Statement belongs to this query so it may be modified (e.g. by query transformers).
+     */
     @Nullable
     public Statement getStatement() {
-        return statement;
+        parseQuery();
+        if (statement != null && ownStatement == null) {
+            ownStatement = SQLSemanticProcessor.parseQueryCopy(originalQuery);
+        }
+        return ownStatement;
     }
 
     public List<SQLQueryParameter> getParameters() {
@@ -231,10 +376,14 @@ public class SQLQuery {
     @NotNull
     public SQLQueryType getType()
     {
+        if (type == null) {
+            type = detectQueryType();
+        }
         return type;
     }
 
     public DBCEntityMetaData getSingleSource() {
+        parseQuery();
         return singleTableMeta;
     }
 
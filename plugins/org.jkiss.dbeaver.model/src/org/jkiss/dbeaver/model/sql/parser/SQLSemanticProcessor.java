@@ -30,6 +30,8 @@ import net.sf.jsqlparser.statement.select.FromItem;
 import net.sf.jsqlparser.statement.select.OrderByElement;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
@@ -40,7 +42,9 @@ import org.jkiss.dbeaver.model.sql.SQLUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Semantic SQL processor
@@ -49,23 +53,87 @@ public class SQLSemanticProcessor {
 
     private static final String NESTED_QUERY_AlIAS = "z_q";
 
-    public static boolean isSelectQuery(String query)
+    private static final int PARSE_CACHE_SIZE = 200;
+    // Longer queries are not cached - they are rarely parsed twice
+    private static final int PARSE_CACHE_MAX_QUERY_LENGTH = 10000;
+    // Marks queries which can't be parsed
+    private static final Object PARSE_ERROR = new Object();
+
+    private static final Map<String, Object> parseCache = new LinkedHashMap<String, Object>(PARSE_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest)
+        {
+            return size() > PARSE_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Parses query. Results (including parse errors) are cached by query text.
+     * Returned statement is shared so it must not be modified. Use {@link #parseQueryCopy(String)} to get modifiable statement.
+     * @return parsed statement or null if query can't be parsed
+     */
+    @Nullable
+    public static Statement parseQuery(@NotNull String query)
+    {
+        boolean cacheable = query.length() <= PARSE_CACHE_MAX_QUERY_LENGTH;
+        if (cacheable) {
+            Object result;
+            synchronized (parseCache) {
+                result = parseCache.get(query);
+            }
+            if (result != null) {
+                return result == PARSE_ERROR ? null : (Statement) result;
+            }
+        }
+        Statement statement = parseStatement(query);
+        if (cacheable) {
+            synchronized (parseCache) {
+                parseCache.put(query, statement == null ? PARSE_ERROR : statement);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Parses query into new statement which is owned by caller and may be modified.
+     * Parse cache is used only to skip queries which are known to be unparseable.
+     * @return parsed statement or null if query can't be parsed
+     */
+    @Nullable
+    public static Statement parseQueryCopy(@NotNull String query)
+    {
+        synchronized (parseCache) {
+            if (parseCache.get(query) == PARSE_ERROR) {
+                return null;
+            }
+        }
+        return parseStatement(query);
+    }
+
+    @Nullable
+    private static Statement parseStatement(@NotNull String query)
     {
         try {
-            Statement statement = CCJSqlParserUtil.parse(query);
-            return
-                statement instanceof Select &&
-                ((Select) statement).getSelectBody() instanceof PlainSelect &&
-                CommonUtils.isEmpty(((PlainSelect) ((Select) statement).getSelectBody()).getIntoTables());
+            return CCJSqlParserUtil.parse(query);
         } catch (Throwable e) {
-            //log.debug(e);
-            return false;
+            //log.debug("Error parsing SQL query [" + query + "]:" + CommonUtils.getRootCause(e).getMessage());
+            return null;
         }
     }
 
+    public static boolean isSelectQuery(String query)
+    {
+        Statement statement = parseQuery(query);
+        return
+            statement instanceof Select &&
+            ((Select) statement).getSelectBody() instanceof PlainSelect &&
+            CommonUtils.isEmpty(((PlainSelect) ((Select) statement).getSelectBody()).getIntoTables());
+    }
+
     public static String addFiltersToQuery(final DBPDataSource dataSource, String sqlQuery, final DBDDataFilter dataFilter) throws DBException {
         boolean supportSubqueries = dataSource instanceof SQLDataSource && ((SQLDataSource) dataSource).getSQLDialect().supportsSubqueries();
         try {
+            // Parse statement here (not via cache) because it is modified
             Statement statement = CCJSqlParserUtil.parse(sqlQuery);
             if (statement instanceof Select && ((Select) statement).getSelectBody() instanceof PlainSelect) {
                 PlainSelect select = (PlainSelect) ((Select) statement).getSelectBody();
@@ -0,0 +1,45 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2016 Serge Rieder (serge@jkiss.org)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (version 2)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.jkiss.dbeaver.model.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+
+/**
+ * Data bulk loader.
+ * Data manipulator which supports native bulk load protocol (like COPY or LOAD DATA).
+ */
+public interface DBSDataBulkLoader extends DBSDataManipulator {
+
+    /**
+     * Creates bulk load batch.
+     * Rows added to batch are streamed to the server on each batch execution.
+     * @return bulk load batch or null if bulk load can't be used in this session (or for these attributes).
+     * In this case caller should fall back to {@link #insertData}.
+     */
+    @Nullable
+    ExecuteBatch bulkLoadData(
+        @NotNull DBCSession session,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source)
+        throws DBCException;
+
+}